@@ -22,4 +22,7 @@ class ApiConfig {
   static const String ocorrenciasEndpoint = '/ocorrencias';
   static const String ocorrenciasProximasEndpoint = '/ocorrencias/proximas';
   static const String ocorrenciasCriticasEndpoint = '/ocorrencias/criticas';
+
+  /// Endpoint do heatmap (JSON ou binário por negociação de conteúdo)
+  static const String heatmapEndpoint = '/heatmap';
 }
@@ -68,11 +68,14 @@ class _HeatmapPageState extends State<HeatmapPage>
   Future<void> _loadHeatmapData() async {
     setState(() => _isLoading = true);
     try {
-      final zones = await _heatmapService.fetchFromApi(filter: _selectedFilter);
+      // Grid agregado no backend, em formato binário; o filtro vai na consulta
+      final zones = await _heatmapService.fetchHeatmapGrid(
+        filter: _selectedFilter,
+      );
       _calculateStatistics(zones);
       setState(() {
         _zones = zones;
-        _applyFilter();
+        _filteredZones = List.from(zones);
         _isLoading = false;
       });
     } catch (e) {
@@ -87,22 +90,12 @@ class _HeatmapPageState extends State<HeatmapPage>
     _warningCount = zones.where((z) => z.severity == 'warning').length;
   }
 
-  void _applyFilter() {
-    if (_selectedFilter == 'todos') {
-      _filteredZones = List.from(_zones);
-    } else {
-      _filteredZones = _zones
-          .where((zone) => zone.type == _selectedFilter)
-          .toList();
-    }
-  }
-
   void _onFilterChanged(String value) {
     setState(() {
       _selectedFilter = value;
       _selectedZoneId = null;
-      _applyFilter();
     });
+    _loadHeatmapData();
   }
 
   void _onMapTap(TapPosition tapPosition, LatLng point) {
@@ -0,0 +1,141 @@
+import 'dart:convert';
+import 'dart:typed_data';
+import 'package:latlong2/latlong.dart';
+import '../models/zone_model.dart';
+
+/// Decodificador do formato binário compacto do heatmap
+/// (application/vnd.mapblu.heatmap-grid).
+///
+/// Cada célula chega apenas como centro (delta em ponto fixo), contagem,
+/// índice de severidade e gravidade média; o polígono quadrado é
+/// reconstruído aqui a partir do tamanho da célula do cabeçalho.
+class HeatmapGridDecoder {
+  static const String mediaType = 'application/vnd.mapblu.heatmap-grid';
+
+  static const List<int> _magic = [0x4D, 0x42, 0x48, 0x47]; // "MBHG"
+  static const int _version = 1;
+
+  final ByteData _data;
+  int _offset = 0;
+
+  HeatmapGridDecoder._(Uint8List bytes)
+    : _data = ByteData.sublistView(bytes);
+
+  /// Decodifica o payload binário em zonas do mapa
+  static List<ZoneModel> decode(Uint8List bytes) {
+    return HeatmapGridDecoder._(bytes)._decodeZones();
+  }
+
+  List<ZoneModel> _decodeZones() {
+    for (final b in _magic) {
+      if (_readUint8() != b) {
+        throw const FormatException('Payload de heatmap binário inválido');
+      }
+    }
+    final version = _readUint8();
+    if (version != _version) {
+      throw FormatException('Versão de heatmap binário não suportada: $version');
+    }
+
+    // Epoch millis em duas palavras de 32 bits: ByteData.getInt64 não existe
+    // na web, e o valor cabe com folga nos 53 bits exatos de um double
+    final generatedAtHigh = _readUint32();
+    final generatedAt = DateTime.fromMillisecondsSinceEpoch(
+      generatedAtHigh * 0x100000000 + _readUint32(),
+    );
+
+    final coordFactor = _pow10(_readUint8());
+    final cellSize = _data.getInt32(_offset) / 10000000.0;
+    _offset += 4;
+    final halfSize = cellSize / 2.0;
+
+    final paletteSize = _readUint8();
+    final severities = <String>[];
+    final colors = <String>[];
+    for (int i = 0; i < paletteSize; i++) {
+      final length = _readUint8();
+      severities.add(
+        utf8.decode(Uint8List.sublistView(_data, _offset, _offset + length)),
+      );
+      _offset += length;
+      final rgb = (_readUint8() << 16) | (_readUint8() << 8) | _readUint8();
+      colors.add('#${rgb.toRadixString(16).padLeft(6, '0').toUpperCase()}');
+    }
+
+    // Resumo: total, crítico, alerta, moderado, estável (não usado nas zonas)
+    for (int i = 0; i < 5; i++) {
+      _readVarint();
+    }
+
+    final cellCount = _readVarint();
+    final zones = <ZoneModel>[];
+    int lat = 0;
+    int lng = 0;
+    for (int i = 0; i < cellCount; i++) {
+      lat += _readZigzag();
+      lng += _readZigzag();
+      final count = _readVarint();
+      final severityIndex = _readUint8();
+      final avgGravidade = _readUint8() / 10.0;
+
+      final centerLat = lat / coordFactor;
+      final centerLng = lng / coordFactor;
+
+      zones.add(
+        ZoneModel(
+          id: 'zone_${(centerLat * 10000).truncate()}_${(centerLng * 10000).truncate()}',
+          name:
+              'Zona ${centerLat.toStringAsFixed(4)},${centerLng.toStringAsFixed(4)}',
+          type: 'all',
+          severity: severities[severityIndex],
+          color: colors[severityIndex],
+          problemCount: count,
+          coordinates: [
+            LatLng(centerLat - halfSize, centerLng - halfSize),
+            LatLng(centerLat - halfSize, centerLng + halfSize),
+            LatLng(centerLat + halfSize, centerLng + halfSize),
+            LatLng(centerLat + halfSize, centerLng - halfSize),
+            LatLng(centerLat - halfSize, centerLng - halfSize),
+          ],
+          description:
+              'Área com $count problema(s). Gravidade média: ${avgGravidade.toStringAsFixed(1)}',
+          responsavel: 'Sistema',
+          lastUpdate: generatedAt,
+        ),
+      );
+    }
+    return zones;
+  }
+
+  int _readUint8() => _data.getUint8(_offset++);
+
+  int _readUint32() {
+    final value = _data.getUint32(_offset);
+    _offset += 4;
+    return value;
+  }
+
+  int _readVarint() {
+    int result = 0;
+    int shift = 0;
+    while (true) {
+      final b = _readUint8();
+      result |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return result;
+      shift += 7;
+    }
+  }
+
+  int _readZigzag() {
+    final v = _readVarint();
+    return (v >> 1) ^ -(v & 1);
+  }
+
+  double _pow10(int exp) {
+    double result = 1;
+    for (int i = 0; i < exp; i++) {
+      result *= 10;
+    }
+    return result;
+  }
+}
@@ -5,6 +5,7 @@ import 'package:latlong2/latlong.dart';
 import '../models/zone_model.dart';
 import '../models/ocorrencia_response.dart';
 import '../config/api_config.dart';
+import 'heatmap_grid_decoder.dart';
 
 class HeatmapService {
   static const String _assetPath = 'assets/mock/heatmap.json';
@@ -34,6 +35,44 @@ class HeatmapService {
     return zones;
   }
 
+  /// Busca as zonas do heatmap agregadas no backend em formato binário compacto
+  Future<List<ZoneModel>> fetchHeatmapGrid({
+    String? filter,
+    int gridSize = 500,
+  }) async {
+    try {
+      final queryParams = {'gridSize': gridSize.toString()};
+
+      if (filter != null && filter != 'todos') {
+        queryParams['tipoProblema'] = _mapFilterToTipoProblema(filter);
+      }
+
+      final uri = Uri.parse(
+        '$_baseUrl${ApiConfig.heatmapEndpoint}',
+      ).replace(queryParameters: queryParams);
+
+      final response = await http
+          .get(uri, headers: {'Accept': HeatmapGridDecoder.mediaType})
+          .timeout(Duration(seconds: ApiConfig.connectionTimeout));
+
+      if (response.statusCode == 200) {
+        final stopwatch = Stopwatch()..start();
+        final zones = HeatmapGridDecoder.decode(response.bodyBytes);
+        stopwatch.stop();
+        debugPrint(
+          'Heatmap binário: ${response.bodyBytes.length} bytes, '
+          '${zones.length} zonas decodificadas em ${stopwatch.elapsedMicroseconds}µs',
+        );
+        return zones;
+      }
+      debugPrint('Erro na API de heatmap: ${response.statusCode}');
+      return [];
+    } catch (e) {
+      debugPrint('Erro ao buscar heatmap binário: $e');
+      return [];
+    }
+  }
+
   /// Busca todas as ocorrências da API
   Future<List<OcorrenciaResponse>> _fetchOcorrencias({
     String? tipoProblema,
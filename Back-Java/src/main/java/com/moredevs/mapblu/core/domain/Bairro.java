@@ -0,0 +1,49 @@
+package com.moredevs.mapblu.core.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.locationtech.jts.geom.MultiPolygon;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidade que representa o limite oficial de um bairro.
+ * Carregada a partir de um arquivo GeoJSON local e usada para atribuir
+ * às ocorrências um bairro canônico por ponto-em-polígono.
+ * O índice espacial (GIST) de geometria é criado pelo dados.sql.
+ */
+@Entity
+@Table(name = "bairros")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = "geometria")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Bairro {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Column(name = "nome", nullable = false, unique = true, length = 100)
+    @NotNull(message = "Nome do bairro é obrigatório")
+    private String nome;
+
+    @Column(name = "geometria", columnDefinition = "geometry(MultiPolygon,4326)", nullable = false)
+    @NotNull(message = "Geometria do bairro é obrigatória")
+    private MultiPolygon geometria;
+
+    @Column(name = "data_criacao", nullable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+
+    @PrePersist
+    protected void onCreate() {
+        dataCriacao = LocalDateTime.now();
+    }
+}
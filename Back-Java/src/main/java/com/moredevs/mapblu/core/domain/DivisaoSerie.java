@@ -0,0 +1,22 @@
+package com.moredevs.mapblu.core.domain;
+
+/**
+ * Enum que representa a dimensão pela qual as séries temporais do dashboard são divididas.
+ */
+public enum DivisaoSerie {
+    TIPO("tipo"),
+    BAIRRO("bairro");
+
+    private final String dimensaoSql;
+
+    DivisaoSerie(String dimensaoSql) {
+        this.dimensaoSql = dimensaoSql;
+    }
+
+    /**
+     * Dimensão aceita pela consulta de séries ({@code tipo} ou {@code bairro}).
+     */
+    public String getDimensaoSql() {
+        return dimensaoSql;
+    }
+}
@@ -0,0 +1,48 @@
+package com.moredevs.mapblu.core.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Enum que representa a granularidade dos intervalos de tempo de séries e linhas do tempo.
+ */
+public enum IntervaloTempo {
+    HORA("hour", ChronoUnit.HOURS),
+    DIA("day", ChronoUnit.DAYS),
+    SEMANA("week", ChronoUnit.WEEKS);
+
+    private final String unidadeSql;
+    private final ChronoUnit unidade;
+
+    IntervaloTempo(String unidadeSql, ChronoUnit unidade) {
+        this.unidadeSql = unidadeSql;
+        this.unidade = unidade;
+    }
+
+    /**
+     * Unidade aceita pelo date_trunc do PostgreSQL.
+     */
+    public String getUnidadeSql() {
+        return unidadeSql;
+    }
+
+    /**
+     * Trunca a data para o início do intervalo que a contém. Semanas começam na segunda-feira,
+     * como no date_trunc('week').
+     */
+    public LocalDateTime truncar(LocalDateTime data) {
+        if (this == SEMANA) {
+            return data.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        return data.truncatedTo(unidade);
+    }
+
+    /**
+     * Avança a data em uma quantidade de intervalos.
+     */
+    public LocalDateTime somar(LocalDateTime data, long quantidade) {
+        return data.plus(quantidade, unidade);
+    }
+}
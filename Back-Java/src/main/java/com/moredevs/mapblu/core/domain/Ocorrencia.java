@@ -22,6 +22,7 @@ import java.util.UUID;
 @Table(name = "ocorrencias", indexes = {
     @Index(name = "idx_ocorrencias_coordenadas", columnList = "coordenadas"),
     @Index(name = "idx_ocorrencias_bairro", columnList = "bairro"),
+    @Index(name = "idx_ocorrencias_bairro_id", columnList = "bairro_id"),
     @Index(name = "idx_ocorrencias_tipo", columnList = "tipo_problema"),
     @Index(name = "idx_ocorrencias_gravidade", columnList = "gravidade"),
     @Index(name = "idx_ocorrencias_status", columnList = "status"),
@@ -54,6 +55,10 @@ public class Ocorrencia {
     @NotNull(message = "Bairro é obrigatório")
     private String bairro;
 
+    /* Bairro canônico atribuído por ponto-em-polígono (nulo fora dos limites conhecidos) */
+    @Column(name = "bairro_id")
+    private UUID bairroId;
+
     @Column(name = "endereco", columnDefinition = "TEXT")
     private String endereco;
 
@@ -18,7 +18,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "users", indexes = {
     @Index(name = "idx_users_email", columnList = "email", unique = true),
-    @Index(name = "idx_users_username", columnList = "username", unique = true)
+    @Index(name = "idx_users_username", columnList = "username", unique = true),
+    @Index(name = "idx_users_data_atualizacao", columnList = "data_atualizacao")
 })
 @Getter
 @Setter
@@ -65,6 +66,14 @@ public class User {
     @Builder.Default
     private RoleName role = RoleName.ROLE_USER;
 
+    /**
+     * Versão dos tokens do usuário. Tokens emitidos com uma versão anterior deixam de ser aceitos:
+     * incrementar revoga todos os tokens em circulação.
+     */
+    @Column(name = "token_versao", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer tokenVersao = 0;
+
     @CreationTimestamp
     @Column(name = "data_criacao", nullable = false, updatable = false)
     private LocalDateTime dataCriacao;
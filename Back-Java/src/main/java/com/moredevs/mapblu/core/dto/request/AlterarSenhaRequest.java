@@ -0,0 +1,25 @@
+package com.moredevs.mapblu.core.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para requisição de troca de senha do usuário autenticado.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlterarSenhaRequest {
+
+    @NotBlank(message = "Senha atual é obrigatória")
+    private String senhaAtual;
+
+    @NotBlank(message = "Nova senha é obrigatória")
+    @Size(min = 8, message = "Nova senha deve ter no mínimo 8 caracteres")
+    private String novaSenha;
+}
@@ -0,0 +1,47 @@
+package com.moredevs.mapblu.core.dto.request;
+
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Validation;
+
+/**
+ * DTO para alteração de status em lote (ex: encerramento de um mutirão).
+ * As ocorrências são selecionadas por lista de IDs ou por filtro, nunca pelos dois.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusLoteRequest {
+
+    @Size(max = Validation.STATUS_LOTE_MAX_IDS,
+            message = "Máximo de " + Validation.STATUS_LOTE_MAX_IDS + " IDs por lote")
+    private List<UUID> ids;
+
+    private OcorrenciaFilterRequest filtro;
+
+    @NotNull(message = "Status de destino é obrigatório")
+    private StatusOcorrencia status;
+
+    /**
+     * Só altera ocorrências que estejam em um destes status (opcional).
+     * Evita, por exemplo, reabrir ocorrências canceladas por engano.
+     */
+    private List<StatusOcorrencia> statusEsperados;
+
+    /**
+     * Controle otimista (opcional): ocorrências alteradas depois deste instante,
+     * normalmente o momento em que a lista foi carregada, não são alteradas.
+     */
+    private LocalDateTime atualizadoAte;
+}
@@ -0,0 +1,40 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Quadro enviado pelo canal ao vivo com as alterações acumuladas desde o quadro anterior.
+ * Com {@code ressincronizar}, as alterações foram descartadas e o cliente deve recarregar
+ * as consultas (listas, estatísticas e heatmap) pela API.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class AtualizacaoAoVivoResponse {
+
+    private Long sequencia;
+
+    /** Ocorrências novas ou alteradas que atendem ao filtro da assinatura. */
+    private List<OcorrenciaAoVivoResponse> ocorrencias;
+
+    /** Ocorrências removidas ou que deixaram de atender ao filtro. */
+    private List<UUID> removidas;
+
+    /** Diferenças nos contadores do dashboard do mês atual (ex: "total", "status:PENDENTE"). */
+    private Map<String, Long> contadores;
+
+    /** Células alteradas do heatmap padrão, com o mesmo ID das zonas do grid (ver {@code GeoUtil#gridCellId}). */
+    private List<String> celulasHeatmap;
+
+    private boolean ressincronizar;
+}
@@ -0,0 +1,24 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO de sugestão do autocomplete de bairros.
+ * O bairroId só é preenchido para bairros com limite oficial cadastrado.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BairroSugestaoResponse {
+
+    private String nome;
+    private UUID bairroId;
+    private long totalOcorrencias;
+    private double similaridade;
+}
@@ -0,0 +1,37 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO das séries temporais do dashboard.
+ * Os intervalos são listados uma única vez; cada série traz arrays alinhados com {@code buckets},
+ * com zero (e gravidade média nula) nos intervalos sem ocorrências.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSeriesResponse {
+
+    private String intervalo;
+    private String divisao;
+    private List<LocalDateTime> buckets;
+    private List<Serie> series;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Serie {
+        /** Tipo de problema ou bairro; "total" quando as séries não são divididas. */
+        private String chave;
+        private long[] totais;
+        private Double[] gravidadesMedias;
+    }
+}
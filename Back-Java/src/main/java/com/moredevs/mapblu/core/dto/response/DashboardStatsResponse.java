@@ -26,6 +26,7 @@ public class DashboardStatsResponse {
     private Map<String, Long> ocorrenciasPorTipo;
     private Map<String, Long> ocorrenciasPorBairro;
     private Map<String, Long> ocorrenciasPorStatus;
+    private Map<String, Long> ocorrenciasPorGravidade;
     
     private Double gravidadeMedia;
     private Long ocorrenciasDoMes;
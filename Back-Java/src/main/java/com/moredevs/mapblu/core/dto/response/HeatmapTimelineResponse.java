@@ -0,0 +1,61 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO da linha do tempo do heatmap para animação.
+ * As células são listadas uma única vez; contagens e severidades vêm em matrizes
+ * densas achatadas (célula × intervalo), no índice {@code celula * buckets.size() + intervalo}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapTimelineResponse {
+
+    @JsonProperty("intervalo")
+    private String intervalo;
+
+    @JsonProperty("cellSize")
+    private Double cellSize;
+
+    @JsonProperty("buckets")
+    private List<LocalDateTime> buckets;
+
+    @JsonProperty("palette")
+    private List<String> palette;
+
+    @JsonProperty("colors")
+    private List<String> colors;
+
+    @JsonProperty("cellLats")
+    private double[] cellLats;
+
+    @JsonProperty("cellLngs")
+    private double[] cellLngs;
+
+    /**
+     * Quantidade de ocorrências por célula e intervalo.
+     */
+    @JsonProperty("counts")
+    private int[] counts;
+
+    /**
+     * Índice da severidade na paleta por célula e intervalo (-1 quando vazio).
+     */
+    @JsonProperty("severities")
+    private int[] severities;
+
+    /**
+     * Total de ocorrências por intervalo.
+     */
+    @JsonProperty("totals")
+    private int[] totals;
+}
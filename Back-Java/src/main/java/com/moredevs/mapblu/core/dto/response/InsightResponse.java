@@ -16,7 +16,7 @@ import java.util.UUID;
  * DTO de resposta para insights gerados pela IA.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class InsightResponse {
@@ -31,5 +31,16 @@ public class InsightResponse {
     private LocalDateTime dataGeracao;
     private String modeloIA;
     private boolean doCache;
+
+    /**
+     * Pergunta já respondida cuja resposta foi reaproveitada, quando a pergunta livre não era
+     * idêntica a ela (nulo nos demais casos).
+     */
+    private String perguntaSimilar;
+
+    /**
+     * Similaridade entre a pergunta feita e {@link #perguntaSimilar}, de 0 a 1.
+     */
+    private Double similaridade;
 }
 
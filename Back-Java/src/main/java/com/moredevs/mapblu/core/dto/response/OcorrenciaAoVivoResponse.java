@@ -0,0 +1,30 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resumo de uma ocorrência nas atualizações ao vivo: só o necessário para o mapa e as listas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcorrenciaAoVivoResponse {
+
+    private UUID id;
+    private TipoProblema tipoProblema;
+    private String bairro;
+    private Double latitude;
+    private Double longitude;
+    private Integer gravidade;
+    private StatusOcorrencia status;
+    private LocalDateTime dataCriacao;
+}
@@ -0,0 +1,22 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de resultado da busca textual de ocorrências.
+ * Os trechos trazem os termos encontrados entre as marcações &lt;mark&gt; e &lt;/mark&gt;.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcorrenciaBuscaResponse {
+
+    private OcorrenciaResponse ocorrencia;
+    private double relevancia;
+    private String trechoDescricao;
+    private String trechoEndereco;
+}
@@ -0,0 +1,26 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO de resultado da alteração de status em lote.
+ * Na seleção por IDs, naoAtualizados lista os IDs inexistentes, já no status de destino
+ * ou barrados pelas verificações de status esperado e de data de atualização.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusLoteResponse {
+
+    private StatusOcorrencia status;
+    private int atualizados;
+    private List<UUID> naoAtualizados;
+}
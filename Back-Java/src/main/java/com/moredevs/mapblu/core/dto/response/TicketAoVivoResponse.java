@@ -0,0 +1,22 @@
+package com.moredevs.mapblu.core.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ticket para abrir o stream do canal ao vivo pelo EventSource do navegador,
+ * que não envia o cabeçalho Authorization: vai na query string como {@code ?ticket=}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketAoVivoResponse {
+
+    private String ticket;
+
+    /** Segundos para abrir o stream; uma reconexão depois disso precisa de um ticket novo. */
+    private Long validadeSegundos;
+}
@@ -0,0 +1,40 @@
+package com.moredevs.mapblu.core.mapper;
+
+import com.moredevs.mapblu.core.domain.InsightCache;
+import com.moredevs.mapblu.core.dto.response.InsightResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mapper para conversão de insights gerados pela IA em DTOs.
+ */
+@Component
+public class InsightMapper {
+
+    /**
+     * Converte Entity para Response.
+     *
+     * @param doCache se o insight foi servido do cache (sem nova chamada à IA)
+     */
+    public InsightResponse toResponse(InsightCache cache, boolean doCache) {
+        @SuppressWarnings("unchecked")
+        List<String> recomendacoes = cache.getDadosSuporte() != null && cache.getDadosSuporte().containsKey("recomendacoes")
+                ? (List<String>) cache.getDadosSuporte().get("recomendacoes")
+                : Collections.emptyList();
+
+        return InsightResponse.builder()
+                .id(cache.getId())
+                .tipo(cache.getTipoInsight())
+                .insight(cache.getInsightTexto())
+                .confianca(cache.getConfianca())
+                .relevancia(cache.getRelevancia())
+                .dadosSuporte(cache.getDadosSuporte())
+                .recomendacoes(recomendacoes)
+                .dataGeracao(cache.getDataGeracao())
+                .modeloIA(cache.getModeloIAUsado())
+                .doCache(doCache)
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import com.moredevs.mapblu.core.domain.Ocorrencia;
 import com.moredevs.mapblu.core.domain.StatusOcorrencia;
 import com.moredevs.mapblu.core.dto.request.OcorrenciaRequest;
 import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
 import com.moredevs.mapblu.shared.util.GeoUtil;
 import org.locationtech.jts.geom.Point;
 import org.springframework.stereotype.Component;
@@ -59,6 +60,27 @@ public class OcorrenciaMapper {
                 .build();
     }
 
+    /**
+     * Converte a projeção de listagem para Response (sem metadata, que só vem no detalhe).
+     */
+    public OcorrenciaResponse toResponse(OcorrenciaResumo resumo) {
+        return OcorrenciaResponse.builder()
+                .id(resumo.id())
+                .tipoProblema(resumo.tipoProblema())
+                .descricao(resumo.descricao())
+                .bairro(resumo.bairro())
+                .endereco(resumo.endereco())
+                .latitude(resumo.latitude())
+                .longitude(resumo.longitude())
+                .gravidade(resumo.gravidade())
+                .gravidadeIA(resumo.gravidadeIA())
+                .status(resumo.status())
+                .secretariaOrigem(resumo.secretariaOrigem())
+                .dataCriacao(resumo.dataCriacao())
+                .dataAtualizacao(resumo.dataAtualizacao())
+                .build();
+    }
+
     /**
      * Converte lista de Entities para lista de Responses.
      */
@@ -0,0 +1,14 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Bairro;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repository para operações de persistência da entidade Bairro.
+ */
+@Repository
+public interface BairroRepository extends JpaRepository<Bairro, UUID> {
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,6 +24,24 @@ public interface InsightCacheRepository extends JpaRepository<InsightCache, UUID
      */
     Optional<InsightCache> findByHashContexto(String hashContexto);
 
+    /**
+     * Busca o insight do hash apenas se ainda não expirou. Linhas expiradas não são carregadas,
+     * evitando desserializar as colunas jsonb só para descartá-las.
+     */
+    @Query("SELECT i FROM InsightCache i WHERE i.hashContexto = :hashContexto AND " +
+           "(i.dataExpiracao IS NULL OR i.dataExpiracao > :agora)")
+    Optional<InsightCache> findValidoByHashContexto(
+        @Param("hashContexto") String hashContexto,
+        @Param("agora") LocalDateTime agora
+    );
+
+    /**
+     * Remove o insight do hash (usado antes de regravar um insight expirado, por causa do hash único).
+     */
+    @Modifying
+    @Query("DELETE FROM InsightCache i WHERE i.hashContexto = :hashContexto")
+    int deleteByHashContexto(@Param("hashContexto") String hashContexto);
+
     /**
      * Busca insights por tipo.
      */
@@ -40,11 +59,25 @@ public interface InsightCacheRepository extends JpaRepository<InsightCache, UUID
     );
 
     /**
-     * Remove insights expirados.
+     * Remove um lote de insights expirados, dos mais antigos para os mais novos (índice de data_expiracao).
+     * Linhas bloqueadas por outra transação são puladas, então execuções concorrentes em outros nós
+     * não se esperam. Cada chamada é uma transação curta, limitada ao tamanho do lote.
+     *
+     * @return quantidade de linhas removidas (menor que o lote quando não há mais expirados)
      */
     @Modifying
-    @Query("DELETE FROM InsightCache i WHERE i.dataExpiracao IS NOT NULL AND i.dataExpiracao < :agora")
-    int deleteExpirados(@Param("agora") LocalDateTime agora);
+    @Transactional
+    @Query(value = "DELETE FROM insights_cache WHERE id IN (" +
+           "SELECT id FROM insights_cache WHERE data_expiracao < :agora " +
+           "ORDER BY data_expiracao LIMIT :lote FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteExpiradosEmLote(@Param("agora") LocalDateTime agora, @Param("lote") int lote);
+
+    /**
+     * Conta insights expirados ainda não removidos.
+     */
+    @Query("SELECT COUNT(i) FROM InsightCache i WHERE i.dataExpiracao IS NOT NULL AND i.dataExpiracao < :agora")
+    long countExpirados(@Param("agora") LocalDateTime agora);
 
     /**
      * Invalida insights relacionados a um bairro.
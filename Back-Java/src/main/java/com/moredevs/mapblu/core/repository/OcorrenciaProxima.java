@@ -0,0 +1,10 @@
+package com.moredevs.mapblu.core.repository;
+
+/**
+ * Ocorrência da busca por proximidade com a distância até o ponto buscado, em metros.
+ * A distância é a mesma usada na ordenação e no cursor da página seguinte.
+ *
+ * @param ocorrencia projeção de listagem da ocorrência
+ * @param distancia distância no esferoide até o ponto buscado
+ */
+public record OcorrenciaProxima(OcorrenciaResumo ocorrencia, double distancia) {}
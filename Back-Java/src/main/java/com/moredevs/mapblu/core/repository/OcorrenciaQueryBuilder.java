@@ -0,0 +1,162 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Monta a cláusula WHERE das consultas nativas de ocorrências (alias {@code o}) apenas com os
+ * filtros informados. Filtros nulos não geram predicado nem parâmetro, de modo que cada combinação
+ * de filtros vira uma consulta própria, com plano específico e uso dos índices da coluna filtrada.
+ *
+ * Os valores são sempre passados como parâmetros nomeados, nunca concatenados no SQL.
+ */
+public class OcorrenciaQueryBuilder {
+
+    /**
+     * Consulta textual derivada do parâmetro {@code :busca}, na configuração em português sem acentos.
+     */
+    public static final String TS_QUERY = "websearch_to_tsquery('portugues_unaccent', :busca)";
+
+    private final List<String> predicates = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    /**
+     * Restringe às ocorrências dentro da bounding box (usa o índice GIST de coordenadas).
+     */
+    public OcorrenciaQueryBuilder withinBoundingBox(double minLat, double maxLat, double minLng, double maxLng) {
+        predicates.add("ST_Within(o.coordenadas, ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326))");
+        parameters.put("minLat", minLat);
+        parameters.put("maxLat", maxLat);
+        parameters.put("minLng", minLng);
+        parameters.put("maxLng", maxLng);
+        return this;
+    }
+
+    /**
+     * Restringe às ocorrências a até {@code raioMetros} do ponto (usa o índice GIST em geography).
+     */
+    public OcorrenciaQueryBuilder withinRadius(double latitude, double longitude, double raioMetros) {
+        predicates.add("ST_DWithin(o.coordenadas::geography, " +
+                "ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography, :raioMetros)");
+        parameters.put("lat", latitude);
+        parameters.put("lng", longitude);
+        parameters.put("raioMetros", raioMetros);
+        return this;
+    }
+
+    /**
+     * Busca textual em português sobre descrição e endereço (coluna gerada busca, índice GIN).
+     * Aceita a sintaxe de buscadores: aspas para frases, "or" e "-" para exclusão.
+     */
+    public OcorrenciaQueryBuilder textSearch(String busca) {
+        return where(busca, "o.busca @@ " + TS_QUERY, "busca");
+    }
+
+    public OcorrenciaQueryBuilder tipoProblema(String tipoProblema) {
+        return where(tipoProblema, "o.tipo_problema = :tipoProblema", "tipoProblema");
+    }
+
+    public OcorrenciaQueryBuilder bairroId(UUID bairroId) {
+        return where(bairroId, "o.bairro_id = :bairroId", "bairroId");
+    }
+
+    /**
+     * Filtra por trecho do nome do bairro, sem distinção de acentos e caixa.
+     * Compara com a coluna gerada bairro_normalizado, atendida pelo índice trigram.
+     */
+    public OcorrenciaQueryBuilder bairro(String bairro) {
+        String normalizado = GeoUtil.normalizeBairro(bairro);
+        if (normalizado == null) {
+            return this;
+        }
+        return where("%" + escapeLike(normalizado) + "%", "o.bairro_normalizado LIKE :bairro", "bairro");
+    }
+
+    public OcorrenciaQueryBuilder status(String status) {
+        return where(status, "o.status = :status", "status");
+    }
+
+    public OcorrenciaQueryBuilder gravidadeMin(Integer gravidadeMin) {
+        return where(gravidadeMin, "o.gravidade >= :gravidadeMin", "gravidadeMin");
+    }
+
+    public OcorrenciaQueryBuilder gravidadeMax(Integer gravidadeMax) {
+        return where(gravidadeMax, "o.gravidade <= :gravidadeMax", "gravidadeMax");
+    }
+
+    public OcorrenciaQueryBuilder dataInicio(LocalDateTime dataInicio) {
+        return where(dataInicio, "o.data_criacao >= :dataInicio", "dataInicio");
+    }
+
+    public OcorrenciaQueryBuilder dataFim(LocalDateTime dataFim) {
+        return where(dataFim, "o.data_criacao <= :dataFim", "dataFim");
+    }
+
+    /**
+     * Adiciona um predicado fixo, sem parâmetros (ex: {@code o.bairro_id IS NOT NULL}).
+     */
+    public OcorrenciaQueryBuilder where(String predicate) {
+        predicates.add(predicate);
+        return this;
+    }
+
+    /**
+     * Adiciona um predicado com parâmetros nomeados.
+     *
+     * @param predicate trecho SQL referenciando os parâmetros
+     * @param predicateParameters valores dos parâmetros usados no predicado
+     */
+    public OcorrenciaQueryBuilder where(String predicate, Map<String, ?> predicateParameters) {
+        predicates.add(predicate);
+        parameters.putAll(predicateParameters);
+        return this;
+    }
+
+    /**
+     * Registra um parâmetro usado fora do WHERE (ex: tamanho do grid no GROUP BY).
+     */
+    public OcorrenciaQueryBuilder parameter(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * Cláusula WHERE com os predicados informados, ou vazia quando não há filtros.
+     */
+    public String whereClause() {
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+
+    public Map<String, Object> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * Vincula à consulta todos os parâmetros registrados.
+     */
+    public <Q extends Query> Q bind(Q query) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private OcorrenciaQueryBuilder where(Object value, String predicate, String name) {
+        if (value == null) {
+            return this;
+        }
+        predicates.add(predicate);
+        parameters.put(name, value);
+        return this;
+    }
+}
@@ -0,0 +1,483 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de ocorrências com filtros opcionais.
+ * Implementadas com {@link OcorrenciaQueryBuilder}, que emite apenas os predicados informados
+ * em vez de {@code (CAST(:x AS ...) IS NULL OR ...)}, permitindo ao PostgreSQL usar os índices
+ * de cada coluna filtrada.
+ */
+public interface OcorrenciaRepositoryCustom {
+
+    /**
+     * Conta ocorrências não resolvidas por tipo de problema.
+     * 
+     * @param bairro filtro por trecho do nome do bairro (opcional)
+     * @return lista de arrays [TipoProblema, Long] com contagem, da maior para a menor
+     */
+    List<Object[]> countByTipoProblema(String bairro);
+
+    /**
+     * Calcula a gravidade média das ocorrências não resolvidas.
+     * 
+     * @param bairro filtro por trecho do nome do bairro (opcional)
+     * @return gravidade média ou null se não houver ocorrências
+     */
+    Double avgGravidade(String bairro);
+
+    /**
+     * Busca ocorrências com filtros opcionais incluindo filtro de data.
+     * 
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param bairroId filtro por bairro canônico (opcional, preferido ao texto)
+     * @param bairro filtro por bairro em texto livre (opcional)
+     * @param status filtro por status (opcional)
+     * @param gravidadeMin filtro por gravidade mínima (opcional)
+     * @param gravidadeMax filtro por gravidade máxima (opcional)
+     * @param dataInicio filtro por data de início (opcional)
+     * @param dataFim filtro por data de fim (opcional)
+     * @param pageable paginação e ordenação
+     * @return página de ocorrências filtradas
+     */
+    Page<Ocorrencia> findByFilters(
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim,
+        Pageable pageable
+    );
+
+    /**
+     * Busca ocorrências com filtros opcionais por keyset, ordenadas por (data_criacao, id) decrescentes.
+     * Usa o último registro da página anterior como posição de busca, sem OFFSET.
+     * 
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param bairroId filtro por bairro canônico (opcional)
+     * @param bairro filtro por bairro em texto livre (opcional)
+     * @param status filtro por status (opcional)
+     * @param gravidadeMin filtro por gravidade mínima (opcional)
+     * @param gravidadeMax filtro por gravidade máxima (opcional)
+     * @param dataInicio filtro por data de início (opcional)
+     * @param dataFim filtro por data de fim (opcional)
+     * @param lastDataCriacao data de criação do último registro da página anterior (null na primeira página)
+     * @param lastId ID do último registro da página anterior (null na primeira página)
+     * @param limit quantidade máxima de registros
+     * @return projeções das ocorrências da página, sem carregar entidades
+     */
+    List<OcorrenciaResumo> findResumoByFiltersKeysetPorData(
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim,
+        LocalDateTime lastDataCriacao,
+        String lastId,
+        int limit
+    );
+
+    /**
+     * Busca ocorrências com filtros opcionais por keyset, ordenadas por (gravidade, data_criacao, id) decrescentes.
+     * 
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param bairroId filtro por bairro canônico (opcional)
+     * @param bairro filtro por bairro em texto livre (opcional)
+     * @param status filtro por status (opcional)
+     * @param gravidadeMin filtro por gravidade mínima (opcional)
+     * @param gravidadeMax filtro por gravidade máxima (opcional)
+     * @param dataInicio filtro por data de início (opcional)
+     * @param dataFim filtro por data de fim (opcional)
+     * @param lastGravidade gravidade do último registro da página anterior (null na primeira página)
+     * @param lastDataCriacao data de criação do último registro da página anterior
+     * @param lastId ID do último registro da página anterior
+     * @param limit quantidade máxima de registros
+     * @return projeções das ocorrências da página, sem carregar entidades
+     */
+    List<OcorrenciaResumo> findResumoByFiltersKeysetPorGravidade(
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim,
+        Integer lastGravidade,
+        LocalDateTime lastDataCriacao,
+        String lastId,
+        int limit
+    );
+
+    /**
+     * Conta ocorrências com os mesmos filtros opcionais de {@link #findByFilters}.
+     * 
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param bairroId filtro por bairro canônico (opcional)
+     * @param bairro filtro por bairro em texto livre (opcional)
+     * @param status filtro por status (opcional)
+     * @param gravidadeMin filtro por gravidade mínima (opcional)
+     * @param gravidadeMax filtro por gravidade máxima (opcional)
+     * @param dataInicio filtro por data de início (opcional)
+     * @param dataFim filtro por data de fim (opcional)
+     * @return total de ocorrências filtradas
+     */
+    long countByFilters(
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Agrupa ocorrências em grid dinâmico usando PostGIS.
+     * Retorna células do grid com contagem e gravidade média.
+     * 
+     * @param minLat latitude mínima da bounding box
+     * @param maxLat latitude máxima da bounding box
+     * @param minLng longitude mínima da bounding box
+     * @param maxLng longitude máxima da bounding box
+     * @param gridSize tamanho do grid em metros (convertido para Web Mercator)
+     * @param tipoProblema filtro por tipo (opcional)
+     * @param bairroId filtro por bairro canônico (opcional)
+     * @param bairro filtro por bairro em texto livre, quando não resolvido para ID (opcional)
+     * @param dataInicio data de início do período (opcional)
+     * @param dataFim data de fim do período (opcional)
+     * @return lista de arrays [center_lng, center_lat, count, avg_gravidade, max_gravidade, cell_x, cell_y],
+     *         com cell_x/cell_y o ponto da célula no grid em Web Mercator
+     */
+    List<Object[]> aggregateByGrid(
+        double minLat,
+        double maxLat,
+        double minLng,
+        double maxLng,
+        double gridSize,
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Agrupa ocorrências em hexágonos usando PostGIS.
+     * Retorna pontos hexagonais com contagem e intensidade.
+     * 
+     * @param minLat latitude mínima da bounding box
+     * @param maxLat latitude máxima da bounding box
+     * @param minLng longitude mínima da bounding box
+     * @param maxLng longitude máxima da bounding box
+     * @param hexSize tamanho do hexágono em graus decimais
+     * @param tipoProblema filtro por tipo (opcional)
+     * @param bairroId filtro por bairro canônico (opcional)
+     * @param bairro filtro por bairro em texto livre, quando não resolvido para ID (opcional)
+     * @param dataInicio data de início do período (opcional)
+     * @param dataFim data de fim do período (opcional)
+     * @return lista de arrays [lng, lat, count, avg_gravidade]
+     */
+    List<Object[]> aggregateByHexagon(
+        double minLat,
+        double maxLat,
+        double minLng,
+        double maxLng,
+        double hexSize,
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Agrupa ocorrências em grid e em intervalos de tempo numa única varredura.
+     * Diferente de {@link #aggregateByGrid}, o centro da célula é o ponto do grid
+     * (e não o centróide das ocorrências), para que a mesma célula tenha a mesma
+     * posição em todos os intervalos.
+     * 
+     * @param minLat latitude mínima da bounding box
+     * @param maxLat latitude máxima da bounding box
+     * @param minLng longitude mínima da bounding box
+     * @param maxLng longitude máxima da bounding box
+     * @param gridSize tamanho do grid em metros (Web Mercator)
+     * @param bucket unidade do intervalo aceita por date_trunc (hour, day, week)
+     * @param tipoProblema filtro por tipo (opcional)
+     * @param dataInicio início do período (inclusivo)
+     * @param dataFim fim do período (exclusivo)
+     * @return lista de arrays [cell_lng, cell_lat, bucket, count, max_gravidade]
+     */
+    List<Object[]> aggregateByGridAndBucket(
+        double minLat,
+        double maxLat,
+        double minLng,
+        double maxLng,
+        double gridSize,
+        String bucket,
+        String tipoProblema,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Lê em streaming os pontos das ocorrências dentro de uma bounding box,
+     * apenas com as colunas usadas no mapa (sem hidratar entidades).
+     * Deve ser consumido dentro de uma transação e fechado após o uso.
+     *
+     * @param minLat latitude mínima
+     * @param maxLat latitude máxima
+     * @param minLng longitude mínima
+     * @param maxLng longitude máxima
+     * @param tipoProblema filtro por tipo (opcional)
+     * @param dataInicio data de início do período (opcional)
+     * @param dataFim data de fim do período (opcional)
+     * @return stream de arrays [id, lng, lat, gravidade, tipo_problema, status]
+     */
+    Stream<Object[]> streamPointsWithinBoundingBox(
+        double minLat,
+        double maxLat,
+        double minLng,
+        double maxLng,
+        String tipoProblema,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Agrega ocorrências por bairro canônico (rollup do choropleth).
+     * 
+     * @param tipoProblema filtro por tipo (opcional)
+     * @param dataInicio data de início do período (opcional)
+     * @param dataFim data de fim do período (opcional)
+     * @return lista de arrays [bairro_id, count, avg_gravidade, max_gravidade, criticas]
+     */
+    List<Object[]> aggregateByBairro(
+        String tipoProblema,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Estatísticas do dashboard no período em uma única consulta: o total geral e as contagens
+     * por tipo, por bairro, por status e por gravidade, via GROUPING SETS, sem carregar entidades.
+     *
+     * @param dataInicio data de início do período (opcional)
+     * @param dataFim data de fim do período (opcional)
+     * @return lista de arrays [dimensao, chave, total, criticas, gravidade_media], com dimensao
+     *         "total" (uma linha, chave nula), "tipo", "bairro", "status" ou "gravidade"
+     */
+    List<Object[]> aggregateDashboard(
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Busca textual em português sobre descrição e endereço, ordenada por relevância,
+     * com os mesmos filtros opcionais da listagem, raio opcional e paginação por keyset
+     * sobre (relevancia, id). Os trechos destacados são gerados apenas para a página retornada.
+     *
+     * @param busca texto da busca (sintaxe de buscadores: aspas, or, -)
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param bairroId filtro por bairro canônico (opcional)
+     * @param bairro filtro por bairro em texto livre (opcional)
+     * @param status filtro por status (opcional)
+     * @param gravidadeMin filtro por gravidade mínima (opcional)
+     * @param gravidadeMax filtro por gravidade máxima (opcional)
+     * @param dataInicio filtro por data de início (opcional)
+     * @param dataFim filtro por data de fim (opcional)
+     * @param latitude latitude do centro do raio (opcional, junto com longitude e raio)
+     * @param longitude longitude do centro do raio (opcional)
+     * @param raioMetros raio em metros (opcional)
+     * @param lastRelevancia relevância do último registro da página anterior (null na primeira página)
+     * @param lastId ID do último registro da página anterior (null na primeira página)
+     * @param limit quantidade máxima de registros
+     * @return lista de arrays [id, relevancia, trecho_descricao, trecho_endereco]
+     */
+    List<Object[]> searchFullText(
+        String busca,
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim,
+        Double latitude,
+        Double longitude,
+        Double raioMetros,
+        Double lastRelevancia,
+        String lastId,
+        int limit
+    );
+
+    /**
+     * Lista ocorrências com filtros opcionais como projeção {@link OcorrenciaResumo}.
+     * Mesmos filtros e ordenação de {@link #findByFilters}, sem carregar entidades.
+     *
+     * @return página de resumos ordenada por data de criação decrescente
+     */
+    Page<OcorrenciaResumo> findResumoByFilters(
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim,
+        Pageable pageable
+    );
+
+    /**
+     * Busca ocorrências críticas (gravidade >= 8) não resolvidas como projeção {@link OcorrenciaResumo}.
+     *
+     * @param pageable paginação
+     * @return página de resumos ordenada por gravidade e data de criação decrescentes
+     */
+    Page<OcorrenciaResumo> findResumoCriticas(Pageable pageable);
+
+    /**
+     * Busca ocorrências não resolvidas dentro de um raio como projeção {@link OcorrenciaResumo}.
+     *
+     * @param lat latitude do ponto central
+     * @param lng longitude do ponto central
+     * @param radiusInMeters raio em metros
+     * @param tipoProblema filtro por tipo (opcional)
+     * @param pageable paginação
+     * @return página de resumos ordenada por distância
+     */
+    Page<OcorrenciaResumo> findResumoNearby(
+        double lat,
+        double lng,
+        double radiusInMeters,
+        String tipoProblema,
+        Pageable pageable
+    );
+
+    /**
+     * Busca ocorrências ativas próximas de um ponto, da mais próxima para a mais distante, com
+     * paginação por keyset sobre (distância, id) em vez de OFFSET. A distância é a do esferoide
+     * (ST_Distance em geography), a mesma da ordenação e do cursor; o corte por raio usa o índice
+     * GiST de expressão {@code idx_ocorrencias_coordenadas_geog}.
+     *
+     * @param lat latitude do ponto central
+     * @param lng longitude do ponto central
+     * @param radiusInMeters raio máximo em metros
+     * @param tipoProblema filtro por tipo (opcional)
+     * @param lastDistance distância da última linha da página anterior (opcional)
+     * @param lastId id da última linha da página anterior (opcional)
+     * @param limit quantidade máxima de linhas
+     * @return ocorrências com a distância, na ordem de proximidade
+     */
+    List<OcorrenciaProxima> findResumoNearbyKeyset(
+        double lat,
+        double lng,
+        double radiusInMeters,
+        String tipoProblema,
+        Double lastDistance,
+        String lastId,
+        int limit
+    );
+
+    /**
+     * Conta ocorrências não resolvidas dentro de um raio (em metros) de um ponto,
+     * com os mesmos filtros de {@link #findResumoNearby}.
+     *
+     * @param lat latitude do ponto central
+     * @param lng longitude do ponto central
+     * @param radiusInMeters raio em metros
+     * @param tipoProblema filtro por tipo (opcional)
+     * @return total de ocorrências dentro do raio
+     */
+    long countNearby(
+        double lat,
+        double lng,
+        double radiusInMeters,
+        String tipoProblema
+    );
+
+    /**
+     * Busca ocorrências do período como projeção {@link OcorrenciaResumo}.
+     *
+     * @param inicio início do período (inclusivo)
+     * @param fim fim do período (inclusivo)
+     * @param pageable paginação
+     * @return página de resumos ordenada por data de criação decrescente
+     */
+    Page<OcorrenciaResumo> findResumoByDataCriacaoBetween(LocalDateTime inicio, LocalDateTime fim, Pageable pageable);
+
+    /**
+     * Percorre as ocorrências filtradas como {@link OcorrenciaResumo} em streaming, com cursor no servidor
+     * (fetch size fixo), para exportações em massa com memória constante.
+     * Deve ser consumido dentro de uma transação e fechado ao final (try-with-resources).
+     *
+     * @return stream de resumos, sem ordenação definida
+     */
+    Stream<OcorrenciaResumo> streamResumoByFilters(
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim
+    );
+
+    /**
+     * Altera o status das ocorrências informadas num único UPDATE, atualizando data_atualizacao no banco.
+     * Ocorrências já no status de destino não são tocadas.
+     *
+     * @param ids IDs das ocorrências
+     * @param novoStatus status de destino
+     * @param statusEsperados só altera ocorrências nestes status (opcional)
+     * @param atualizadoAte só altera ocorrências sem alteração posterior a este instante (opcional)
+     * @return lista de arrays [id, bairro_id, data_criacao] das ocorrências efetivamente alteradas
+     */
+    List<Object[]> updateStatusByIds(
+        Collection<UUID> ids,
+        String novoStatus,
+        Collection<String> statusEsperados,
+        LocalDateTime atualizadoAte
+    );
+
+    /**
+     * Altera o status das ocorrências filtradas num único UPDATE, atualizando data_atualizacao no banco.
+     * Ocorrências já no status de destino não são tocadas.
+     *
+     * @param novoStatus status de destino
+     * @param statusEsperados só altera ocorrências nestes status (opcional)
+     * @param atualizadoAte só altera ocorrências sem alteração posterior a este instante (opcional)
+     * @return lista de arrays [id, bairro_id, data_criacao] das ocorrências efetivamente alteradas
+     */
+    List<Object[]> updateStatusByFilters(
+        String tipoProblema,
+        UUID bairroId,
+        String bairro,
+        String status,
+        Integer gravidadeMin,
+        Integer gravidadeMax,
+        LocalDateTime dataInicio,
+        LocalDateTime dataFim,
+        String novoStatus,
+        Collection<String> statusEsperados,
+        LocalDateTime atualizadoAte
+    );
+}
@@ -0,0 +1,676 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Validation;
+
+/**
+ * Implementação das consultas com filtros opcionais de {@link OcorrenciaRepositoryCustom}.
+ * O SQL é montado por {@link OcorrenciaQueryBuilder} apenas com os filtros informados.
+ */
+class OcorrenciaRepositoryCustomImpl implements OcorrenciaRepositoryCustom {
+
+    static final String FIND_SQL = "SELECT * FROM ocorrencias o";
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM ocorrencias o";
+    static final String RESUMO_COLUMNS = "o.id, o.tipo_problema, o.descricao, o.bairro, o.endereco, " +
+            "ST_Y(o.coordenadas) AS latitude, ST_X(o.coordenadas) AS longitude, " +
+            "o.gravidade, o.gravidade_ia, o.status, o.secretaria_origem, o.data_criacao, o.data_atualizacao";
+    static final String RESUMO_SQL = "SELECT " + RESUMO_COLUMNS + " FROM ocorrencias o";
+
+    /**
+     * Distância no esferoide até o ponto {@code (:lat, :lng)}. Ordenação e cursor da busca por
+     * proximidade usam só esta expressão; o operador {@code <->} em geography mede na esfera e
+     * poderia ordenar empates e quase-empates de outro jeito.
+     */
+    static final String DISTANCIA =
+            "ST_Distance(o.coordenadas::geography, ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography)";
+    static final String AGGREGATE_BY_GRID_SQL = "SELECT " +
+            "ST_X(ST_Centroid(ST_Collect(o.coordenadas))) as center_lng, " +
+            "ST_Y(ST_Centroid(ST_Collect(o.coordenadas))) as center_lat, " +
+            "COUNT(o.id) as count, " +
+            "AVG(o.gravidade) as avg_gravidade, " +
+            "MAX(o.gravidade) as max_gravidade, " +
+            "ST_X(g.cell) as cell_x, " +
+            "ST_Y(g.cell) as cell_y " +
+            "FROM ocorrencias o " +
+            "CROSS JOIN LATERAL (SELECT ST_SnapToGrid(ST_Transform(o.coordenadas, 3857), :gridSize) as cell) g";
+    static final String GROUP_BY_GRID = " GROUP BY g.cell";
+    static final String AGGREGATE_BY_GRID_AND_BUCKET_SQL = "SELECT " +
+            "ST_X(ST_Transform(g.cell, 4326)) as cell_lng, " +
+            "ST_Y(ST_Transform(g.cell, 4326)) as cell_lat, " +
+            "g.bucket, " +
+            "COUNT(*) as count, " +
+            "MAX(g.gravidade) as max_gravidade " +
+            "FROM (SELECT ST_SnapToGrid(ST_Transform(o.coordenadas, 3857), :gridSize) as cell, " +
+            "date_trunc(CAST(:bucket AS VARCHAR), o.data_criacao) as bucket, " +
+            "o.gravidade " +
+            "FROM ocorrencias o";
+    static final String AGGREGATE_BY_HEXAGON_SQL = "SELECT " +
+            "ST_X(ST_Centroid(ST_Collect(o.coordenadas))) as lng, " +
+            "ST_Y(ST_Centroid(ST_Collect(o.coordenadas))) as lat, " +
+            "COUNT(o.id) as count, " +
+            "AVG(o.gravidade) as avg_gravidade " +
+            "FROM ocorrencias o";
+    static final String STREAM_POINTS_SQL = "SELECT o.id, ST_X(o.coordenadas) AS lng, ST_Y(o.coordenadas) AS lat, " +
+            "o.gravidade, o.tipo_problema, o.status " +
+            "FROM ocorrencias o";
+    static final String AGGREGATE_BY_BAIRRO_SQL = "SELECT o.bairro_id, " +
+            "COUNT(o.id) as count, " +
+            "AVG(o.gravidade) as avg_gravidade, " +
+            "MAX(o.gravidade) as max_gravidade, " +
+            "COUNT(o.id) FILTER (WHERE o.gravidade >= 8) as criticas " +
+            "FROM ocorrencias o";
+
+    /**
+     * Um único scan do período: a linha do conjunto vazio traz os totais gerais e cada outro
+     * conjunto traz as contagens de uma dimensão (as colunas das demais vêm nulas).
+     */
+    static final String AGGREGATE_DASHBOARD_SQL = "SELECT " +
+            "CASE WHEN GROUPING(o.tipo_problema) = 0 THEN 'tipo' " +
+            "WHEN GROUPING(o.bairro) = 0 THEN 'bairro' " +
+            "WHEN GROUPING(o.status) = 0 THEN 'status' " +
+            "WHEN GROUPING(o.gravidade) = 0 THEN 'gravidade' " +
+            "ELSE 'total' END as dimensao, " +
+            "COALESCE(o.tipo_problema, o.bairro, o.status, CAST(o.gravidade AS VARCHAR)) as chave, " +
+            "COUNT(*) as total, " +
+            "COUNT(*) FILTER (WHERE o.gravidade >= 8) as criticas, " +
+            "AVG(o.gravidade) as gravidade_media " +
+            "FROM ocorrencias o";
+
+    static final String AGGREGATE_DASHBOARD_GROUP_BY =
+            " GROUP BY GROUPING SETS ((), (o.tipo_problema), (o.bairro), (o.status), (o.gravidade))";
+
+    static final String RELEVANCIA =
+            "CAST(ts_rank_cd(o.busca, " + OcorrenciaQueryBuilder.TS_QUERY + ") AS DOUBLE PRECISION)";
+    static final String HEADLINE_OPTIONS =
+            "StartSel=<mark>, StopSel=</mark>, MinWords=8, MaxWords=25, MaxFragments=2, FragmentDelimiter=\" ... \"";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> countByTipoProblema(String bairro) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .bairro(bairro)
+                .where("o.status != 'RESOLVIDO'");
+
+        return findRows("SELECT o.tipo_problema, COUNT(o.id) FROM ocorrencias o" + builder.whereClause() +
+                " GROUP BY o.tipo_problema ORDER BY COUNT(o.id) DESC", builder);
+    }
+
+    @Override
+    public Double avgGravidade(String bairro) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .bairro(bairro)
+                .where("o.status != 'RESOLVIDO'");
+
+        Object media = builder.bind(entityManager.createNativeQuery(
+                "SELECT AVG(o.gravidade) FROM ocorrencias o" + builder.whereClause())).getSingleResult();
+        return media != null ? ((Number) media).doubleValue() : null;
+    }
+
+    @Override
+    public Page<Ocorrencia> findByFilters(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            Pageable pageable
+    ) {
+        OcorrenciaQueryBuilder builder = filters(
+                tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim);
+
+        Query query = builder.bind(entityManager.createNativeQuery(
+                FIND_SQL + builder.whereClause() + " ORDER BY o.data_criacao DESC", Ocorrencia.class));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Ocorrencia> content = query.getResultList();
+
+        // O COUNT só é executado quando o total não pode ser deduzido da própria página
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(builder));
+    }
+
+    @Override
+    public List<OcorrenciaResumo> findResumoByFiltersKeysetPorData(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            LocalDateTime lastDataCriacao,
+            String lastId,
+            int limit
+    ) {
+        OcorrenciaQueryBuilder builder = filters(
+                tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim);
+        if (lastDataCriacao != null) {
+            builder.where("(o.data_criacao, o.id) < (:lastDataCriacao, CAST(:lastId AS UUID))",
+                    Map.of("lastDataCriacao", lastDataCriacao, "lastId", lastId));
+        }
+
+        return findResumos(builder, " ORDER BY o.data_criacao DESC, o.id DESC", limit);
+    }
+
+    @Override
+    public List<OcorrenciaResumo> findResumoByFiltersKeysetPorGravidade(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            Integer lastGravidade,
+            LocalDateTime lastDataCriacao,
+            String lastId,
+            int limit
+    ) {
+        OcorrenciaQueryBuilder builder = filters(
+                tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim);
+        if (lastGravidade != null) {
+            builder.where("(o.gravidade, o.data_criacao, o.id) < " +
+                            "(:lastGravidade, :lastDataCriacao, CAST(:lastId AS UUID))",
+                    Map.of("lastGravidade", lastGravidade, "lastDataCriacao", lastDataCriacao, "lastId", lastId));
+        }
+
+        return findResumos(builder, " ORDER BY o.gravidade DESC, o.data_criacao DESC, o.id DESC", limit);
+    }
+
+    @Override
+    public long countByFilters(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        return count(filters(tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim));
+    }
+
+    @Override
+    public List<Object[]> aggregateByGrid(
+            double minLat,
+            double maxLat,
+            double minLng,
+            double maxLng,
+            double gridSize,
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .withinBoundingBox(minLat, maxLat, minLng, maxLng)
+                .tipoProblema(tipoProblema)
+                .bairroId(bairroId)
+                .bairro(bairro)
+                .dataInicio(dataInicio)
+                .dataFim(dataFim)
+                .parameter("gridSize", gridSize);
+
+        return findRows(AGGREGATE_BY_GRID_SQL + builder.whereClause() +
+                GROUP_BY_GRID +
+                " HAVING COUNT(o.id) > 0" +
+                " ORDER BY count DESC", builder);
+    }
+
+    @Override
+    public List<Object[]> aggregateByHexagon(
+            double minLat,
+            double maxLat,
+            double minLng,
+            double maxLng,
+            double hexSize,
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .withinBoundingBox(minLat, maxLat, minLng, maxLng)
+                .tipoProblema(tipoProblema)
+                .bairroId(bairroId)
+                .bairro(bairro)
+                .dataInicio(dataInicio)
+                .dataFim(dataFim)
+                .parameter("hexSize", hexSize);
+
+        return findRows(AGGREGATE_BY_HEXAGON_SQL + builder.whereClause() +
+                " GROUP BY ST_SnapToGrid(ST_Transform(o.coordenadas, 3857), :hexSize)" +
+                " HAVING COUNT(o.id) > 0" +
+                " ORDER BY count DESC", builder);
+    }
+
+    @Override
+    public List<Object[]> aggregateByGridAndBucket(
+            double minLat,
+            double maxLat,
+            double minLng,
+            double maxLng,
+            double gridSize,
+            String bucket,
+            String tipoProblema,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .withinBoundingBox(minLat, maxLat, minLng, maxLng)
+                .tipoProblema(tipoProblema)
+                .where("o.data_criacao >= :dataInicio AND o.data_criacao < :dataFim",
+                        Map.of("dataInicio", dataInicio, "dataFim", dataFim))
+                .parameter("gridSize", gridSize)
+                .parameter("bucket", bucket);
+
+        return findRows(AGGREGATE_BY_GRID_AND_BUCKET_SQL + builder.whereClause() +
+                ") g GROUP BY g.cell, g.bucket ORDER BY g.bucket", builder);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Object[]> streamPointsWithinBoundingBox(
+            double minLat,
+            double maxLat,
+            double minLng,
+            double maxLng,
+            String tipoProblema,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .withinBoundingBox(minLat, maxLat, minLng, maxLng)
+                .tipoProblema(tipoProblema)
+                .dataInicio(dataInicio)
+                .dataFim(dataFim);
+
+        return builder.bind(entityManager.createNativeQuery(STREAM_POINTS_SQL + builder.whereClause()))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    public List<Object[]> aggregateByBairro(
+            String tipoProblema,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .where("o.bairro_id IS NOT NULL")
+                .tipoProblema(tipoProblema)
+                .dataInicio(dataInicio)
+                .dataFim(dataFim);
+
+        return findRows(AGGREGATE_BY_BAIRRO_SQL + builder.whereClause() + " GROUP BY o.bairro_id", builder);
+    }
+
+    @Override
+    public List<Object[]> aggregateDashboard(
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .dataInicio(dataInicio)
+                .dataFim(dataFim);
+
+        return findRows(AGGREGATE_DASHBOARD_SQL + builder.whereClause() + AGGREGATE_DASHBOARD_GROUP_BY, builder);
+    }
+
+    @Override
+    public List<Object[]> searchFullText(
+            String busca,
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            Double latitude,
+            Double longitude,
+            Double raioMetros,
+            Double lastRelevancia,
+            String lastId,
+            int limit
+    ) {
+        OcorrenciaQueryBuilder builder = filters(
+                tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim)
+                .textSearch(busca)
+                .parameter("headline", HEADLINE_OPTIONS)
+                .parameter("limit", limit);
+        if (latitude != null && longitude != null && raioMetros != null) {
+            builder.withinRadius(latitude, longitude, raioMetros);
+        }
+        if (lastRelevancia != null) {
+            builder.where("(" + RELEVANCIA + ", o.id) < (:lastRelevancia, CAST(:lastId AS UUID))",
+                    Map.of("lastRelevancia", lastRelevancia, "lastId", lastId));
+        }
+
+        // ts_headline é caro: calculado fora da subconsulta, apenas para as linhas da página
+        return findRows("SELECT p.id, p.relevancia, " +
+                "ts_headline('portugues_unaccent', coalesce(p.descricao, ''), " +
+                OcorrenciaQueryBuilder.TS_QUERY + ", :headline) AS trecho_descricao, " +
+                "ts_headline('portugues_unaccent', coalesce(p.endereco, ''), " +
+                OcorrenciaQueryBuilder.TS_QUERY + ", :headline) AS trecho_endereco " +
+                "FROM (SELECT o.id, o.descricao, o.endereco, " + RELEVANCIA + " AS relevancia " +
+                "FROM ocorrencias o" + builder.whereClause() +
+                " ORDER BY relevancia DESC, o.id DESC LIMIT :limit) p " +
+                "ORDER BY p.relevancia DESC, p.id DESC", builder);
+    }
+
+    @Override
+    public Page<OcorrenciaResumo> findResumoByFilters(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            Pageable pageable
+    ) {
+        return findResumos(
+                filters(tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim),
+                " ORDER BY o.data_criacao DESC", pageable);
+    }
+
+    @Override
+    public Page<OcorrenciaResumo> findResumoCriticas(Pageable pageable) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .gravidadeMin(Validation.GRAVIDADE_CRITICA)
+                .where("o.status != 'RESOLVIDO'");
+
+        return findResumos(builder, " ORDER BY o.gravidade DESC, o.data_criacao DESC", pageable);
+    }
+
+    @Override
+    public Page<OcorrenciaResumo> findResumoNearby(
+            double lat,
+            double lng,
+            double radiusInMeters,
+            String tipoProblema,
+            Pageable pageable
+    ) {
+        return findResumos(nearby(lat, lng, radiusInMeters, tipoProblema),
+                " ORDER BY " + DISTANCIA + ", o.id", pageable);
+    }
+
+    @Override
+    public List<OcorrenciaProxima> findResumoNearbyKeyset(
+            double lat,
+            double lng,
+            double radiusInMeters,
+            String tipoProblema,
+            Double lastDistance,
+            String lastId,
+            int limit
+    ) {
+        OcorrenciaQueryBuilder builder = nearby(lat, lng, radiusInMeters, tipoProblema)
+                .parameter("limit", limit);
+        if (lastDistance != null) {
+            builder.where("(d.distancia, o.id) > (:lastDistance, CAST(:lastId AS UUID))",
+                    Map.of("lastDistance", lastDistance, "lastId", lastId));
+        }
+
+        // O ST_DWithin do raio é o pré-filtro atendido pelo índice; a ordem é a da distância calculada uma vez
+        List<Object[]> rows = findRows("SELECT " + RESUMO_COLUMNS + ", d.distancia FROM ocorrencias o " +
+                "CROSS JOIN LATERAL (SELECT " + DISTANCIA + " AS distancia) d" + builder.whereClause() +
+                " ORDER BY d.distancia, o.id LIMIT :limit", builder);
+        List<OcorrenciaProxima> proximas = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            proximas.add(new OcorrenciaProxima(toResumo(row), ((Number) row[13]).doubleValue()));
+        }
+        return proximas;
+    }
+
+    @Override
+    public long countNearby(double lat, double lng, double radiusInMeters, String tipoProblema) {
+        return count(nearby(lat, lng, radiusInMeters, tipoProblema));
+    }
+
+    @Override
+    public Page<OcorrenciaResumo> findResumoByDataCriacaoBetween(
+            LocalDateTime inicio,
+            LocalDateTime fim,
+            Pageable pageable
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .dataInicio(inicio)
+                .dataFim(fim);
+
+        return findResumos(builder, " ORDER BY o.data_criacao DESC", pageable);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<OcorrenciaResumo> streamResumoByFilters(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        OcorrenciaQueryBuilder builder = filters(
+                tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim);
+
+        Stream<Object[]> rows = builder.bind(entityManager.createNativeQuery(RESUMO_SQL + builder.whereClause()))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+        return rows.map(OcorrenciaRepositoryCustomImpl::toResumo);
+    }
+
+    @Override
+    public List<Object[]> updateStatusByIds(
+            Collection<UUID> ids,
+            String novoStatus,
+            Collection<String> statusEsperados,
+            LocalDateTime atualizadoAte
+    ) {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .where("o.id IN (:ids)", Map.of("ids", ids));
+
+        return updateStatus(builder, novoStatus, statusEsperados, atualizadoAte);
+    }
+
+    @Override
+    public List<Object[]> updateStatusByFilters(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            String novoStatus,
+            Collection<String> statusEsperados,
+            LocalDateTime atualizadoAte
+    ) {
+        return updateStatus(
+                filters(tipoProblema, bairroId, bairro, status, gravidadeMin, gravidadeMax, dataInicio, dataFim),
+                novoStatus, statusEsperados, atualizadoAte);
+    }
+
+    /**
+     * Filtros comuns da listagem de ocorrências.
+     */
+    static OcorrenciaQueryBuilder filters(
+            String tipoProblema,
+            UUID bairroId,
+            String bairro,
+            String status,
+            Integer gravidadeMin,
+            Integer gravidadeMax,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim
+    ) {
+        return new OcorrenciaQueryBuilder()
+                .tipoProblema(tipoProblema)
+                .bairroId(bairroId)
+                .bairro(bairro)
+                .status(status)
+                .gravidadeMin(gravidadeMin)
+                .gravidadeMax(gravidadeMax)
+                .dataInicio(dataInicio)
+                .dataFim(dataFim);
+    }
+
+    /**
+     * Ocorrências não resolvidas dentro do raio, base da busca e da contagem por proximidade.
+     */
+    private static OcorrenciaQueryBuilder nearby(double lat, double lng, double radiusInMeters, String tipoProblema) {
+        return new OcorrenciaQueryBuilder()
+                .withinRadius(lat, lng, radiusInMeters)
+                .tipoProblema(tipoProblema)
+                .where("o.status != 'RESOLVIDO'");
+    }
+
+    /**
+     * UPDATE set-based com as verificações otimistas como predicados: cada linha só é alterada
+     * se ainda estiver no estado esperado no momento do UPDATE. O RETURNING devolve as linhas alteradas
+     * com o bairro e a data de criação, usados para invalidar só as versões de cache afetadas.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> updateStatus(
+            OcorrenciaQueryBuilder builder,
+            String novoStatus,
+            Collection<String> statusEsperados,
+            LocalDateTime atualizadoAte
+    ) {
+        builder.where("o.status <> :novoStatus", Map.of("novoStatus", novoStatus));
+        if (statusEsperados != null && !statusEsperados.isEmpty()) {
+            builder.where("o.status IN (:statusEsperados)", Map.of("statusEsperados", statusEsperados));
+        }
+        if (atualizadoAte != null) {
+            builder.where("o.data_atualizacao <= :atualizadoAte", Map.of("atualizadoAte", atualizadoAte));
+        }
+
+        // O UPDATE não passa pelo contexto: grava o pendente antes e desanexa depois só as linhas alteradas,
+        // para que a próxima leitura delas venha do banco sem descartar as demais entidades da transação
+        entityManager.flush();
+        List<Object[]> atualizadas = builder.bind(entityManager.createNativeQuery(
+                "UPDATE ocorrencias o SET status = :novoStatus, data_atualizacao = LOCALTIMESTAMP" +
+                        builder.whereClause() + " RETURNING o.id, o.bairro_id, o.data_criacao")).getResultList();
+        for (Object[] row : atualizadas) {
+            // getReference devolve a instância gerenciada, se houver, sem consultar o banco
+            entityManager.detach(entityManager.getReference(Ocorrencia.class, row[0]));
+        }
+        return atualizadas;
+    }
+
+    /**
+     * Executa a consulta de projeção: as linhas são escalares e não entram no contexto de persistência.
+     */
+    @SuppressWarnings("unchecked")
+    private Page<OcorrenciaResumo> findResumos(OcorrenciaQueryBuilder builder, String orderBy, Pageable pageable) {
+        Query query = builder.bind(entityManager.createNativeQuery(RESUMO_SQL + builder.whereClause() + orderBy));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Object[]> rows = query.getResultList();
+        List<OcorrenciaResumo> content = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            content.add(toResumo(row));
+        }
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(builder));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OcorrenciaResumo> findResumos(OcorrenciaQueryBuilder builder, String orderBy, int limit) {
+        Query query = builder.bind(entityManager.createNativeQuery(RESUMO_SQL + builder.whereClause() + orderBy));
+        query.setMaxResults(limit);
+
+        List<Object[]> rows = query.getResultList();
+        List<OcorrenciaResumo> content = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            content.add(toResumo(row));
+        }
+        return content;
+    }
+
+    static OcorrenciaResumo toResumo(Object[] row) {
+        return new OcorrenciaResumo(
+                row[0] instanceof UUID uuid ? uuid : UUID.fromString(row[0].toString()),
+                TipoProblema.valueOf(row[1].toString()),
+                (String) row[2],
+                (String) row[3],
+                (String) row[4],
+                toDouble(row[5]),
+                toDouble(row[6]),
+                toInteger(row[7]),
+                toInteger(row[8]),
+                StatusOcorrencia.valueOf(row[9].toString()),
+                (String) row[10],
+                toLocalDateTime(row[11]),
+                toLocalDateTime(row[12])
+        );
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+
+    private static Integer toInteger(Object value) {
+        return value != null ? ((Number) value).intValue() : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> findRows(String sql, OcorrenciaQueryBuilder builder) {
+        return builder.bind(entityManager.createNativeQuery(sql)).getResultList();
+    }
+
+    private long count(OcorrenciaQueryBuilder builder) {
+        Object total = builder.bind(entityManager.createNativeQuery(COUNT_SQL + builder.whereClause()))
+                .getSingleResult();
+        return ((Number) total).longValue();
+    }
+}
@@ -0,0 +1,29 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção somente leitura de uma ocorrência para listagens e mapas.
+ * Traz apenas as colunas exibidas nas listas: sem o metadata (jsonb) e com as coordenadas
+ * já separadas em latitude/longitude, sem passar pelo contexto de persistência do Hibernate.
+ * O detalhe completo continua disponível pela busca por ID.
+ */
+public record OcorrenciaResumo(
+        UUID id,
+        TipoProblema tipoProblema,
+        String descricao,
+        String bairro,
+        String endereco,
+        Double latitude,
+        Double longitude,
+        Integer gravidade,
+        Integer gravidadeIA,
+        StatusOcorrencia status,
+        String secretariaOrigem,
+        LocalDateTime dataCriacao,
+        LocalDateTime dataAtualizacao
+) {}
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -56,5 +58,21 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     @Query("SELECT u FROM User u WHERE u.email = :email OR u.username = :username")
     Optional<User> findByEmailOrUsername(@Param("email") String email, @Param("username") String username);
-}
 
+    /**
+     * Estado de todos os usuários relevante para aceitar um token, sem carregar as entidades.
+     * 
+     * @return lista de arrays [id, token_versao, role, ativo]
+     */
+    @Query("SELECT u.id, u.tokenVersao, u.role, u.ativo FROM User u")
+    List<Object[]> findEstadosDeToken();
+
+    /**
+     * Estado para aceitar tokens só dos usuários alterados a partir de um instante (data_atualizacao).
+     * 
+     * @param desde instante a partir do qual as alterações são buscadas
+     * @return lista de arrays [id, token_versao, role, ativo]
+     */
+    @Query("SELECT u.id, u.tokenVersao, u.role, u.ativo FROM User u WHERE u.dataAtualizacao >= :desde")
+    List<Object[]> findEstadosDeTokenAlteradosDesde(@Param("desde") LocalDateTime desde);
+}
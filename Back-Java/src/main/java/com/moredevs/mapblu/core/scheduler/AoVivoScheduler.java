@@ -0,0 +1,28 @@
+package com.moredevs.mapblu.core.scheduler;
+
+import com.moredevs.mapblu.core.service.AoVivoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler do canal ao vivo: o intervalo entre envios define quanto uma rajada de escritas
+ * é agrupada em um mesmo quadro.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AoVivoScheduler {
+
+    private final AoVivoService aoVivoService;
+
+    @Scheduled(fixedDelayString = "${ao-vivo.envio-ms:500}")
+    public void enviarPendentes() {
+        try {
+            aoVivoService.enviarPendentes();
+        } catch (Exception e) {
+            log.warn("Erro ao enviar atualizações ao vivo: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.moredevs.mapblu.core.scheduler;
+
+import com.moredevs.mapblu.core.service.CacheAquecimentoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler do aquecimento do cache: grava no Redis os acessos contados e reaquece após rajadas
+ * de invalidação.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheAquecimentoScheduler {
+
+    private final CacheAquecimentoService cacheAquecimentoService;
+
+    @Scheduled(fixedDelayString = "${cache.aquecimento.registro-ms:60000}")
+    public void descarregarAcessos() {
+        try {
+            cacheAquecimentoService.descarregarAcessos();
+        } catch (Exception e) {
+            log.warn("Erro ao registrar acessos para o aquecimento do cache: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.aquecimento.rajada-verificacao-ms:5000}")
+    public void verificarRajada() {
+        try {
+            cacheAquecimentoService.verificarRajada();
+        } catch (Exception e) {
+            log.error("Erro ao reaquecer o cache após rajada de invalidações: {}", e.getMessage(), e);
+        }
+    }
+}
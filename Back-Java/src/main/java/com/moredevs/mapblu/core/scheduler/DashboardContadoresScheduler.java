@@ -0,0 +1,28 @@
+package com.moredevs.mapblu.core.scheduler;
+
+import com.moredevs.mapblu.core.service.DashboardContadoresService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler da recontagem dos contadores ao vivo do dashboard. Roda com frequência para pegar logo
+ * a virada do dia e as alterações em lote; janelas recontadas há pouco são ignoradas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardContadoresScheduler {
+
+    private final DashboardContadoresService dashboardContadoresService;
+
+    @Scheduled(fixedDelayString = "${dashboard.contadores.verificacao-ms:10000}")
+    public void reconciliar() {
+        try {
+            dashboardContadoresService.reconciliar();
+        } catch (Exception e) {
+            log.warn("Erro ao recontar os contadores do dashboard: {}", e.getMessage());
+        }
+    }
+}
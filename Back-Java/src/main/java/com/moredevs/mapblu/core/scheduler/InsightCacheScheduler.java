@@ -0,0 +1,31 @@
+package com.moredevs.mapblu.core.scheduler;
+
+import com.moredevs.mapblu.core.service.InsightCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler para limpeza dos insights expirados em insights_cache.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InsightCacheScheduler {
+
+    private final InsightCacheService insightCacheService;
+
+    /**
+     * Remove os insights expirados em lotes. Sem transação própria: cada lote é uma transação curta.
+     */
+    @Scheduled(fixedDelayString = "${insights.cache.purga-ms:3600000}",
+               initialDelayString = "${insights.cache.purga-atraso-inicial-ms:300000}")
+    public void purgarExpirados() {
+        try {
+            insightCacheService.purgarExpirados();
+        } catch (Exception e) {
+            log.error("Erro na limpeza de insights_cache: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.moredevs.mapblu.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moredevs.mapblu.core.dto.response.AtualizacaoAoVivoResponse;
+import com.moredevs.mapblu.core.service.aovivo.AlteracaoAoVivo;
+import com.moredevs.mapblu.core.service.aovivo.AssinaturaAoVivo;
+import com.moredevs.mapblu.core.service.aovivo.FiltroAoVivo;
+import com.moredevs.mapblu.core.service.dashboard.JanelaDashboard;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciaAlteradaEvent;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciasAlteradasEmLoteEvent;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.moredevs.mapblu.shared.constant.Constants.AoVivo.*;
+
+/**
+ * Canal ao vivo (Server-Sent Events) com as alterações de ocorrências, as diferenças nos contadores
+ * do dashboard e as células do heatmap que mudaram, para que os clientes não precisem consultar
+ * a API em intervalos.
+ *
+ * Cada escrita é publicada, depois do commit, no canal {@code CANAL} do Redis; todos os nós
+ * (inclusive o que escreveu) a recebem e acumulam nas assinaturas locais cujo filtro ela atende.
+ * Um envio periódico junta o que cada assinatura acumulou em um único quadro. Os envios rodam
+ * em um executor próprio e uma assinatura só tem um envio em andamento por vez: cliente lento
+ * recebe quadros maiores e, se acumular demais, um pedido de ressincronização.
+ *
+ * As conexões são assíncronas (sem uma thread por cliente), limitadas a {@code MAX_ASSINATURAS} por nó.
+ */
+@Slf4j
+@Service
+public class AoVivoService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+
+    private final Set<AssinaturaAoVivo> assinaturas = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Counter ressincronizacoes;
+    private Clock clock = Clock.systemDefaultZone();
+
+    public AoVivoService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                         @Qualifier("aoVivoExecutor") Executor executor, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+
+        Gauge.builder("ao.vivo.assinaturas", assinaturas, Set::size)
+                .description("Conexões abertas no canal ao vivo deste nó")
+                .register(meterRegistry);
+        this.ressincronizacoes = Counter.builder("ao.vivo.ressincronizacoes")
+                .description("Quadros de ressincronização enviados (cliente lento, fila cheia ou reconexão)")
+                .register(meterRegistry);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Abre uma assinatura.
+     *
+     * @param filtro filtro das ocorrências enviadas
+     * @param reconexao se o cliente está reconectando (Last-Event-ID): o que perdeu não é reenviado,
+     *                  então o primeiro quadro pede ressincronização
+     * @return o emitter da conexão, ou vazio se o nó já está no limite de conexões
+     */
+    public Optional<SseEmitter> assinar(FiltroAoVivo filtro, boolean reconexao) {
+        if (assinaturas.size() >= MAX_ASSINATURAS) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(TIMEOUT));
+        AssinaturaAoVivo assinatura = new AssinaturaAoVivo(emitter, filtro, MAX_PENDENTES, clock.millis());
+        if (reconexao) {
+            assinatura.marcarRessincronizacao();
+        }
+        emitter.onCompletion(() -> assinaturas.remove(assinatura));
+        emitter.onTimeout(() -> assinaturas.remove(assinatura));
+        emitter.onError(e -> assinaturas.remove(assinatura));
+        assinaturas.add(assinatura);
+        return Optional.of(emitter);
+    }
+
+    public int getAssinaturas() {
+        return assinaturas.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(OcorrenciaAlteradaEvent evento) {
+        publicar(AlteracaoAoVivo.de(evento,
+                DashboardContadoresService.deltas(evento, JanelaDashboard.MES, LocalDateTime.now(clock))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEmLote(OcorrenciasAlteradasEmLoteEvent evento) {
+        publicar(AlteracaoAoVivo.emLote());
+    }
+
+    /**
+     * Mensagem recebida do canal do Redis, publicada por qualquer nó.
+     */
+    public void aoReceber(String mensagem) {
+        try {
+            distribuir(objectMapper.readValue(mensagem, AlteracaoAoVivo.class));
+        } catch (Exception e) {
+            log.warn("Mensagem inválida no canal ao vivo: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Envia a cada assinatura o quadro com o que ela acumulou ou, se está sem quadros há
+     * {@code KEEPALIVE}, um comentário para manter a conexão aberta em proxies e detectar
+     * clientes desconectados.
+     */
+    public void enviarPendentes() {
+        long agora = clock.millis();
+        for (AssinaturaAoVivo assinatura : assinaturas) {
+            if (!assinatura.iniciarEnvio()) {
+                // O envio anterior ainda não terminou: continua acumulando
+                continue;
+            }
+            AtualizacaoAoVivoResponse quadro = assinatura.retirar();
+            boolean keepAlive = quadro == null
+                    && agora - assinatura.getUltimoEnvio() >= TimeUnit.SECONDS.toMillis(KEEPALIVE);
+            if (quadro == null && !keepAlive) {
+                assinatura.finalizarEnvio(agora, false);
+                continue;
+            }
+            if (quadro != null) {
+                quadro.setSequencia(sequencia.incrementAndGet());
+            }
+            try {
+                executor.execute(() -> enviar(assinatura, quadro));
+            } catch (RejectedExecutionException e) {
+                assinatura.finalizarEnvio(agora, false);
+                if (quadro != null) {
+                    assinatura.marcarRessincronizacao();
+                }
+            }
+        }
+    }
+
+    void distribuir(AlteracaoAoVivo alteracao) {
+        String bairroAnterior = alteracao.anterior() != null ? GeoUtil.normalizeBairro(alteracao.anterior().getBairro()) : null;
+        String bairroAtual = alteracao.atual() != null ? GeoUtil.normalizeBairro(alteracao.atual().getBairro()) : null;
+        for (AssinaturaAoVivo assinatura : assinaturas) {
+            assinatura.acumular(alteracao, bairroAnterior, bairroAtual);
+        }
+    }
+
+    private void publicar(AlteracaoAoVivo alteracao) {
+        try {
+            redisTemplate.convertAndSend(CANAL, objectMapper.writeValueAsString(alteracao));
+        } catch (Exception e) {
+            // Sem o Redis, ao menos os clientes deste nó recebem a alteração
+            log.warn("Falha ao publicar no canal ao vivo: {}", e.getMessage());
+            distribuir(alteracao);
+        }
+    }
+
+    private void enviar(AssinaturaAoVivo assinatura, AtualizacaoAoVivoResponse quadro) {
+        SseEmitter emitter = assinatura.getEmitter();
+        try {
+            if (quadro != null) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(quadro.getSequencia()))
+                        .name("atualizacao")
+                        .data(quadro, MediaType.APPLICATION_JSON));
+                if (quadro.isRessincronizar()) {
+                    ressincronizacoes.increment();
+                }
+            } else {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+            assinatura.finalizarEnvio(clock.millis(), true);
+        } catch (Exception e) {
+            // Cliente desconectado
+            log.debug("Encerrando assinatura ao vivo: {}", e.getMessage());
+            assinaturas.remove(assinatura);
+            assinatura.finalizarEnvio(clock.millis(), false);
+            emitter.complete();
+        }
+    }
+}
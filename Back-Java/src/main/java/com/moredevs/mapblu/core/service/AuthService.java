@@ -1,21 +1,25 @@
 package com.moredevs.mapblu.core.service;
 
 import com.moredevs.mapblu.core.domain.User;
+import com.moredevs.mapblu.core.dto.request.AlterarSenhaRequest;
 import com.moredevs.mapblu.core.dto.request.LoginRequest;
 import com.moredevs.mapblu.core.dto.request.RegisterRequest;
 import com.moredevs.mapblu.core.dto.response.AuthResponse;
+import com.moredevs.mapblu.core.exception.EntityNotFoundException;
 import com.moredevs.mapblu.core.exception.ValidationException;
 import com.moredevs.mapblu.core.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.UUID;
 
 /**
  * Serviço para operações de autenticação e autorização.
@@ -29,6 +33,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevogacaoService tokenRevogacaoService;
 
     @org.springframework.beans.factory.annotation.Value("${jwt.expiration:86400000}")
     private Long jwtExpiration;
@@ -84,6 +89,9 @@ public class AuthService {
         } catch (BadCredentialsException e) {
             log.warn("Credenciais inválidas para: {}", request.getEmailOrUsername());
             throw new ValidationException("Credenciais inválidas");
+        } catch (DisabledException e) {
+            log.warn("Login de usuário desativado: {}", request.getEmailOrUsername());
+            throw new ValidationException("Usuário desativado");
         }
 
         User user = userRepository.findByEmailOrUsername(
@@ -97,6 +105,69 @@ public class AuthService {
         return buildAuthResponse(user, accessToken);
     }
 
+    /**
+     * Troca a senha do usuário e revoga os tokens emitidos antes da troca.
+     * 
+     * @param userId usuário autenticado
+     * @param request senha atual e nova senha
+     * @return resposta de autenticação com um token novo, já que o token usado na requisição deixa de valer
+     */
+    @Transactional
+    public AuthResponse alterarSenha(UUID userId, AlterarSenhaRequest request) {
+        User user = buscarUsuario(userId);
+        if (!passwordEncoder.matches(request.getSenhaAtual(), user.getPassword())) {
+            throw new ValidationException("Senha atual incorreta");
+        }
+
+        user.setPassword(passwordEncoder.encode(request.getNovaSenha()));
+        user = revogarTokens(user);
+
+        return buildAuthResponse(user, jwtService.generateToken(UserPrincipal.create(user)));
+    }
+
+    /**
+     * Revoga todos os tokens do usuário, encerrando as sessões em todos os dispositivos.
+     * 
+     * @param userId usuário autenticado
+     */
+    @Transactional
+    public void sairDeTodosOsDispositivos(UUID userId) {
+        revogarTokens(buscarUsuario(userId));
+    }
+
+    /**
+     * Troca o papel de um usuário e revoga os tokens emitidos com o papel anterior.
+     * 
+     * @param userId usuário a alterar
+     * @param role novo papel
+     */
+    @Transactional
+    public void alterarPapel(UUID userId, User.RoleName role) {
+        User user = buscarUsuario(userId);
+        if (user.getRole() == role) {
+            return;
+        }
+
+        user.setRole(role);
+        revogarTokens(user);
+    }
+
+    private User buscarUsuario(UUID userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado com ID: " + userId));
+    }
+
+    /**
+     * Incrementa a versão de tokens do usuário: tokens com a versão anterior deixam de ser aceitos
+     * neste nó a partir do commit e nos demais na próxima recarga do {@link TokenRevogacaoService}.
+     */
+    private User revogarTokens(User user) {
+        user.setTokenVersao((user.getTokenVersao() != null ? user.getTokenVersao() : 0) + 1);
+        user = userRepository.save(user);
+        tokenRevogacaoService.esquecer(user.getId());
+        return user;
+    }
+
     /**
      * Constrói a resposta de autenticação.
      * 
@@ -0,0 +1,203 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.Bairro;
+import com.moredevs.mapblu.core.dto.request.HeatmapFilterRequest;
+import com.moredevs.mapblu.core.dto.response.BairroSugestaoResponse;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.core.repository.BairroRepository;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.geo.BairroDicionario;
+import com.moredevs.mapblu.core.service.geo.BairroGeoJsonReader;
+import com.moredevs.mapblu.core.service.geo.BairroLocator;
+import com.moredevs.mapblu.core.service.geo.BairroRollup;
+import com.moredevs.mapblu.shared.constant.Constants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+
+/**
+ * Service responsável pelos limites oficiais dos bairros.
+ * Importa os limites de um GeoJSON local na primeira inicialização, mantém o índice
+ * de ponto-em-polígono em memória, fornece os agregados por bairro do choropleth
+ * e o autocomplete de nomes de bairro.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BairroService {
+
+    private final BairroRepository bairroRepository;
+    private final OcorrenciaRepository ocorrenciaRepository;
+    private final BairroLocator bairroLocator;
+    private final BairroDicionario bairroDicionario;
+    private final ResourceLoader resourceLoader;
+    private final CacheManager cacheManager;
+    private final CacheVersions cacheVersions;
+
+    /**
+     * GeoJSON com os limites oficiais dos bairros ({@code file:} ou {@code classpath:}).
+     * O arquivo não acompanha o repositório; sem ele, os recursos por bairro canônico ficam desligados.
+     */
+    @Value("${bairros.geojson.location:}")
+    private String geoJsonLocation;
+
+    @Value("${bairros.geojson.name-property:nome}")
+    private String nameProperty;
+
+    /**
+     * Carrega os limites na inicialização: importa o GeoJSON se a tabela estiver vazia,
+     * monta o índice em memória e atribui bairro_id às ocorrências antigas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        if (bairroRepository.count() == 0) {
+            importarGeoJson();
+        }
+
+        List<Bairro> bairros = bairroRepository.findAll();
+        if (bairros.isEmpty()) {
+            log.warn("Nenhum limite de bairro disponível; filtros por bairro usarão o texto informado");
+        } else {
+            bairroLocator.reload(bairros);
+
+            int atribuidas = ocorrenciaRepository.atribuirBairrosPendentes();
+            if (atribuidas > 0) {
+                log.info("Bairro canônico atribuído a {} ocorrências existentes", atribuidas);
+                List<String> escopos = escoposDosBairros();
+                escopos.add(CacheVersions.GLOBAL);
+                cacheVersions.invalidar(escopos);
+            }
+        }
+
+        atualizarDicionario();
+    }
+
+    /**
+     * Recarrega o dicionário do autocomplete com os nomes oficiais e os nomes usados nas ocorrências.
+     * Executado na inicialização e periodicamente, para incluir bairros digitados em novas ocorrências.
+     */
+    @Scheduled(fixedDelayString = "${bairros.dicionario.refresh-ms:600000}",
+               initialDelayString = "${bairros.dicionario.refresh-ms:600000}")
+    @Transactional(readOnly = true)
+    public void atualizarDicionario() {
+        Map<String, Long> contagemPorNome = new HashMap<>();
+        for (Object[] row : ocorrenciaRepository.countGroupByBairro()) {
+            // [bairro, count]
+            contagemPorNome.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        bairroDicionario.reload(bairroLocator.getEntries(), contagemPorNome);
+    }
+
+    /**
+     * Sugestões de bairro para o autocomplete, sem distinção de acentos e caixa e tolerante a erros de digitação.
+     *
+     * @param termo texto digitado
+     * @param limite quantidade máxima de sugestões
+     * @return sugestões ordenadas por relevância
+     */
+    public List<BairroSugestaoResponse> sugerir(String termo, int limite) {
+        if (limite < 1 || limite > Geo.AUTOCOMPLETE_MAX_LIMIT) {
+            throw new ValidationException("Limite deve estar entre 1 e " + Geo.AUTOCOMPLETE_MAX_LIMIT);
+        }
+
+        return bairroDicionario.sugerir(termo, limite).stream()
+            .map(sugestao -> BairroSugestaoResponse.builder()
+                .nome(sugestao.entrada().nome())
+                .bairroId(sugestao.entrada().bairroId())
+                .totalOcorrencias(sugestao.entrada().totalOcorrencias())
+                .similaridade(sugestao.similaridade())
+                .build())
+            .toList();
+    }
+
+    /**
+     * Agregados por bairro canônico para o choropleth.
+     * A chave do cache embute as versões de todos os bairros oficiais: toda escrita que muda um
+     * agregado (inclusive a troca de bairro de uma ocorrência) incrementa o escopo do bairro afetado.
+     */
+    @Transactional(readOnly = true)
+    public List<BairroRollup> obterRollups(HeatmapFilterRequest filter) {
+        String tipoProblemaStr = filter != null && filter.getTipoProblema() != null
+            ? filter.getTipoProblema().name()
+            : null;
+        LocalDateTime dataInicio = filter != null ? filter.getDataInicio() : null;
+        LocalDateTime dataFim = filter != null ? filter.getDataFim() : null;
+
+        String key = "bairros_" + tipoProblemaStr + "_" + dataInicio + "_" + dataFim + "_"
+            + cacheVersions.carimbo(escoposDosBairros());
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(Constants.Cache.CACHE_HEATMAP));
+        return cache.get(key, () -> calcularRollups(tipoProblemaStr, dataInicio, dataFim));
+    }
+
+    private List<BairroRollup> calcularRollups(String tipoProblemaStr, LocalDateTime dataInicio, LocalDateTime dataFim) {
+        return ocorrenciaRepository.aggregateByBairro(tipoProblemaStr, dataInicio, dataFim).stream()
+            .map(row -> BairroRollup.builder()
+                // [bairro_id, count, avg_gravidade, max_gravidade, criticas]
+                .bairroId((UUID) row[0])
+                .count(((Number) row[1]).intValue())
+                .avgGravidade(row[2] != null ? ((Number) row[2]).doubleValue() : 0.0)
+                .maxGravidade(row[3] != null ? ((Number) row[3]).intValue() : 0)
+                .criticas(((Number) row[4]).intValue())
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Escopos de versão de todos os bairros oficiais, ou o global quando não há limites carregados.
+     */
+    private List<String> escoposDosBairros() {
+        List<String> escopos = bairroLocator.getEntries().stream()
+            .map(entry -> CacheVersions.bairro(entry.id()))
+            .collect(Collectors.toList());
+        if (escopos.isEmpty()) {
+            escopos.add(CacheVersions.GLOBAL);
+        }
+        return escopos;
+    }
+
+    private void importarGeoJson() {
+        if (geoJsonLocation == null || geoJsonLocation.isBlank()) {
+            log.warn("Limites dos bairros não configurados (bairros.geojson.location / BAIRROS_GEOJSON_LOCATION). " +
+                "O choropleth por bairro ficará vazio e os filtros por bairro usarão o texto informado.");
+            return;
+        }
+
+        Resource resource = resourceLoader.getResource(geoJsonLocation);
+        if (!resource.exists()) {
+            log.error("Arquivo de limites de bairros não encontrado em {} (bairros.geojson.location). " +
+                "O choropleth por bairro ficará vazio e os filtros por bairro usarão o texto informado.", geoJsonLocation);
+            return;
+        }
+
+        try (InputStream in = resource.getInputStream()) {
+            List<Bairro> bairros = BairroGeoJsonReader.read(in, nameProperty);
+            bairroRepository.saveAll(bairros);
+            log.info("Importados {} limites de bairros de {}", bairros.size(), geoJsonLocation);
+        } catch (IOException e) {
+            log.error("Erro ao importar limites de bairros de {}: {}", geoJsonLocation, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.request.HeatmapFilterRequest;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.AlvoAquecimento;
+import com.moredevs.mapblu.core.service.cache.CacheVersoesIncrementadasEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+
+/**
+ * Aquecimento proativo do cache, para que os primeiros usuários após um deploy, uma limpeza do
+ * Redis ou uma rajada de escritas não paguem as consultas frias (estatísticas do mês, heatmap
+ * padrão e insights dos bairros críticos levam segundos cada).
+ *
+ * Os acessos às visões padrão são contados em memória e somados periodicamente a um sorted set
+ * no Redis, compartilhado entre os nós e preservado entre deploys. Cada aquecimento repete o
+ * dashboard do mês, o heatmap padrão, os insights dos bairros mais críticos e os
+ * {@code AQUECIMENTO_MAX_ALVOS} alvos mais acessados, com no máximo {@code AQUECIMENTO_CONCORRENCIA}
+ * consultas ao mesmo tempo. Alvos ainda em cache custam só a leitura.
+ *
+ * O primeiro aquecimento roda quando a aplicação fica pronta e segura a prontidão (readiness) até
+ * terminar ou até {@code AQUECIMENTO_TIMEOUT}. Depois, roda de novo quando uma rajada de
+ * invalidações termina. Ao expirar, os alvos ainda na fila são descartados, mas um novo
+ * aquecimento só começa quando as consultas já iniciadas terminam.
+ */
+@Slf4j
+@Service
+public class CacheAquecimentoService {
+
+    public enum Estado {
+        PENDENTE,
+        AQUECENDO,
+        CONCLUIDO,
+        EXPIRADO
+    }
+
+    /**
+     * Andamento do aquecimento mais recente.
+     */
+    public record Progresso(Estado estado, String motivo, int total, int concluidos, int falhas,
+                            Instant inicio, Instant fim, boolean inicialConcluido) {}
+
+    private final DashboardService dashboardService;
+    private final HeatmapService heatmapService;
+    private final InsightService insightService;
+    private final OcorrenciaRepository ocorrenciaRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final Executor executor;
+
+    private final Map<String, LongAdder> acessos = new ConcurrentHashMap<>();
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+    private final AtomicInteger invalidacoes = new AtomicInteger();
+    private final AtomicLong ultimaInvalidacao = new AtomicLong();
+    private final AtomicInteger concluidos = new AtomicInteger();
+    private final AtomicInteger falhas = new AtomicInteger();
+
+    private volatile Estado estado = Estado.PENDENTE;
+    private volatile String motivo;
+    private volatile int total;
+    private volatile Instant inicio;
+    private volatile Instant fim;
+    private volatile boolean inicialConcluido;
+    private volatile boolean expirado;
+    private Clock clock = Clock.systemUTC();
+
+    public CacheAquecimentoService(DashboardService dashboardService, HeatmapService heatmapService,
+                                   InsightService insightService, OcorrenciaRepository ocorrenciaRepository,
+                                   StringRedisTemplate redisTemplate,
+                                   @Qualifier("cacheWarmupExecutor") Executor executor,
+                                   MeterRegistry meterRegistry) {
+        this.dashboardService = dashboardService;
+        this.heatmapService = heatmapService;
+        this.insightService = insightService;
+        this.ocorrenciaRepository = ocorrenciaRepository;
+        this.redisTemplate = redisTemplate;
+        this.executor = executor;
+
+        Gauge.builder("cache.aquecimento.alvos", () -> total)
+                .tag("situacao", "total")
+                .description("Alvos do aquecimento de cache mais recente")
+                .register(meterRegistry);
+        Gauge.builder("cache.aquecimento.alvos", concluidos, AtomicInteger::get)
+                .tag("situacao", "concluidos")
+                .register(meterRegistry);
+        Gauge.builder("cache.aquecimento.alvos", falhas, AtomicInteger::get)
+                .tag("situacao", "falhas")
+                .register(meterRegistry);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Conta um acesso a uma visão aquecível. Só em memória: o total vai ao Redis em
+     * {@link #descarregarAcessos()}.
+     */
+    public void registrarAcesso(AlvoAquecimento alvo) {
+        acessos.computeIfAbsent(alvo.chave(), chave -> new LongAdder()).increment();
+    }
+
+    /**
+     * Soma ao registro do Redis os acessos contados desde a última chamada, em um único pipeline,
+     * e descarta os alvos menos acessados além de {@code AQUECIMENTO_ACESSOS_MAX}.
+     */
+    public void descarregarAcessos() {
+        Map<String, Long> pendentes = new HashMap<>();
+        for (String chave : acessos.keySet()) {
+            LongAdder contador = acessos.remove(chave);
+            if (contador != null && contador.sum() > 0) {
+                pendentes.put(chave, contador.sum());
+            }
+        }
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conexao = (StringRedisConnection) connection;
+            pendentes.forEach((chave, quantidade) -> conexao.zIncrBy(AQUECIMENTO_ACESSOS_CHAVE, quantidade, chave));
+            conexao.zRemRange(AQUECIMENTO_ACESSOS_CHAVE, 0, -(AQUECIMENTO_ACESSOS_MAX + 1));
+            return null;
+        });
+    }
+
+    /**
+     * Primeiro aquecimento, disparado quando o Spring marca a aplicação como pronta (depois de todos
+     * os listeners de inicialização, como a carga dos bairros).
+     */
+    @EventListener
+    public void aoFicarPronta(AvailabilityChangeEvent<ReadinessState> evento) {
+        if (evento.getState() == ReadinessState.ACCEPTING_TRAFFIC && estado == Estado.PENDENTE) {
+            aquecer("inicializacao");
+        }
+    }
+
+    @EventListener
+    public void aoInvalidar(CacheVersoesIncrementadasEvent evento) {
+        invalidacoes.incrementAndGet();
+        ultimaInvalidacao.set(clock.millis());
+    }
+
+    /**
+     * Reaquece quando uma rajada de invalidações (ex: importação em lote) terminou: ao menos
+     * {@code AQUECIMENTO_RAJADA_MINIMO} invalidações e {@code AQUECIMENTO_RAJADA_SILENCIO} sem nenhuma.
+     *
+     * @return se um aquecimento foi iniciado
+     */
+    public boolean verificarRajada() {
+        if (invalidacoes.get() < AQUECIMENTO_RAJADA_MINIMO
+                || clock.millis() - ultimaInvalidacao.get() < TimeUnit.SECONDS.toMillis(AQUECIMENTO_RAJADA_SILENCIO)) {
+            return false;
+        }
+        int rajada = invalidacoes.getAndSet(0);
+        log.info("Rajada de {} invalidações encerrada; reaquecendo o cache", rajada);
+        return aquecer("rajada");
+    }
+
+    /**
+     * Dispara o aquecimento sem bloquear quem chama. Ignorado se já houver um em andamento.
+     *
+     * @param motivo o que disparou o aquecimento (aparece no health)
+     * @return se o aquecimento foi iniciado
+     */
+    public boolean aquecer(String motivo) {
+        if (!emAndamento.compareAndSet(false, true)) {
+            return false;
+        }
+        List<AlvoAquecimento> alvos;
+        try {
+            alvos = alvos();
+        } catch (Exception e) {
+            log.warn("Não foi possível montar a lista de aquecimento: {}", e.getMessage());
+            alvos = List.of(AlvoAquecimento.dashboard(), AlvoAquecimento.heatmap(null, null));
+        }
+
+        this.motivo = motivo;
+        this.total = alvos.size();
+        this.inicio = clock.instant();
+        this.fim = null;
+        concluidos.set(0);
+        falhas.set(0);
+        expirado = false;
+        estado = Estado.AQUECENDO;
+        log.info("Aquecendo o cache ({}): {} alvos", motivo, alvos.size());
+
+        CompletableFuture<?>[] tarefas = alvos.stream()
+                .map(alvo -> CompletableFuture.runAsync(() -> {
+                    if (!expirado) {
+                        executar(alvo);
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> todas = CompletableFuture.allOf(tarefas);
+        todas.whenComplete((r, e) -> finalizar());
+        // O timeout age sobre uma cópia: a original só completa quando as tarefas terminam de fato
+        todas.copy()
+                .orTimeout(AQUECIMENTO_TIMEOUT, TimeUnit.SECONDS)
+                .whenComplete((r, e) -> {
+                    if (e != null && !todas.isDone()) {
+                        expirar();
+                    }
+                });
+        return true;
+    }
+
+    public Progresso getProgresso() {
+        return new Progresso(estado, motivo, total, concluidos.get(), falhas.get(), inicio, fim, inicialConcluido);
+    }
+
+    /**
+     * Alvos na ordem de prioridade, sem repetição: visões padrão, bairros críticos e os mais acessados.
+     */
+    List<AlvoAquecimento> alvos() {
+        Set<AlvoAquecimento> alvos = new LinkedHashSet<>();
+        alvos.add(AlvoAquecimento.dashboard());
+        alvos.add(AlvoAquecimento.heatmap(null, null));
+        for (Object[] linha : ocorrenciaRepository.findBairrosCriticos(PageRequest.of(0, AQUECIMENTO_BAIRROS_CRITICOS))) {
+            if (linha[0] != null) {
+                alvos.add(AlvoAquecimento.insightAreaCritica((String) linha[0], null));
+            }
+        }
+        Set<String> maisAcessados = redisTemplate.opsForZSet()
+                .reverseRange(AQUECIMENTO_ACESSOS_CHAVE, 0, AQUECIMENTO_MAX_ALVOS - 1);
+        if (maisAcessados != null) {
+            for (String chave : maisAcessados) {
+                AlvoAquecimento alvo = AlvoAquecimento.deChave(chave);
+                if (alvo != null) {
+                    alvos.add(alvo);
+                }
+            }
+        }
+        return new ArrayList<>(alvos);
+    }
+
+    private void executar(AlvoAquecimento alvo) {
+        try {
+            switch (alvo.tipo()) {
+                case DASHBOARD -> dashboardService.aquecerEstatisticas();
+                case HEATMAP -> heatmapService.generateHeatmapZones(HeatmapFilterRequest.builder()
+                        .tipoProblema(alvo.tipoProblema() != null ? TipoProblema.valueOf(alvo.tipoProblema()) : null)
+                        .bairro(alvo.bairro())
+                        .gridSize((int) Geo.DEFAULT_GRID_SIZE_METERS)
+                        .build());
+                // Só carrega insights ainda válidos no banco; gerar um novo chamaria a IA
+                case INSIGHT_AREA_CRITICA -> insightService.aquecerAreaCritica(alvo.bairro(), alvo.tipoProblema());
+            }
+            concluidos.incrementAndGet();
+        } catch (Exception e) {
+            falhas.incrementAndGet();
+            log.warn("Falha ao aquecer {}: {}", alvo.chave(), e.getMessage());
+        }
+    }
+
+    /**
+     * Timeout do aquecimento: libera a prontidão e descarta os alvos que ainda não começaram.
+     * O aquecimento continua em andamento até as consultas já iniciadas terminarem.
+     */
+    void expirar() {
+        expirado = true;
+        fim = clock.instant();
+        estado = Estado.EXPIRADO;
+        inicialConcluido = true;
+        log.warn("Aquecimento do cache ({}) expirou após {} ms: {}/{} alvos, {} falhas", motivo,
+                Duration.between(inicio, fim).toMillis(), concluidos.get(), total, falhas.get());
+    }
+
+    private void finalizar() {
+        if (!expirado) {
+            fim = clock.instant();
+            estado = Estado.CONCLUIDO;
+            inicialConcluido = true;
+            log.info("Aquecimento do cache ({}) concluído em {} ms: {}/{} alvos, {} falhas", motivo,
+                    Duration.between(inicio, fim).toMillis(), concluidos.get(), total, falhas.get());
+        }
+        emAndamento.set(false);
+    }
+}
@@ -0,0 +1,496 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.dashboard.JanelaDashboard;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciaAlteradaEvent;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciasAlteradasEmLoteEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
+import static com.moredevs.mapblu.shared.constant.Constants.Validation.GRAVIDADE_CRITICA;
+
+/**
+ * Contadores ao vivo das estatísticas do dashboard para hoje, a semana e o mês atuais, para
+ * responder sem recontar a tabela a cada escrita.
+ *
+ * Cada janela é um hash no Redis, compartilhado entre os nós, com o total, as críticas, a soma e a
+ * quantidade das gravidades informadas e as contagens por tipo, bairro, status e gravidade. Como no
+ * AVG do banco, ocorrências sem gravidade entram no total mas não na média. Cada criação, alteração ou
+ * remoção soma a diferença entre o estado anterior e o novo com um HINCRBY por campo, depois do
+ * commit. A janela é recontada no banco quando o dia, a semana ou o mês viram, após uma alteração
+ * em lote e a cada {@code CONTADORES_RECONCILIACAO}, o que corrige escritas perdidas por falha no
+ * Redis.
+ *
+ * Durante a recontagem, cada escrita também guarda num hash de pendentes o estado mais recente da
+ * ocorrência (a sua contribuição para a janela), por id. A recontagem lê o banco numa transação
+ * REPEATABLE READ e, na mesma foto, a contribuição de cada ocorrência pendente; o resultado troca a
+ * contribuição da foto pela mais recente. Assim uma escrita que o banco já viu não é somada de novo
+ * e uma que ele não viu não se perde. A troca só acontece se a geração marcada no hash ainda for a
+ * da recontagem (uma recontagem atrasada não sobrescreve uma mais nova) e se nenhuma pendente
+ * chegou depois da leitura; senão, as pendentes são lidas de novo.
+ *
+ * Enquanto uma janela não foi recontada, as consultas dela vão para o banco.
+ */
+@Slf4j
+@Service
+public class DashboardContadoresService {
+
+    static final String TOTAL = "total";
+    static final String CRITICAS = "criticas";
+    static final String GRAVIDADE_SOMA = "gravidade_soma";
+    static final String GRAVIDADE_CONTAGEM = "gravidade_contagem";
+    static final String RECONCILIADO = "reconciliado";
+    static final String RECONTAGEM = "recontagem";
+
+    private static final String PENDENTES = ":pendentes";
+    private static final String GERACAO = ":geracao";
+    // Campo do hash de pendentes com o número de escritas capturadas (os demais campos são ids)
+    static final String ESCRITAS = "escritas";
+
+    /**
+     * Soma as diferenças no hash da janela e, se há uma recontagem em andamento (campo
+     * {@link #RECONTAGEM}), guarda no hash de pendentes a contribuição atual da ocorrência.
+     * KEYS: hash, pendentes. ARGV: campo da recontagem, ttl, id, contribuição, pares campo/diferença.
+     */
+    static final String APLICAR_DIFERENCAS = """
+            for i = 5, #ARGV, 2 do
+                redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 1 then
+                redis.call('HSET', KEYS[2], ARGV[3], ARGV[4])
+                redis.call('HINCRBY', KEYS[2], '%s', 1)
+                redis.call('EXPIRE', KEYS[2], ARGV[2])
+            end
+            return 0
+            """.formatted(ESCRITAS);
+
+    /**
+     * Abre uma nova geração de recontagem: marca o hash e descarta pendentes de uma recontagem
+     * anterior que não terminou. KEYS: hash, pendentes, contador de gerações. ARGV: campo da
+     * recontagem, ttl. Retorna a geração.
+     */
+    static final RedisScript<Long> INICIAR_RECONTAGEM = RedisScript.of("""
+            local geracao = redis.call('INCR', KEYS[3])
+            redis.call('EXPIRE', KEYS[3], ARGV[2])
+            redis.call('HSET', KEYS[1], ARGV[1], geracao)
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            redis.call('DEL', KEYS[2])
+            return geracao
+            """, Long.class);
+
+    /**
+     * Troca o hash pelos campos recontados (já com as pendentes), se a geração ainda for a marcada
+     * e nenhuma escrita foi capturada depois da leitura das pendentes.
+     * KEYS: hash, pendentes. ARGV: campo da recontagem, geração, escritas lidas, ttl, pares campo/valor.
+     * Retorna 1 se trocou, 0 se outra recontagem assumiu a janela e -1 se chegaram pendentes novas.
+     */
+    static final RedisScript<Long> SUBSTITUIR_CONTADORES = RedisScript.of("""
+            if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then
+                return 0
+            end
+            if (redis.call('HGET', KEYS[2], '%s') or '0') ~= ARGV[3] then
+                return -1
+            end
+            redis.call('DEL', KEYS[1], KEYS[2])
+            for i = 5, #ARGV, 2 do
+                redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            return 1
+            """.formatted(ESCRITAS), Long.class);
+
+    private static final List<String> DIMENSOES = List.of("tipo", "bairro", "status", "gravidade");
+
+    private final OcorrenciaRepository ocorrenciaRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate fotoTemplate;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    public DashboardContadoresService(OcorrenciaRepository ocorrenciaRepository, StringRedisTemplate redisTemplate,
+                                      PlatformTransactionManager transactionManager) {
+        this.ocorrenciaRepository = ocorrenciaRepository;
+        this.redisTemplate = redisTemplate;
+        // A agregação e as contribuições das pendentes precisam ver a mesma foto do banco
+        this.fotoTemplate = new TransactionTemplate(transactionManager);
+        this.fotoTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.fotoTemplate.setReadOnly(true);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Aplica a escrita de uma ocorrência às janelas atuais que ela afeta. Escritas em ocorrências
+     * criadas antes do início de uma janela não mudam aquela janela.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(OcorrenciaAlteradaEvent evento) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        OcorrenciaAlteradaEvent.Estado estado = evento.atual() != null ? evento.atual() : evento.anterior();
+        if (estado == null) {
+            return;
+        }
+        String id = String.valueOf(estado.id());
+        Map<JanelaDashboard, Map<String, Long>> porJanela = new LinkedHashMap<>();
+        for (JanelaDashboard janela : JanelaDashboard.values()) {
+            Map<String, Long> deltas = deltas(evento, janela, agora);
+            if (!deltas.isEmpty()) {
+                porJanela.put(janela, deltas);
+            }
+        }
+        if (porJanela.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conexao = (StringRedisConnection) connection;
+                porJanela.forEach((janela, deltas) -> {
+                    String chave = chave(janela, agora);
+                    List<String> chavesEArgumentos = new ArrayList<>(List.of(
+                            chave, chave + PENDENTES, RECONTAGEM, String.valueOf(CONTADORES_TTL),
+                            id, codificar(contribuicao(evento.atual(), janela, agora))));
+                    deltas.forEach((campo, delta) -> {
+                        chavesEArgumentos.add(campo);
+                        chavesEArgumentos.add(String.valueOf(delta));
+                    });
+                    conexao.eval(APLICAR_DIFERENCAS, ReturnType.INTEGER, 2, chavesEArgumentos.toArray(String[]::new));
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Falha ao atualizar os contadores do dashboard; a próxima recontagem corrige: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Alteração em lote: as janelas atuais voltam a ser lidas do banco até a próxima recontagem.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEmLote(OcorrenciasAlteradasEmLoteEvent evento) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conexao = (StringRedisConnection) connection;
+                for (JanelaDashboard janela : JanelaDashboard.values()) {
+                    conexao.hDel(chave(janela, agora), RECONCILIADO);
+                }
+                return null;
+            });
+            log.debug("{} ocorrências alteradas em lote; contadores do dashboard serão recontados", evento.quantidade());
+        } catch (Exception e) {
+            log.warn("Falha ao marcar os contadores do dashboard para recontagem: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Estatísticas do período a partir dos contadores, quando o período corresponde a uma janela
+     * atual já recontada: começa no início do dia, da semana ou do mês e vai até agora.
+     *
+     * @return linhas no formato de {@link OcorrenciaRepository#aggregateDashboard}, ou vazio se o
+     *         período deve ser consultado no banco
+     */
+    public Optional<List<Object[]>> buscar(LocalDateTime inicio, LocalDateTime fim) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        JanelaDashboard janela = janela(inicio, fim, agora);
+        if (janela == null) {
+            return Optional.empty();
+        }
+        try {
+            Map<Object, Object> campos = redisTemplate.opsForHash().entries(chave(janela, agora));
+            if (!campos.containsKey(RECONCILIADO)) {
+                return Optional.empty();
+            }
+            return Optional.of(linhas(campos));
+        } catch (Exception e) {
+            log.warn("Falha ao ler os contadores do dashboard: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reconta no banco as janelas atuais que ainda não foram recontadas ou cuja última recontagem
+     * passou de {@code CONTADORES_RECONCILIACAO}. Cada janela é recontada por um nó de cada vez;
+     * se o lock expirar no meio e outro nó assumir, a troca da recontagem mais antiga é descartada.
+     *
+     * @return quantidade de janelas recontadas
+     */
+    public int reconciliar() {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        int recontadas = 0;
+        for (JanelaDashboard janela : JanelaDashboard.values()) {
+            String chave = chave(janela, agora);
+            Object reconciliado = redisTemplate.opsForHash().get(chave, RECONCILIADO);
+            if (reconciliado != null && clock.millis() - Long.parseLong(reconciliado.toString())
+                    < TimeUnit.SECONDS.toMillis(CONTADORES_RECONCILIACAO)) {
+                continue;
+            }
+            String lock = CONTADORES_PREFIXO + "reconciliacao:" + janela.chave(agora);
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(lock, "1", Duration.ofSeconds(CONTADORES_LOCK_TTL)))) {
+                continue;
+            }
+            try {
+                // A captura das pendentes começa antes da leitura: o que o banco não vir chega por elas
+                Long geracao = redisTemplate.execute(INICIAR_RECONTAGEM,
+                        List.of(chave, chave + PENDENTES, chave + GERACAO), RECONTAGEM, String.valueOf(CONTADORES_TTL));
+                if (Boolean.TRUE.equals(fotoTemplate.execute(status -> recontar(janela, agora, chave, geracao)))) {
+                    recontadas++;
+                }
+            } finally {
+                redisTemplate.delete(lock);
+            }
+        }
+        return recontadas;
+    }
+
+    /**
+     * Reconta a janela numa única foto do banco e troca o hash, com as pendentes aplicadas sobre a
+     * foto: para cada ocorrência pendente, sai a contribuição que o banco viu e entra a mais recente.
+     *
+     * @return se o hash foi trocado
+     */
+    private boolean recontar(JanelaDashboard janela, LocalDateTime agora, String chave, Long geracao) {
+        LocalDateTime inicio = janela.inicio(agora);
+        LocalDateTime fim = janela.fim(agora).minusNanos(1_000);
+        Map<String, String> recontados = campos(ocorrenciaRepository.aggregateDashboard(inicio, fim));
+        Map<String, Map<String, Long>> naFoto = new HashMap<>();
+
+        for (int tentativa = 0; tentativa < CONTADORES_TROCA_TENTATIVAS; tentativa++) {
+            Map<Object, Object> pendentes = new HashMap<>(redisTemplate.opsForHash().entries(chave + PENDENTES));
+            Object escritas = pendentes.remove(ESCRITAS);
+
+            List<UUID> novas = pendentes.keySet().stream()
+                    .map(Object::toString)
+                    .filter(id -> !naFoto.containsKey(id))
+                    .map(UUID::fromString)
+                    .toList();
+            if (!novas.isEmpty()) {
+                novas.forEach(id -> naFoto.put(id.toString(), Map.of()));
+                for (Object[] linha : ocorrenciaRepository.findContribuicoesDashboard(novas, inicio, fim)) {
+                    // [id, tipo_problema, bairro, status, gravidade]
+                    Map<String, Long> contribuicao = new HashMap<>();
+                    somar(contribuicao, (String) linha[1], (String) linha[2], (String) linha[3],
+                            linha[4] != null ? ((Number) linha[4]).intValue() : null, 1);
+                    naFoto.put(linha[0].toString(), contribuicao);
+                }
+            }
+
+            Map<String, Long> valores = new HashMap<>();
+            recontados.forEach((campo, valor) -> valores.put(campo, Long.parseLong(valor)));
+            pendentes.forEach((id, contribuicao) -> {
+                naFoto.get(id.toString()).forEach((campo, valor) -> valores.merge(campo, -valor, Long::sum));
+                decodificar(contribuicao.toString()).forEach((campo, valor) -> valores.merge(campo, valor, Long::sum));
+            });
+
+            List<String> argumentos = new ArrayList<>(List.of(RECONTAGEM, String.valueOf(geracao),
+                    escritas != null ? escritas.toString() : "0", String.valueOf(CONTADORES_TTL)));
+            valores.forEach((campo, valor) -> {
+                argumentos.add(campo);
+                argumentos.add(String.valueOf(valor));
+            });
+            argumentos.add(RECONCILIADO);
+            argumentos.add(String.valueOf(clock.millis()));
+
+            Long trocado = redisTemplate.execute(SUBSTITUIR_CONTADORES,
+                    List.of(chave, chave + PENDENTES), argumentos.toArray());
+            if (Long.valueOf(1).equals(trocado)) {
+                log.debug("Contadores do dashboard recontados para {}: {} ocorrências ({} pendentes)",
+                        chave, valores.get(TOTAL), pendentes.size());
+                return true;
+            }
+            if (!Long.valueOf(-1).equals(trocado)) {
+                log.warn("Recontagem {} de {} descartada: outra recontagem assumiu a janela", geracao, chave);
+                return false;
+            }
+        }
+        log.warn("Recontagem {} de {} adiada: escritas contínuas durante a troca", geracao, chave);
+        return false;
+    }
+
+    /**
+     * Contribuição de um estado para os contadores da janela atual (vazia se foi criado fora dela
+     * ou se a ocorrência foi removida).
+     */
+    static Map<String, Long> contribuicao(OcorrenciaAlteradaEvent.Estado estado, JanelaDashboard janela,
+                                          LocalDateTime agora) {
+        Map<String, Long> contribuicao = new HashMap<>();
+        if (estado != null && estado.dataCriacao() != null
+                && janela.chave(estado.dataCriacao()).equals(janela.chave(agora))) {
+            somar(contribuicao, estado, 1);
+        }
+        return contribuicao;
+    }
+
+    /**
+     * Contribuição no formato guardado nas pendentes: uma linha {@code campo=valor} por campo.
+     * O valor é numérico, então o último "=" separa os dois mesmo que o campo tenha "=".
+     */
+    static String codificar(Map<String, Long> contribuicao) {
+        StringJoiner linhas = new StringJoiner("\n");
+        contribuicao.forEach((campo, valor) -> linhas.add(campo + "=" + valor));
+        return linhas.toString();
+    }
+
+    static Map<String, Long> decodificar(String contribuicao) {
+        Map<String, Long> campos = new HashMap<>();
+        for (String linha : contribuicao.split("\n")) {
+            int separador = linha.lastIndexOf('=');
+            if (separador > 0) {
+                campos.put(linha.substring(0, separador), Long.parseLong(linha.substring(separador + 1)));
+            }
+        }
+        return campos;
+    }
+
+    /**
+     * Diferenças a somar nos contadores da janela atual: menos o estado anterior e mais o novo,
+     * cada um só se a ocorrência foi criada dentro da janela.
+     */
+    static Map<String, Long> deltas(OcorrenciaAlteradaEvent evento, JanelaDashboard janela, LocalDateTime agora) {
+        String atual = janela.chave(agora);
+        Map<String, Long> deltas = new HashMap<>();
+        OcorrenciaAlteradaEvent.Estado anterior = evento.anterior();
+        if (anterior != null && anterior.dataCriacao() != null && janela.chave(anterior.dataCriacao()).equals(atual)) {
+            somar(deltas, anterior, -1);
+        }
+        OcorrenciaAlteradaEvent.Estado novo = evento.atual();
+        if (novo != null && novo.dataCriacao() != null && janela.chave(novo.dataCriacao()).equals(atual)) {
+            somar(deltas, novo, 1);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    /**
+     * Campos do hash de uma janela a partir das linhas de {@link OcorrenciaRepository#aggregateDashboard}.
+     */
+    static Map<String, String> campos(List<Object[]> linhas) {
+        Map<String, String> campos = new HashMap<>();
+        long total = 0;
+        long criticas = 0;
+        long gravidadeSoma = 0;
+        long gravidadeContagem = 0;
+        for (Object[] linha : linhas) {
+            // [dimensao, chave, total, criticas, gravidade_media]
+            String dimensao = (String) linha[0];
+            long quantidade = ((Number) linha[2]).longValue();
+            if ("total".equals(dimensao)) {
+                total = quantidade;
+                criticas = ((Number) linha[3]).longValue();
+            } else if (linha[1] != null) {
+                campos.put(dimensao + ":" + linha[1], String.valueOf(quantidade));
+                if ("gravidade".equals(dimensao)) {
+                    gravidadeSoma += Long.parseLong((String) linha[1]) * quantidade;
+                    gravidadeContagem += quantidade;
+                }
+            }
+        }
+        campos.put(TOTAL, String.valueOf(total));
+        campos.put(CRITICAS, String.valueOf(criticas));
+        campos.put(GRAVIDADE_SOMA, String.valueOf(gravidadeSoma));
+        campos.put(GRAVIDADE_CONTAGEM, String.valueOf(gravidadeContagem));
+        return campos;
+    }
+
+    /**
+     * Linhas no formato de {@link OcorrenciaRepository#aggregateDashboard} a partir do hash de uma
+     * janela. Contagens zeradas (valores que saíram da janela) são omitidas, como no banco, e a
+     * média considera só as ocorrências com gravidade, como o AVG.
+     */
+    static List<Object[]> linhas(Map<?, ?> campos) {
+        long total = valor(campos, TOTAL);
+        long gravidadeSoma = valor(campos, GRAVIDADE_SOMA);
+        long gravidadeContagem = valor(campos, GRAVIDADE_CONTAGEM);
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{"total", null, total, valor(campos, CRITICAS),
+                gravidadeContagem > 0 ? (double) gravidadeSoma / gravidadeContagem : null});
+        for (Map.Entry<?, ?> campo : campos.entrySet()) {
+            String nome = campo.getKey().toString();
+            int separador = nome.indexOf(':');
+            if (separador < 0 || !DIMENSOES.contains(nome.substring(0, separador))) {
+                continue;
+            }
+            long quantidade = Long.parseLong(campo.getValue().toString());
+            if (quantidade > 0) {
+                linhas.add(new Object[]{nome.substring(0, separador), nome.substring(separador + 1), quantidade, null, null});
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Janela atual que corresponde ao período: começa no início da janela e termina entre agora
+     * (com {@code CONTADORES_TOLERANCIA_FIM} de folga) e o fim da janela.
+     */
+    static JanelaDashboard janela(LocalDateTime inicio, LocalDateTime fim, LocalDateTime agora) {
+        if (inicio == null || fim == null || fim.isBefore(agora.minusSeconds(CONTADORES_TOLERANCIA_FIM))) {
+            return null;
+        }
+        for (JanelaDashboard janela : JanelaDashboard.values()) {
+            if (inicio.equals(janela.inicio(agora)) && !fim.isAfter(janela.fim(agora))) {
+                return janela;
+            }
+        }
+        return null;
+    }
+
+    private static void somar(Map<String, Long> deltas, OcorrenciaAlteradaEvent.Estado estado, long sinal) {
+        somar(deltas, estado.tipoProblema(), estado.bairro(), estado.status(), estado.gravidade(), sinal);
+    }
+
+    /**
+     * Soma os campos de uma ocorrência. Sem gravidade, ela não entra nas críticas, na média nem
+     * nas contagens por gravidade, como no banco.
+     */
+    private static void somar(Map<String, Long> deltas, String tipoProblema, String bairro, String status,
+                              Integer gravidade, long sinal) {
+        deltas.merge(TOTAL, sinal, Long::sum);
+        deltas.merge("tipo:" + tipoProblema, sinal, Long::sum);
+        deltas.merge("bairro:" + bairro, sinal, Long::sum);
+        deltas.merge("status:" + status, sinal, Long::sum);
+        if (gravidade == null) {
+            return;
+        }
+        if (gravidade >= GRAVIDADE_CRITICA) {
+            deltas.merge(CRITICAS, sinal, Long::sum);
+        }
+        deltas.merge(GRAVIDADE_SOMA, sinal * gravidade, Long::sum);
+        deltas.merge(GRAVIDADE_CONTAGEM, sinal, Long::sum);
+        deltas.merge("gravidade:" + gravidade, sinal, Long::sum);
+    }
+
+    private static long valor(Map<?, ?> campos, String campo) {
+        Object valor = campos.get(campo);
+        return valor != null ? Long.parseLong(valor.toString()) : 0L;
+    }
+
+    private static String chave(JanelaDashboard janela, LocalDateTime agora) {
+        return CONTADORES_PREFIXO + janela.chave(agora);
+    }
+}
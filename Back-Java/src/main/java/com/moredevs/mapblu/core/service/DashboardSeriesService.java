@@ -0,0 +1,232 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.DivisaoSerie;
+import com.moredevs.mapblu.core.domain.IntervaloTempo;
+import com.moredevs.mapblu.core.dto.response.DashboardSeriesResponse;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.dashboard.SerieBucketSlice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.CACHE_DASHBOARD_SERIES;
+import static com.moredevs.mapblu.shared.constant.Constants.Dashboard.MAX_SERIES_BUCKETS;
+
+/**
+ * Service responsável pelas séries temporais do dashboard (quantidade e gravidade média por intervalo).
+ * Agrega no banco, com date_trunc e intervalos vazios preenchidos pelo generate_series, e guarda
+ * cada intervalo já encerrado no cache individualmente, sob a versão do mês dele: uma nova consulta
+ * só recalcula o intervalo corrente e os meses que receberam escritas. Sem divisão, o intervalo
+ * corrente de dia e de semana vem dos contadores ao vivo do dashboard, quando já recontados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardSeriesService {
+
+    private static final String TOTAL = "total";
+
+    private final OcorrenciaRepository ocorrenciaRepository;
+    private final CacheManager cacheManager;
+    private final CacheVersions cacheVersions;
+    private final DashboardContadoresService dashboardContadoresService;
+    private Clock clock = Clock.systemDefaultZone();
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Gera as séries dos intervalos que contêm o período.
+     *
+     * @param inicio início do período (truncado para o início do intervalo)
+     * @param fim fim do período (o intervalo que o contém é incluído)
+     * @param intervalo granularidade dos intervalos
+     * @param divisao dimensão pela qual dividir as séries (opcional)
+     * @return intervalos e uma série por chave da divisão, ou uma série "total"
+     */
+    @Transactional(readOnly = true)
+    public DashboardSeriesResponse gerarSeries(
+            LocalDateTime inicio,
+            LocalDateTime fim,
+            IntervaloTempo intervalo,
+            DivisaoSerie divisao
+    ) {
+        if (inicio == null || fim == null) {
+            throw new ValidationException("Início e fim do período são obrigatórios");
+        }
+        if (fim.isBefore(inicio)) {
+            throw new ValidationException("Fim do período deve ser posterior ao início");
+        }
+
+        LocalDateTime start = intervalo.truncar(inicio);
+        LocalDateTime last = intervalo.truncar(fim);
+        List<LocalDateTime> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = start; !bucket.isAfter(last); bucket = intervalo.somar(bucket, 1)) {
+            if (buckets.size() == MAX_SERIES_BUCKETS) {
+                throw new ValidationException("Período deve ter no máximo " + MAX_SERIES_BUCKETS + " intervalos");
+            }
+            buckets.add(bucket);
+        }
+        int quantidade = buckets.size();
+
+        String dimensao = divisao != null ? divisao.getDimensaoSql() : null;
+        String baseKey = "series_" + intervalo + "_" + dimensao + "_";
+        Cache cache = cacheManager.getCache(CACHE_DASHBOARD_SERIES);
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        // Busca no cache os intervalos já encerrados; o carimbo de versão é lido uma vez por mês
+        SerieBucketSlice[] slices = new SerieBucketSlice[quantidade];
+        String[] keys = new String[quantidade];
+        Map<List<String>, String> carimbos = new HashMap<>();
+        int firstMissing = -1;
+        int lastMissing = -1;
+        for (int i = 0; i < quantidade; i++) {
+            LocalDateTime bucket = buckets.get(i);
+            if (cache != null && isClosed(intervalo, bucket, now)) {
+                List<String> escopos = CacheVersions.escoposDaConsulta(
+                        null, bucket, intervalo.somar(bucket, 1).minusNanos(1));
+                keys[i] = baseKey + bucket + "_" + carimbos.computeIfAbsent(escopos, cacheVersions::carimbo);
+                slices[i] = cache.get(keys[i], SerieBucketSlice.class);
+            } else if (divisao == null && !bucket.isAfter(now)) {
+                slices[i] = dashboardContadoresService.buscar(bucket, now).map(this::toSlice).orElse(null);
+            }
+            if (slices[i] == null) {
+                if (firstMissing < 0) {
+                    firstMissing = i;
+                }
+                lastMissing = i;
+            }
+        }
+
+        // Agrega de uma só vez o trecho contíguo que não estava no cache
+        if (firstMissing >= 0) {
+            log.debug("Agregando séries do dashboard: intervalos {} a {} de {}", firstMissing, lastMissing, quantidade);
+
+            List<Object[]> rows = ocorrenciaRepository.aggregateSeries(
+                intervalo.getUnidadeSql(), dimensao,
+                buckets.get(firstMissing), intervalo.somar(buckets.get(lastMissing), 1)
+            );
+
+            Map<LocalDateTime, List<Object[]>> rowsByBucket = new HashMap<>();
+            for (Object[] row : rows) {
+                // [bucket, chave, total, gravidade_media]
+                rowsByBucket.computeIfAbsent(toLocalDateTime(row[0]), k -> new ArrayList<>()).add(row);
+            }
+
+            for (int i = firstMissing; i <= lastMissing; i++) {
+                if (slices[i] != null) {
+                    continue;
+                }
+                slices[i] = toSlice(rowsByBucket.getOrDefault(buckets.get(i), Collections.emptyList()), divisao);
+                if (keys[i] != null) {
+                    cache.put(keys[i], slices[i]);
+                }
+            }
+        }
+
+        return buildResponse(intervalo, divisao, buckets, slices);
+    }
+
+    /**
+     * Monta uma série por chave, na ordem em que as chaves aparecem, alinhada com os intervalos.
+     */
+    private DashboardSeriesResponse buildResponse(
+            IntervaloTempo intervalo,
+            DivisaoSerie divisao,
+            List<LocalDateTime> buckets,
+            SerieBucketSlice[] slices
+    ) {
+        int quantidade = buckets.size();
+        Map<String, DashboardSeriesResponse.Serie> series = new LinkedHashMap<>();
+        if (divisao == null) {
+            series.put(TOTAL, novaSerie(TOTAL, quantidade));
+        }
+        for (int t = 0; t < quantidade; t++) {
+            SerieBucketSlice slice = slices[t];
+            for (int j = 0; j < slice.size(); j++) {
+                DashboardSeriesResponse.Serie serie = series.computeIfAbsent(
+                        slice.getChaves()[j], chave -> novaSerie(chave, quantidade));
+                serie.getTotais()[t] = slice.getTotais()[j];
+                serie.getGravidadesMedias()[t] = slice.getGravidadesMedias()[j];
+            }
+        }
+
+        return DashboardSeriesResponse.builder()
+                .intervalo(intervalo.name())
+                .divisao(divisao != null ? divisao.name() : null)
+                .buckets(buckets)
+                .series(new ArrayList<>(series.values()))
+                .build();
+    }
+
+    private DashboardSeriesResponse.Serie novaSerie(String chave, int quantidade) {
+        return DashboardSeriesResponse.Serie.builder()
+                .chave(chave)
+                .totais(new long[quantidade])
+                .gravidadesMedias(new Double[quantidade])
+                .build();
+    }
+
+    /**
+     * Converte as linhas agregadas de um intervalo em arrays paralelos. A linha de preenchimento
+     * de um intervalo vazio (total zero) não vira chave.
+     */
+    private SerieBucketSlice toSlice(List<Object[]> rows, DivisaoSerie divisao) {
+        List<Object[]> comOcorrencias = rows.stream()
+                .filter(row -> ((Number) row[2]).longValue() > 0)
+                .toList();
+        int size = comOcorrencias.size();
+        String[] chaves = new String[size];
+        long[] totais = new long[size];
+        double[] gravidadesMedias = new double[size];
+        for (int j = 0; j < size; j++) {
+            Object[] row = comOcorrencias.get(j);
+            chaves[j] = divisao == null ? TOTAL : (String) row[1];
+            totais[j] = ((Number) row[2]).longValue();
+            gravidadesMedias[j] = ((Number) row[3]).doubleValue();
+        }
+        return new SerieBucketSlice(chaves, totais, gravidadesMedias);
+    }
+
+    /**
+     * Intervalo corrente a partir das linhas dos contadores ao vivo (só a linha do total interessa).
+     */
+    private SerieBucketSlice toSlice(List<Object[]> linhas) {
+        for (Object[] linha : linhas) {
+            // [dimensao, chave, total, criticas, gravidade_media]
+            if (TOTAL.equals(linha[0])) {
+                long total = ((Number) linha[2]).longValue();
+                return total > 0
+                        ? new SerieBucketSlice(new String[]{TOTAL}, new long[]{total},
+                                new double[]{((Number) linha[4]).doubleValue()})
+                        : new SerieBucketSlice(new String[0], new long[0], new double[0]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Apenas intervalos totalmente no passado podem ser cacheados; o intervalo corrente ainda recebe ocorrências.
+     */
+    private boolean isClosed(IntervaloTempo intervalo, LocalDateTime bucket, LocalDateTime now) {
+        return !intervalo.somar(bucket, 1).isAfter(now);
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
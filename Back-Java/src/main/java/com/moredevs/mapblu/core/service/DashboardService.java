@@ -1,15 +1,19 @@
 package com.moredevs.mapblu.core.service;
 
-import com.moredevs.mapblu.core.domain.Ocorrencia;
 import com.moredevs.mapblu.core.domain.StatusOcorrencia;
-import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.request.OcorrenciaFilterRequest;
+import com.moredevs.mapblu.core.dto.response.CursorPagedResponse;
 import com.moredevs.mapblu.core.dto.response.DashboardStatsResponse;
 import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
 import com.moredevs.mapblu.core.dto.response.PagedResponse;
 import com.moredevs.mapblu.core.mapper.OcorrenciaMapper;
 import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,11 +22,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.CACHE_STATS;
+
 /**
  * Serviço para operações de dashboard e estatísticas.
  */
@@ -33,9 +42,17 @@ public class DashboardService {
 
     private final OcorrenciaRepository ocorrenciaRepository;
     private final OcorrenciaMapper ocorrenciaMapper;
+    private final OcorrenciaService ocorrenciaService;
+    private final CacheManager cacheManager;
+    private final CacheVersions cacheVersions;
+    private final DashboardContadoresService dashboardContadoresService;
 
     /**
-     * Obtém estatísticas gerais do dashboard usando queries otimizadas do banco de dados.
+     * Obtém estatísticas gerais do dashboard com uma única consulta agregada no banco de dados.
+     * Períodos que vão do início do dia, da semana ou do mês atuais até agora são respondidos
+     * pelos contadores ao vivo, quando já recontados.
+     * A visão padrão (mês atual) fica em cache por versão dos meses cobertos: qualquer escrita
+     * no mês a invalida, e o valor vencido é servido enquanto é recalculado.
      * 
      * @param periodoInicio início do período (opcional, se null usa mês atual)
      * @param periodoFim fim do período (opcional, se null usa agora)
@@ -43,54 +60,84 @@ public class DashboardService {
      */
     @Transactional(readOnly = true)
     public DashboardStatsResponse obterEstatisticas(LocalDateTime periodoInicio, LocalDateTime periodoFim) {
+        if (periodoInicio != null && periodoFim != null) {
+            Optional<List<Object[]>> aoVivo = dashboardContadoresService.buscar(periodoInicio, periodoFim);
+            return aoVivo.isPresent()
+                    ? montarEstatisticas(aoVivo.get(), periodoInicio, periodoFim)
+                    : calcularEstatisticas(periodoInicio, periodoFim);
+        }
+
         // Se não especificado, usar mês atual como padrão
-        if (periodoInicio == null || periodoFim == null) {
-            YearMonth mesAtual = YearMonth.now();
-            periodoInicio = mesAtual.atDay(1).atStartOfDay();
-            periodoFim = LocalDateTime.now();
+        YearMonth mesAtual = YearMonth.now();
+        LocalDateTime inicio = mesAtual.atDay(1).atStartOfDay();
+        LocalDateTime fim = LocalDateTime.now();
+        Optional<List<Object[]>> aoVivo = dashboardContadoresService.buscar(inicio, fim);
+        if (aoVivo.isPresent()) {
+            return montarEstatisticas(aoVivo.get(), inicio, fim);
         }
+        String versao = cacheVersions.carimbo(CacheVersions.escoposDaConsulta(null, inicio, fim));
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(CACHE_STATS));
+        return cache.get("dashboard_" + mesAtual + "_" + versao, () -> calcularEstatisticas(inicio, fim));
+    }
 
-        final LocalDateTime inicio = periodoInicio;
-        final LocalDateTime fim = periodoFim;
-
-        // Usar queries otimizadas do banco de dados em vez de filtrar em memória
-        long totalOcorrencias = ocorrenciaRepository.countByDataCriacaoBetween(inicio, fim);
-        long ocorrenciasCriticas = ocorrenciaRepository.countCriticasByDataCriacaoBetween(inicio, fim);
-        long ocorrenciasEmAndamento = ocorrenciaRepository.countByStatusAndDataCriacaoBetween(
-                StatusOcorrencia.EM_ANDAMENTO, inicio, fim);
-        long ocorrenciasPendentes = ocorrenciaRepository.countByStatusAndDataCriacaoBetween(
-                StatusOcorrencia.PENDENTE, inicio, fim);
-        long ocorrenciasResolvidas = ocorrenciaRepository.countByStatusAndDataCriacaoBetween(
-                StatusOcorrencia.RESOLVIDO, inicio, fim);
-
-        // Gravidade média do período usando query otimizada
-        Double gravidadeMedia = ocorrenciaRepository.avgGravidadeByDataCriacaoBetween(inicio, fim);
-        if (gravidadeMedia == null) {
-            gravidadeMedia = 0.0;
+    /**
+     * Aquece a visão padrão pelo caminho que a leitura vai usar: reconta as janelas atuais dos
+     * contadores ao vivo que precisam e, se o mês ainda não puder ser respondido por eles
+     * (recontagem em outro nó ou Redis indisponível), carrega o cache de estatísticas.
+     */
+    public void aquecerEstatisticas() {
+        try {
+            dashboardContadoresService.reconciliar();
+        } catch (Exception e) {
+            log.warn("Não foi possível recontar os contadores do dashboard: {}", e.getMessage());
         }
+        obterEstatisticas(null, null);
+    }
+
+    private DashboardStatsResponse calcularEstatisticas(LocalDateTime inicio, LocalDateTime fim) {
+        return montarEstatisticas(ocorrenciaRepository.aggregateDashboard(inicio, fim), inicio, fim);
+    }
 
+    /**
+     * Monta a resposta a partir das linhas agregadas, vindas do banco ou dos contadores ao vivo.
+     */
+    private DashboardStatsResponse montarEstatisticas(List<Object[]> linhas, LocalDateTime inicio, LocalDateTime fim) {
+        long totalOcorrencias = 0;
+        long ocorrenciasCriticas = 0;
+        double gravidadeMedia = 0.0;
         Map<String, Long> ocorrenciasPorTipo = new HashMap<>();
-        List<Object[]> tiposCount = ocorrenciaRepository.countByTipoProblemaAndDataCriacaoBetween(inicio, fim);
-        for (Object[] result : tiposCount) {
-            TipoProblema tipo = (TipoProblema) result[0];
-            Long count = (Long) result[1];
-            ocorrenciasPorTipo.put(tipo != null ? tipo.name() : "OUTROS", count);
+        Map<String, Long> ocorrenciasPorBairro = new HashMap<>();
+        Map<String, Long> contagemPorStatus = new HashMap<>();
+        Map<String, Long> ocorrenciasPorGravidade = new HashMap<>();
+
+        // Totais gerais e contagens por tipo, bairro, status e gravidade
+        for (Object[] row : linhas) {
+            // [dimensao, chave, total, criticas, gravidade_media]
+            String chave = (String) row[1];
+            long total = ((Number) row[2]).longValue();
+            switch ((String) row[0]) {
+                case "tipo" -> ocorrenciasPorTipo.put(chave != null ? chave : "OUTROS", total);
+                case "bairro" -> ocorrenciasPorBairro.put(chave != null ? chave : "Não informado", total);
+                case "status" -> contagemPorStatus.put(chave, total);
+                case "gravidade" -> ocorrenciasPorGravidade.put(chave, total);
+                default -> {
+                    totalOcorrencias = total;
+                    ocorrenciasCriticas = ((Number) row[3]).longValue();
+                    gravidadeMedia = row[4] != null ? ((Number) row[4]).doubleValue() : 0.0;
+                }
+            }
         }
 
-        // Estatísticas por bairro - buscar ocorrências do período e agrupar
-        List<Ocorrencia> ocorrenciasDoPeriodo = ocorrenciaRepository.findAllByDataCriacaoBetween(inicio, fim);
-        Map<String, Long> ocorrenciasPorBairro = ocorrenciasDoPeriodo.stream()
-                .collect(Collectors.groupingBy(
-                        oc -> oc.getBairro() != null ? oc.getBairro() : "Não informado",
-                        Collectors.counting()
-                ));
+        long ocorrenciasEmAndamento = contagemPorStatus.getOrDefault(StatusOcorrencia.EM_ANDAMENTO.name(), 0L);
+        long ocorrenciasPendentes = contagemPorStatus.getOrDefault(StatusOcorrencia.PENDENTE.name(), 0L);
+        long ocorrenciasResolvidas = contagemPorStatus.getOrDefault(StatusOcorrencia.RESOLVIDO.name(), 0L);
 
         Map<String, Long> ocorrenciasPorStatus = new HashMap<>();
         ocorrenciasPorStatus.put(StatusOcorrencia.PENDENTE.name(), ocorrenciasPendentes);
         ocorrenciasPorStatus.put(StatusOcorrencia.EM_ANDAMENTO.name(), ocorrenciasEmAndamento);
         ocorrenciasPorStatus.put(StatusOcorrencia.RESOLVIDO.name(), ocorrenciasResolvidas);
-        ocorrenciasPorStatus.put(StatusOcorrencia.CANCELADO.name(), 
-                ocorrenciaRepository.countByStatusAndDataCriacaoBetween(StatusOcorrencia.CANCELADO, inicio, fim));
+        ocorrenciasPorStatus.put(StatusOcorrencia.CANCELADO.name(),
+                contagemPorStatus.getOrDefault(StatusOcorrencia.CANCELADO.name(), 0L));
 
         return DashboardStatsResponse.builder()
                 .totalOcorrencias(totalOcorrencias)
@@ -101,6 +148,7 @@ public class DashboardService {
                 .ocorrenciasPorTipo(ocorrenciasPorTipo)
                 .ocorrenciasPorBairro(ocorrenciasPorBairro)
                 .ocorrenciasPorStatus(ocorrenciasPorStatus)
+                .ocorrenciasPorGravidade(ocorrenciasPorGravidade)
                 .gravidadeMedia(gravidadeMedia)
                 .ocorrenciasDoMes(totalOcorrencias) // Para compatibilidade
                 .periodoInicio(inicio)
@@ -114,21 +162,21 @@ public class DashboardService {
      * @param page página
      * @param size tamanho da página
      * @param periodoInicio início do período (opcional, se null usa mês atual)
-     * @param periodoFim fim do período (opcional, se null usa agora)
+     * @param periodoFim fim do período (opcional, se null usa o fim do mês atual)
      * @return página de ocorrências do período
      */
     @Transactional(readOnly = true)
     public PagedResponse<OcorrenciaResponse> obterOcorrenciasDoMes(int page, int size, LocalDateTime periodoInicio, LocalDateTime periodoFim) {
-        // Se não especificado, usar mês atual como padrão
+        // Se não especificado, usar o mês atual inteiro como padrão
         if (periodoInicio == null || periodoFim == null) {
             YearMonth mesAtual = YearMonth.now();
             periodoInicio = mesAtual.atDay(1).atStartOfDay();
-            periodoFim = LocalDateTime.now();
+            periodoFim = fimDoMes(mesAtual);
         }
 
         // Usar query otimizada com filtro de data diretamente no banco
         Pageable pageable = PageRequest.of(page, size);
-        Page<Ocorrencia> pageResult = ocorrenciaRepository.findByDataCriacaoBetween(
+        Page<OcorrenciaResumo> pageResult = ocorrenciaRepository.findResumoByDataCriacaoBetween(
                 periodoInicio, periodoFim, pageable
         );
 
@@ -146,6 +194,49 @@ public class DashboardService {
                 .last(pageResult.isLast())
                 .build();
     }
-}
 
+    /**
+     * Obtém ocorrências do período com paginação por cursor (keyset), ordenadas da mais recente para a mais antiga.
+     * Evita OFFSET em páginas profundas; o total é opcional e fica em cache.
+     *
+     * @param size tamanho da página
+     * @param periodoInicio início do período (opcional, se null usa mês atual)
+     * @param periodoFim fim do período (opcional, se null usa o fim do mês atual)
+     * @param cursor cursor retornado em nextCursor pela página anterior
+     * @param incluirTotal se deve calcular o total de elementos
+     * @return página de ocorrências com o cursor da próxima página
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<OcorrenciaResponse> obterOcorrenciasDoMesPorCursor(
+            int size,
+            LocalDateTime periodoInicio,
+            LocalDateTime periodoFim,
+            String cursor,
+            boolean incluirTotal
+    ) {
+        // Se não especificado, usar o mês atual inteiro: a janela fica estável entre as páginas
+        // e o total em cache é reaproveitado durante o mês, até a versão dos dados mudar
+        if (periodoInicio == null || periodoFim == null) {
+            YearMonth mesAtual = YearMonth.now();
+            periodoInicio = mesAtual.atDay(1).atStartOfDay();
+            periodoFim = fimDoMes(mesAtual);
+        }
 
+        OcorrenciaFilterRequest filtros = OcorrenciaFilterRequest.builder()
+                .dataInicio(periodoInicio)
+                .dataFim(periodoFim)
+                .build();
+
+        return ocorrenciaService.listarPorCursor(
+                filtros, OcorrenciaService.ORDENAR_POR_DATA, cursor, size, incluirTotal
+        );
+    }
+
+    /**
+     * Último instante do mês na precisão do banco (microssegundos): o filtro de data é inclusivo
+     * e não pode alcançar a meia-noite do mês seguinte.
+     */
+    private static LocalDateTime fimDoMes(YearMonth mes) {
+        return mes.plusMonths(1).atDay(1).atStartOfDay().minus(1, ChronoUnit.MICROS);
+    }
+}
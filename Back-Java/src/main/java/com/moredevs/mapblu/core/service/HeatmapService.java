@@ -2,17 +2,34 @@ package com.moredevs.mapblu.core.service;
 
 import com.moredevs.mapblu.core.dto.request.HeatmapFilterRequest;
 import com.moredevs.mapblu.core.dto.response.*;
+import com.moredevs.mapblu.core.exception.ValidationException;
 import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.geo.BairroLocator;
+import com.moredevs.mapblu.core.service.geo.BairroRollup;
+import com.moredevs.mapblu.core.service.geojson.GeoJsonDocument;
+import com.moredevs.mapblu.core.service.geojson.GeoJsonStreamWriter;
+import com.moredevs.mapblu.core.service.heatmap.DensityTile;
+import com.moredevs.mapblu.core.service.heatmap.DensityTileEncoder;
+import com.moredevs.mapblu.core.service.heatmap.HeatmapGridEncoder;
+import com.moredevs.mapblu.core.service.heatmap.KernelDensityRaster;
 import com.moredevs.mapblu.shared.constant.Constants;
+import com.moredevs.mapblu.shared.util.GeoUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.moredevs.mapblu.shared.constant.Constants.Geo;
 
@@ -25,15 +42,24 @@ import static com.moredevs.mapblu.shared.constant.Constants.Geo;
 @Slf4j
 public class HeatmapService {
 
+    /**
+     * Severidades na ordem da paleta enviada no formato binário.
+     */
+    static final List<String> SEVERITIES = List.of("critical", "warning", "moderate", "low");
+
     private final OcorrenciaRepository ocorrenciaRepository;
+    private final BairroLocator bairroLocator;
+    private final BairroService bairroService;
+    private final CacheManager cacheManager;
+    private final CacheVersions cacheVersions;
 
     /**
      * Gera zonas do heatmap (polígonos) para o frontend Flutter.
      * Agrupa ocorrências em grid dinâmico e retorna polígonos com informações de severidade.
+     * A resposta fica no cache sob uma chave com todos os filtros (inclusive bounding box e
+     * tamanho do grid) e o carimbo de versão dos escopos filtrados.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = Constants.Cache.CACHE_HEATMAP, 
-               key = "#filter?.tipoProblema + '_' + #filter?.bairro + '_' + #filter?.dataInicio + '_' + #filter?.dataFim")
     public HeatmapResponse generateHeatmapZones(HeatmapFilterRequest filter) {
         log.debug("Gerando zonas do heatmap com filtros: {}", filter);
 
@@ -47,10 +73,6 @@ public class HeatmapService {
         double gridSizeMeters = filter != null && filter.getGridSize() != null 
             ? filter.getGridSize() 
             : Geo.DEFAULT_GRID_SIZE_METERS;
-        double gridSizeDegrees = gridSizeMeters * Geo.METERS_TO_DEGREES;
-
-        // Converte para Web Mercator (3857) para cálculos mais precisos
-        double gridSizeMercator = gridSizeMeters;
 
         String tipoProblemaStr = filter != null && filter.getTipoProblema() != null 
             ? filter.getTipoProblema().name() 
@@ -59,14 +81,35 @@ public class HeatmapService {
         LocalDateTime dataInicio = filter != null ? filter.getDataInicio() : null;
         LocalDateTime dataFim = filter != null ? filter.getDataFim() : null;
 
+        // Bairro reconhecido filtra pelo ID canônico; caso contrário, pelo texto livre
+        String bairro = filter != null ? filter.getBairro() : null;
+        UUID bairroId = bairroLocator.findIdByNome(bairro).orElse(null);
+        String bairroTexto = bairroId == null ? bairro : null;
+
+        String key = String.format(Locale.ROOT, "zonas_%s_%s_%s_%.5f_%.5f_%.5f_%.5f_%.0f_%s_%s_%s",
+            tipoProblemaStr, bairroId, bairroTexto, minLat, maxLat, minLng, maxLng, gridSizeMeters, dataInicio, dataFim,
+            cacheVersions.carimbo(CacheVersions.escoposDaConsulta(bairroId, dataInicio, dataFim)));
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(Constants.Cache.CACHE_HEATMAP));
+        return cache.get(key, () -> buildHeatmapZones(
+            minLat, maxLat, minLng, maxLng, gridSizeMeters, tipoProblemaStr, bairroId, bairroTexto, dataInicio, dataFim));
+    }
+
+    private HeatmapResponse buildHeatmapZones(double minLat, double maxLat, double minLng, double maxLng,
+                                              double gridSizeMeters, String tipoProblemaStr, UUID bairroId,
+                                              String bairroTexto, LocalDateTime dataInicio, LocalDateTime dataFim) {
+        double gridSizeDegrees = gridSizeMeters * Geo.METERS_TO_DEGREES;
+
+        // Converte para Web Mercator (3857) para cálculos mais precisos
+        double gridSizeMercator = gridSizeMeters;
+
         // Busca ocorrências agrupadas por grid
         List<Object[]> gridData = ocorrenciaRepository.aggregateByGrid(
-            minLat, maxLat, minLng, maxLng, gridSizeMercator, tipoProblemaStr, dataInicio, dataFim
+            minLat, maxLat, minLng, maxLng, gridSizeMercator, tipoProblemaStr, bairroId, bairroTexto, dataInicio, dataFim
         );
 
         // Converte para zonas
         List<HeatmapZoneResponse> zones = gridData.stream()
-            .map(data -> createZoneFromGridData(data, gridSizeDegrees))
+            .map(data -> createZoneFromGridData(data, gridSizeDegrees, gridSizeMeters))
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
 
@@ -82,13 +125,77 @@ public class HeatmapService {
     }
 
     /**
-     * Gera heatmap em formato hexágonos (pontos) para o frontend Angular.
-     * Retorna GeoJSON FeatureCollection com pontos hexagonais.
+     * Gera as zonas do heatmap no formato binário compacto para o frontend Flutter.
+     * Mesma agregação de {@link #generateHeatmapZones}, mas cada zona é enviada apenas
+     * como centro, contagem, severidade e gravidade média; o polígono é reconstruído
+     * no cliente a partir do tamanho da célula.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = Constants.Cache.CACHE_HEATMAP, 
-               key = "'hexagons_' + #filter?.tipoProblema + '_' + #filter?.dataInicio + '_' + #filter?.dataFim + '_' + #filter?.minLat + '_' + #filter?.maxLat + '_' + #filter?.minLng + '_' + #filter?.maxLng")
-    public GeoJsonFeatureCollection generateHexagonHeatmap(HeatmapFilterRequest filter) {
+    public byte[] generateHeatmapGrid(HeatmapFilterRequest filter) {
+        log.debug("Gerando grid binário do heatmap com filtros: {}", filter);
+
+        double minLat = filter != null && filter.getMinLat() != null ? filter.getMinLat() : Geo.BLUMENAU_MIN_LAT;
+        double maxLat = filter != null && filter.getMaxLat() != null ? filter.getMaxLat() : Geo.BLUMENAU_MAX_LAT;
+        double minLng = filter != null && filter.getMinLng() != null ? filter.getMinLng() : Geo.BLUMENAU_MIN_LNG;
+        double maxLng = filter != null && filter.getMaxLng() != null ? filter.getMaxLng() : Geo.BLUMENAU_MAX_LNG;
+
+        double gridSizeMeters = filter != null && filter.getGridSize() != null
+            ? filter.getGridSize()
+            : Geo.DEFAULT_GRID_SIZE_METERS;
+        double gridSizeDegrees = gridSizeMeters * Geo.METERS_TO_DEGREES;
+
+        String tipoProblemaStr = filter != null && filter.getTipoProblema() != null
+            ? filter.getTipoProblema().name()
+            : null;
+
+        LocalDateTime dataInicio = filter != null ? filter.getDataInicio() : null;
+        LocalDateTime dataFim = filter != null ? filter.getDataFim() : null;
+
+        String bairro = filter != null ? filter.getBairro() : null;
+        UUID bairroId = bairroLocator.findIdByNome(bairro).orElse(null);
+        String bairroTexto = bairroId == null ? bairro : null;
+
+        List<Object[]> gridData = ocorrenciaRepository.aggregateByGrid(
+            minLat, maxLat, minLng, maxLng, gridSizeMeters, tipoProblemaStr, bairroId, bairroTexto, dataInicio, dataFim
+        );
+
+        List<HeatmapGridEncoder.Cell> cells = new ArrayList<>(gridData.size());
+        // [totalProblems, critical, warning, moderate, low]
+        int[] summary = new int[1 + SEVERITIES.size()];
+
+        for (Object[] data : gridData) {
+            // [center_lng, center_lat, count, avg_gravidade, max_gravidade]
+            double centerLng = ((Number) data[0]).doubleValue();
+            double centerLat = ((Number) data[1]).doubleValue();
+            int count = ((Number) data[2]).intValue();
+            double avgGravidade = data[3] != null ? ((Number) data[3]).doubleValue() : 0.0;
+            int maxGravidade = data[4] != null ? ((Number) data[4]).intValue() : 0;
+
+            int severityIndex = SEVERITIES.indexOf(determineSeverity(maxGravidade, count));
+
+            summary[0] += count;
+            summary[1 + severityIndex]++;
+            cells.add(new HeatmapGridEncoder.Cell(centerLat, centerLng, count, avgGravidade, severityIndex));
+        }
+
+        List<HeatmapGridEncoder.PaletteEntry> palette = SEVERITIES.stream()
+            .map(severity -> new HeatmapGridEncoder.PaletteEntry(severity, getColorBySeverity(severity)))
+            .toList();
+
+        return HeatmapGridEncoder.encode(System.currentTimeMillis(), gridSizeDegrees, palette, summary, cells);
+    }
+
+    /**
+     * Gera o heatmap em formato hexágonos para o frontend Angular, como GeoJSON pronto.
+     * O documento inteiro é montado antes de ser devolvido, de modo que um erro na consulta
+     * vira uma resposta de erro em vez de um JSON truncado, e fica no cache sob uma chave
+     * com o carimbo de versão dos escopos filtrados: qualquer escrita que afete a consulta
+     * torna a entrada obsoleta.
+     *
+     * @return GeoJSON FeatureCollection serializado em UTF-8
+     */
+    @Transactional(readOnly = true)
+    public byte[] generateHexagonHeatmap(HeatmapFilterRequest filter, int precision) {
         log.debug("Gerando hexágonos do heatmap com filtros: {}", filter);
 
         // Define bounding box - expande bastante se não fornecido para garantir que capture todos os dados
@@ -99,10 +206,6 @@ public class HeatmapService {
         
         log.debug("Bounding box: minLat={}, maxLat={}, minLng={}, maxLng={}", minLat, maxLat, minLng, maxLng);
 
-        // Calcula tamanho do hexágono
-        double hexSizeMeters = Geo.DEFAULT_HEX_SIZE_METERS;
-        double hexSizeMercator = hexSizeMeters;
-
         String tipoProblemaStr = filter != null && filter.getTipoProblema() != null 
             ? filter.getTipoProblema().name() 
             : null;
@@ -110,16 +213,35 @@ public class HeatmapService {
         LocalDateTime dataInicio = filter != null ? filter.getDataInicio() : null;
         LocalDateTime dataFim = filter != null ? filter.getDataFim() : null;
 
+        // Bairro reconhecido filtra pelo ID canônico; caso contrário, pelo texto livre
+        String bairro = filter != null ? filter.getBairro() : null;
+        UUID bairroId = bairroLocator.findIdByNome(bairro).orElse(null);
+        String bairroTexto = bairroId == null ? bairro : null;
+
+        int casas = Math.max(0, Math.min(precision, GeoJsonStreamWriter.MAX_PRECISION));
+        String key = String.format(Locale.ROOT, "hex_%s_%s_%s_%.5f_%.5f_%.5f_%.5f_%s_%s_%d_%s",
+            tipoProblemaStr, bairroId, bairroTexto, minLat, maxLat, minLng, maxLng, dataInicio, dataFim, casas,
+            cacheVersions.carimbo(CacheVersions.escoposDaConsulta(bairroId, dataInicio, dataFim)));
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(Constants.Cache.CACHE_HEATMAP));
+        return cache.get(key, () -> new GeoJsonDocument(writeHexagons(
+            minLat, maxLat, minLng, maxLng, tipoProblemaStr, bairroId, bairroTexto, dataInicio, dataFim, casas)))
+            .getContent();
+    }
+
+    private byte[] writeHexagons(double minLat, double maxLat, double minLng, double maxLng, String tipoProblemaStr,
+                                 UUID bairroId, String bairroTexto, LocalDateTime dataInicio, LocalDateTime dataFim,
+                                 int precision) {
+        // Calcula tamanho do hexágono
+        double hexSizeMeters = Geo.DEFAULT_HEX_SIZE_METERS;
+        double hexSizeMercator = hexSizeMeters;
+        double hexRadiusDegrees = hexSizeMeters * Geo.METERS_TO_DEGREES;
+
         // Busca ocorrências agrupadas por hexágono
         List<Object[]> hexData = ocorrenciaRepository.aggregateByHexagon(
-            minLat, maxLat, minLng, maxLng, hexSizeMercator, tipoProblemaStr, dataInicio, dataFim
+            minLat, maxLat, minLng, maxLng, hexSizeMercator, tipoProblemaStr, bairroId, bairroTexto, dataInicio, dataFim
         );
 
         log.debug("Hexágonos encontrados: {}", hexData.size());
-        if (!hexData.isEmpty()) {
-            log.debug("Primeiro hexágono: lng={}, lat={}, count={}", 
-                hexData.get(0)[0], hexData.get(0)[1], hexData.get(0)[2]);
-        }
 
         // Calcula intensidade máxima para normalização
         int maxCount = hexData.stream()
@@ -129,23 +251,217 @@ public class HeatmapService {
         
         log.debug("Max count para normalização: {}", maxCount);
 
-        // Converte para GeoJSON Features
-        List<GeoJsonFeature> features = hexData.stream()
-            .map(data -> createHexagonFeature(data, maxCount))
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
+        // Buffers de vértices reaproveitados entre as features
+        double[] lngs = new double[6];
+        double[] lats = new double[6];
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GeoJsonStreamWriter writer = new GeoJsonStreamWriter(out, precision)) {
+            writer.beginFeatureCollection();
+            for (Object[] data : hexData) {
+                // [lng, lat, count, avg_gravidade]
+                double lng = ((Number) data[0]).doubleValue();
+                double lat = ((Number) data[1]).doubleValue();
+                int count = ((Number) data[2]).intValue();
+                double avgGravidade = data[3] != null ? ((Number) data[3]).doubleValue() : 0.0;
+
+                // Calcula intensidade normalizada (0.0 a 1.0)
+                double intensity = maxCount > 0 ? (double) count / maxCount : 0.0;
+
+                fillHexagonVertices(lat, lng, hexRadiusDegrees, lngs, lats);
+
+                writer.beginFeature();
+                writer.writePolygon(lngs, lats, 6);
+                writer.beginProperties();
+                writer.writeProperty("id", String.format("hex_%d_%d",
+                    (int) (lat * 10000),
+                    (int) (lng * 10000)));
+                writer.writeProperty("occurrenceCount", count);
+                writer.writeProperty("intensity", Math.round(intensity * 100.0) / 100.0);
+                writer.writeProperty("avgGravidade", Math.round(avgGravidade * 10.0) / 10.0);
+                writer.endFeature();
+            }
+            writer.endFeatureCollection();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
 
-        return GeoJsonFeatureCollection.builder()
-            .features(features)
-            .build();
+    /**
+     * Escreve os pontos brutos das ocorrências como GeoJSON, em streaming.
+     * As linhas são lidas do banco com fetch size limitado e escritas uma a uma,
+     * sem hidratar entidades nem montar a coleção em memória.
+     */
+    @Transactional(readOnly = true)
+    public void writePontos(HeatmapFilterRequest filter, OutputStream out, int precision) throws IOException {
+        log.debug("Gerando pontos do heatmap com filtros: {}", filter);
+
+        double minLat = filter != null && filter.getMinLat() != null ? filter.getMinLat() : Geo.BLUMENAU_MIN_LAT;
+        double maxLat = filter != null && filter.getMaxLat() != null ? filter.getMaxLat() : Geo.BLUMENAU_MAX_LAT;
+        double minLng = filter != null && filter.getMinLng() != null ? filter.getMinLng() : Geo.BLUMENAU_MIN_LNG;
+        double maxLng = filter != null && filter.getMaxLng() != null ? filter.getMaxLng() : Geo.BLUMENAU_MAX_LNG;
+
+        String tipoProblemaStr = filter != null && filter.getTipoProblema() != null
+            ? filter.getTipoProblema().name()
+            : null;
+
+        LocalDateTime dataInicio = filter != null ? filter.getDataInicio() : null;
+        LocalDateTime dataFim = filter != null ? filter.getDataFim() : null;
+
+        try (Stream<Object[]> rows = ocorrenciaRepository.streamPointsWithinBoundingBox(
+                minLat, maxLat, minLng, maxLng, tipoProblemaStr, dataInicio, dataFim);
+             GeoJsonStreamWriter writer = new GeoJsonStreamWriter(out, precision)) {
+
+            writer.beginFeatureCollection();
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                // [id, lng, lat, gravidade, tipo_problema, status]
+                Object[] row = iterator.next();
+                writer.beginFeature();
+                writer.writePoint(((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue());
+                writer.beginProperties();
+                writer.writeProperty("id", row[0].toString());
+                writer.writeProperty("gravidade", ((Number) row[3]).intValue());
+                writer.writeProperty("tipoProblema", (String) row[4]);
+                writer.writeProperty("status", (String) row[5]);
+                writer.endFeature();
+            }
+            writer.endFeatureCollection();
+        }
+    }
+
+    /**
+     * Escreve o choropleth por bairro como GeoJSON, em streaming.
+     * Cada bairro oficial é uma feature com o limite simplificado e os agregados
+     * do rollup por bairro canônico; bairros sem ocorrências saem com contagem zero.
+     */
+    public void writeBairros(HeatmapFilterRequest filter, OutputStream out, int precision) throws IOException {
+        log.debug("Gerando choropleth por bairro com filtros: {}", filter);
+
+        Map<UUID, BairroRollup> rollups = bairroService.obterRollups(filter).stream()
+            .collect(Collectors.toMap(BairroRollup::getBairroId, r -> r));
+
+        try (GeoJsonStreamWriter writer = new GeoJsonStreamWriter(out, precision)) {
+            writer.beginFeatureCollection();
+            for (BairroLocator.Entry bairro : bairroLocator.getEntries()) {
+                BairroRollup rollup = rollups.get(bairro.id());
+                int count = rollup != null ? rollup.getCount() : 0;
+                int maxGravidade = rollup != null ? rollup.getMaxGravidade() : 0;
+                double avgGravidade = rollup != null ? rollup.getAvgGravidade() : 0.0;
+                String severity = determineSeverity(maxGravidade, count);
+
+                writer.beginFeature();
+                writer.writeGeometry(bairro.geometriaSimplificada());
+                writer.beginProperties();
+                writer.writeProperty("id", bairro.id().toString());
+                writer.writeProperty("nome", bairro.nome());
+                writer.writeProperty("occurrenceCount", count);
+                writer.writeProperty("criticalCount", rollup != null ? rollup.getCriticas() : 0);
+                writer.writeProperty("avgGravidade", Math.round(avgGravidade * 10.0) / 10.0);
+                writer.writeProperty("severity", severity);
+                writer.writeProperty("color", getColorBySeverity(severity));
+                writer.endFeature();
+            }
+            writer.endFeatureCollection();
+        }
+    }
+
+    /**
+     * Renderiza um tile de densidade (KDE) no esquema z/x/y do Web Mercator.
+     * Cada ocorrência contribui com peso igual à sua gravidade; a suavização é um
+     * blur gaussiano aproximado em O(pixels). O tile é renderizado com margem de
+     * 3 sigmas e recortado, para que tiles vizinhos se encaixem sem emendas.
+     *
+     * @param z nível de zoom
+     * @param x coluna do tile
+     * @param y linha do tile
+     * @param bandwidthMeters desvio padrão do kernel em metros
+     * @param filter filtros de tipo e período (bounding box é ignorada)
+     * @return tile com a intensidade quantizada em uint8
+     */
+    @Transactional(readOnly = true)
+    public DensityTile renderDensityTile(int z, int x, int y, double bandwidthMeters, HeatmapFilterRequest filter) {
+        if (z < 0 || z > Geo.KDE_MAX_ZOOM || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new ValidationException(String.format("Tile inválido: %d/%d/%d", z, x, y));
+        }
+        if (bandwidthMeters <= 0) {
+            throw new ValidationException("Banda do kernel deve ser positiva");
+        }
+
+        String tipoProblemaStr = filter != null && filter.getTipoProblema() != null
+            ? filter.getTipoProblema().name()
+            : null;
+        LocalDateTime dataInicio = filter != null ? filter.getDataInicio() : null;
+        LocalDateTime dataFim = filter != null ? filter.getDataFim() : null;
+
+        // O tile não filtra por bairro: a versão vem dos meses do período ou do global
+        String key = "kde_" + z + "_" + x + "_" + y + "_" + bandwidthMeters + "_" + tipoProblemaStr + "_"
+            + dataInicio + "_" + dataFim + "_"
+            + cacheVersions.carimbo(CacheVersions.escoposDaConsulta(null, dataInicio, dataFim));
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(Constants.Cache.CACHE_HEATMAP));
+        return cache.get(key, () -> buildDensityTile(z, x, y, bandwidthMeters, tipoProblemaStr, dataInicio, dataFim));
+    }
+
+    private DensityTile buildDensityTile(int z, int x, int y, double bandwidthMeters, String tipoProblemaStr,
+                                         LocalDateTime dataInicio, LocalDateTime dataFim) {
+        int tileSize = Geo.KDE_TILE_SIZE;
+        double tileSpan = 2 * Geo.WEB_MERCATOR_ORIGIN / (1 << z);
+        double metersPerPixel = tileSpan / tileSize;
+        double minX = -Geo.WEB_MERCATOR_ORIGIN + x * tileSpan;
+        double maxY = Geo.WEB_MERCATOR_ORIGIN - y * tileSpan;
+
+        // Metros no Web Mercator são esticados por 1/cos(lat)
+        double cosLat = Math.cos(Math.toRadians(mercatorToLat(maxY - tileSpan / 2)));
+        double sigmaPixels = bandwidthMeters / cosLat / metersPerPixel;
+        int margin = Math.min((int) Math.ceil(3 * sigmaPixels), Geo.KDE_MAX_MARGIN_PIXELS);
+
+        double marginMeters = margin * metersPerPixel;
+        double rasterMinX = minX - marginMeters;
+        double rasterMaxX = minX + tileSpan + marginMeters;
+        double rasterMinY = maxY - tileSpan - marginMeters;
+        double rasterMaxY = maxY + marginMeters;
+
+        KernelDensityRaster raster = new KernelDensityRaster(tileSize + 2 * margin, tileSize + 2 * margin,
+            rasterMinX, rasterMinY, rasterMaxX, rasterMaxY);
+
+        try (Stream<Object[]> rows = ocorrenciaRepository.streamPointsWithinBoundingBox(
+                mercatorToLat(rasterMinY), mercatorToLat(rasterMaxY),
+                mercatorToLng(rasterMinX), mercatorToLng(rasterMaxX),
+                tipoProblemaStr, dataInicio, dataFim)) {
+            rows.forEach(row -> {
+                // [id, lng, lat, gravidade, tipo_problema, status]
+                double lng = ((Number) row[1]).doubleValue();
+                double lat = ((Number) row[2]).doubleValue();
+                raster.add(GeoUtil.lngToWebMercator(lng), GeoUtil.latToWebMercator(lat), ((Number) row[3]).doubleValue());
+            });
+        }
+
+        raster.blur(sigmaPixels);
+        float[] density = raster.crop(margin);
+
+        // Converte peso por pixel em peso por km² de terreno
+        double pixelAreaKm2 = Math.pow(metersPerPixel * cosLat, 2) / 1_000_000.0;
+        double saturation = Geo.KDE_DEFAULT_SATURATION * pixelAreaKm2;
+
+        return new DensityTile(tileSize, tileSize, DensityTileEncoder.toUint8(density, saturation));
+    }
+
+    private static double mercatorToLng(double x) {
+        return Math.toDegrees(x / Geo.WEB_MERCATOR_RADIUS);
+    }
+
+    private static double mercatorToLat(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(y / Geo.WEB_MERCATOR_RADIUS)));
     }
 
     /**
-     * Cria uma zona a partir dos dados do grid.
+     * Cria uma zona a partir dos dados do grid. O ID é o da célula do grid
+     * ({@link GeoUtil#gridCellIdFromMercator}), o mesmo que o canal ao vivo envia.
      */
-    private HeatmapZoneResponse createZoneFromGridData(Object[] data, double gridSize) {
+    private HeatmapZoneResponse createZoneFromGridData(Object[] data, double gridSize, double gridSizeMeters) {
         try {
-            // [center_lng, center_lat, count, avg_gravidade, max_gravidade]
+            // [center_lng, center_lat, count, avg_gravidade, max_gravidade, cell_x, cell_y]
             double centerLng = ((Number) data[0]).doubleValue();
             double centerLat = ((Number) data[1]).doubleValue();
             int count = ((Number) data[2]).intValue();
@@ -161,10 +477,9 @@ public class HeatmapService {
             String severity = determineSeverity(maxGravidade, count);
             String color = getColorBySeverity(severity);
 
-            // Gera ID único
-            String id = String.format("zone_%d_%d", 
-                (int) (centerLat * 10000), 
-                (int) (centerLng * 10000));
+            // ID da célula do grid
+            String id = GeoUtil.gridCellIdFromMercator(
+                ((Number) data[5]).doubleValue(), ((Number) data[6]).doubleValue(), gridSizeMeters);
 
             // Determina tipo baseado na gravidade (pode ser melhorado com análise de tipos)
             String type = determineTypeFromGravidade(maxGravidade);
@@ -223,58 +538,11 @@ public class HeatmapService {
     }
 
     /**
-     * Cria uma feature hexágono a partir dos dados agregados.
-     * Retorna Polygon geometry com coordenadas completas do hexágono.
-     */
-    private GeoJsonFeature createHexagonFeature(Object[] data, int maxCount) {
-        try {
-            // [lng, lat, count, avg_gravidade]
-            double lng = ((Number) data[0]).doubleValue();
-            double lat = ((Number) data[1]).doubleValue();
-            int count = ((Number) data[2]).intValue();
-            double avgGravidade = data[3] != null ? ((Number) data[3]).doubleValue() : 0.0;
-
-            // Calcula intensidade normalizada (0.0 a 1.0)
-            double intensity = maxCount > 0 ? (double) count / maxCount : 0.0;
-
-            // Calcula o tamanho do hexágono em graus (aproximadamente 300m)
-            double hexSizeMeters = Geo.DEFAULT_HEX_SIZE_METERS;
-            double hexSizeDegrees = hexSizeMeters * Geo.METERS_TO_DEGREES;
-            double hexRadiusDegrees = hexSizeDegrees;
-
-            // Gera coordenadas do hexágono (6 vértices + fechamento)
-            List<List<Double>> hexagonRing = createHexagonCoordinates(lat, lng, hexRadiusDegrees);
-
-            // Cria geometria Polygon (GeoJSON Polygon: [[[lng, lat], ...]])
-            GeoJsonGeometry geometry = GeoJsonGeometry.createPolygonFromRing(hexagonRing);
-
-            // Cria propriedades
-            Map<String, Object> properties = new HashMap<>();
-            properties.put("id", String.format("hex_%d_%d", 
-                (int) (lat * 10000), 
-                (int) (lng * 10000)));
-            properties.put("occurrenceCount", count);
-            properties.put("intensity", Math.round(intensity * 100.0) / 100.0);
-            properties.put("avgGravidade", Math.round(avgGravidade * 10.0) / 10.0);
-
-            return GeoJsonFeature.builder()
-                .geometry(geometry)
-                .properties(properties)
-                .build();
-
-        } catch (Exception e) {
-            log.error("Erro ao criar feature hexágono: {}", e.getMessage(), e);
-            return null;
-        }
-    }
-
-    /**
-     * Gera as coordenadas de um hexágono (6 vértices + fechamento).
+     * Preenche os 6 vértices de um hexágono nos buffers informados.
      * Hexágono orientado pointy-top (ponta para cima).
      */
-    private List<List<Double>> createHexagonCoordinates(double centerLat, double centerLng, double radiusDegrees) {
-        List<List<Double>> coordinates = new ArrayList<>();
-        
+    private void fillHexagonVertices(double centerLat, double centerLng, double radiusDegrees,
+                                     double[] lngs, double[] lats) {
         // Calcula o raio em lat/lng (aproximação)
         double radiusLat = radiusDegrees;
         double radiusLng = radiusDegrees / Math.cos(Math.toRadians(centerLat));
@@ -287,23 +555,15 @@ public class HeatmapService {
             // Ângulo base: cada vértice está a 60° (π/3) do anterior
             // Começa em -90° e rotaciona 30° para ter ponta no topo
             double angle = (Math.PI / 3) * i - (Math.PI / 2) + rotationOffset;
-            double lat = centerLat + radiusLat * Math.cos(angle);
-            double lng = centerLng + radiusLng * Math.sin(angle);
-            
-            // GeoJSON Polygon coordinates: [lng, lat]
-            coordinates.add(Arrays.asList(lng, lat));
+            lats[i] = centerLat + radiusLat * Math.cos(angle);
+            lngs[i] = centerLng + radiusLng * Math.sin(angle);
         }
-        
-        // Fecha o polígono (último ponto = primeiro ponto)
-        coordinates.add(coordinates.get(0));
-        
-        return coordinates;
     }
 
     /**
      * Determina a severidade baseada na gravidade máxima e contagem.
      */
-    private String determineSeverity(int maxGravidade, int count) {
+    static String determineSeverity(int maxGravidade, int count) {
         if (maxGravidade >= 8 || count >= 20) {
             return "critical";
         } else if (maxGravidade >= 6 || count >= 10) {
@@ -318,7 +578,7 @@ public class HeatmapService {
     /**
      * Retorna a cor hexadecimal baseada na severidade.
      */
-    private String getColorBySeverity(String severity) {
+    static String getColorBySeverity(String severity) {
         return switch (severity) {
             case "critical" -> "#FF0000"; // Vermelho
             case "warning" -> "#FFA500";  // Laranja
@@ -0,0 +1,237 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.IntervaloTempo;
+import com.moredevs.mapblu.core.dto.request.HeatmapFilterRequest;
+import com.moredevs.mapblu.core.dto.response.HeatmapTimelineResponse;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.heatmap.HeatmapBucketSlice;
+import com.moredevs.mapblu.shared.constant.Constants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+
+/**
+ * Service responsável pela linha do tempo do heatmap (reprodução animada por intervalo).
+ * Agrega todos os intervalos numa única varredura e guarda cada intervalo já encerrado
+ * no cache individualmente, para que janelas deslizantes reaproveitem os intervalos anteriores.
+ * A chave de cada intervalo embute a versão do mês dele: escritas em ocorrências antigas
+ * invalidam só os intervalos daquele mês.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HeatmapTimelineService {
+
+    private final OcorrenciaRepository ocorrenciaRepository;
+    private final CacheManager cacheManager;
+    private final CacheVersions cacheVersions;
+
+    /**
+     * Gera a linha do tempo do heatmap em {@code quantidade} intervalos consecutivos a partir de {@code inicio}.
+     *
+     * @param filter filtros de bounding box, tipo e tamanho do grid (datas são ignoradas)
+     * @param inicio início da linha do tempo (truncado para o início do intervalo)
+     * @param intervalo granularidade dos intervalos
+     * @param quantidade quantidade de intervalos
+     * @return células e matrizes densas célula × intervalo
+     */
+    @Transactional(readOnly = true)
+    public HeatmapTimelineResponse generateTimeline(
+            HeatmapFilterRequest filter,
+            LocalDateTime inicio,
+            IntervaloTempo intervalo,
+            int quantidade
+    ) {
+        if (inicio == null) {
+            throw new ValidationException("Data de início da linha do tempo é obrigatória");
+        }
+        if (quantidade < 1 || quantidade > Geo.MAX_TIMELINE_BUCKETS) {
+            throw new ValidationException("Quantidade de intervalos deve estar entre 1 e " + Geo.MAX_TIMELINE_BUCKETS);
+        }
+
+        double minLat = filter != null && filter.getMinLat() != null ? filter.getMinLat() : Geo.BLUMENAU_MIN_LAT;
+        double maxLat = filter != null && filter.getMaxLat() != null ? filter.getMaxLat() : Geo.BLUMENAU_MAX_LAT;
+        double minLng = filter != null && filter.getMinLng() != null ? filter.getMinLng() : Geo.BLUMENAU_MIN_LNG;
+        double maxLng = filter != null && filter.getMaxLng() != null ? filter.getMaxLng() : Geo.BLUMENAU_MAX_LNG;
+
+        double gridSizeMeters = filter != null && filter.getGridSize() != null
+            ? filter.getGridSize()
+            : Geo.DEFAULT_GRID_SIZE_METERS;
+
+        String tipoProblemaStr = filter != null && filter.getTipoProblema() != null
+            ? filter.getTipoProblema().name()
+            : null;
+
+        LocalDateTime start = intervalo.truncar(inicio);
+        List<LocalDateTime> buckets = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            buckets.add(intervalo.somar(start, i));
+        }
+
+        String baseKey = String.format(Locale.ROOT, "%s_%s_%.5f_%.5f_%.5f_%.5f_%.0f_",
+            intervalo, tipoProblemaStr, minLat, maxLat, minLng, maxLng, gridSizeMeters);
+        Cache cache = cacheManager.getCache(Constants.Cache.CACHE_HEATMAP_TIMELINE);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Busca no cache os intervalos já encerrados; o carimbo de versão é lido uma vez por mês
+        HeatmapBucketSlice[] slices = new HeatmapBucketSlice[quantidade];
+        String[] keys = new String[quantidade];
+        Map<List<String>, String> carimbos = new HashMap<>();
+        int firstMissing = -1;
+        int lastMissing = -1;
+        for (int i = 0; i < quantidade; i++) {
+            LocalDateTime bucket = buckets.get(i);
+            if (cache != null && isClosed(intervalo, bucket, now)) {
+                List<String> escopos = CacheVersions.escoposDaConsulta(
+                        null, bucket, intervalo.somar(bucket, 1).minusNanos(1));
+                keys[i] = baseKey + bucket + "_" + carimbos.computeIfAbsent(escopos, cacheVersions::carimbo);
+                slices[i] = cache.get(keys[i], HeatmapBucketSlice.class);
+            }
+            if (slices[i] == null) {
+                if (firstMissing < 0) {
+                    firstMissing = i;
+                }
+                lastMissing = i;
+            }
+        }
+
+        // Agrega de uma só vez o trecho contíguo que não estava no cache
+        if (firstMissing >= 0) {
+            log.debug("Agregando linha do tempo do heatmap: intervalos {} a {} de {}", firstMissing, lastMissing, quantidade);
+
+            List<Object[]> rows = ocorrenciaRepository.aggregateByGridAndBucket(
+                minLat, maxLat, minLng, maxLng, gridSizeMeters, intervalo.getUnidadeSql(), tipoProblemaStr,
+                buckets.get(firstMissing), intervalo.somar(buckets.get(lastMissing), 1)
+            );
+
+            Map<LocalDateTime, List<Object[]>> rowsByBucket = new HashMap<>();
+            for (Object[] row : rows) {
+                // [cell_lng, cell_lat, bucket, count, max_gravidade]
+                rowsByBucket.computeIfAbsent(toLocalDateTime(row[2]), k -> new ArrayList<>()).add(row);
+            }
+
+            for (int i = firstMissing; i <= lastMissing; i++) {
+                if (slices[i] != null) {
+                    continue;
+                }
+                slices[i] = toSlice(rowsByBucket.getOrDefault(buckets.get(i), Collections.emptyList()));
+                if (keys[i] != null) {
+                    cache.put(keys[i], slices[i]);
+                }
+            }
+        }
+
+        return buildResponse(intervalo, gridSizeMeters * Geo.METERS_TO_DEGREES, buckets, slices);
+    }
+
+    /**
+     * Monta as matrizes densas célula × intervalo a partir dos intervalos individuais.
+     */
+    private HeatmapTimelineResponse buildResponse(
+            IntervaloTempo intervalo,
+            double cellSizeDegrees,
+            List<LocalDateTime> buckets,
+            HeatmapBucketSlice[] slices
+    ) {
+        int quantidade = buckets.size();
+
+        // Indexa as células pela posição arredondada, na ordem em que aparecem
+        Map<Long, Integer> cellIndex = new LinkedHashMap<>();
+        List<double[]> cells = new ArrayList<>();
+        for (HeatmapBucketSlice slice : slices) {
+            for (int j = 0; j < slice.size(); j++) {
+                long key = cellKey(slice.getLats()[j], slice.getLngs()[j]);
+                if (!cellIndex.containsKey(key)) {
+                    cellIndex.put(key, cells.size());
+                    cells.add(new double[]{slice.getLats()[j], slice.getLngs()[j]});
+                }
+            }
+        }
+
+        int cellCount = cells.size();
+        double[] cellLats = new double[cellCount];
+        double[] cellLngs = new double[cellCount];
+        for (int c = 0; c < cellCount; c++) {
+            cellLats[c] = cells.get(c)[0];
+            cellLngs[c] = cells.get(c)[1];
+        }
+
+        int[] counts = new int[cellCount * quantidade];
+        int[] severities = new int[cellCount * quantidade];
+        int[] totals = new int[quantidade];
+        Arrays.fill(severities, -1);
+
+        for (int t = 0; t < quantidade; t++) {
+            HeatmapBucketSlice slice = slices[t];
+            for (int j = 0; j < slice.size(); j++) {
+                int c = cellIndex.get(cellKey(slice.getLats()[j], slice.getLngs()[j]));
+                int count = slice.getCounts()[j];
+                counts[c * quantidade + t] = count;
+                severities[c * quantidade + t] = HeatmapService.SEVERITIES.indexOf(
+                    HeatmapService.determineSeverity(slice.getMaxGravidades()[j], count));
+                totals[t] += count;
+            }
+        }
+
+        return HeatmapTimelineResponse.builder()
+            .intervalo(intervalo.name())
+            .cellSize(cellSizeDegrees)
+            .buckets(buckets)
+            .palette(HeatmapService.SEVERITIES)
+            .colors(HeatmapService.SEVERITIES.stream().map(HeatmapService::getColorBySeverity).toList())
+            .cellLats(cellLats)
+            .cellLngs(cellLngs)
+            .counts(counts)
+            .severities(severities)
+            .totals(totals)
+            .build();
+    }
+
+    /**
+     * Converte as linhas agregadas de um intervalo em arrays paralelos.
+     */
+    private HeatmapBucketSlice toSlice(List<Object[]> rows) {
+        int size = rows.size();
+        double[] lngs = new double[size];
+        double[] lats = new double[size];
+        int[] counts = new int[size];
+        int[] maxGravidades = new int[size];
+        for (int j = 0; j < size; j++) {
+            Object[] row = rows.get(j);
+            lngs[j] = ((Number) row[0]).doubleValue();
+            lats[j] = ((Number) row[1]).doubleValue();
+            counts[j] = ((Number) row[3]).intValue();
+            maxGravidades[j] = row[4] != null ? ((Number) row[4]).intValue() : 0;
+        }
+        return new HeatmapBucketSlice(lngs, lats, counts, maxGravidades);
+    }
+
+    /**
+     * Apenas intervalos totalmente no passado podem ser cacheados; o intervalo corrente ainda recebe ocorrências.
+     */
+    private boolean isClosed(IntervaloTempo intervalo, LocalDateTime bucket, LocalDateTime now) {
+        return !intervalo.somar(bucket, 1).isAfter(now);
+    }
+
+    private long cellKey(double lat, double lng) {
+        return Math.round(lat * 1_000_000) * 1_000_000_000L + Math.round(lng * 1_000_000);
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,154 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.InsightCache;
+import com.moredevs.mapblu.core.dto.response.InsightResponse;
+import com.moredevs.mapblu.core.mapper.InsightMapper;
+import com.moredevs.mapblu.core.repository.InsightCacheRepository;
+import com.moredevs.mapblu.core.service.cache.CachedInsight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
+
+/**
+ * Camada de cache à frente da tabela insights_cache.
+ *
+ * Leitura (read-through): cache de insights (L1 local + Redis) e, na falta, a linha ainda válida
+ * do banco, que passa a ficar em cache. Gravação (write-through): a linha é gravada no banco e o
+ * insight vai para o cache após o commit. A entrada no Redis expira junto com data_expiracao.
+ *
+ * Também remove periodicamente, em lotes, as linhas expiradas da tabela.
+ */
+@Slf4j
+@Service
+public class InsightCacheService {
+
+    /**
+     * TTL da entrada no Redis: o tempo restante até a expiração do insight, limitado a TTL_INSIGHTS_MAX.
+     */
+    public static final RedisCacheWriter.TtlFunction TTL = (key, value) -> {
+        Duration maximo = Duration.ofSeconds(TTL_INSIGHTS_MAX);
+        if (value instanceof CachedInsight cached && cached.getDataExpiracao() != null) {
+            Duration restante = Duration.between(LocalDateTime.now(), cached.getDataExpiracao());
+            if (restante.compareTo(Duration.ofSeconds(1)) < 0) {
+                return Duration.ofSeconds(1);
+            }
+            return restante.compareTo(maximo) < 0 ? restante : maximo;
+        }
+        return maximo;
+    };
+
+    private final InsightCacheRepository insightCacheRepository;
+    private final InsightMapper insightMapper;
+    private final Cache cache;
+
+    private final Counter hitsCache;
+    private final Counter hitsBanco;
+    private final Counter misses;
+    private final Counter purgados;
+    private final AtomicLong linhas = new AtomicLong();
+    private final AtomicLong expirados = new AtomicLong();
+
+    public InsightCacheService(InsightCacheRepository insightCacheRepository, InsightMapper insightMapper,
+                               CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.insightCacheRepository = insightCacheRepository;
+        this.insightMapper = insightMapper;
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_INSIGHTS));
+
+        this.hitsCache = consultas(meterRegistry, "cache");
+        this.hitsBanco = consultas(meterRegistry, "banco");
+        this.misses = consultas(meterRegistry, "miss");
+        this.purgados = Counter.builder("insights.cache.purgados")
+                .description("Linhas expiradas removidas de insights_cache")
+                .register(meterRegistry);
+        Gauge.builder("insights.cache.linhas", linhas, AtomicLong::get)
+                .description("Linhas em insights_cache, medidas a cada limpeza")
+                .register(meterRegistry);
+        Gauge.builder("insights.cache.expirados", expirados, AtomicLong::get)
+                .description("Linhas expiradas que restaram após a última limpeza")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca um insight válido pelo hash do contexto, primeiro no cache e depois no banco.
+     *
+     * @return insight marcado como vindo do cache, ou vazio quando é preciso gerar um novo
+     */
+    public Optional<InsightResponse> buscar(String hashContexto) {
+        LocalDateTime agora = LocalDateTime.now();
+        CachedInsight cached = cache.get(hashContexto, CachedInsight.class);
+        if (cached != null && !cached.isExpirado(agora)) {
+            hitsCache.increment();
+            return Optional.of(cached.getInsight());
+        }
+
+        Optional<InsightCache> valido = insightCacheRepository.findValidoByHashContexto(hashContexto, agora);
+        if (valido.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hitsBanco.increment();
+        CachedInsight lido = toCached(valido.get());
+        cache.put(hashContexto, lido);
+        return Optional.of(lido.getInsight());
+    }
+
+    /**
+     * Grava um insight novo no banco e no cache. Uma linha expirada com o mesmo hash é removida antes,
+     * já que o hash do contexto é único.
+     */
+    @Transactional
+    public InsightCache salvar(InsightCache insightCache) {
+        insightCacheRepository.deleteByHashContexto(insightCache.getHashContexto());
+        InsightCache salvo = insightCacheRepository.save(insightCache);
+        cache.put(salvo.getHashContexto(), toCached(salvo));
+        return salvo;
+    }
+
+    /**
+     * Remove as linhas expiradas em lotes de INSIGHT_PURGA_LOTE, cada um na sua transação,
+     * até INSIGHT_PURGA_MAX_LOTES por execução. Atualiza as métricas de tamanho da tabela.
+     *
+     * @return quantidade de linhas removidas
+     */
+    public long purgarExpirados() {
+        LocalDateTime agora = LocalDateTime.now();
+        long total = 0;
+        for (int lote = 0; lote < INSIGHT_PURGA_MAX_LOTES; lote++) {
+            int removidos = insightCacheRepository.deleteExpiradosEmLote(agora, INSIGHT_PURGA_LOTE);
+            total += removidos;
+            if (removidos < INSIGHT_PURGA_LOTE) {
+                break;
+            }
+        }
+        purgados.increment(total);
+        linhas.set(insightCacheRepository.count());
+        expirados.set(insightCacheRepository.countExpirados(agora));
+        log.info("Limpeza de insights_cache: {} expirados removidos, {} linhas restantes", total, linhas.get());
+        return total;
+    }
+
+    private CachedInsight toCached(InsightCache insightCache) {
+        return new CachedInsight(insightMapper.toResponse(insightCache, true), insightCache.getDataExpiracao());
+    }
+
+    private static Counter consultas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("insights.cache.consultas")
+                .tag("resultado", resultado)
+                .description("Consultas ao cache de insights por origem da resposta (cache, banco ou miss)")
+                .register(meterRegistry);
+    }
+}
@@ -6,9 +6,10 @@ import com.moredevs.mapblu.core.domain.Ocorrencia;
 import com.moredevs.mapblu.core.domain.TipoProblema;
 import com.moredevs.mapblu.core.dto.response.InsightResponse;
 import com.moredevs.mapblu.core.dto.response.MetricasAgregadasResponse;
+import com.moredevs.mapblu.core.mapper.InsightMapper;
 import com.moredevs.mapblu.core.repository.AnaliseHistoricoRepository;
-import com.moredevs.mapblu.core.repository.InsightCacheRepository;
 import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.ai.PerguntaSimilarIndex;
 import com.moredevs.mapblu.core.service.ai.PromptBuilder;
 import com.moredevs.mapblu.core.service.ai.ResponseParser;
 import com.moredevs.mapblu.infraestructure.integration.OpenRouterAIService;
@@ -35,11 +36,13 @@ import java.util.stream.Collectors;
 @Transactional
 public class InsightService {
 
-    private final InsightCacheRepository insightCacheRepository;
+    private final InsightCacheService insightCacheService;
+    private final InsightMapper insightMapper;
     private final AnaliseHistoricoRepository analiseHistoricoRepository;
     private final OcorrenciaRepository ocorrenciaRepository;
     private final OcorrenciaAggregator ocorrenciaAggregator;
     private final PromptBuilder promptBuilder;
+    private final PerguntaSimilarIndex perguntaSimilarIndex;
     private final ResponseParser responseParser;
     private final OpenRouterAIService openRouterAIService;
     private final ObjectMapper objectMapper;
@@ -68,13 +71,10 @@ public class InsightService {
         Map<String, Object> contexto = criarContextoAreaCritica(bairro, tipoProblema, periodoInicio, periodoFim);
         String hashContexto = HashUtil.gerarHashContexto(contexto);
 
-        Optional<InsightCache> cacheOpt = insightCacheRepository.findByHashContexto(hashContexto);
-        if (cacheOpt.isPresent()) {
-            InsightCache cache = cacheOpt.get();
-            if (!cache.isExpirado()) {
-                log.debug("Insight encontrado no cache: {}", hashContexto);
-                return converterParaResponse(cache, true);
-            }
+        Optional<InsightResponse> emCache = insightCacheService.buscar(hashContexto);
+        if (emCache.isPresent()) {
+            log.debug("Insight encontrado no cache: {}", hashContexto);
+            return emCache.get();
         }
 
         List<Ocorrencia> ocorrenciasBairro = buscarOcorrenciasBairro(bairro, tipoProblema, periodoInicio, periodoFim);
@@ -98,11 +98,23 @@ public class InsightService {
                 respostaParseada,
                 ttlAreaCritica);
 
-        insightCache = insightCacheRepository.save(insightCache);
+        insightCache = insightCacheService.salvar(insightCache);
 
         salvarHistorico(insightCache, promptUsuario, respostaIA, tempoIA, true, null);
 
-        return converterParaResponse(insightCache, false);
+        return insightMapper.toResponse(insightCache, false);
+    }
+
+    /**
+     * Carrega no cache o insight de área crítica da visão padrão (sem período), se ainda houver um
+     * válido no banco. Usado no aquecimento do cache: nunca chama a IA.
+     *
+     * @return se o insight estava disponível
+     */
+    @Transactional(readOnly = true)
+    public boolean aquecerAreaCritica(String bairro, String tipoProblema) {
+        Map<String, Object> contexto = criarContextoAreaCritica(bairro, tipoProblema, null, null);
+        return insightCacheService.buscar(HashUtil.gerarHashContexto(contexto)).isPresent();
     }
 
     /**
@@ -114,12 +126,10 @@ public class InsightService {
         Map<String, Object> contexto = criarContextoTendencia(tipoProblema, periodoInicio, periodoFim, bairro);
         String hashContexto = HashUtil.gerarHashContexto(contexto);
 
-        Optional<InsightCache> cacheOpt = insightCacheRepository.findByHashContexto(hashContexto);
-        if (cacheOpt.isPresent()) {
-            InsightCache cache = cacheOpt.get();
-            if (!cache.isExpirado()) {
-                return converterParaResponse(cache, true);
-            }
+        Optional<InsightResponse> emCache = insightCacheService.buscar(hashContexto);
+        if (emCache.isPresent()) {
+            log.debug("Insight encontrado no cache: {}", hashContexto);
+            return emCache.get();
         }
 
         TipoProblema tipo = tipoProblema != null ? TipoProblema.valueOf(tipoProblema) : null;
@@ -145,10 +155,10 @@ public class InsightService {
                 respostaParseada,
                 ttlTendencia);
 
-        insightCache = insightCacheRepository.save(insightCache);
+        insightCache = insightCacheService.salvar(insightCache);
         salvarHistorico(insightCache, promptUsuario, respostaIA, tempoIA, true, null);
 
-        return converterParaResponse(insightCache, false);
+        return insightMapper.toResponse(insightCache, false);
     }
 
     /**
@@ -160,12 +170,10 @@ public class InsightService {
         Map<String, Object> contexto = criarContextoPadrao(filtros);
         String hashContexto = HashUtil.gerarHashContexto(contexto);
 
-        Optional<InsightCache> cacheOpt = insightCacheRepository.findByHashContexto(hashContexto);
-        if (cacheOpt.isPresent()) {
-            InsightCache cache = cacheOpt.get();
-            if (!cache.isExpirado()) {
-                return converterParaResponse(cache, true);
-            }
+        Optional<InsightResponse> emCache = insightCacheService.buscar(hashContexto);
+        if (emCache.isPresent()) {
+            log.debug("Insight encontrado no cache: {}", hashContexto);
+            return emCache.get();
         }
 
         LocalDateTime periodoInicio = LocalDateTime.now().minusMonths(3);
@@ -188,10 +196,10 @@ public class InsightService {
                 respostaParseada,
                 ttlPadrao);
 
-        insightCache = insightCacheRepository.save(insightCache);
+        insightCache = insightCacheService.salvar(insightCache);
         salvarHistorico(insightCache, promptUsuario, respostaIA, tempoIA, true, null);
 
-        return converterParaResponse(insightCache, false);
+        return insightMapper.toResponse(insightCache, false);
     }
 
     /**
@@ -203,12 +211,10 @@ public class InsightService {
         Map<String, Object> contexto = criarContextoPredicao(horizonte, area);
         String hashContexto = HashUtil.gerarHashContexto(contexto);
 
-        Optional<InsightCache> cacheOpt = insightCacheRepository.findByHashContexto(hashContexto);
-        if (cacheOpt.isPresent()) {
-            InsightCache cache = cacheOpt.get();
-            if (!cache.isExpirado()) {
-                return converterParaResponse(cache, true);
-            }
+        Optional<InsightResponse> emCache = insightCacheService.buscar(hashContexto);
+        if (emCache.isPresent()) {
+            log.debug("Insight encontrado no cache: {}", hashContexto);
+            return emCache.get();
         }
 
         LocalDateTime agora = LocalDateTime.now();
@@ -231,10 +237,10 @@ public class InsightService {
                 respostaParseada,
                 ttlPredicao);
 
-        insightCache = insightCacheRepository.save(insightCache);
+        insightCache = insightCacheService.salvar(insightCache);
         salvarHistorico(insightCache, promptUsuario, respostaIA, tempoIA, true, null);
 
-        return converterParaResponse(insightCache, false);
+        return insightMapper.toResponse(insightCache, false);
     }
 
     /**
@@ -246,12 +252,10 @@ public class InsightService {
         Map<String, Object> contextoCompleto = criarContextoExplicacao(contexto, pergunta);
         String hashContexto = HashUtil.gerarHashContexto(contextoCompleto);
 
-        Optional<InsightCache> cacheOpt = insightCacheRepository.findByHashContexto(hashContexto);
-        if (cacheOpt.isPresent()) {
-            InsightCache cache = cacheOpt.get();
-            if (!cache.isExpirado()) {
-                return converterParaResponse(cache, true);
-            }
+        Optional<InsightResponse> emCache = insightCacheService.buscar(hashContexto);
+        if (emCache.isPresent()) {
+            log.debug("Insight encontrado no cache: {}", hashContexto);
+            return emCache.get();
         }
 
         String promptSistema = promptBuilder.construirPromptSistema();
@@ -270,10 +274,10 @@ public class InsightService {
                 respostaParseada,
                 ttlExplicacao);
 
-        insightCache = insightCacheRepository.save(insightCache);
+        insightCache = insightCacheService.salvar(insightCache);
         salvarHistorico(insightCache, promptUsuario, respostaIA, tempoIA, true, null);
 
-        return converterParaResponse(insightCache, false);
+        return insightMapper.toResponse(insightCache, false);
     }
 
     /**
@@ -289,13 +293,18 @@ public class InsightService {
         }
 
         String hashContexto = HashUtil.gerarHashContexto(contextoCompleto);
+        String chaveContexto = HashUtil.gerarHashContexto(contexto != null ? contexto : Map.of());
 
-        Optional<InsightCache> cacheOpt = insightCacheRepository.findByHashContexto(hashContexto);
-        if (cacheOpt.isPresent()) {
-            InsightCache cache = cacheOpt.get();
-            if (!cache.isExpirado()) {
-                return converterParaResponse(cache, true);
-            }
+        Optional<InsightResponse> emCache = insightCacheService.buscar(hashContexto);
+        if (emCache.isPresent()) {
+            log.debug("Insight encontrado no cache: {}", hashContexto);
+            perguntaSimilarIndex.registrar(chaveContexto, pergunta, hashContexto);
+            return emCache.get();
+        }
+
+        Optional<InsightResponse> similar = buscarPerguntaSimilar(chaveContexto, pergunta);
+        if (similar.isPresent()) {
+            return similar.get();
         }
 
         MetricasAgregadasResponse metricas = null;
@@ -326,10 +335,33 @@ public class InsightService {
                 .dataExpiracao(LocalDateTime.now().plusSeconds(ttlExplicacao))
                 .build();
 
-        insightCache = insightCacheRepository.save(insightCache);
+        insightCache = insightCacheService.salvar(insightCache);
         salvarHistorico(insightCache, promptUsuario, respostaIA, tempoIA, true, null);
+        perguntaSimilarIndex.registrar(chaveContexto, pergunta, hashContexto);
+
+        return insightMapper.toResponse(insightCache, false);
+    }
 
-        return converterParaResponse(insightCache, false);
+    /**
+     * Reaproveita a resposta de uma pergunta quase igual já feita no mesmo contexto.
+     * Se o insight dela já expirou, a pergunta sai do índice e a resposta é gerada de novo.
+     */
+    private Optional<InsightResponse> buscarPerguntaSimilar(String chaveContexto, String pergunta) {
+        Optional<PerguntaSimilarIndex.Correspondencia> correspondencia = perguntaSimilarIndex.buscar(chaveContexto, pergunta);
+        if (correspondencia.isEmpty()) {
+            return Optional.empty();
+        }
+        PerguntaSimilarIndex.Correspondencia similar = correspondencia.get();
+        Optional<InsightResponse> emCache = insightCacheService.buscar(similar.hashContexto());
+        if (emCache.isEmpty()) {
+            perguntaSimilarIndex.remover(similar.hashContexto());
+            return Optional.empty();
+        }
+        log.debug("Pergunta respondida com insight de pergunta similar ({}): {}", similar.similaridade(), similar.pergunta());
+        return Optional.of(emCache.get().toBuilder()
+                .perguntaSimilar(similar.pergunta())
+                .similaridade(similar.similaridade())
+                .build());
     }
 
     private Map<String, Object> criarContextoAreaCritica(String bairro, String tipoProblema, LocalDateTime periodoInicio, LocalDateTime periodoFim) {
@@ -612,26 +644,6 @@ public class InsightService {
         return 7;
     }
 
-    private InsightResponse converterParaResponse(InsightCache cache, boolean doCache) {
-        @SuppressWarnings("unchecked")
-        List<String> recomendacoes = cache.getDadosSuporte() != null && cache.getDadosSuporte().containsKey("recomendacoes")
-                ? (List<String>) cache.getDadosSuporte().get("recomendacoes")
-                : Collections.emptyList();
-
-        return InsightResponse.builder()
-                .id(cache.getId())
-                .tipo(cache.getTipoInsight())
-                .insight(cache.getInsightTexto())
-                .confianca(cache.getConfianca())
-                .relevancia(cache.getRelevancia())
-                .dadosSuporte(cache.getDadosSuporte())
-                .recomendacoes(recomendacoes)
-                .dataGeracao(cache.getDataGeracao())
-                .modeloIA(cache.getModeloIAUsado())
-                .doCache(doCache)
-                .build();
-    }
-
     private void salvarHistorico(
             InsightCache insight,
             String prompt,
@@ -1,6 +1,8 @@
 package com.moredevs.mapblu.core.service;
 
+import com.moredevs.mapblu.core.domain.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,14 +14,25 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
+import static com.moredevs.mapblu.shared.constant.Constants.AoVivo;
+
 /**
  * Serviço para geração e validação de tokens JWT.
  */
 @Service
 public class JwtService {
 
+    // Claims que permitem autenticar sem buscar o usuário no banco
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSAO = "tv";
+    // Uso restrito do token; tokens de acesso não têm essa claim
+    public static final String CLAIM_USO = "uso";
+    public static final String USO_AO_VIVO = "ao-vivo";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -44,18 +57,82 @@ public class JwtService {
      * @return valor da claim
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = extractAccessClaims(token);
         return claimsResolver.apply(claims);
     }
 
     /**
-     * Gera um token para o usuário.
+     * Extrai o principal das claims do token, verificando assinatura e expiração numa única leitura.
+     * 
+     * @param token token JWT
+     * @return principal montado das claims, ou null se o token não traz as claims do usuário
+     *         (tokens emitidos antes delas existirem)
+     * @throws JwtException se o token é inválido, está expirado ou é de uso restrito
+     */
+    public UserPrincipal extractPrincipal(String token) {
+        return principalFromClaims(extractAccessClaims(token));
+    }
+
+    /**
+     * Gera o ticket do canal ao vivo: um token de vida curta, com as claims do usuário, que só
+     * é aceito na query string do stream SSE (o EventSource do navegador não envia cabeçalhos).
+     *
+     * @param principal usuário autenticado pelo token de acesso
+     * @return ticket válido por {@code Constants.AoVivo.TICKET_VALIDADE} segundos
+     */
+    public String generateTicketAoVivo(UserPrincipal principal) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, principal.getId().toString());
+        claims.put(CLAIM_ROLE, principal.getRole().name());
+        claims.put(CLAIM_TOKEN_VERSAO, principal.getTokenVersao());
+        claims.put(CLAIM_USO, USO_AO_VIVO);
+        return buildToken(claims, principal, AoVivo.TICKET_VALIDADE * 1000);
+    }
+
+    /**
+     * Extrai o principal de um ticket do canal ao vivo.
+     *
+     * @param ticket ticket gerado por {@link #generateTicketAoVivo}
+     * @return principal montado das claims
+     * @throws JwtException se o ticket é inválido, está expirado ou é um token de outro uso
+     */
+    public UserPrincipal extractPrincipalDoTicketAoVivo(String ticket) {
+        Claims claims = extractAllClaims(ticket);
+        UserPrincipal principal = USO_AO_VIVO.equals(claims.get(CLAIM_USO, String.class))
+                ? principalFromClaims(claims)
+                : null;
+        if (principal == null) {
+            throw new JwtException("Token não é um ticket do canal ao vivo");
+        }
+        return principal;
+    }
+
+    private UserPrincipal principalFromClaims(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Integer tokenVersao = claims.get(CLAIM_TOKEN_VERSAO, Integer.class);
+        if (userId == null || role == null || tokenVersao == null) {
+            return null;
+        }
+        return UserPrincipal.fromClaims(UUID.fromString(userId), claims.getSubject(),
+                User.RoleName.valueOf(role), tokenVersao);
+    }
+
+    /**
+     * Gera um token para o usuário. Para um {@link UserPrincipal}, inclui o ID, o papel e a
+     * versão de tokens do usuário, para que as requisições sejam autenticadas sem consultar o banco.
      * 
      * @param userDetails detalhes do usuário
      * @return token JWT
      */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UserPrincipal principal && principal.getId() != null && principal.getRole() != null) {
+            claims.put(CLAIM_USER_ID, principal.getId().toString());
+            claims.put(CLAIM_ROLE, principal.getRole().name());
+            claims.put(CLAIM_TOKEN_VERSAO, principal.getTokenVersao());
+        }
+        return generateToken(claims, userDetails);
     }
 
     /**
@@ -124,6 +201,22 @@ public class JwtService {
         return extractClaim(token, Claims::getExpiration);
     }
 
+    /**
+     * Extrai as claims de um token de acesso. Tokens de uso restrito (como o ticket do canal
+     * ao vivo) são recusados, para não valerem como acesso às demais rotas.
+     *
+     * @param token token JWT
+     * @return todas as claims
+     * @throws JwtException se o token é inválido, está expirado ou é de uso restrito
+     */
+    private Claims extractAccessClaims(String token) {
+        Claims claims = extractAllClaims(token);
+        if (claims.get(CLAIM_USO) != null) {
+            throw new JwtException("Token de uso restrito não autentica esta requisição");
+        }
+        return claims;
+    }
+
     /**
      * Extrai todas as claims do token.
      * 
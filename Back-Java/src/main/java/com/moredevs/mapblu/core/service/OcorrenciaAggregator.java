@@ -4,6 +4,7 @@ import com.moredevs.mapblu.core.domain.Ocorrencia;
 import com.moredevs.mapblu.core.domain.TipoProblema;
 import com.moredevs.mapblu.core.dto.response.MetricasAgregadasResponse;
 import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.shared.util.GeoUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -95,6 +96,12 @@ public class OcorrenciaAggregator {
     }
 
     private List<Ocorrencia> aplicarFiltros(List<Ocorrencia> ocorrencias, Map<String, Object> filtros) {
+        // Bairro comparado sem acentos e caixa, normalizando cada nome distinto uma única vez
+        String bairroFiltro = filtros.containsKey("bairro")
+                ? Objects.requireNonNullElse(GeoUtil.normalizeBairro(filtros.get("bairro").toString()), "")
+                : null;
+        Map<String, String> bairrosNormalizados = new HashMap<>();
+
         return ocorrencias.stream()
                 .filter(o -> {
                     if (filtros.containsKey("tipoProblema")) {
@@ -103,9 +110,10 @@ public class OcorrenciaAggregator {
                             return false;
                         }
                     }
-                    if (filtros.containsKey("bairro")) {
-                        String bairroFiltro = filtros.get("bairro").toString().toLowerCase();
-                        if (!o.getBairro().toLowerCase().contains(bairroFiltro)) {
+                    if (bairroFiltro != null) {
+                        String bairro = bairrosNormalizados.computeIfAbsent(o.getBairro(),
+                                nome -> Objects.requireNonNullElse(GeoUtil.normalizeBairro(nome), ""));
+                        if (!bairro.contains(bairroFiltro)) {
                             return false;
                         }
                     }
@@ -0,0 +1,73 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.dto.request.OcorrenciaFilterRequest;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+import com.moredevs.mapblu.core.service.export.ExportFormat;
+import com.moredevs.mapblu.core.service.export.OcorrenciaExportWriter;
+import com.moredevs.mapblu.core.service.geo.BairroLocator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Service para exportação em massa de ocorrências (dumps para análise em SIG).
+ * As linhas vêm do banco por cursor e são escritas uma a uma no stream da resposta,
+ * sem paginação, sem entidades e com memória constante. A escrita bloqueante no stream
+ * limita a leitura ao ritmo do cliente; se ele desconecta, a escrita falha e o cursor é fechado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OcorrenciaExportService {
+
+    private final OcorrenciaRepository repository;
+    private final BairroLocator bairroLocator;
+
+    /**
+     * Exporta as ocorrências filtradas no formato informado.
+     *
+     * @param filtros mesmos filtros da listagem de ocorrências
+     * @param formato formato do arquivo
+     * @param out stream de saída (não é fechado)
+     * @return quantidade de ocorrências exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportar(OcorrenciaFilterRequest filtros, ExportFormat formato, OutputStream out) throws IOException {
+        String tipoProblemaStr = filtros.getTipoProblema() != null ? filtros.getTipoProblema().name() : null;
+        String statusStr = filtros.getStatus() != null ? filtros.getStatus().name() : null;
+        UUID bairroId = bairroLocator.findIdByNome(filtros.getBairro()).orElse(null);
+        String bairroTexto = bairroId == null ? filtros.getBairro() : null;
+
+        log.info("Iniciando exportação {} com filtros: {}", formato, filtros);
+        long inicio = System.currentTimeMillis();
+        long total = 0;
+
+        try (Stream<OcorrenciaResumo> rows = repository.streamResumoByFilters(
+                tipoProblemaStr, bairroId, bairroTexto, statusStr,
+                filtros.getGravidadeMin(), filtros.getGravidadeMax(),
+                filtros.getDataInicio(), filtros.getDataFim());
+             OcorrenciaExportWriter writer = formato.open(out)) {
+
+            Iterator<OcorrenciaResumo> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                total++;
+            }
+        } catch (IOException e) {
+            // Normalmente o cliente encerrou a conexão: o cursor já foi fechado pelo try-with-resources
+            log.warn("Exportação {} interrompida após {} ocorrências: {}", formato, total, e.getMessage());
+            throw e;
+        }
+
+        log.info("Exportação {} concluída: {} ocorrências em {}ms", formato, total, System.currentTimeMillis() - inicio);
+        return total;
+    }
+}
@@ -5,26 +5,56 @@ import com.moredevs.mapblu.core.domain.StatusOcorrencia;
 import com.moredevs.mapblu.core.domain.TipoProblema;
 import com.moredevs.mapblu.core.dto.request.OcorrenciaFilterRequest;
 import com.moredevs.mapblu.core.dto.request.OcorrenciaRequest;
+import com.moredevs.mapblu.core.dto.request.StatusLoteRequest;
+import com.moredevs.mapblu.core.dto.response.CursorPagedResponse;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaBuscaResponse;
 import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
 import com.moredevs.mapblu.core.dto.response.PagedResponse;
+import com.moredevs.mapblu.core.dto.response.StatusLoteResponse;
 import com.moredevs.mapblu.core.exception.EntityNotFoundException;
+import com.moredevs.mapblu.core.exception.ValidationException;
 import com.moredevs.mapblu.core.mapper.OcorrenciaMapper;
+import com.moredevs.mapblu.core.repository.OcorrenciaProxima;
 import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.cache.VersionedKeyGenerator;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciaAlteradaEvent;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciasAlteradasEmLoteEvent;
+import com.moredevs.mapblu.core.service.geo.BairroLocator;
 import com.moredevs.mapblu.ingestion.ia.IAService;
+import com.moredevs.mapblu.shared.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+import static com.moredevs.mapblu.shared.constant.Constants.Pagination;
+import static com.moredevs.mapblu.shared.constant.Constants.Validation;
 
 /**
  * Service para operações de negócio relacionadas a ocorrências.
@@ -35,15 +65,21 @@ import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
 @Transactional
 public class OcorrenciaService {
 
+    public static final String ORDENAR_POR_DATA = "dataCriacao";
+    public static final String ORDENAR_POR_GRAVIDADE = "gravidade";
+
     private final OcorrenciaRepository repository;
     private final OcorrenciaMapper mapper;
     private final IAService iaService;
+    private final BairroLocator bairroLocator;
+    private final CacheManager cacheManager;
+    private final CacheVersions cacheVersions;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Cria uma nova ocorrência.
      * Se a gravidade não foi fornecida ou gravidadeIA não foi fornecida, classifica automaticamente via IA.
      */
-    @CacheEvict(value = {CACHE_OCORRENCIAS, CACHE_STATS, CACHE_BAIRROS_CRITICOS}, allEntries = true)
     public OcorrenciaResponse criar(OcorrenciaRequest request) {
         Ocorrencia ocorrencia = mapper.toEntity(request);
         
@@ -58,7 +94,11 @@ public class OcorrenciaService {
             ocorrencia.setGravidade(ocorrencia.getGravidadeIA());
         }
         
+        ocorrencia.setBairroId(bairroLocator.locate(ocorrencia.getCoordenadas()).orElse(null));
+        
         Ocorrencia saved = repository.save(ocorrencia);
+        cacheVersions.invalidar(CacheVersions.escoposDaOcorrencia(saved.getBairroId(), saved.getDataCriacao()));
+        eventPublisher.publishEvent(OcorrenciaAlteradaEvent.criada(saved));
         
         return mapper.toResponse(saved);
     }
@@ -87,12 +127,17 @@ public class OcorrenciaService {
         String tipoProblemaStr = filtros.getTipoProblema() != null ? filtros.getTipoProblema().name() : null;
         String statusStr = filtros.getStatus() != null ? filtros.getStatus().name() : null;
         
+        // Bairro reconhecido filtra pelo ID canônico; caso contrário, pelo texto livre
+        UUID bairroId = bairroLocator.findIdByNome(filtros.getBairro()).orElse(null);
+        String bairroTexto = bairroId == null ? filtros.getBairro() : null;
+        
         // Criar Pageable sem Sort para evitar conflito com ORDER BY da query nativa
         Pageable pageableWithoutSort = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
         
-        Page<Ocorrencia> page = repository.findByFilters(
+        Page<OcorrenciaResumo> page = repository.findResumoByFilters(
                 tipoProblemaStr,
-                filtros.getBairro(),
+                bairroId,
+                bairroTexto,
                 statusStr,
                 filtros.getGravidadeMin(),
                 filtros.getGravidadeMax(),
@@ -104,10 +149,131 @@ public class OcorrenciaService {
         return toPagedResponse(page);
     }
 
+    /**
+     * Lista ocorrências com filtros usando paginação por cursor (keyset), sem OFFSET.
+     * A ordenação é decrescente por (dataCriacao, id) ou por (gravidade, dataCriacao, id).
+     * O total só é calculado quando solicitado e fica em cache pelo TTL de estatísticas.
+     *
+     * @param filtros filtros opcionais
+     * @param ordenarPor "dataCriacao" ou "gravidade"
+     * @param cursor cursor retornado em nextCursor pela página anterior (null na primeira página)
+     * @param size tamanho da página
+     * @param incluirTotal se deve calcular o total de elementos
+     * @return página de ocorrências com o cursor da próxima página
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<OcorrenciaResponse> listarPorCursor(
+            OcorrenciaFilterRequest filtros,
+            String ordenarPor,
+            String cursor,
+            int size,
+            boolean incluirTotal
+    ) {
+        boolean porGravidade;
+        if (ORDENAR_POR_DATA.equals(ordenarPor)) {
+            porGravidade = false;
+        } else if (ORDENAR_POR_GRAVIDADE.equals(ordenarPor)) {
+            porGravidade = true;
+        } else {
+            throw new ValidationException("Ordenação inválida: " + ordenarPor
+                    + ". Use '" + ORDENAR_POR_DATA + "' ou '" + ORDENAR_POR_GRAVIDADE + "'");
+        }
+        int pageSize = Math.min(Math.max(size, 1), Pagination.MAX_SIZE);
+
+        Integer lastGravidade = null;
+        LocalDateTime lastDataCriacao = null;
+        String lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            // [ordenação, gravidade, dataCriacao, id]
+            String[] parts = CursorUtil.decode(cursor, 4);
+            if (!ordenarPor.equals(parts[0])) {
+                throw new ValidationException("Cursor não corresponde à ordenação " + ordenarPor);
+            }
+            try {
+                lastGravidade = porGravidade ? Integer.valueOf(parts[1]) : null;
+                lastDataCriacao = LocalDateTime.parse(parts[2]);
+                lastId = UUID.fromString(parts[3]).toString();
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new ValidationException("Cursor inválido: " + cursor, e);
+            }
+        }
+
+        String tipoProblemaStr = filtros.getTipoProblema() != null ? filtros.getTipoProblema().name() : null;
+        String statusStr = filtros.getStatus() != null ? filtros.getStatus().name() : null;
+        UUID bairroId = bairroLocator.findIdByNome(filtros.getBairro()).orElse(null);
+        String bairroTexto = bairroId == null ? filtros.getBairro() : null;
+
+        // Busca uma linha a mais para saber se existe próxima página sem precisar de COUNT
+        List<OcorrenciaResumo> rows = porGravidade
+                ? repository.findResumoByFiltersKeysetPorGravidade(
+                        tipoProblemaStr, bairroId, bairroTexto, statusStr,
+                        filtros.getGravidadeMin(), filtros.getGravidadeMax(),
+                        filtros.getDataInicio(), filtros.getDataFim(),
+                        lastGravidade, lastDataCriacao, lastId, pageSize + 1)
+                : repository.findResumoByFiltersKeysetPorData(
+                        tipoProblemaStr, bairroId, bairroTexto, statusStr,
+                        filtros.getGravidadeMin(), filtros.getGravidadeMax(),
+                        filtros.getDataInicio(), filtros.getDataFim(),
+                        lastDataCriacao, lastId, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<OcorrenciaResumo> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            OcorrenciaResumo last = pageRows.get(pageRows.size() - 1);
+            nextCursor = CursorUtil.encode(
+                    ordenarPor,
+                    porGravidade ? String.valueOf(last.gravidade()) : "",
+                    last.dataCriacao().toString(),
+                    last.id().toString()
+            );
+        }
+
+        Long total = null;
+        if (incluirTotal) {
+            total = contarComFiltros(tipoProblemaStr, bairroId, bairroTexto, statusStr, filtros);
+        }
+
+        return CursorPagedResponse.<OcorrenciaResponse>builder()
+                .content(pageRows.stream().map(mapper::toResponse).collect(Collectors.toList()))
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .totalElements(total)
+                .build();
+    }
+
+    /**
+     * Conta ocorrências filtradas, reaproveitando o total em cache entre as páginas de uma mesma listagem.
+     * Usa o CacheManager diretamente porque o Long volta do Redis como Integer em valores pequenos.
+     */
+    private long contarComFiltros(
+            String tipoProblemaStr,
+            UUID bairroId,
+            String bairroTexto,
+            String statusStr,
+            OcorrenciaFilterRequest filtros
+    ) {
+        // Versões do bairro e dos meses filtrados: escritas em outros bairros ou meses não invalidam o total
+        String versao = cacheVersions.carimbo(
+                CacheVersions.escoposDaConsulta(bairroId, filtros.getDataInicio(), filtros.getDataFim()));
+        String key = String.join("_", "count", versao, tipoProblemaStr, String.valueOf(bairroId), bairroTexto, statusStr,
+                String.valueOf(filtros.getGravidadeMin()), String.valueOf(filtros.getGravidadeMax()),
+                String.valueOf(filtros.getDataInicio()), String.valueOf(filtros.getDataFim()));
+        // Com carregador, o total vencido é servido enquanto é recontado em segundo plano
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(CACHE_STATS));
+        Number total = cache.get(key, () -> repository.countByFilters(
+                tipoProblemaStr, bairroId, bairroTexto, statusStr,
+                filtros.getGravidadeMin(), filtros.getGravidadeMax(),
+                filtros.getDataInicio(), filtros.getDataFim()
+        ));
+        return total.longValue();
+    }
+
     /**
      * Busca ocorrências próximas a uma localização.
      */
-    @Cacheable(value = CACHE_OCORRENCIAS)
+    @Cacheable(value = CACHE_OCORRENCIAS, keyGenerator = VersionedKeyGenerator.NAME)
     @Transactional(readOnly = true)
     public PagedResponse<OcorrenciaResponse> buscarProximas(
             Double latitude, 
@@ -123,7 +289,7 @@ public class OcorrenciaService {
         }
         
         String tipoProblemaStr = tipoProblema != null ? tipoProblema.name() : null;
-        Page<Ocorrencia> page = repository.findNearby(
+        Page<OcorrenciaResumo> page = repository.findResumoNearby(
                 latitude,
                 longitude,
                 raioMetros,
@@ -134,16 +300,196 @@ public class OcorrenciaService {
         return toPagedResponse(page);
     }
 
+    /**
+     * Busca ocorrências próximas ordenadas por distância, com paginação por cursor.
+     * Evita OFFSET e a contagem total, que só é executada quando solicitada.
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<OcorrenciaResponse> buscarProximasPorCursor(
+            Double latitude,
+            Double longitude,
+            Double raioMetros,
+            TipoProblema tipoProblema,
+            String cursor,
+            int size,
+            boolean incluirTotal
+    ) {
+        log.debug("Buscando ocorrências próximas (cursor): lat={}, lng={}, raio={}m, cursor={}",
+                latitude, longitude, raioMetros, cursor);
+
+        if (raioMetros == null || raioMetros <= 0) {
+            raioMetros = Geo.DEFAULT_SEARCH_RADIUS;
+        }
+        int pageSize = Math.min(Math.max(size, 1), Pagination.MAX_SIZE);
+
+        Double lastDistance = null;
+        String lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtil.decode(cursor, 2);
+            try {
+                lastDistance = Double.valueOf(parts[0]);
+                lastId = UUID.fromString(parts[1]).toString();
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Cursor inválido: " + cursor, e);
+            }
+        }
+
+        String tipoProblemaStr = tipoProblema != null ? tipoProblema.name() : null;
+
+        // Busca uma linha a mais para saber se existe próxima página sem precisar de COUNT
+        List<OcorrenciaProxima> rows = repository.findResumoNearbyKeyset(
+                latitude, longitude, raioMetros, tipoProblemaStr, lastDistance, lastId, pageSize + 1
+        );
+        boolean hasNext = rows.size() > pageSize;
+        List<OcorrenciaProxima> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            OcorrenciaProxima last = pageRows.get(pageRows.size() - 1);
+            nextCursor = CursorUtil.encode(
+                    String.valueOf(last.distancia()),
+                    last.ocorrencia().id().toString()
+            );
+        }
+
+        Long total = incluirTotal
+                ? repository.countNearby(latitude, longitude, raioMetros, tipoProblemaStr)
+                : null;
+
+        return CursorPagedResponse.<OcorrenciaResponse>builder()
+                .content(pageRows.stream().map(row -> mapper.toResponse(row.ocorrencia())).collect(Collectors.toList()))
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .totalElements(total)
+                .build();
+    }
+
+    /**
+     * Busca textual em português sobre descrição e endereço, ordenada por relevância.
+     * Ignora acentos e variações de plural/gênero (stemming) e aceita aspas, "or" e "-".
+     * Pode ser combinada com os filtros da listagem e com um raio em torno de um ponto.
+     *
+     * @param busca texto da busca
+     * @param filtros filtros opcionais
+     * @param latitude latitude do centro do raio (opcional, junto com longitude)
+     * @param longitude longitude do centro do raio (opcional, junto com latitude)
+     * @param raioMetros raio em metros (padrão de 5km quando há centro)
+     * @param cursor cursor retornado em nextCursor pela página anterior (null na primeira página)
+     * @param size tamanho da página
+     * @return página de resultados com trechos destacados e o cursor da próxima página
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<OcorrenciaBuscaResponse> buscarTexto(
+            String busca,
+            OcorrenciaFilterRequest filtros,
+            Double latitude,
+            Double longitude,
+            Double raioMetros,
+            String cursor,
+            int size
+    ) {
+        if (busca == null || busca.isBlank()) {
+            throw new ValidationException("Texto da busca é obrigatório");
+        }
+        if (busca.length() > Validation.BUSCA_MAX_LENGTH) {
+            throw new ValidationException("Texto da busca deve ter no máximo "
+                    + Validation.BUSCA_MAX_LENGTH + " caracteres");
+        }
+        if ((latitude == null) != (longitude == null)) {
+            throw new ValidationException("Latitude e longitude devem ser informadas juntas");
+        }
+        if (latitude != null && (raioMetros == null || raioMetros <= 0)) {
+            raioMetros = Geo.DEFAULT_SEARCH_RADIUS;
+        }
+        int pageSize = Math.min(Math.max(size, 1), Pagination.MAX_SIZE);
+
+        Double lastRelevancia = null;
+        String lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            // [relevancia, id]
+            String[] parts = CursorUtil.decode(cursor, 2);
+            try {
+                lastRelevancia = Double.valueOf(parts[0]);
+                lastId = UUID.fromString(parts[1]).toString();
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Cursor inválido: " + cursor, e);
+            }
+        }
+
+        String tipoProblemaStr = filtros.getTipoProblema() != null ? filtros.getTipoProblema().name() : null;
+        String statusStr = filtros.getStatus() != null ? filtros.getStatus().name() : null;
+        UUID bairroId = bairroLocator.findIdByNome(filtros.getBairro()).orElse(null);
+        String bairroTexto = bairroId == null ? filtros.getBairro() : null;
+
+        log.debug("Busca textual: q='{}', lat={}, lng={}, raio={}m, cursor={}",
+                busca, latitude, longitude, raioMetros, cursor);
+
+        // Busca uma linha a mais para saber se existe próxima página sem precisar de COUNT
+        List<Object[]> rows = repository.searchFullText(
+                busca.trim(), tipoProblemaStr, bairroId, bairroTexto, statusStr,
+                filtros.getGravidadeMin(), filtros.getGravidadeMax(),
+                filtros.getDataInicio(), filtros.getDataFim(),
+                latitude, longitude, raioMetros,
+                lastRelevancia, lastId, pageSize + 1
+        );
+        boolean hasNext = rows.size() > pageSize;
+        List<Object[]> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+
+        List<UUID> ids = pageRows.stream()
+                .map(row -> row[0] instanceof UUID uuid ? uuid : UUID.fromString(row[0].toString()))
+                .collect(Collectors.toList());
+        Map<UUID, Ocorrencia> porId = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Ocorrencia::getId, Function.identity()));
+        List<OcorrenciaBuscaResponse> content = new ArrayList<>(pageRows.size());
+        for (int i = 0; i < pageRows.size(); i++) {
+            Ocorrencia ocorrencia = porId.get(ids.get(i));
+            if (ocorrencia == null) {
+                continue;
+            }
+            Object[] row = pageRows.get(i);
+            content.add(OcorrenciaBuscaResponse.builder()
+                    .ocorrencia(mapper.toResponse(ocorrencia))
+                    .relevancia(((Number) row[1]).doubleValue())
+                    .trechoDescricao((String) row[2])
+                    .trechoEndereco((String) row[3])
+                    .build());
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = pageRows.get(pageRows.size() - 1);
+            nextCursor = CursorUtil.encode(
+                    String.valueOf(((Number) last[1]).doubleValue()),
+                    last[0].toString()
+            );
+        }
+
+        return CursorPagedResponse.<OcorrenciaBuscaResponse>builder()
+                .content(content)
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
     /**
      * Atualiza uma ocorrência.
      */
-    @CacheEvict(value = {CACHE_OCORRENCIAS, CACHE_STATS, CACHE_BAIRROS_CRITICOS}, allEntries = true)
+    @CacheEvict(value = CACHE_OCORRENCIAS, key = "#id")
     public OcorrenciaResponse atualizar(UUID id, OcorrenciaRequest request) {
         Ocorrencia ocorrencia = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Ocorrência não encontrada com ID: " + id));
         
+        // O bairro pode mudar junto com as coordenadas: invalida o anterior e o novo
+        Set<String> escopos = CacheVersions.escoposDaOcorrencia(ocorrencia.getBairroId(), ocorrencia.getDataCriacao());
+        OcorrenciaAlteradaEvent.Estado anterior = OcorrenciaAlteradaEvent.Estado.de(ocorrencia);
         mapper.updateEntity(ocorrencia, request);
+        ocorrencia.setBairroId(bairroLocator.locate(ocorrencia.getCoordenadas()).orElse(null));
         Ocorrencia updated = repository.save(ocorrencia);
+        escopos.addAll(CacheVersions.escoposDaOcorrencia(updated.getBairroId(), updated.getDataCriacao()));
+        cacheVersions.invalidar(escopos);
+        eventPublisher.publishEvent(new OcorrenciaAlteradaEvent(anterior, OcorrenciaAlteradaEvent.Estado.de(updated)));
         
         return mapper.toResponse(updated);
     }
@@ -151,46 +497,130 @@ public class OcorrenciaService {
     /**
      * Atualiza o status de uma ocorrência.
      */
-    @CacheEvict(value = {CACHE_OCORRENCIAS, CACHE_STATS, CACHE_BAIRROS_CRITICOS}, allEntries = true)
+    @CacheEvict(value = CACHE_OCORRENCIAS, key = "#id")
     public OcorrenciaResponse atualizarStatus(UUID id, StatusOcorrencia status) {
         Ocorrencia ocorrencia = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Ocorrência não encontrada com ID: " + id));
         
+        OcorrenciaAlteradaEvent.Estado anterior = OcorrenciaAlteradaEvent.Estado.de(ocorrencia);
         ocorrencia.setStatus(status);
         Ocorrencia updated = repository.save(ocorrencia);
+        cacheVersions.invalidar(CacheVersions.escoposDaOcorrencia(updated.getBairroId(), updated.getDataCriacao()));
+        eventPublisher.publishEvent(new OcorrenciaAlteradaEvent(anterior, OcorrenciaAlteradaEvent.Estado.de(updated)));
         
         return mapper.toResponse(updated);
     }
 
+    /**
+     * Altera o status de várias ocorrências num único UPDATE, selecionadas por IDs ou por filtro.
+     * As versões de cache afetadas são incrementadas uma vez por lote, e não por ocorrência.
+     */
+    public StatusLoteResponse atualizarStatusEmLote(StatusLoteRequest request) {
+        boolean porIds = request.getIds() != null && !request.getIds().isEmpty();
+        OcorrenciaFilterRequest filtro = request.getFiltro();
+        if (porIds == (filtro != null)) {
+            throw new ValidationException("Informe a lista de IDs ou o filtro, e não ambos");
+        }
+        if (!porIds && filtro.getTipoProblema() == null && filtro.getBairro() == null && filtro.getStatus() == null
+                && filtro.getGravidadeMin() == null && filtro.getGravidadeMax() == null
+                && filtro.getDataInicio() == null && filtro.getDataFim() == null) {
+            throw new ValidationException("Filtro vazio alteraria todas as ocorrências");
+        }
+
+        String novoStatus = request.getStatus().name();
+        List<String> statusEsperados = request.getStatusEsperados() != null
+                ? request.getStatusEsperados().stream().map(Enum::name).collect(Collectors.toList())
+                : null;
+
+        List<Object[]> atualizadas;
+        if (porIds) {
+            atualizadas = repository.updateStatusByIds(
+                    new LinkedHashSet<>(request.getIds()), novoStatus, statusEsperados, request.getAtualizadoAte());
+        } else {
+            String tipoProblemaStr = filtro.getTipoProblema() != null ? filtro.getTipoProblema().name() : null;
+            String statusStr = filtro.getStatus() != null ? filtro.getStatus().name() : null;
+            UUID bairroId = bairroLocator.findIdByNome(filtro.getBairro()).orElse(null);
+            String bairroTexto = bairroId == null ? filtro.getBairro() : null;
+            atualizadas = repository.updateStatusByFilters(
+                    tipoProblemaStr, bairroId, bairroTexto, statusStr,
+                    filtro.getGravidadeMin(), filtro.getGravidadeMax(),
+                    filtro.getDataInicio(), filtro.getDataFim(),
+                    novoStatus, statusEsperados, request.getAtualizadoAte());
+        }
+
+        // [id, bairro_id, data_criacao]
+        Set<UUID> alterados = new HashSet<>();
+        Set<String> escopos = new LinkedHashSet<>();
+        Cache cacheOcorrencias = cacheManager.getCache(CACHE_OCORRENCIAS);
+        for (Object[] row : atualizadas) {
+            UUID alterado = (UUID) row[0];
+            alterados.add(alterado);
+            escopos.addAll(CacheVersions.escoposDaOcorrencia((UUID) row[1], toLocalDateTime(row[2])));
+            if (cacheOcorrencias != null) {
+                cacheOcorrencias.evict(alterado);
+            }
+        }
+        cacheVersions.invalidar(escopos);
+        if (!alterados.isEmpty()) {
+            eventPublisher.publishEvent(new OcorrenciasAlteradasEmLoteEvent(alterados.size()));
+        }
+
+        List<UUID> naoAtualizados = List.of();
+        if (porIds) {
+            naoAtualizados = request.getIds().stream()
+                    .distinct()
+                    .filter(id -> !alterados.contains(id))
+                    .collect(Collectors.toList());
+        }
+        log.info("Status alterado para {} em lote: {} ocorrências atualizadas, {} não atualizadas",
+                novoStatus, alterados.size(), naoAtualizados.size());
+
+        return StatusLoteResponse.builder()
+                .status(request.getStatus())
+                .atualizados(alterados.size())
+                .naoAtualizados(naoAtualizados)
+                .build();
+    }
+
     /**
      * Remove uma ocorrência.
      */
-    @CacheEvict(value = {CACHE_OCORRENCIAS, CACHE_STATS, CACHE_BAIRROS_CRITICOS}, allEntries = true)
+    @CacheEvict(value = CACHE_OCORRENCIAS, key = "#id")
     public void remover(UUID id) {
-        if (!repository.existsById(id)) {
-            throw new EntityNotFoundException("Ocorrência não encontrada com ID: " + id);
-        }
+        Ocorrencia ocorrencia = repository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Ocorrência não encontrada com ID: " + id));
         
-        repository.deleteById(id);
+        repository.delete(ocorrencia);
+        cacheVersions.invalidar(CacheVersions.escoposDaOcorrencia(ocorrencia.getBairroId(), ocorrencia.getDataCriacao()));
+        eventPublisher.publishEvent(OcorrenciaAlteradaEvent.removida(ocorrencia));
     }
 
     /**
      * Busca ocorrências críticas.
      */
-    @Cacheable(value = CACHE_OCORRENCIAS)
+    @Cacheable(value = CACHE_OCORRENCIAS, keyGenerator = VersionedKeyGenerator.NAME)
     @Transactional(readOnly = true)
     public PagedResponse<OcorrenciaResponse> buscarCriticas(Pageable pageable) {
         log.debug("Buscando ocorrências críticas");
         
-        Page<Ocorrencia> page = repository.findCriticas(pageable);
+        Page<OcorrenciaResumo> page = repository.findResumoCriticas(pageable);
         return toPagedResponse(page);
     }
 
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
     /**
      * Converte Page para PagedResponse.
      */
-    private PagedResponse<OcorrenciaResponse> toPagedResponse(Page<Ocorrencia> page) {
-        List<OcorrenciaResponse> content = mapper.toResponseList(page.getContent());
+    private PagedResponse<OcorrenciaResponse> toPagedResponse(Page<OcorrenciaResumo> page) {
+        List<OcorrenciaResponse> content = page.getContent().stream()
+                .map(mapper::toResponse)
+                .collect(Collectors.toList());
         
         return PagedResponse.<OcorrenciaResponse>builder()
                 .content(content)
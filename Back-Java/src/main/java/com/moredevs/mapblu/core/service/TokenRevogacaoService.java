@@ -0,0 +1,139 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.User;
+import com.moredevs.mapblu.core.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estado dos usuários em memória para aceitar tokens sem consultar o banco a cada requisição.
+ * Um token deixa de ser aceito quando o usuário é desativado ou removido, quando o papel dele
+ * muda (o token carrega o papel antigo) ou quando a versão de tokens dele é incrementada
+ * (troca de senha, troca de papel e "sair de todos os dispositivos").
+ *
+ * A cada {@code jwt.revogacao.refresh-ms} o mapa recebe só os usuários com data_atualizacao
+ * recente, então essas mudanças valem em todos os nós nesse prazo; no nó que fez a mudança,
+ * valem já a partir do commit. A carga de todos os usuários só acontece na inicialização e a cada
+ * {@code jwt.revogacao.completa-ms}: é ela que tira do mapa usuários apagados do banco e pega
+ * alterações feitas por SQL sem atualizar data_atualizacao, que portanto levam até esse prazo.
+ * Usuários ainda fora do mapa (cadastrados depois da última recarga) são buscados uma vez pela chave primária.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevogacaoService {
+
+    private static final EstadoToken REMOVIDO = new EstadoToken(-1, null, false);
+
+    /**
+     * Recuo da recarga incremental: cobre o tempo entre o carimbo de data_atualizacao e o commit,
+     * e a diferença de relógio entre os nós que gravam o carimbo.
+     */
+    private static final Duration MARGEM_INCREMENTAL = Duration.ofSeconds(30);
+
+    private final UserRepository userRepository;
+
+    @Value("${jwt.revogacao.completa-ms:900000}")
+    private long intervaloCompletaMs;
+
+    private volatile Map<UUID, EstadoToken> usuarios = new ConcurrentHashMap<>();
+
+    private LocalDateTime ultimaRecarga;
+    private long ultimaCompletaMs;
+
+    /**
+     * Recarrega o estado dos usuários alterados desde a recarga anterior, ou de todos eles na
+     * primeira execução e a cada {@code jwt.revogacao.completa-ms}. Executado na inicialização e periodicamente.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revogacao.refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public synchronized void atualizar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        long agoraMs = System.currentTimeMillis();
+        if (ultimaRecarga == null || agoraMs - ultimaCompletaMs >= intervaloCompletaMs) {
+            Map<UUID, EstadoToken> novos = new ConcurrentHashMap<>();
+            aplicar(userRepository.findEstadosDeToken(), novos);
+            usuarios = novos;
+            ultimaCompletaMs = agoraMs;
+            log.debug("Estado de tokens recarregado: {} usuários", novos.size());
+        } else {
+            List<Object[]> alterados = userRepository.findEstadosDeTokenAlteradosDesde(
+                    ultimaRecarga.minus(MARGEM_INCREMENTAL));
+            aplicar(alterados, usuarios);
+            log.debug("Estado de tokens atualizado: {} usuários alterados", alterados.size());
+        }
+        ultimaRecarga = inicio;
+    }
+
+    /**
+     * Descarta neste nó o estado do usuário depois do commit da transação atual, para que o próximo
+     * token dele seja conferido com o banco. Os outros nós veem a mudança na próxima recarga.
+     *
+     * @param id usuário cuja versão de tokens, papel ou situação mudou
+     */
+    public void esquecer(UUID id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usuarios.remove(id);
+                }
+            });
+        } else {
+            usuarios.remove(id);
+        }
+    }
+
+    /**
+     * Verifica se o token do principal, criado a partir das claims, ainda deve ser aceito.
+     *
+     * @param principal principal montado a partir das claims de um token com assinatura e validade verificadas
+     * @return true se o usuário está ativo, com o mesmo papel e a mesma versão de tokens
+     */
+    public boolean aceita(UserPrincipal principal) {
+        Map<UUID, EstadoToken> atual = usuarios;
+        EstadoToken estado = atual.get(principal.getId());
+        if (estado == null) {
+            estado = carregar(principal.getId());
+            atual.putIfAbsent(principal.getId(), estado);
+        }
+        return estado.ativo()
+                && estado.tokenVersao() == principal.getTokenVersao()
+                && estado.role() == principal.getRole();
+    }
+
+    private static void aplicar(List<Object[]> rows, Map<UUID, EstadoToken> destino) {
+        for (Object[] row : rows) {
+            // [id, token_versao, role, ativo]
+            destino.put((UUID) row[0], new EstadoToken(
+                    row[1] != null ? ((Number) row[1]).intValue() : 0,
+                    (User.RoleName) row[2],
+                    Boolean.TRUE.equals(row[3])));
+        }
+    }
+
+    private EstadoToken carregar(UUID id) {
+        return userRepository.findById(id)
+                .map(user -> new EstadoToken(
+                        user.getTokenVersao() != null ? user.getTokenVersao() : 0,
+                        user.getRole(),
+                        Boolean.TRUE.equals(user.getAtivo())))
+                .orElse(REMOVIDO);
+    }
+
+    private record EstadoToken(int tokenVersao, User.RoleName role, boolean ativo) {
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.UUID;
 
 /**
  * Implementação de UserDetails para integração com Spring Security.
@@ -14,16 +15,33 @@ import java.util.Collections;
 public class UserPrincipal implements UserDetails {
 
     private final User user;
+    private final UUID id;
+    private final User.RoleName role;
+    private final int tokenVersao;
     private final UserDetails userDetails;
 
     private UserPrincipal(User user) {
         this.user = user;
+        this.id = user.getId();
+        this.role = user.getRole();
+        this.tokenVersao = user.getTokenVersao() != null ? user.getTokenVersao() : 0;
         this.userDetails = org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
                 .password(user.getPassword())
-                .authorities(user.getRole() != null 
-                        ? Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name()))
-                        : Collections.emptyList())
+                .authorities(authorities(user.getRole()))
+                .disabled(Boolean.FALSE.equals(user.getAtivo()))
+                .build();
+    }
+
+    private UserPrincipal(UUID id, String username, User.RoleName role, int tokenVersao) {
+        this.user = null;
+        this.id = id;
+        this.role = role;
+        this.tokenVersao = tokenVersao;
+        this.userDetails = org.springframework.security.core.userdetails.User.builder()
+                .username(username)
+                .password("")
+                .authorities(authorities(role))
                 .build();
     }
 
@@ -37,6 +55,26 @@ public class UserPrincipal implements UserDetails {
         return new UserPrincipal(user);
     }
 
+    /**
+     * Cria uma instância de UserPrincipal a partir das claims de um token já validado,
+     * sem consultar o banco.
+     * 
+     * @param id ID do usuário
+     * @param username email do usuário (subject do token)
+     * @param role papel do usuário
+     * @param tokenVersao versão dos tokens do usuário quando o token foi emitido
+     * @return UserPrincipal
+     */
+    public static UserPrincipal fromClaims(UUID id, String username, User.RoleName role, int tokenVersao) {
+        return new UserPrincipal(id, username, role, tokenVersao);
+    }
+
+    private static Collection<? extends GrantedAuthority> authorities(User.RoleName role) {
+        return role != null
+                ? Collections.singletonList(new SimpleGrantedAuthority(role.name()))
+                : Collections.emptyList();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return userDetails.getAuthorities();
@@ -75,10 +113,22 @@ public class UserPrincipal implements UserDetails {
     /**
      * Obtém a entidade User.
      * 
-     * @return entidade User
+     * @return entidade User, ou null quando o principal foi criado a partir do token
      */
     public User getUser() {
         return user;
     }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public User.RoleName getRole() {
+        return role;
+    }
+
+    public int getTokenVersao() {
+        return tokenVersao;
+    }
 }
 
@@ -0,0 +1,290 @@
+package com.moredevs.mapblu.core.service.ai;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
+
+/**
+ * Índice em memória das perguntas livres já respondidas, para reaproveitar a resposta de
+ * perguntas quase iguais ("Quais bairros têm mais buracos?" e "quais os bairros com mais buracos").
+ *
+ * A pergunta é normalizada (sem acentos, pontuação, caixa e palavras vazias) e quebrada em
+ * trigramas de cada palavra. Cada conjunto de trigramas vira uma assinatura MinHash, dividida em
+ * faixas (LSH): perguntas que coincidem em alguma faixa são candidatas, e entre elas vale a de
+ * maior similaridade de Jaccard, desde que acima do mínimo. Só são comparadas perguntas com o
+ * mesmo contexto (bairro, tipo de problema etc.).
+ *
+ * Negações ("não", "nunca", "sem"), números e meses mudam o sentido da pergunta com poucos
+ * trigramas, então ficam fora do Jaccard: são chaves rígidas que entram no contexto e precisam
+ * ser iguais ("têm buracos" e "não têm buracos", ou "em 2023" e "em 2024", nunca se correspondem).
+ *
+ * O índice é por nó e limitado a {@code PERGUNTA_INDICE_MAX} perguntas; as mais antigas saem primeiro.
+ */
+@Component
+public class PerguntaSimilarIndex {
+
+    private static final Set<String> PALAVRAS_VAZIAS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "uns", "umas",
+            "de", "do", "da", "dos", "das", "em", "no", "na", "nos", "nas",
+            "ao", "aos", "por", "pelo", "pela", "pelos", "pelas", "para", "pra", "com",
+            "e", "ou", "que", "qual", "quais", "me", "voce", "sao", "esta", "estao",
+            "tem", "ha", "existe", "existem", "foi", "foram", "sobre");
+
+    private static final Set<String> NEGACOES = Set.of("nao", "nunca", "sem", "nem", "nenhum", "nenhuma", "jamais");
+
+    private static final Set<String> MESES = Set.of(
+            "janeiro", "fevereiro", "marco", "abril", "maio", "junho",
+            "julho", "agosto", "setembro", "outubro", "novembro", "dezembro");
+
+    private static final int LINHAS_POR_FAIXA = PERGUNTA_MINHASH_FUNCOES / PERGUNTA_LSH_FAIXAS;
+    private static final long[] SEMENTES = sementes(PERGUNTA_MINHASH_FUNCOES);
+
+    /**
+     * Pergunta encontrada no índice.
+     *
+     * @param hashContexto hash do insight que respondeu a pergunta
+     * @param pergunta pergunta como foi feita
+     * @param similaridade similaridade de Jaccard entre os trigramas das duas perguntas
+     */
+    public record Correspondencia(String hashContexto, String pergunta, double similaridade) {}
+
+    private record Entrada(String hashContexto, String pergunta, String chaveContexto,
+                           Set<String> trigramas, long[] faixas) {}
+
+    /**
+     * Pergunta pronta para o índice: contexto acrescido das chaves rígidas e trigramas do restante.
+     */
+    private record Termos(String chaveContexto, Set<String> trigramas) {}
+
+    private final double similaridadeMinima;
+    private final int capacidade;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+    private final Map<Long, Set<String>> faixas = new HashMap<>();
+
+    public PerguntaSimilarIndex() {
+        this(PERGUNTA_SIMILARIDADE_MINIMA, PERGUNTA_INDICE_MAX);
+    }
+
+    PerguntaSimilarIndex(double similaridadeMinima, int capacidade) {
+        this.similaridadeMinima = similaridadeMinima;
+        this.capacidade = capacidade;
+    }
+
+    /**
+     * Busca a pergunta já respondida mais parecida com a informada, no mesmo contexto.
+     *
+     * @param chaveContexto identifica o contexto da pergunta (sem a pergunta)
+     * @param pergunta pergunta livre
+     * @return a correspondência de maior similaridade, se alguma atingir o mínimo
+     */
+    public synchronized Optional<Correspondencia> buscar(String chaveContexto, String pergunta) {
+        Termos termos = termos(chaveContexto, pergunta);
+        Set<String> trigramas = termos.trigramas();
+        if (trigramas.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Set<String> candidatas = new HashSet<>();
+        for (long faixa : faixas(termos.chaveContexto(), assinatura(trigramas))) {
+            candidatas.addAll(faixas.getOrDefault(faixa, Set.of()));
+        }
+
+        Correspondencia melhor = null;
+        for (String hash : candidatas) {
+            Entrada entrada = entradas.get(hash);
+            if (entrada == null || !entrada.chaveContexto().equals(termos.chaveContexto())) {
+                continue;
+            }
+            double similaridade = similaridade(trigramas, entrada.trigramas());
+            if (similaridade >= similaridadeMinima && (melhor == null || similaridade > melhor.similaridade())) {
+                melhor = new Correspondencia(hash, entrada.pergunta(), similaridade);
+            }
+        }
+        return Optional.ofNullable(melhor);
+    }
+
+    /**
+     * Registra uma pergunta respondida. Registrar de novo o mesmo insight renova sua posição.
+     *
+     * @param chaveContexto identifica o contexto da pergunta (sem a pergunta)
+     * @param pergunta pergunta livre
+     * @param hashContexto hash do insight com a resposta
+     */
+    public synchronized void registrar(String chaveContexto, String pergunta, String hashContexto) {
+        Termos termos = termos(chaveContexto, pergunta);
+        if (termos.trigramas().isEmpty()) {
+            return;
+        }
+        remover(hashContexto);
+
+        Entrada entrada = new Entrada(hashContexto, pergunta, termos.chaveContexto(), termos.trigramas(),
+                faixas(termos.chaveContexto(), assinatura(termos.trigramas())));
+        entradas.put(hashContexto, entrada);
+        for (long faixa : entrada.faixas()) {
+            faixas.computeIfAbsent(faixa, f -> new HashSet<>()).add(hashContexto);
+        }
+
+        if (entradas.size() > capacidade) {
+            remover(entradas.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Remove um insight do índice (por exemplo, quando expirou).
+     */
+    public synchronized void remover(String hashContexto) {
+        Entrada entrada = entradas.remove(hashContexto);
+        if (entrada == null) {
+            return;
+        }
+        for (long faixa : entrada.faixas()) {
+            Set<String> hashes = faixas.get(faixa);
+            if (hashes != null) {
+                hashes.remove(hashContexto);
+                if (hashes.isEmpty()) {
+                    faixas.remove(faixa);
+                }
+            }
+        }
+    }
+
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Sem acentos, pontuação e caixa, e sem palavras vazias. As palavras restantes ficam em ordem.
+     */
+    static String normalizar(String pergunta) {
+        if (pergunta == null) {
+            return "";
+        }
+        String semAcento = Normalizer.normalize(pergunta, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        StringJoiner palavras = new StringJoiner(" ");
+        for (String palavra : semAcento.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+            if (!palavra.isEmpty() && !PALAVRAS_VAZIAS.contains(palavra)) {
+                palavras.add(palavra);
+            }
+        }
+        return palavras.toString();
+    }
+
+    /**
+     * Negações, números e meses da pergunta normalizada, em ordem alfabética. Perguntas só podem
+     * se corresponder quando essas chaves são iguais.
+     */
+    static List<String> chavesRigidas(String normalizado) {
+        List<String> chaves = new ArrayList<>();
+        if (normalizado.isEmpty()) {
+            return chaves;
+        }
+        for (String palavra : normalizado.split(" ")) {
+            if (chaveRigida(palavra)) {
+                chaves.add(palavra);
+            }
+        }
+        Collections.sort(chaves);
+        return chaves;
+    }
+
+    private static boolean chaveRigida(String palavra) {
+        return NEGACOES.contains(palavra) || MESES.contains(palavra) || palavra.chars().anyMatch(Character::isDigit);
+    }
+
+    private static Termos termos(String chaveContexto, String pergunta) {
+        String normalizado = normalizar(pergunta);
+        StringJoiner restantes = new StringJoiner(" ");
+        if (!normalizado.isEmpty()) {
+            for (String palavra : normalizado.split(" ")) {
+                if (!chaveRigida(palavra)) {
+                    restantes.add(palavra);
+                }
+            }
+        }
+        return new Termos(chaveContexto + "|" + String.join(" ", chavesRigidas(normalizado)),
+                trigramas(restantes.toString()));
+    }
+
+    /**
+     * Trigramas de cada palavra, com as bordas preenchidas como no pg_trgm.
+     */
+    static Set<String> trigramas(String normalizado) {
+        Set<String> trigramas = new HashSet<>();
+        if (normalizado.isEmpty()) {
+            return trigramas;
+        }
+        for (String palavra : normalizado.split(" ")) {
+            String preenchida = "  " + palavra + " ";
+            for (int i = 0; i + 3 <= preenchida.length(); i++) {
+                trigramas.add(preenchida.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+
+    static double similaridade(Set<String> a, Set<String> b) {
+        int comuns = 0;
+        for (String trigrama : a) {
+            if (b.contains(trigrama)) {
+                comuns++;
+            }
+        }
+        int uniao = a.size() + b.size() - comuns;
+        return uniao == 0 ? 0.0 : (double) comuns / uniao;
+    }
+
+    private static long[] assinatura(Set<String> trigramas) {
+        long[] assinatura = new long[SEMENTES.length];
+        Arrays.fill(assinatura, Long.MAX_VALUE);
+        for (String trigrama : trigramas) {
+            long base = trigrama.hashCode();
+            for (int i = 0; i < SEMENTES.length; i++) {
+                long hash = misturar(base ^ SEMENTES[i]);
+                if (hash < assinatura[i]) {
+                    assinatura[i] = hash;
+                }
+            }
+        }
+        return assinatura;
+    }
+
+    /**
+     * Uma chave por faixa de {@code LINHAS_POR_FAIXA} valores da assinatura, incluindo o contexto
+     * e o número da faixa para que faixas diferentes não colidam entre si.
+     */
+    private static long[] faixas(String chaveContexto, long[] assinatura) {
+        long[] chaves = new long[PERGUNTA_LSH_FAIXAS];
+        for (int faixa = 0; faixa < PERGUNTA_LSH_FAIXAS; faixa++) {
+            long chave = misturar(chaveContexto.hashCode() * 31L + faixa);
+            for (int linha = 0; linha < LINHAS_POR_FAIXA; linha++) {
+                chave = misturar(chave ^ assinatura[faixa * LINHAS_POR_FAIXA + linha]);
+            }
+            chaves[faixa] = chave;
+        }
+        return chaves;
+    }
+
+    private static long[] sementes(int quantidade) {
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        long[] sementes = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            sementes[i] = random.nextLong();
+        }
+        return sementes;
+    }
+
+    /**
+     * Finalizador do MurmurHash3 (64 bits).
+     */
+    private static long misturar(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb3f99ec53a3dL;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,68 @@
+package com.moredevs.mapblu.core.service.aovivo;
+
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaAoVivoResponse;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciaAlteradaEvent;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+
+/**
+ * Uma escrita, como é publicada no canal ao vivo do Redis para os assinantes de todos os nós.
+ *
+ * @param anterior ocorrência antes da escrita (nula na criação e em lote)
+ * @param atual ocorrência depois da escrita (nula na remoção e em lote)
+ * @param contadores diferenças nos contadores do dashboard do mês atual
+ * @param celulas células do heatmap padrão onde a ocorrência estava e está
+ * @param lote alteração em lote, sem o detalhe de cada ocorrência
+ */
+public record AlteracaoAoVivo(OcorrenciaAoVivoResponse anterior, OcorrenciaAoVivoResponse atual,
+                              Map<String, Long> contadores, List<String> celulas, boolean lote) {
+
+    public static AlteracaoAoVivo de(OcorrenciaAlteradaEvent evento, Map<String, Long> contadores) {
+        List<String> celulas = new ArrayList<>(2);
+        if (evento.anterior() != null) {
+            celulas.add(celula(evento.anterior().latitude(), evento.anterior().longitude()));
+        }
+        if (evento.atual() != null) {
+            String celula = celula(evento.atual().latitude(), evento.atual().longitude());
+            if (!celulas.contains(celula)) {
+                celulas.add(celula);
+            }
+        }
+        return new AlteracaoAoVivo(resumo(evento.anterior()), resumo(evento.atual()), contadores, celulas, false);
+    }
+
+    public static AlteracaoAoVivo emLote() {
+        return new AlteracaoAoVivo(null, null, Map.of(), List.of(), true);
+    }
+
+    /**
+     * Célula do heatmap padrão que contém o ponto, com o mesmo identificador das zonas
+     * do grid de {@code DEFAULT_GRID_SIZE_METERS}.
+     */
+    public static String celula(double latitude, double longitude) {
+        return GeoUtil.gridCellId(latitude, longitude, Geo.DEFAULT_GRID_SIZE_METERS);
+    }
+
+    private static OcorrenciaAoVivoResponse resumo(OcorrenciaAlteradaEvent.Estado estado) {
+        if (estado == null) {
+            return null;
+        }
+        return OcorrenciaAoVivoResponse.builder()
+                .id(estado.id())
+                .tipoProblema(TipoProblema.valueOf(estado.tipoProblema()))
+                .bairro(estado.bairro())
+                .latitude(estado.latitude())
+                .longitude(estado.longitude())
+                .gravidade(estado.gravidade())
+                .status(StatusOcorrencia.valueOf(estado.status()))
+                .dataCriacao(estado.dataCriacao())
+                .build();
+    }
+}
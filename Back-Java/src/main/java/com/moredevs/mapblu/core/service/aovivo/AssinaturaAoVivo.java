@@ -0,0 +1,137 @@
+package com.moredevs.mapblu.core.service.aovivo;
+
+import com.moredevs.mapblu.core.dto.response.AtualizacaoAoVivoResponse;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaAoVivoResponse;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Uma conexão do canal ao vivo e as alterações acumuladas para o próximo quadro.
+ *
+ * Alterações seguidas da mesma ocorrência se fundem (vale a última), as diferenças de contadores
+ * são somadas e as células do heatmap não se repetem: uma rajada de escritas vira um quadro só.
+ * Enquanto um envio está em andamento (cliente lento) as alterações continuam se acumulando; se
+ * passarem do limite, são descartadas e o próximo quadro só pede ressincronização, para que um
+ * cliente lento não segure memória do servidor.
+ */
+public class AssinaturaAoVivo {
+
+    @Getter
+    private final SseEmitter emitter;
+    private final FiltroAoVivo filtro;
+    private final int maxPendentes;
+
+    private final Map<UUID, OcorrenciaAoVivoResponse> ocorrencias = new LinkedHashMap<>();
+    private final Set<UUID> removidas = new LinkedHashSet<>();
+    private final Map<String, Long> contadores = new HashMap<>();
+    private final Set<String> celulas = new LinkedHashSet<>();
+    private boolean ressincronizar;
+
+    private final AtomicBoolean enviando = new AtomicBoolean();
+    @Getter
+    private volatile long ultimoEnvio;
+
+    public AssinaturaAoVivo(SseEmitter emitter, FiltroAoVivo filtro, int maxPendentes, long criadaEm) {
+        this.emitter = emitter;
+        this.filtro = filtro;
+        this.maxPendentes = maxPendentes;
+        this.ultimoEnvio = criadaEm;
+    }
+
+    /**
+     * Acumula uma escrita para o próximo quadro, se ela interessa à assinatura.
+     *
+     * @param bairroAnterior bairro normalizado de {@code alteracao.anterior()}
+     * @param bairroAtual bairro normalizado de {@code alteracao.atual()}
+     */
+    public synchronized void acumular(AlteracaoAoVivo alteracao, String bairroAnterior, String bairroAtual) {
+        if (alteracao.lote()) {
+            marcarRessincronizacao();
+            return;
+        }
+        if (ressincronizar) {
+            // O cliente vai recarregar tudo de qualquer forma
+            return;
+        }
+        alteracao.contadores().forEach((campo, delta) -> contadores.merge(campo, delta, Long::sum));
+
+        if (filtro.aceita(alteracao.atual(), bairroAtual)) {
+            UUID id = alteracao.atual().getId();
+            removidas.remove(id);
+            ocorrencias.put(id, alteracao.atual());
+        } else if (filtro.aceita(alteracao.anterior(), bairroAnterior)) {
+            UUID id = alteracao.anterior().getId();
+            ocorrencias.remove(id);
+            removidas.add(id);
+        } else {
+            return;
+        }
+        celulas.addAll(alteracao.celulas());
+
+        if (ocorrencias.size() + removidas.size() + celulas.size() > maxPendentes) {
+            marcarRessincronizacao();
+        }
+    }
+
+    /**
+     * Descarta as alterações acumuladas; o próximo quadro pede ao cliente que recarregue tudo.
+     */
+    public synchronized void marcarRessincronizacao() {
+        limpar();
+        ressincronizar = true;
+    }
+
+    /**
+     * Retira as alterações acumuladas como um quadro.
+     *
+     * @return o quadro (sem sequência), ou nulo se não há nada a enviar
+     */
+    public synchronized AtualizacaoAoVivoResponse retirar() {
+        contadores.values().removeIf(delta -> delta == 0);
+        if (!ressincronizar && ocorrencias.isEmpty() && removidas.isEmpty()
+                && contadores.isEmpty() && celulas.isEmpty()) {
+            return null;
+        }
+        AtualizacaoAoVivoResponse quadro = ressincronizar
+                ? AtualizacaoAoVivoResponse.builder().ressincronizar(true).build()
+                : AtualizacaoAoVivoResponse.builder()
+                        .ocorrencias(new ArrayList<>(ocorrencias.values()))
+                        .removidas(new ArrayList<>(removidas))
+                        .contadores(new HashMap<>(contadores))
+                        .celulasHeatmap(new ArrayList<>(celulas))
+                        .build();
+        limpar();
+        ressincronizar = false;
+        return quadro;
+    }
+
+    /**
+     * @return se o envio pode começar; falso se o anterior ainda não terminou
+     */
+    public boolean iniciarEnvio() {
+        return enviando.compareAndSet(false, true);
+    }
+
+    public void finalizarEnvio(long instante, boolean enviou) {
+        if (enviou) {
+            ultimoEnvio = instante;
+        }
+        enviando.set(false);
+    }
+
+    private void limpar() {
+        ocorrencias.clear();
+        removidas.clear();
+        contadores.clear();
+        celulas.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package com.moredevs.mapblu.core.service.aovivo;
+
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaAoVivoResponse;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+
+/**
+ * Filtro de uma assinatura do canal ao vivo. Campos nulos não filtram.
+ *
+ * @param minLat latitude mínima da área (junto com as demais coordenadas)
+ * @param maxLat latitude máxima da área
+ * @param minLng longitude mínima da área
+ * @param maxLng longitude máxima da área
+ * @param tipoProblema tipo de problema
+ * @param bairro nome do bairro, comparado sem acentos nem caixa
+ */
+public record FiltroAoVivo(Double minLat, Double maxLat, Double minLng, Double maxLng,
+                           TipoProblema tipoProblema, String bairro) {
+
+    public FiltroAoVivo {
+        boolean algumaCoordenada = minLat != null || maxLat != null || minLng != null || maxLng != null;
+        boolean todasCoordenadas = minLat != null && maxLat != null && minLng != null && maxLng != null;
+        if (algumaCoordenada && !todasCoordenadas) {
+            throw new ValidationException("Informe minLat, maxLat, minLng e maxLng juntos");
+        }
+        if (todasCoordenadas && (minLat > maxLat || minLng > maxLng)) {
+            throw new ValidationException("Área inválida: o mínimo deve ser menor que o máximo");
+        }
+        bairro = GeoUtil.normalizeBairro(bairro);
+    }
+
+    /**
+     * @param ocorrencia ocorrência alterada (nula não é aceita)
+     * @param bairroNormalizado bairro da ocorrência já normalizado, uma vez para todas as assinaturas
+     */
+    public boolean aceita(OcorrenciaAoVivoResponse ocorrencia, String bairroNormalizado) {
+        if (ocorrencia == null) {
+            return false;
+        }
+        if (minLat != null && (ocorrencia.getLatitude() < minLat || ocorrencia.getLatitude() > maxLat
+                || ocorrencia.getLongitude() < minLng || ocorrencia.getLongitude() > maxLng)) {
+            return false;
+        }
+        if (tipoProblema != null && tipoProblema != ocorrencia.getTipoProblema()) {
+            return false;
+        }
+        return bairro == null || bairro.equals(bairroNormalizado);
+    }
+}
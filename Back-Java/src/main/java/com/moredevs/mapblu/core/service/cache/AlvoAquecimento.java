@@ -0,0 +1,57 @@
+package com.moredevs.mapblu.core.service.cache;
+
+/**
+ * Consulta que o aquecimento do cache sabe repetir. Cada alvo corresponde a uma entrada de cache
+ * da visão padrão (sem período nem área), a mesma que os primeiros usuários pedem após um deploy.
+ *
+ * @param tipo visão aquecida
+ * @param tipoProblema filtro de tipo de problema (opcional)
+ * @param bairro filtro de bairro (opcional no heatmap, obrigatório no insight de área crítica)
+ */
+public record AlvoAquecimento(Tipo tipo, String tipoProblema, String bairro) {
+
+    private static final String SEPARADOR = "|";
+
+    public enum Tipo {
+        DASHBOARD,
+        HEATMAP,
+        INSIGHT_AREA_CRITICA
+    }
+
+    public static AlvoAquecimento dashboard() {
+        return new AlvoAquecimento(Tipo.DASHBOARD, null, null);
+    }
+
+    public static AlvoAquecimento heatmap(String tipoProblema, String bairro) {
+        return new AlvoAquecimento(Tipo.HEATMAP, tipoProblema, bairro);
+    }
+
+    public static AlvoAquecimento insightAreaCritica(String bairro, String tipoProblema) {
+        return new AlvoAquecimento(Tipo.INSIGHT_AREA_CRITICA, tipoProblema, bairro);
+    }
+
+    /**
+     * Forma textual usada no registro de acessos do Redis.
+     */
+    public String chave() {
+        return tipo + SEPARADOR + (tipoProblema != null ? tipoProblema : "") + SEPARADOR + (bairro != null ? bairro : "");
+    }
+
+    /**
+     * Lê um alvo registrado com {@link #chave()}.
+     *
+     * @return o alvo, ou nulo se a chave for inválida (ex: gravada por uma versão com outros tipos)
+     */
+    public static AlvoAquecimento deChave(String chave) {
+        String[] partes = chave.split("\\|", 3);
+        if (partes.length < 3) {
+            return null;
+        }
+        try {
+            return new AlvoAquecimento(Tipo.valueOf(partes[0]),
+                    partes[1].isEmpty() ? null : partes[1], partes[2].isEmpty() ? null : partes[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.moredevs.mapblu.core.service.CacheAquecimentoService;
+import org.springframework.boot.actuate.availability.ReadinessStateHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Prontidão (readinessState) que também espera o aquecimento do cache: o nó só recebe tráfego
+ * depois que o primeiro aquecimento termina ou expira. Substitui o indicador padrão do Spring, de
+ * modo que o aquecimento entra apenas no grupo readiness ({@code /actuator/health/readiness}),
+ * sem um indicador próprio. Reaquecimentos posteriores aparecem nos detalhes sem tirar o nó do
+ * balanceamento.
+ */
+@Component("readinessStateHealthIndicator")
+public class CacheAquecimentoReadinessIndicator extends ReadinessStateHealthIndicator {
+
+    private final CacheAquecimentoService cacheAquecimentoService;
+
+    public CacheAquecimentoReadinessIndicator(ApplicationAvailability availability,
+                                              CacheAquecimentoService cacheAquecimentoService) {
+        super(availability);
+        this.cacheAquecimentoService = cacheAquecimentoService;
+    }
+
+    @Override
+    protected AvailabilityState getState(ApplicationAvailability applicationAvailability) {
+        if (!cacheAquecimentoService.getProgresso().inicialConcluido()) {
+            return ReadinessState.REFUSING_TRAFFIC;
+        }
+        return super.getState(applicationAvailability);
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) throws Exception {
+        super.doHealthCheck(builder);
+        CacheAquecimentoService.Progresso progresso = cacheAquecimentoService.getProgresso();
+        builder.withDetail("aquecimento", progresso.estado())
+                .withDetail("alvos", progresso.total())
+                .withDetail("concluidos", progresso.concluidos())
+                .withDetail("falhas", progresso.falhas());
+        if (progresso.motivo() != null) {
+            builder.withDetail("motivo", progresso.motivo());
+        }
+        if (progresso.inicio() != null) {
+            Instant fim = progresso.fim() != null ? progresso.fim() : Instant.now();
+            builder.withDetail("inicio", progresso.inicio().toString())
+                    .withDetail("duracaoMs", Duration.between(progresso.inicio(), fim).toMillis());
+        }
+    }
+}
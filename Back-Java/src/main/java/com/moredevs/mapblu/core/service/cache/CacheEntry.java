@@ -0,0 +1,27 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Valor gravado nos caches com renovação em segundo plano, junto com o momento da gravação
+ * e o tempo que levou para ser calculado (usados para decidir quando renová-lo).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEntry {
+
+    private Object valor;
+
+    /**
+     * Momento da gravação, em epoch millis.
+     */
+    private long escritoEm;
+
+    /**
+     * Tempo de cálculo do valor, em milissegundos.
+     */
+    private long custoMs;
+}
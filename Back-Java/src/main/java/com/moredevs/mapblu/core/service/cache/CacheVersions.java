@@ -0,0 +1,217 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache;
+
+/**
+ * Contadores de versão (geração) usados para invalidar caches sem apagar entradas.
+ * Cada chave de cache derivada de ocorrências embute as versões dos escopos que a consulta cobre:
+ * global, por bairro canônico e por mês de criação. Uma escrita apenas incrementa as versões dos
+ * escopos que afeta; as entradas antigas deixam de ser lidas e expiram pelo TTL, sem KEYS/SCAN.
+ *
+ * Uma escrita que afeta uma consulta sempre incrementa ao menos um escopo da chave dela:
+ * escritas incrementam o global, o bairro e o mês da ocorrência, e as consultas usam o bairro
+ * filtrado, os meses do período ou, sem nenhum dos dois, o global.
+ *
+ * As versões lidas ficam num cache local por {@code VERSAO_L1_TTL} segundos, para que cada leitura
+ * de cache não custe um MGET. Ao incrementar, o nó descarta as suas cópias e publica os escopos no
+ * canal {@code INVALIDACAO_CANAL}; os demais nós descartam as deles ao receber. Se a mensagem se
+ * perder, ou uma leitura concorrente ao incremento regravar a versão antiga, um nó enxerga a versão
+ * anterior por no máximo o TTL local.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheVersions implements ApplicationEventPublisherAware {
+
+    public static final String GLOBAL = "global";
+
+    private static final String SEPARADOR = "\n";
+    private static final String SEPARADOR_ESCOPOS = ",";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final com.github.benmanes.caffeine.cache.Cache<String, String> versoesLocais = Caffeine.newBuilder()
+            .maximumSize(Cache.VERSAO_L1_MAX)
+            .expireAfterWrite(Duration.ofSeconds(Cache.VERSAO_L1_TTL))
+            .build();
+    private ApplicationEventPublisher eventPublisher;
+
+    public static String bairro(UUID bairroId) {
+        return "bairro:" + bairroId;
+    }
+
+    public static String mes(LocalDateTime data) {
+        return mes(YearMonth.from(data));
+    }
+
+    public static String mes(YearMonth mes) {
+        return "mes:" + mes;
+    }
+
+    /**
+     * Escopos afetados pela escrita de uma ocorrência.
+     *
+     * @param bairroId bairro canônico da ocorrência (pode ser nulo)
+     * @param dataCriacao data de criação da ocorrência (pode ser nula)
+     */
+    public static Set<String> escoposDaOcorrencia(UUID bairroId, LocalDateTime dataCriacao) {
+        Set<String> escopos = new LinkedHashSet<>();
+        escopos.add(GLOBAL);
+        if (bairroId != null) {
+            escopos.add(bairro(bairroId));
+        }
+        if (dataCriacao != null) {
+            escopos.add(mes(dataCriacao));
+        }
+        return escopos;
+    }
+
+    /**
+     * Escopos cobertos por uma consulta: o bairro filtrado e/ou os meses do período,
+     * ou o global quando a consulta não se restringe a nenhum deles.
+     *
+     * @param bairroId bairro canônico filtrado (opcional)
+     * @param dataInicio início do período (opcional)
+     * @param dataFim fim do período (opcional)
+     */
+    public static List<String> escoposDaConsulta(UUID bairroId, LocalDateTime dataInicio, LocalDateTime dataFim) {
+        List<String> escopos = new ArrayList<>();
+        if (bairroId != null) {
+            escopos.add(bairro(bairroId));
+        }
+        if (dataInicio != null && dataFim != null && !dataFim.isBefore(dataInicio)) {
+            YearMonth inicio = YearMonth.from(dataInicio);
+            YearMonth fim = YearMonth.from(dataFim);
+            if (inicio.plusMonths(Cache.VERSAO_MAX_MESES).isAfter(fim)) {
+                for (YearMonth mes = inicio; !mes.isAfter(fim); mes = mes.plusMonths(1)) {
+                    escopos.add(mes(mes));
+                }
+            }
+        }
+        if (escopos.isEmpty()) {
+            escopos.add(GLOBAL);
+        }
+        return escopos;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Carimbo com as versões atuais dos escopos, para compor chaves de cache. As versões que não
+     * estão no cache local são lidas com um único MGET.
+     */
+    public String carimbo(List<String> escopos) {
+        Map<String, String> versoes = versoesLocais.getAll(escopos, this::lerVersoes);
+
+        StringBuilder carimbo = new StringBuilder("v");
+        for (int i = 0; i < escopos.size(); i++) {
+            carimbo.append(i == 0 ? "" : ".").append(versoes.get(escopos.get(i)));
+        }
+        return carimbo.toString();
+    }
+
+    /**
+     * Descarta as versões locais incrementadas por outro nó, recebidas pelo canal de invalidação.
+     * Mensagens de invalidação de caches (e as deste nó) são ignoradas.
+     */
+    public void onInvalidation(String message) {
+        String[] partes = message.split(SEPARADOR, 3);
+        if (partes.length < 3 || nodeId.equals(partes[0]) || !Cache.VERSAO_CANAL_NOME.equals(partes[1])) {
+            return;
+        }
+        versoesLocais.invalidateAll(Arrays.asList(partes[2].split(SEPARADOR_ESCOPOS)));
+    }
+
+    /**
+     * Incrementa as versões dos escopos. Dentro de uma transação, o incremento acontece só depois
+     * do commit: antes disso, uma leitura concorrente poderia gravar dados antigos sob a versão nova.
+     */
+    public void invalidar(Collection<String> escopos) {
+        Set<String> unicos = new LinkedHashSet<>(escopos);
+        if (unicos.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementar(unicos);
+                }
+            });
+        } else {
+            incrementar(unicos);
+        }
+    }
+
+    private void incrementar(Set<String> escopos) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String escopo : escopos) {
+                connection.stringCommands().incr(chave(escopo).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        versoesLocais.invalidateAll(escopos);
+        publicarInvalidacao(escopos);
+        log.debug("Versões de cache incrementadas: {}", escopos);
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new CacheVersoesIncrementadasEvent(escopos));
+        }
+    }
+
+    private Map<String, String> lerVersoes(Set<? extends String> escopos) {
+        List<String> lista = List.copyOf(escopos);
+        List<String> versoes = redisTemplate.opsForValue().multiGet(lista.stream().map(CacheVersions::chave).toList());
+
+        Map<String, String> resultado = new HashMap<>();
+        for (int i = 0; i < lista.size(); i++) {
+            String versao = versoes != null ? versoes.get(i) : null;
+            resultado.put(lista.get(i), versao != null ? versao : "0");
+        }
+        return resultado;
+    }
+
+    /**
+     * Publica os escopos incrementados para os demais nós, no mesmo canal das invalidações do L1.
+     */
+    private void publicarInvalidacao(Set<String> escopos) {
+        try {
+            redisTemplate.convertAndSend(Cache.INVALIDACAO_CANAL,
+                    nodeId + SEPARADOR + Cache.VERSAO_CANAL_NOME + SEPARADOR + String.join(SEPARADOR_ESCOPOS, escopos));
+        } catch (Exception e) {
+            // As versões no Redis já mudaram; os outros nós as enxergam quando o cache local expirar
+            log.warn("Falha ao publicar versões incrementadas {}: {}", escopos, e.getMessage());
+        }
+    }
+
+    private static String chave(String escopo) {
+        return Cache.VERSAO_PREFIXO + escopo;
+    }
+}
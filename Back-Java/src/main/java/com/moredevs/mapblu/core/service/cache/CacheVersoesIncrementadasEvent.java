@@ -0,0 +1,11 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import java.util.Set;
+
+/**
+ * Publicado após o incremento das versões de cache de uma escrita: as entradas dos escopos
+ * deixaram de ser lidas e serão recalculadas no próximo acesso.
+ *
+ * @param escopos escopos incrementados
+ */
+public record CacheVersoesIncrementadasEvent(Set<String> escopos) {}
@@ -0,0 +1,32 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.moredevs.mapblu.core.dto.response.InsightResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Insight guardado no cache de insights, com a expiração da linha em insights_cache.
+ * O TTL da entrada no Redis é calculado a partir dela.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedInsight {
+
+    /**
+     * Resposta já marcada como vinda do cache; não deve ser alterada por quem a lê.
+     */
+    private InsightResponse insight;
+
+    /**
+     * Expiração do insight (nula quando não expira).
+     */
+    private LocalDateTime dataExpiracao;
+
+    public boolean isExpirado(LocalDateTime agora) {
+        return dataExpiracao != null && !agora.isBefore(dataExpiracao);
+    }
+}
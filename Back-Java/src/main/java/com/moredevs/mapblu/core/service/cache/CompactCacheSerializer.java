@@ -0,0 +1,129 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Serializer dos valores de cache no Redis. O valor é codificado pelo ObjectMapper informado
+ * (Smile, o JSON binário do Jackson, em produção), comprimido com LZ4 quando passa do limite
+ * de tamanho e gravado num envelope versionado:
+ *
+ * <pre>
+ * 'M' 'B' | versão (1 byte) | flags (1 byte) | [tamanho original (int), se comprimido] | conteúdo
+ * </pre>
+ *
+ * Valores com outro cabeçalho ou outra versão (ex: JSON gravado antes do deploy, ou DTOs de
+ * uma versão anterior) e valores que não puderem ser lidos viram ausência no cache: a consulta
+ * é refeita e a entrada é regravada no formato atual, em vez de falhar a requisição.
+ */
+@Slf4j
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC_0 = 'M';
+    static final byte MAGIC_1 = 'B';
+    static final byte FLAG_LZ4 = 1;
+    static final int HEADER_SIZE = 4;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final ObjectMapper objectMapper;
+    private final byte version;
+    private final int compressionThreshold;
+
+    /**
+     * @param objectMapper mapper que define o formato do conteúdo (ver {@link #objectMapper(JsonFactory)})
+     * @param version versão do envelope; entradas de outra versão são descartadas na leitura
+     * @param compressionThreshold tamanho mínimo, em bytes, para comprimir o conteúdo
+     */
+    public CompactCacheSerializer(ObjectMapper objectMapper, int version, int compressionThreshold) {
+        this.objectMapper = objectMapper;
+        this.version = (byte) version;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * ObjectMapper para valores de cache no formato da factory informada, com suporte a datas do
+     * Java 8 e informação de tipo para reconstruir os DTOs. Propriedades desconhecidas são ignoradas
+     * para que a adição de campos não invalide o que já está em cache.
+     */
+    public static ObjectMapper objectMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        objectMapper.activateDefaultTyping(
+                objectMapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL
+        );
+        return objectMapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] content;
+        try {
+            content = objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new SerializationException("Não foi possível serializar o valor de cache: " + e.getMessage(), e);
+        }
+
+        if (content.length >= compressionThreshold) {
+            byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(content.length)];
+            int compressedLength = COMPRESSOR.compress(content, 0, content.length, compressed, 0);
+            // Só compensa guardar comprimido se ocupar menos que o original mais o tamanho gravado
+            if (compressedLength + Integer.BYTES < content.length) {
+                return ByteBuffer.allocate(HEADER_SIZE + Integer.BYTES + compressedLength)
+                        .put(MAGIC_0).put(MAGIC_1).put(version).put(FLAG_LZ4)
+                        .putInt(content.length)
+                        .put(compressed, 0, compressedLength)
+                        .array();
+            }
+        }
+        return ByteBuffer.allocate(HEADER_SIZE + content.length)
+                .put(MAGIC_0).put(MAGIC_1).put(version).put((byte) 0)
+                .put(content)
+                .array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_SIZE || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+            log.debug("Valor de cache em formato desconhecido descartado ({} bytes)", bytes.length);
+            return null;
+        }
+        if (bytes[2] != version) {
+            log.debug("Valor de cache da versão {} descartado (atual: {})", bytes[2], version);
+            return null;
+        }
+
+        try {
+            if ((bytes[3] & FLAG_LZ4) == 0) {
+                return objectMapper.readValue(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, Object.class);
+            }
+            int originalLength = ByteBuffer.wrap(bytes, HEADER_SIZE, Integer.BYTES).getInt();
+            int offset = HEADER_SIZE + Integer.BYTES;
+            byte[] content = new byte[originalLength];
+            DECOMPRESSOR.decompress(bytes, offset, bytes.length - offset, content, 0, originalLength);
+            return objectMapper.readValue(content, Object.class);
+        } catch (Exception e) {
+            log.warn("Valor de cache ilegível descartado: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * Cache com renovação em segundo plano para entradas caras e muito acessadas, evitando que todos
+ * os usuários recalculem a mesma consulta quando a entrada vence.
+ *
+ * Cada valor é gravado com o momento da gravação e o tempo de cálculo ({@link CacheEntry}).
+ * Durante o TTL "fresco" o valor é servido normalmente; perto do fim, uma leitura pode disparar
+ * a renovação antecipada (XFetch: quanto mais caro o cálculo, mais cedo). Depois do TTL fresco e
+ * até o TTL do Redis, o valor vencido continua sendo servido enquanto uma única chamada o
+ * recalcula em segundo plano, garantida por um lock por chave (local e no Redis).
+ *
+ * Só leituras com carregador ({@code @Cacheable(sync = true)} ou {@link #get(Object, Callable)})
+ * recebem valores vencidos; as demais enxergam a entrada vencida como ausente.
+ */
+@Slf4j
+public class StaleWhileRevalidateCache implements Cache {
+
+    private final TwoLevelCache delegate;
+    private final long softTtlMillis;
+    private final double beta;
+    private final Executor executor;
+    private final BiPredicate<String, String> refreshLock;
+    private final Clock clock;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong staleServes = new AtomicLong();
+    private final AtomicLong earlyRefreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    /**
+     * @param delegate cache em dois níveis onde as entradas ficam gravadas
+     * @param softTtl tempo em que a entrada é considerada fresca (menor que o TTL do Redis)
+     * @param beta fator do XFetch; maior antecipa mais a renovação, 0 desliga a antecipação
+     * @param executor executor das renovações em segundo plano
+     * @param refreshLock tenta obter o lock de renovação (nome do cache, chave) entre os nós
+     * @param clock relógio usado para calcular a idade das entradas
+     */
+    public StaleWhileRevalidateCache(TwoLevelCache delegate, Duration softTtl, double beta, Executor executor,
+                                     BiPredicate<String, String> refreshLock, Clock clock) {
+        this.delegate = delegate;
+        this.softTtlMillis = softTtl.toMillis();
+        this.beta = beta;
+        this.executor = executor;
+        this.refreshLock = refreshLock;
+        this.clock = clock;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    public long getStaleServes() {
+        return staleServes.get();
+    }
+
+    public long getEarlyRefreshes() {
+        return earlyRefreshes.get();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.get();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEntry entry = entry(delegate.get(key));
+        if (entry == null || isStale(entry, clock.millis())) {
+            return null;
+        }
+        return new SimpleValueWrapper(entry.getValor());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Valor em cache não é do tipo esperado [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long agora = clock.millis();
+        CacheEntry entry = entry(delegate.get(key));
+        if (entry != null && isStale(entry, agora)) {
+            // O L1 pode estar atrás de uma renovação feita por outro nó: confere o L2 antes
+            CacheEntry remota = entry(delegate.getFromRemote(key));
+            if (remota != null) {
+                entry = remota;
+            }
+        }
+
+        if (entry == null) {
+            Object carregado = delegate.get(key, () -> load(valueLoader));
+            return (T) (carregado instanceof CacheEntry carregada ? carregada.getValor() : carregado);
+        }
+        if (isStale(entry, agora)) {
+            staleServes.incrementAndGet();
+            refreshAsync(key, valueLoader);
+        } else if (shouldRefreshEarly(entry, agora)) {
+            earlyRefreshes.incrementAndGet();
+            refreshAsync(key, valueLoader);
+        }
+        return (T) entry.getValor();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value != null ? new CacheEntry(value, clock.millis(), 0) : null);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private boolean isStale(CacheEntry entry, long agora) {
+        return agora - entry.getEscritoEm() >= softTtlMillis;
+    }
+
+    /**
+     * XFetch: renova antes do vencimento com probabilidade crescente conforme ele se aproxima,
+     * proporcional ao custo de cálculo da entrada.
+     */
+    private boolean shouldRefreshEarly(CacheEntry entry, long agora) {
+        if (beta <= 0 || entry.getCustoMs() <= 0) {
+            return false;
+        }
+        double aleatorio = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        double antecipacao = -entry.getCustoMs() * beta * Math.log(aleatorio);
+        return agora + antecipacao >= entry.getEscritoEm() + softTtlMillis;
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        String localKey = TwoLevelCache.localKey(key);
+        if (!refreshing.add(localKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (refreshLock.test(getName(), localKey)) {
+                        delegate.put(key, load(valueLoader));
+                    }
+                } catch (Exception e) {
+                    refreshFailures.incrementAndGet();
+                    log.warn("Falha ao renovar a entrada {} do cache {}: {}", localKey, getName(), e.getMessage());
+                } finally {
+                    refreshing.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: segue servindo o valor atual e tenta de novo na próxima leitura
+            refreshing.remove(localKey);
+        }
+    }
+
+    private CacheEntry load(Callable<?> valueLoader) throws Exception {
+        long inicio = clock.millis();
+        Object valor = valueLoader.call();
+        long agora = clock.millis();
+        return new CacheEntry(valor, agora, agora - inicio);
+    }
+
+    private static CacheEntry entry(ValueWrapper wrapper) {
+        return wrapper != null && wrapper.get() instanceof CacheEntry entry ? entry : null;
+    }
+}
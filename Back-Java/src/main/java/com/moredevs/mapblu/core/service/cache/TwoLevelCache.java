@@ -0,0 +1,164 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache em dois níveis: um L1 Caffeine local ao nó, limitado em tamanho e com TTL curto,
+ * à frente do L2 compartilhado (Redis). Leituras tentam o L1 e só vão à rede na falta;
+ * o valor lido do L2 é promovido ao L1. Escritas vão aos dois níveis.
+ *
+ * Remoções apagam o L2 e o L1 local e são publicadas para que os demais nós descartem a
+ * mesma chave do seu L1. Mensagens perdidas ou atrasadas são limitadas pelo TTL do L1.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    /**
+     * @param local cache L1 (deve registrar estatísticas para as métricas por nível)
+     * @param remote cache L2
+     * @param invalidationPublisher publica (nome do cache, chave) para os demais nós; chave nula limpa o cache
+     */
+    public TwoLevelCache(com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+                         BiConsumer<String, String> invalidationPublisher) {
+        this.name = remote.getName();
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, Object> getLocalCache() {
+        return local;
+    }
+
+    public Cache getRemoteCache() {
+        return remote;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        return getFromRemote(key);
+    }
+
+    /**
+     * Lê direto do L2, ignorando o L1, e atualiza o L1 com o valor encontrado.
+     */
+    public ValueWrapper getFromRemote(Object key) {
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            local.put(localKey(key), wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Valor em cache não é do tipo esperado [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return (T) value;
+        }
+        T loaded = remote.get(key, valueLoader);
+        if (loaded != null) {
+            local.put(localKey, loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        if (value != null) {
+            local.put(localKey(key), value);
+        } else {
+            local.invalidate(localKey(key));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictLocal(localKey(key));
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        evictLocal(localKey(key));
+        invalidationPublisher.accept(name, localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        invalidationPublisher.accept(name, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        clearLocal();
+        invalidationPublisher.accept(name, null);
+        return present;
+    }
+
+    /**
+     * Remove a chave apenas do L1 deste nó (usado ao receber invalidação de outro nó).
+     */
+    public void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    /**
+     * Limpa apenas o L1 deste nó.
+     */
+    public void clearLocal() {
+        local.invalidateAll();
+    }
+
+    /**
+     * Chave do L1 em forma textual, para que a invalidação publicada identifique a mesma
+     * entrada em todos os nós.
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
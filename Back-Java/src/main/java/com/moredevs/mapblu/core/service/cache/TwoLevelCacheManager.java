@@ -0,0 +1,209 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
+
+/**
+ * CacheManager que compõe cada cache do Redis (L2) com um L1 Caffeine por nó.
+ * O tamanho máximo do L1 é definido por cache; o TTL do L1 é curto e nunca maior que o do L2.
+ *
+ * Remoções são publicadas no canal {@code INVALIDACAO_CANAL} com o identificador deste nó;
+ * cada nó descarta do seu L1 as chaves invalidadas pelos demais. Hits, misses e evictions
+ * de cada nível são expostos no Actuator (cache.gets, cache.evictions) com a tag {@code nivel}.
+ *
+ * Caches configurados com TTL fresco ({@link #setStaleWhileRevalidate}) são expostos como
+ * {@link StaleWhileRevalidateCache}, com as métricas cache.stale.serves, cache.early.refreshes
+ * e cache.refresh.failures.
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MeterBinder {
+
+    private static final String SEPARADOR = "\n";
+    private static final String LIMPAR = "*";
+
+    private final RedisCacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final Function<String, Duration> remoteTtl;
+    private final Map<String, Long> localMaxSizes;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> exposedCaches = new ConcurrentHashMap<>();
+
+    private Map<String, Duration> softTtls = Map.of();
+    private Executor refreshExecutor;
+    private Clock clock = Clock.systemUTC();
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param remoteCacheManager CacheManager do Redis já inicializado, sem suporte a transação
+     *                           (a sincronização com a transação é feita aqui, sobre os dois níveis)
+     * @param redisTemplate template usado para publicar as invalidações
+     * @param remoteTtl TTL do L2 por nome de cache
+     * @param localMaxSizes tamanho máximo do L1 por nome de cache ({@code L1_MAX_PADRAO} para os demais)
+     */
+    public TwoLevelCacheManager(RedisCacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                Function<String, Duration> remoteTtl, Map<String, Long> localMaxSizes) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.remoteTtl = remoteTtl;
+        this.localMaxSizes = localMaxSizes;
+    }
+
+    /**
+     * Ativa a renovação em segundo plano ({@link StaleWhileRevalidateCache}) nos caches informados.
+     * O TTL do Redis desses caches deve ser maior que o TTL fresco: a diferença é a janela em que o
+     * valor vencido ainda é servido enquanto é recalculado.
+     *
+     * @param softTtls TTL fresco por nome de cache
+     * @param refreshExecutor executor das renovações
+     */
+    public void setStaleWhileRevalidate(Map<String, Duration> softTtls, Executor refreshExecutor) {
+        this.softTtls = softTtls;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return remoteCacheManager.getCacheNames().stream()
+                .map(remoteCacheManager::getCache)
+                .map(this::createCache)
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        return remote != null ? createCache(remote) : null;
+    }
+
+    /**
+     * Trata uma invalidação publicada por outro nó, removendo a chave (ou tudo) do L1 local.
+     */
+    public void onInvalidation(String message) {
+        String[] partes = message.split(SEPARADOR, 3);
+        if (partes.length < 3 || nodeId.equals(partes[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(partes[1]);
+        if (cache == null) {
+            return;
+        }
+        if (LIMPAR.equals(partes[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(partes[2].substring(1));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        exposedCaches.values().forEach(cache -> bindMetrics(cache, registry));
+    }
+
+    private Cache createCache(Cache remote) {
+        return exposedCaches.computeIfAbsent(remote.getName(), name -> {
+            Duration ttl = remoteTtl.apply(name);
+            Duration localTtl = ttl != null && ttl.getSeconds() < L1_TTL ? ttl : Duration.ofSeconds(L1_TTL);
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                    .maximumSize(localMaxSizes.getOrDefault(name, L1_MAX_PADRAO))
+                    .expireAfterWrite(localTtl)
+                    .recordStats()
+                    .build();
+
+            TwoLevelCache twoLevelCache = new TwoLevelCache(local, remote, this::publishInvalidation);
+            caches.put(name, twoLevelCache);
+
+            Duration softTtl = softTtls.get(name);
+            Cache cache = softTtl != null && refreshExecutor != null
+                    ? new StaleWhileRevalidateCache(twoLevelCache, softTtl, XFETCH_BETA, refreshExecutor,
+                            this::tryRefreshLock, clock)
+                    : twoLevelCache;
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                bindMetrics(cache, registry);
+            }
+            return cache;
+        });
+    }
+
+    private void bindMetrics(Cache cache, MeterRegistry registry) {
+        Tags tags = Tags.of(Tag.of("cache.manager", "cacheManager"));
+        TwoLevelCache twoLevelCache = caches.get(cache.getName());
+        CaffeineCacheMetrics.monitor(registry, twoLevelCache.getLocalCache(), cache.getName(), tags.and("nivel", "l1"));
+        if (twoLevelCache.getRemoteCache() instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, tags.and("nivel", "l2")).bindTo(registry);
+        }
+        if (cache instanceof StaleWhileRevalidateCache swr) {
+            Tags cacheTags = tags.and("cache", cache.getName());
+            FunctionCounter.builder("cache.stale.serves", swr, StaleWhileRevalidateCache::getStaleServes)
+                    .tags(cacheTags)
+                    .description("Leituras atendidas com valor vencido enquanto a entrada era renovada")
+                    .register(registry);
+            FunctionCounter.builder("cache.early.refreshes", swr, StaleWhileRevalidateCache::getEarlyRefreshes)
+                    .tags(cacheTags)
+                    .description("Renovações antecipadas (XFetch) disparadas antes do vencimento")
+                    .register(registry);
+            FunctionCounter.builder("cache.refresh.failures", swr, StaleWhileRevalidateCache::getRefreshFailures)
+                    .tags(cacheTags)
+                    .description("Renovações em segundo plano que falharam")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Lock de renovação entre os nós (SET NX com expiração). Não é liberado ao fim da renovação:
+     * expira sozinho, e até lá a entrada já está fresca no L2.
+     */
+    private boolean tryRefreshLock(String cacheName, String localKey) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(
+                    RENOVACAO_LOCK_PREFIXO + cacheName + ":" + localKey, nodeId,
+                    Duration.ofSeconds(RENOVACAO_LOCK_TTL)));
+        } catch (Exception e) {
+            log.debug("Lock de renovação indisponível para {}:{}: {}", cacheName, localKey, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Publica a invalidação para os demais nós. A chave vai prefixada com ":" para não
+     * confundir uma chave "*" com a limpeza do cache inteiro.
+     */
+    private void publishInvalidation(String cacheName, String localKey) {
+        String chave = localKey != null ? ":" + localKey : LIMPAR;
+        try {
+            redisTemplate.convertAndSend(INVALIDACAO_CANAL, nodeId + SEPARADOR + cacheName + SEPARADOR + chave);
+        } catch (Exception e) {
+            // O L2 já foi atualizado; os outros nós enxergam a mudança quando o L1 expirar
+            log.warn("Falha ao publicar invalidação do cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
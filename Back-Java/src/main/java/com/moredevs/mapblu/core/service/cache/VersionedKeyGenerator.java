@@ -0,0 +1,31 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Gerador de chaves para consultas de ocorrências que não se restringem a um bairro ou período
+ * (ex: críticas, próximas). A chave embute a versão global, o método e os parâmetros, de modo que
+ * qualquer escrita em ocorrências torna a entrada obsoleta sem precisar apagá-la.
+ */
+@Component(VersionedKeyGenerator.NAME)
+@RequiredArgsConstructor
+public class VersionedKeyGenerator implements KeyGenerator {
+
+    public static final String NAME = "versionedKeyGenerator";
+
+    private static final List<String> ESCOPOS = List.of(CacheVersions.GLOBAL);
+
+    private final CacheVersions cacheVersions;
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return cacheVersions.carimbo(ESCOPOS) + ":" + method.getName() + ":"
+                + SimpleKeyGenerator.generateKey(params);
+    }
+}
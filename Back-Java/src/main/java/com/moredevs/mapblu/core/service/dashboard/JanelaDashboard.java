@@ -0,0 +1,51 @@
+package com.moredevs.mapblu.core.service.dashboard;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Janelas do calendário mantidas pelos contadores ao vivo do dashboard. Cada janela começa no
+ * início do dia, da semana (segunda-feira) ou do mês e vira sozinha quando o período seguinte começa.
+ */
+public enum JanelaDashboard {
+    HOJE("dia"),
+    SEMANA("semana"),
+    MES("mes");
+
+    private final String prefixo;
+
+    JanelaDashboard(String prefixo) {
+        this.prefixo = prefixo;
+    }
+
+    /**
+     * Início da janela que contém a data.
+     */
+    public LocalDateTime inicio(LocalDateTime data) {
+        return switch (this) {
+            case HOJE -> data.toLocalDate().atStartOfDay();
+            case SEMANA -> data.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MES -> data.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    /**
+     * Início da janela seguinte à que contém a data.
+     */
+    public LocalDateTime fim(LocalDateTime data) {
+        LocalDateTime inicio = inicio(data);
+        return switch (this) {
+            case HOJE -> inicio.plusDays(1);
+            case SEMANA -> inicio.plusWeeks(1);
+            case MES -> inicio.plusMonths(1);
+        };
+    }
+
+    /**
+     * Identifica a janela que contém a data (ex: "dia:2025-03-10", "mes:2025-03-01").
+     */
+    public String chave(LocalDateTime data) {
+        return prefixo + ":" + inicio(data).toLocalDate();
+    }
+}
@@ -0,0 +1,45 @@
+package com.moredevs.mapblu.core.service.dashboard;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Publicado pelo {@code OcorrenciaService} a cada criação, alteração ou remoção de uma ocorrência,
+ * com os campos que entram nas estatísticas do dashboard e nas atualizações ao vivo, antes e
+ * depois da escrita.
+ *
+ * @param anterior estado antes da escrita (nulo na criação)
+ * @param atual estado depois da escrita (nulo na remoção)
+ */
+public record OcorrenciaAlteradaEvent(Estado anterior, Estado atual) {
+
+    /**
+     * Campos da ocorrência usados pelas estatísticas e pelas atualizações ao vivo.
+     */
+    public record Estado(UUID id, String tipoProblema, String bairro, String status, Integer gravidade,
+                         double latitude, double longitude, LocalDateTime dataCriacao) {
+
+        public static Estado de(Ocorrencia ocorrencia) {
+            return new Estado(
+                    ocorrencia.getId(),
+                    ocorrencia.getTipoProblema().name(),
+                    ocorrencia.getBairro(),
+                    ocorrencia.getStatus().name(),
+                    ocorrencia.getGravidade(),
+                    GeoUtil.getLatitude(ocorrencia.getCoordenadas()),
+                    GeoUtil.getLongitude(ocorrencia.getCoordenadas()),
+                    ocorrencia.getDataCriacao());
+        }
+    }
+
+    public static OcorrenciaAlteradaEvent criada(Ocorrencia ocorrencia) {
+        return new OcorrenciaAlteradaEvent(null, Estado.de(ocorrencia));
+    }
+
+    public static OcorrenciaAlteradaEvent removida(Ocorrencia ocorrencia) {
+        return new OcorrenciaAlteradaEvent(Estado.de(ocorrencia), null);
+    }
+}
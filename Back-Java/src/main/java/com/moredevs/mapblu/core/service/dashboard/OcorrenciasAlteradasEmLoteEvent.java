@@ -0,0 +1,10 @@
+package com.moredevs.mapblu.core.service.dashboard;
+
+/**
+ * Publicado após uma alteração de status em lote. O UPDATE em lote não devolve o estado anterior
+ * de cada ocorrência, então os contadores do dashboard não têm como aplicar a diferença e precisam
+ * ser recontados.
+ *
+ * @param quantidade ocorrências alteradas
+ */
+public record OcorrenciasAlteradasEmLoteEvent(int quantidade) {}
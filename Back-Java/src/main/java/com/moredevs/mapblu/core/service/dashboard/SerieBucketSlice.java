@@ -0,0 +1,23 @@
+package com.moredevs.mapblu.core.service.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Valores de um único intervalo das séries do dashboard, uma posição por chave da divisão.
+ * Armazenada no cache por intervalo, em arrays paralelos para manter o valor compacto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieBucketSlice {
+
+    private String[] chaves;
+    private long[] totais;
+    private double[] gravidadesMedias;
+
+    public int size() {
+        return totais != null ? totais.length : 0;
+    }
+}
@@ -0,0 +1,188 @@
+package com.moredevs.mapblu.core.service.export;
+
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Exportação no formato binário colunar de ocorrências (application/vnd.mapblu.ocorrencias-colunar).
+ * Inspirado no GeoParquet: as linhas são agrupadas em blocos de até {@link #ROW_GROUP_SIZE} e,
+ * dentro de cada bloco, cada coluna é gravada contígua. Coordenadas e datas são codificadas
+ * por delta, e colunas de baixa cardinalidade (tipo, status, bairro, secretaria) por dicionário,
+ * o que comprime bem com o gzip da resposta. A memória usada é limitada a um bloco.
+ *
+ * Layout (big-endian, varints no estilo protobuf):
+ * <pre>
+ * magic            4 bytes  "MBOC"
+ * version          u8       1
+ * coordScale       u8       casas decimais do ponto fixo das coordenadas (7 = ~1cm)
+ * blocos:
+ *   rowCount       varint   quantidade de linhas do bloco (0 = fim do arquivo)
+ *   id             rowCount x 16 bytes (UUID: bits mais e menos significativos)
+ *   latitude       rowCount x zigzag varint, delta do ponto fixo
+ *   longitude      rowCount x zigzag varint, delta do ponto fixo
+ *   gravidade      rowCount x u8 (0 = nulo)
+ *   gravidadeIA    rowCount x u8 (0 = nulo)
+ *   tipoProblema   dicionário
+ *   status         dicionário
+ *   bairro         dicionário
+ *   secretaria     dicionário
+ *   dataCriacao    rowCount x data
+ *   dataAtualizacao rowCount x data
+ *   descricao      rowCount x texto
+ *   endereco       rowCount x texto
+ *
+ * dicionário: varint n, n x texto, depois rowCount x varint (0 = nulo, i = i-ésimo valor)
+ * texto:      varint (tamanho + 1, 0 = nulo) + UTF-8
+ * data:       varint (0 = nulo, senão zigzag do delta em ms para a data anterior não nula + 1),
+ *             com a data local interpretada como UTC
+ * </pre>
+ */
+public class ColumnarExportWriter implements OcorrenciaExportWriter {
+
+    public static final String MEDIA_TYPE = "application/vnd.mapblu.ocorrencias-colunar";
+
+    static final int ROW_GROUP_SIZE = 8192;
+
+    private static final byte[] MAGIC = {'M', 'B', 'O', 'C'};
+    private static final int VERSION = 1;
+    private static final int COORD_SCALE = 7;
+    private static final double COORD_FACTOR = 10_000_000.0;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private final OcorrenciaResumo[] rows = new OcorrenciaResumo[ROW_GROUP_SIZE];
+    private int count;
+
+    public ColumnarExportWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeByte(COORD_SCALE);
+    }
+
+    @Override
+    public void write(OcorrenciaResumo ocorrencia) throws IOException {
+        rows[count++] = ocorrencia;
+        if (count == ROW_GROUP_SIZE) {
+            writeRowGroup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeRowGroup();
+        writeVarint(0);
+        // Não fecha o stream da resposta, apenas esvazia o buffer
+        out.flush();
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        writeVarint(count);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(rows[i].id().getMostSignificantBits());
+            out.writeLong(rows[i].id().getLeastSignificantBits());
+        }
+        writeCoordinates(OcorrenciaResumo::latitude);
+        writeCoordinates(OcorrenciaResumo::longitude);
+        writeSmallInts(OcorrenciaResumo::gravidade);
+        writeSmallInts(OcorrenciaResumo::gravidadeIA);
+        writeDictionary(o -> o.tipoProblema() != null ? o.tipoProblema().name() : null);
+        writeDictionary(o -> o.status() != null ? o.status().name() : null);
+        writeDictionary(OcorrenciaResumo::bairro);
+        writeDictionary(OcorrenciaResumo::secretariaOrigem);
+        writeDates(OcorrenciaResumo::dataCriacao);
+        writeDates(OcorrenciaResumo::dataAtualizacao);
+        for (int i = 0; i < count; i++) {
+            writeString(rows[i].descricao());
+        }
+        for (int i = 0; i < count; i++) {
+            writeString(rows[i].endereco());
+        }
+
+        Arrays.fill(rows, 0, count, null);
+        count = 0;
+    }
+
+    private void writeCoordinates(Function<OcorrenciaResumo, Double> column) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            Double value = column.apply(rows[i]);
+            long fixed = value != null ? Math.round(value * COORD_FACTOR) : 0;
+            writeVarint(zigzag(fixed - previous));
+            previous = fixed;
+        }
+    }
+
+    private void writeSmallInts(Function<OcorrenciaResumo, Integer> column) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Integer value = column.apply(rows[i]);
+            out.writeByte(value != null ? value : 0);
+        }
+    }
+
+    private void writeDictionary(Function<OcorrenciaResumo, String> column) throws IOException {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            String value = column.apply(rows[i]);
+            indexes[i] = value != null ? dictionary.computeIfAbsent(value, v -> dictionary.size() + 1) : 0;
+        }
+        writeVarint(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            writeString(value);
+        }
+        for (int index : indexes) {
+            writeVarint(index);
+        }
+    }
+
+    private void writeDates(Function<OcorrenciaResumo, LocalDateTime> column) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            LocalDateTime value = column.apply(rows[i]);
+            if (value == null) {
+                writeVarint(0);
+                continue;
+            }
+            long millis = value.toInstant(ZoneOffset.UTC).toEpochMilli();
+            writeVarint(zigzag(millis - previous) + 1);
+            previous = millis;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
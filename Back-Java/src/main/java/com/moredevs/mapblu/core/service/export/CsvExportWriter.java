@@ -0,0 +1,74 @@
+package com.moredevs.mapblu.core.service.export;
+
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exportação em CSV (RFC 4180): separador vírgula, fim de linha CRLF, UTF-8,
+ * campos com vírgula, aspas ou quebra de linha entre aspas duplas.
+ * Datas em ISO-8601 e coordenadas com ponto decimal, prontas para importação em SIG.
+ */
+public class CsvExportWriter implements OcorrenciaExportWriter {
+
+    static final String HEADER = "id,tipoProblema,descricao,bairro,endereco,latitude,longitude," +
+            "gravidade,gravidadeIA,status,secretariaOrigem,dataCriacao,dataAtualizacao";
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Writer writer;
+
+    public CsvExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(OcorrenciaResumo ocorrencia) throws IOException {
+        writer.write(ocorrencia.id().toString());
+        writeField(ocorrencia.tipoProblema());
+        writeField(ocorrencia.descricao());
+        writeField(ocorrencia.bairro());
+        writeField(ocorrencia.endereco());
+        writeField(ocorrencia.latitude());
+        writeField(ocorrencia.longitude());
+        writeField(ocorrencia.gravidade());
+        writeField(ocorrencia.gravidadeIA());
+        writeField(ocorrencia.status());
+        writeField(ocorrencia.secretariaOrigem());
+        writeField(ocorrencia.dataCriacao());
+        writeField(ocorrencia.dataAtualizacao());
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Não fecha o stream da resposta, apenas esvazia o buffer
+        writer.flush();
+    }
+
+    private void writeField(Object value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write(escape(value.toString()));
+        }
+    }
+
+    static String escape(String value) {
+        boolean precisaAspas = false;
+        for (int i = 0; i < value.length() && !precisaAspas; i++) {
+            char c = value.charAt(i);
+            precisaAspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!precisaAspas) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
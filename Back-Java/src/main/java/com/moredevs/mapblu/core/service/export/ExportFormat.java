@@ -0,0 +1,41 @@
+package com.moredevs.mapblu.core.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Formatos disponíveis para exportação em massa de ocorrências.
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    COLUNAR(ColumnarExportWriter.MEDIA_TYPE, "mboc");
+
+    private final String mediaType;
+    private final String extensao;
+
+    ExportFormat(String mediaType, String extensao) {
+        this.mediaType = mediaType;
+        this.extensao = extensao;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * Abre o escritor do formato sobre o stream informado.
+     */
+    public OcorrenciaExportWriter open(OutputStream out) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportWriter(out);
+            case NDJSON -> new NdjsonExportWriter(out);
+            case COLUNAR -> new ColumnarExportWriter(out);
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.moredevs.mapblu.core.service.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exportação em NDJSON: um objeto JSON por linha, escrito diretamente com {@link JsonGenerator},
+ * sem montar DTOs ou árvores intermediárias. Campos nulos são omitidos.
+ */
+public class NdjsonExportWriter implements OcorrenciaExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+
+    public NdjsonExportWriter(OutputStream out) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void write(OcorrenciaResumo ocorrencia) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", ocorrencia.id().toString());
+        writeString("tipoProblema", ocorrencia.tipoProblema() != null ? ocorrencia.tipoProblema().name() : null);
+        writeString("descricao", ocorrencia.descricao());
+        writeString("bairro", ocorrencia.bairro());
+        writeString("endereco", ocorrencia.endereco());
+        writeNumber("latitude", ocorrencia.latitude());
+        writeNumber("longitude", ocorrencia.longitude());
+        writeNumber("gravidade", ocorrencia.gravidade());
+        writeNumber("gravidadeIA", ocorrencia.gravidadeIA());
+        writeString("status", ocorrencia.status() != null ? ocorrencia.status().name() : null);
+        writeString("secretariaOrigem", ocorrencia.secretariaOrigem());
+        writeString("dataCriacao", ocorrencia.dataCriacao() != null ? ocorrencia.dataCriacao().toString() : null);
+        writeString("dataAtualizacao",
+                ocorrencia.dataAtualizacao() != null ? ocorrencia.dataAtualizacao().toString() : null);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private void writeString(String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+
+    private void writeNumber(String field, Double value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private void writeNumber(String field, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        }
+    }
+}
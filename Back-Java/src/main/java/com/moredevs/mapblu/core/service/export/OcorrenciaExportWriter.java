@@ -0,0 +1,20 @@
+package com.moredevs.mapblu.core.service.export;
+
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Escritor de exportação de ocorrências linha a linha.
+ * Cada implementação escreve diretamente no stream de saída e mantém no máximo um bloco
+ * de tamanho fixo em memória, independentemente da quantidade de linhas exportadas.
+ * O {@link #close()} finaliza o arquivo mas não fecha o stream subjacente.
+ */
+public interface OcorrenciaExportWriter extends Closeable {
+
+    /**
+     * Escreve uma ocorrência.
+     */
+    void write(OcorrenciaResumo ocorrencia) throws IOException;
+}
@@ -0,0 +1,201 @@
+package com.moredevs.mapblu.core.service.geo;
+
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Dicionário em memória dos nomes de bairro para autocomplete.
+ * Os nomes ficam ordenados pela forma normalizada (sem acentos e caixa), de modo que a busca
+ * por prefixo é uma busca binária seguida de leitura sequencial. Quando o prefixo não preenche
+ * o limite, completa com busca aproximada por similaridade de trigramas (mesma métrica do pg_trgm),
+ * tolerando erros de digitação. O dicionário é substituído por inteiro a cada recarga.
+ */
+@Component
+@Slf4j
+public class BairroDicionario {
+
+    /**
+     * Similaridade mínima de trigramas para a busca aproximada (padrão do pg_trgm).
+     */
+    static final double SIMILARIDADE_MINIMA = 0.3;
+
+    /**
+     * Nome de bairro indexado.
+     *
+     * @param nome nome de exibição (oficial, quando houver limite canônico)
+     * @param normalizado nome normalizado
+     * @param bairroId ID canônico (nulo para nomes conhecidos apenas pelas ocorrências)
+     * @param totalOcorrencias quantidade de ocorrências registradas com o nome
+     * @param trigramas trigramas do nome normalizado
+     */
+    public record Entrada(String nome, String normalizado, UUID bairroId, long totalOcorrencias, Set<String> trigramas) {}
+
+    /**
+     * Sugestão retornada pelo autocomplete.
+     *
+     * @param entrada bairro sugerido
+     * @param similaridade 1.0 para correspondência por prefixo, similaridade de trigramas caso contrário
+     */
+    public record Sugestao(Entrada entrada, double similaridade) {}
+
+    private volatile List<Entrada> entradas = List.of();
+
+    /**
+     * Reconstrói o dicionário. Nomes com a mesma forma normalizada são unificados, preferindo
+     * o nome oficial e, na falta dele, a grafia mais frequente nas ocorrências.
+     *
+     * @param canonicos bairros com limite oficial
+     * @param contagemPorNome quantidade de ocorrências por nome de bairro como foi digitado
+     */
+    public void reload(List<BairroLocator.Entry> canonicos, Map<String, Long> contagemPorNome) {
+        Map<String, String> nomes = new HashMap<>();
+        Map<String, UUID> ids = new HashMap<>();
+        Map<String, Long> totais = new HashMap<>();
+        Map<String, Long> maiorContagem = new HashMap<>();
+
+        contagemPorNome.forEach((nome, total) -> {
+            String normalizado = GeoUtil.normalizeBairro(nome);
+            if (normalizado == null) {
+                return;
+            }
+            totais.merge(normalizado, total, Long::sum);
+            if (total > maiorContagem.getOrDefault(normalizado, -1L)) {
+                maiorContagem.put(normalizado, total);
+                nomes.put(normalizado, nome.trim());
+            }
+        });
+        for (BairroLocator.Entry canonico : canonicos) {
+            String normalizado = GeoUtil.normalizeBairro(canonico.nome());
+            if (normalizado != null) {
+                nomes.put(normalizado, canonico.nome());
+                ids.put(normalizado, canonico.id());
+            }
+        }
+
+        List<Entrada> novas = new ArrayList<>(nomes.size());
+        nomes.forEach((normalizado, nome) -> novas.add(new Entrada(
+                nome, normalizado, ids.get(normalizado), totais.getOrDefault(normalizado, 0L), trigramas(normalizado))));
+        novas.sort(Comparator.comparing(Entrada::normalizado));
+
+        entradas = List.copyOf(novas);
+        log.info("Dicionário de bairros carregado com {} nomes", novas.size());
+    }
+
+    /**
+     * Sugere bairros para o termo digitado: primeiro os que começam com o termo (ou com alguma
+     * palavra dele), depois os mais parecidos. Em cada grupo, os com mais ocorrências vêm antes.
+     *
+     * @param termo texto digitado
+     * @param limite quantidade máxima de sugestões
+     * @return sugestões ordenadas por relevância
+     */
+    public List<Sugestao> sugerir(String termo, int limite) {
+        String normalizado = GeoUtil.normalizeBairro(termo);
+        List<Entrada> atuais = entradas;
+        if (normalizado == null || atuais.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        List<Sugestao> sugestoes = new ArrayList<>();
+        Set<String> incluidos = new HashSet<>();
+
+        // Prefixo do nome completo: faixa contígua na lista ordenada
+        int inicio = primeiroIndiceComPrefixo(atuais, normalizado);
+        List<Entrada> porPrefixo = new ArrayList<>();
+        for (int i = inicio; i < atuais.size() && atuais.get(i).normalizado().startsWith(normalizado); i++) {
+            porPrefixo.add(atuais.get(i));
+        }
+        // Prefixo de uma palavra interna (ex: "verde" em "agua verde")
+        String prefixoPalavra = " " + normalizado;
+        for (Entrada entrada : atuais) {
+            if (entrada.normalizado().contains(prefixoPalavra)) {
+                porPrefixo.add(entrada);
+            }
+        }
+        porPrefixo.sort(Comparator.comparingLong(Entrada::totalOcorrencias).reversed());
+        for (Entrada entrada : porPrefixo) {
+            if (sugestoes.size() >= limite) {
+                return sugestoes;
+            }
+            if (incluidos.add(entrada.normalizado())) {
+                sugestoes.add(new Sugestao(entrada, 1.0));
+            }
+        }
+
+        // Busca aproximada para completar o limite
+        Set<String> trigramasTermo = trigramas(normalizado);
+        List<Sugestao> aproximadas = new ArrayList<>();
+        for (Entrada entrada : atuais) {
+            if (incluidos.contains(entrada.normalizado())) {
+                continue;
+            }
+            double similaridade = similaridade(trigramasTermo, entrada.trigramas());
+            if (similaridade >= SIMILARIDADE_MINIMA) {
+                aproximadas.add(new Sugestao(entrada, similaridade));
+            }
+        }
+        aproximadas.sort(Comparator.comparingDouble(Sugestao::similaridade).reversed()
+                .thenComparing(Comparator.comparingLong((Sugestao s) -> s.entrada().totalOcorrencias()).reversed()));
+        for (Sugestao sugestao : aproximadas) {
+            if (sugestoes.size() >= limite) {
+                break;
+            }
+            sugestoes.add(sugestao);
+        }
+        return sugestoes;
+    }
+
+    public int size() {
+        return entradas.size();
+    }
+
+    private static int primeiroIndiceComPrefixo(List<Entrada> ordenadas, String prefixo) {
+        int low = 0;
+        int high = ordenadas.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ordenadas.get(mid).normalizado().compareTo(prefixo) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Trigramas de cada palavra com o preenchimento do pg_trgm (dois espaços antes, um depois).
+     */
+    static Set<String> trigramas(String normalizado) {
+        Set<String> trigramas = new HashSet<>();
+        for (String palavra : normalizado.split("[^\\p{Alnum}]+")) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+            String preenchida = "  " + palavra + " ";
+            for (int i = 0; i + 3 <= preenchida.length(); i++) {
+                trigramas.add(preenchida.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+
+    /**
+     * Similaridade de Jaccard entre conjuntos de trigramas.
+     */
+    static double similaridade(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        int comuns = 0;
+        for (String trigrama : a) {
+            if (b.contains(trigrama)) {
+                comuns++;
+            }
+        }
+        return (double) comuns / (a.size() + b.size() - comuns);
+    }
+}
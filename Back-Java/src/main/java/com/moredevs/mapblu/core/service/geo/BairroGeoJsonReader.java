@@ -0,0 +1,91 @@
+package com.moredevs.mapblu.core.service.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moredevs.mapblu.core.domain.Bairro;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.locationtech.jts.geom.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor dos limites de bairros a partir de uma FeatureCollection GeoJSON (WGS84).
+ * Aceita geometrias Polygon e MultiPolygon; polígonos simples são promovidos a MultiPolygon.
+ */
+public final class BairroGeoJsonReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BairroGeoJsonReader() {
+        throw new UnsupportedOperationException("Classe utilitária não deve ser instanciada");
+    }
+
+    /**
+     * Lê os bairros do GeoJSON.
+     *
+     * @param in stream do arquivo GeoJSON
+     * @param nameProperty propriedade da feature com o nome do bairro
+     * @return bairros (sem ID) com nome e geometria
+     */
+    public static List<Bairro> read(InputStream in, String nameProperty) throws IOException {
+        JsonNode root = OBJECT_MAPPER.readTree(in);
+        JsonNode features = root.path("features");
+        if (!features.isArray()) {
+            throw new ValidationException("GeoJSON de bairros deve ser uma FeatureCollection");
+        }
+
+        GeometryFactory factory = GeoUtil.getGeometryFactory();
+        List<Bairro> bairros = new ArrayList<>();
+        for (JsonNode feature : features) {
+            String nome = feature.path("properties").path(nameProperty).asText(null);
+            JsonNode geometry = feature.path("geometry");
+            if (nome == null || nome.isBlank() || geometry.isMissingNode() || geometry.isNull()) {
+                continue;
+            }
+
+            MultiPolygon geometria = switch (geometry.path("type").asText()) {
+                case "Polygon" -> factory.createMultiPolygon(
+                    new Polygon[]{readPolygon(geometry.path("coordinates"), factory)});
+                case "MultiPolygon" -> readMultiPolygon(geometry.path("coordinates"), factory);
+                default -> throw new ValidationException(
+                    "Geometria não suportada para o bairro " + nome + ": " + geometry.path("type").asText());
+            };
+
+            bairros.add(Bairro.builder()
+                .nome(nome.trim())
+                .geometria(geometria)
+                .build());
+        }
+        return bairros;
+    }
+
+    private static MultiPolygon readMultiPolygon(JsonNode coordinates, GeometryFactory factory) {
+        Polygon[] polygons = new Polygon[coordinates.size()];
+        for (int i = 0; i < polygons.length; i++) {
+            polygons[i] = readPolygon(coordinates.get(i), factory);
+        }
+        return factory.createMultiPolygon(polygons);
+    }
+
+    private static Polygon readPolygon(JsonNode rings, GeometryFactory factory) {
+        LinearRing shell = readRing(rings.get(0), factory);
+        LinearRing[] holes = new LinearRing[rings.size() - 1];
+        for (int i = 1; i < rings.size(); i++) {
+            holes[i - 1] = readRing(rings.get(i), factory);
+        }
+        return factory.createPolygon(shell, holes);
+    }
+
+    private static LinearRing readRing(JsonNode positions, GeometryFactory factory) {
+        Coordinate[] coordinates = new Coordinate[positions.size()];
+        for (int i = 0; i < coordinates.length; i++) {
+            JsonNode position = positions.get(i);
+            coordinates[i] = new Coordinate(position.get(0).asDouble(), position.get(1).asDouble());
+        }
+        return factory.createLinearRing(coordinates);
+    }
+}
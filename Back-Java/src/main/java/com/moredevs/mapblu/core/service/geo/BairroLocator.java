@@ -0,0 +1,109 @@
+package com.moredevs.mapblu.core.service.geo;
+
+import com.moredevs.mapblu.core.domain.Bairro;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Índice em memória dos limites de bairros para atribuição por ponto-em-polígono.
+ * Usa uma STRtree sobre os envelopes e geometrias preparadas do JTS, de forma que
+ * a localização de um ponto custa uma consulta à árvore e um teste de contenção
+ * otimizado, sem ida ao banco. O índice é substituído por inteiro a cada recarga.
+ */
+@Component
+@Slf4j
+public class BairroLocator {
+
+    /**
+     * Tolerância da simplificação das geometrias servidas no choropleth (~5 m).
+     */
+    private static final double SIMPLIFY_TOLERANCE_DEGREES = 0.00005;
+
+    /**
+     * Bairro indexado.
+     *
+     * @param id identificador canônico
+     * @param nome nome oficial
+     * @param geometria geometria preparada para testes de contenção
+     * @param geometriaSimplificada geometria simplificada para exibição
+     */
+    public record Entry(UUID id, String nome, PreparedGeometry geometria, Geometry geometriaSimplificada) {}
+
+    private record Snapshot(STRtree index, Map<String, UUID> idsPorNome, List<Entry> entries) {}
+
+    private volatile Snapshot snapshot = new Snapshot(new STRtree(), Map.of(), List.of());
+
+    /**
+     * Reconstrói o índice a partir dos bairros informados.
+     */
+    public void reload(List<Bairro> bairros) {
+        STRtree index = new STRtree();
+        Map<String, UUID> idsPorNome = new HashMap<>();
+        List<Entry> entries = new ArrayList<>(bairros.size());
+
+        for (Bairro bairro : bairros) {
+            Geometry geometria = bairro.getGeometria();
+            Entry entry = new Entry(
+                bairro.getId(),
+                bairro.getNome(),
+                PreparedGeometryFactory.prepare(geometria),
+                TopologyPreservingSimplifier.simplify(geometria, SIMPLIFY_TOLERANCE_DEGREES)
+            );
+            index.insert(geometria.getEnvelopeInternal(), entry);
+            idsPorNome.put(GeoUtil.normalizeBairro(bairro.getNome()), bairro.getId());
+            entries.add(entry);
+        }
+        index.build();
+
+        snapshot = new Snapshot(index, Map.copyOf(idsPorNome), List.copyOf(entries));
+        log.info("Índice de bairros carregado com {} limites", entries.size());
+    }
+
+    /**
+     * Localiza o bairro que contém o ponto.
+     *
+     * @param ponto ponto em WGS84
+     * @return ID do bairro, ou vazio se fora dos limites conhecidos
+     */
+    public Optional<UUID> locate(Point ponto) {
+        if (ponto == null) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        List<Entry> candidatos = snapshot.index().query(ponto.getEnvelopeInternal());
+        for (Entry entry : candidatos) {
+            if (entry.geometria().covers(ponto)) {
+                return Optional.of(entry.id());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Resolve o ID canônico a partir do nome do bairro (sem distinção de acentos e caixa).
+     */
+    public Optional<UUID> findIdByNome(String nome) {
+        String normalizado = GeoUtil.normalizeBairro(nome);
+        return normalizado != null ? Optional.ofNullable(snapshot.idsPorNome().get(normalizado)) : Optional.empty();
+    }
+
+    /**
+     * Bairros indexados, na ordem em que foram carregados.
+     */
+    public List<Entry> getEntries() {
+        return snapshot.entries();
+    }
+
+    public boolean isLoaded() {
+        return !snapshot.entries().isEmpty();
+    }
+}
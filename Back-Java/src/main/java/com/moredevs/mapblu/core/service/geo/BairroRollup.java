@@ -0,0 +1,24 @@
+package com.moredevs.mapblu.core.service.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Agregado de ocorrências de um bairro canônico, base do choropleth.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BairroRollup {
+
+    private UUID bairroId;
+    private int count;
+    private double avgGravidade;
+    private int maxGravidade;
+    private int criticas;
+}
@@ -0,0 +1,16 @@
+package com.moredevs.mapblu.core.service.geojson;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Documento GeoJSON já serializado em UTF-8, armazenado no cache como resposta pronta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeoJsonDocument {
+
+    private byte[] content;
+}
@@ -0,0 +1,205 @@
+package com.moredevs.mapblu.core.service.geojson;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escritor de GeoJSON em streaming sobre um {@link JsonGenerator}.
+ * Escreve a FeatureCollection feature a feature diretamente no OutputStream,
+ * com coordenadas primitivas arredondadas para a precisão configurada,
+ * sem montar árvores intermediárias de DTOs, listas ou mapas.
+ *
+ * Uso típico:
+ * <pre>
+ * writer.beginFeatureCollection();
+ * writer.beginFeature();
+ * writer.writePoint(lng, lat);
+ * writer.beginProperties();
+ * writer.writeProperty("gravidade", 7);
+ * writer.endFeature();
+ * writer.endFeatureCollection();
+ * </pre>
+ */
+public class GeoJsonStreamWriter implements Closeable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public static final int DEFAULT_PRECISION = 6;
+    public static final int MAX_PRECISION = 10;
+
+    private final JsonGenerator generator;
+    private final double scale;
+    private boolean inProperties;
+
+    /**
+     * Cria um escritor sobre o stream informado.
+     *
+     * @param out stream de saída (não é fechado por este escritor)
+     * @param precision casas decimais das coordenadas (0 a 10)
+     */
+    public GeoJsonStreamWriter(OutputStream out, int precision) throws IOException {
+        int casas = Math.max(0, Math.min(precision, MAX_PRECISION));
+        this.scale = Math.pow(10, casas);
+        this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Um erro no meio da escrita não pode fechar os arrays e gerar um JSON válido, porém truncado
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+    }
+
+    /**
+     * Abre a FeatureCollection e o array de features.
+     */
+    public void beginFeatureCollection() throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "FeatureCollection");
+        generator.writeArrayFieldStart("features");
+    }
+
+    /**
+     * Fecha o array de features e a FeatureCollection.
+     */
+    public void endFeatureCollection() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * Abre uma nova feature. Deve ser seguida pela geometria e, opcionalmente, pelas propriedades.
+     */
+    public void beginFeature() throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "Feature");
+        inProperties = false;
+    }
+
+    /**
+     * Fecha a feature atual (e o objeto de propriedades, se aberto).
+     */
+    public void endFeature() throws IOException {
+        if (inProperties) {
+            generator.writeEndObject();
+            inProperties = false;
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Escreve uma geometria Point.
+     */
+    public void writePoint(double lng, double lat) throws IOException {
+        generator.writeObjectFieldStart("geometry");
+        generator.writeStringField("type", "Point");
+        generator.writeArrayFieldStart("coordinates");
+        writeNumber(lng);
+        writeNumber(lat);
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Escreve uma geometria Polygon com um único anel exterior.
+     * O anel é fechado automaticamente repetindo o primeiro vértice.
+     *
+     * @param lngs longitudes dos vértices
+     * @param lats latitudes dos vértices
+     * @param count quantidade de vértices válidos nos arrays
+     */
+    public void writePolygon(double[] lngs, double[] lats, int count) throws IOException {
+        generator.writeObjectFieldStart("geometry");
+        generator.writeStringField("type", "Polygon");
+        generator.writeArrayFieldStart("coordinates");
+        generator.writeStartArray();
+        for (int i = 0; i <= count; i++) {
+            int idx = i == count ? 0 : i;
+            generator.writeStartArray();
+            writeNumber(lngs[idx]);
+            writeNumber(lats[idx]);
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Escreve uma geometria Polygon ou MultiPolygon do JTS (ex: limites de bairros).
+     * Polígonos são escritos como MultiPolygon quando a geometria tem mais de uma parte.
+     */
+    public void writeGeometry(Geometry geometry) throws IOException {
+        boolean multi = geometry.getNumGeometries() > 1;
+        generator.writeObjectFieldStart("geometry");
+        generator.writeStringField("type", multi ? "MultiPolygon" : "Polygon");
+        generator.writeArrayFieldStart("coordinates");
+        if (multi) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                generator.writeStartArray();
+                writePolygonRings((Polygon) geometry.getGeometryN(i));
+                generator.writeEndArray();
+            }
+        } else {
+            writePolygonRings((Polygon) geometry.getGeometryN(0));
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Abre o objeto de propriedades da feature atual.
+     */
+    public void beginProperties() throws IOException {
+        generator.writeObjectFieldStart("properties");
+        inProperties = true;
+    }
+
+    public void writeProperty(String name, String value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    public void writeProperty(String name, long value) throws IOException {
+        generator.writeNumberField(name, value);
+    }
+
+    public void writeProperty(String name, double value) throws IOException {
+        generator.writeNumberField(name, value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private void writePolygonRings(Polygon polygon) throws IOException {
+        writeRing(polygon.getExteriorRing());
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            writeRing(polygon.getInteriorRingN(i));
+        }
+    }
+
+    private void writeRing(LineString ring) throws IOException {
+        generator.writeStartArray();
+        for (int i = 0; i < ring.getNumPoints(); i++) {
+            generator.writeStartArray();
+            writeNumber(ring.getCoordinateN(i).x);
+            writeNumber(ring.getCoordinateN(i).y);
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeNumber(double value) throws IOException {
+        generator.writeNumber(Math.round(value * scale) / scale);
+    }
+}
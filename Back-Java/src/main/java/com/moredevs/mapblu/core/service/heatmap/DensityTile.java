@@ -0,0 +1,19 @@
+package com.moredevs.mapblu.core.service.heatmap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tile de densidade (KDE) renderizado, armazenado no cache por tile.
+ * Guarda a grade uint8; o PNG é gerado a partir dela sob demanda.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DensityTile {
+
+    private int width;
+    private int height;
+    private byte[] intensities;
+}
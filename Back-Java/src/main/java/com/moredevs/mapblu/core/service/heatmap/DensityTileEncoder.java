@@ -0,0 +1,83 @@
+package com.moredevs.mapblu.core.service.heatmap;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Converte grades de densidade em tiles: PNG colorido com transparência
+ * ou grade uint8 crua (um byte por pixel, linha 0 no topo).
+ * A intensidade é normalizada por um valor de saturação fixo, e não pelo
+ * máximo do tile, para que tiles vizinhos tenham a mesma escala.
+ */
+public final class DensityTileEncoder {
+
+    /**
+     * Rampa de cores ARGB indexada pela intensidade (0 a 255):
+     * transparente → verde → amarelo → laranja → vermelho.
+     */
+    private static final int[] RAMP = buildRamp();
+
+    private DensityTileEncoder() {
+        throw new UnsupportedOperationException("Classe utilitária não deve ser instanciada");
+    }
+
+    /**
+     * Quantiza a densidade para uint8, saturando em {@code saturation}.
+     */
+    public static byte[] toUint8(float[] values, double saturation) {
+        byte[] out = new byte[values.length];
+        double scale = 255.0 / saturation;
+        for (int i = 0; i < values.length; i++) {
+            out[i] = (byte) Math.min(255, (int) Math.round(values[i] * scale));
+        }
+        return out;
+    }
+
+    /**
+     * Gera um PNG ARGB a partir da grade quantizada.
+     */
+    public static byte[] toPng(byte[] intensities, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = new int[intensities.length];
+        for (int i = 0; i < intensities.length; i++) {
+            pixels[i] = RAMP[intensities[i] & 0xFF];
+        }
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gerar tile PNG", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static int[] buildRamp() {
+        int[][] stops = {
+            // {posição, alpha, r, g, b}
+            {0, 0, 0x90, 0xEE, 0x90},
+            {64, 140, 0x90, 0xEE, 0x90},
+            {128, 180, 0xFF, 0xFF, 0x00},
+            {192, 210, 0xFF, 0xA5, 0x00},
+            {255, 230, 0xFF, 0x00, 0x00}
+        };
+        int[] ramp = new int[256];
+        for (int s = 0; s < stops.length - 1; s++) {
+            int[] from = stops[s];
+            int[] to = stops[s + 1];
+            for (int i = from[0]; i <= to[0]; i++) {
+                double t = (double) (i - from[0]) / (to[0] - from[0]);
+                int a = (int) Math.round(from[1] + (to[1] - from[1]) * t);
+                int r = (int) Math.round(from[2] + (to[2] - from[2]) * t);
+                int g = (int) Math.round(from[3] + (to[3] - from[3]) * t);
+                int b = (int) Math.round(from[4] + (to[4] - from[4]) * t);
+                ramp[i] = (a << 24) | (r << 16) | (g << 8) | b;
+            }
+        }
+        return ramp;
+    }
+}
@@ -0,0 +1,24 @@
+package com.moredevs.mapblu.core.service.heatmap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Células do grid de um único intervalo de tempo da linha do tempo do heatmap.
+ * Armazenada no cache por intervalo, em arrays paralelos para manter o valor compacto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapBucketSlice {
+
+    private double[] lngs;
+    private double[] lats;
+    private int[] counts;
+    private int[] maxGravidades;
+
+    public int size() {
+        return counts != null ? counts.length : 0;
+    }
+}
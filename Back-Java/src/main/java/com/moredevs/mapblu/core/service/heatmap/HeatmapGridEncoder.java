@@ -0,0 +1,151 @@
+package com.moredevs.mapblu.core.service.heatmap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Codificador do formato binário compacto do heatmap em grid (application/vnd.mapblu.heatmap-grid).
+ * Em vez de 5 pares lat/lng por zona e strings de severidade/cor repetidas, cada célula
+ * carrega apenas o centro em ponto fixo codificado por delta, a contagem, o índice da
+ * severidade na paleta e a gravidade média. O cliente reconstrói o polígono quadrado
+ * a partir do centro e do tamanho da célula informado no cabeçalho.
+ *
+ * Layout (big-endian, varints no estilo protobuf):
+ * <pre>
+ * magic          4 bytes  "MBHG"
+ * version        u8       1
+ * generatedAt    2 x u32  epoch millis: 32 bits altos, depois 32 bits baixos
+ * coordScale     u8       casas decimais do ponto fixo das coordenadas (5 = ~1,1m)
+ * cellSize       i32      tamanho da célula em graus * 10^7
+ * paletteSize    u8
+ *   severity     u8 len + UTF-8
+ *   color        3 bytes  RGB
+ * summary        5 varints: totalProblems, criticalZones, warningZones, moderateZones, stableZones
+ * cellCount      varint
+ * cells (ordenadas por lat, lng):
+ *   dLat         zigzag varint  delta do centro em ponto fixo
+ *   dLng         zigzag varint
+ *   count        varint
+ *   severity     u8       índice na paleta
+ *   avgGravidade u8       gravidade média * 10
+ * </pre>
+ *
+ * O instante vai em duas palavras de 32 bits para que clientes sem leitura de inteiro de 64 bits
+ * (o Flutter na web, onde os inteiros são doubles do JavaScript) o decodifiquem sem perda.
+ */
+public final class HeatmapGridEncoder {
+
+    public static final String MEDIA_TYPE = "application/vnd.mapblu.heatmap-grid";
+
+    private static final byte[] MAGIC = {'M', 'B', 'H', 'G'};
+    private static final int VERSION = 1;
+    private static final int COORD_SCALE = 5;
+    private static final double COORD_FACTOR = 100_000.0;
+    private static final double CELL_SIZE_FACTOR = 10_000_000.0;
+
+    private HeatmapGridEncoder() {
+        throw new UnsupportedOperationException("Classe utilitária não deve ser instanciada");
+    }
+
+    /**
+     * Célula agregada do grid.
+     *
+     * @param centerLat latitude do centro da célula
+     * @param centerLng longitude do centro da célula
+     * @param count quantidade de ocorrências
+     * @param avgGravidade gravidade média
+     * @param severityIndex índice da severidade na paleta
+     */
+    public record Cell(double centerLat, double centerLng, int count, double avgGravidade, int severityIndex) {}
+
+    /**
+     * Entrada da paleta de severidades.
+     *
+     * @param severity nome da severidade (critical, warning, ...)
+     * @param color cor hexadecimal no formato #RRGGBB
+     */
+    public record PaletteEntry(String severity, String color) {}
+
+    /**
+     * Codifica as células do grid no formato binário.
+     *
+     * @param generatedAt instante de geração (epoch millis)
+     * @param cellSizeDegrees tamanho da célula em graus
+     * @param palette paleta de severidades, indexada por {@link Cell#severityIndex()}
+     * @param summary [totalProblems, criticalZones, warningZones, moderateZones, stableZones]
+     * @param cells células do grid
+     * @return bytes codificados
+     */
+    public static byte[] encode(
+            long generatedAt,
+            double cellSizeDegrees,
+            List<PaletteEntry> palette,
+            int[] summary,
+            List<Cell> cells
+    ) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + cells.size() * 8);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt((int) (generatedAt >>> 32));
+            out.writeInt((int) generatedAt);
+            out.writeByte(COORD_SCALE);
+            out.writeInt((int) Math.round(cellSizeDegrees * CELL_SIZE_FACTOR));
+
+            out.writeByte(palette.size());
+            for (PaletteEntry entry : palette) {
+                byte[] name = entry.severity().getBytes(StandardCharsets.UTF_8);
+                out.writeByte(name.length);
+                out.write(name);
+                int rgb = Integer.parseInt(entry.color().substring(1), 16);
+                out.writeByte((rgb >> 16) & 0xFF);
+                out.writeByte((rgb >> 8) & 0xFF);
+                out.writeByte(rgb & 0xFF);
+            }
+
+            for (int value : summary) {
+                writeVarint(out, value);
+            }
+
+            List<Cell> ordenadas = cells.stream()
+                    .sorted(Comparator.comparingDouble(Cell::centerLat).thenComparingDouble(Cell::centerLng))
+                    .toList();
+
+            writeVarint(out, ordenadas.size());
+            int prevLat = 0;
+            int prevLng = 0;
+            for (Cell cell : ordenadas) {
+                int lat = (int) Math.round(cell.centerLat() * COORD_FACTOR);
+                int lng = (int) Math.round(cell.centerLng() * COORD_FACTOR);
+                writeVarint(out, zigzag(lat - prevLat));
+                writeVarint(out, zigzag(lng - prevLng));
+                prevLat = lat;
+                prevLng = lng;
+
+                writeVarint(out, cell.count());
+                out.writeByte(cell.severityIndex());
+                out.writeByte((int) Math.max(0, Math.min(255, Math.round(cell.avgGravidade() * 10))));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao codificar heatmap binário", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,183 @@
+package com.moredevs.mapblu.core.service.heatmap;
+
+import java.util.stream.IntStream;
+
+/**
+ * Raster de densidade por kernel (KDE) sobre uma grade de floats.
+ * Os pontos são acumulados no pixel correspondente (O(pontos)) e a suavização
+ * gaussiana é aproximada por três passadas de box blur separáveis com somas
+ * acumuladas, em O(pixels) independentemente do raio do kernel.
+ * As passadas são paralelizadas em faixas de linhas (horizontal) e de colunas (vertical).
+ *
+ * A massa é preservada: após o blur, a soma da grade é igual à soma dos pesos
+ * acumulados, exceto pelo que escapa pelas bordas.
+ */
+public class KernelDensityRaster {
+
+    private static final int PASSES = 3;
+    private static final int STRIP_SIZE = 32;
+
+    private final int width;
+    private final int height;
+    private final double minX;
+    private final double minY;
+    private final double pixelWidth;
+    private final double pixelHeight;
+    private final float[] grid;
+
+    /**
+     * Cria um raster cobrindo o retângulo informado. O eixo Y cresce para cima
+     * (a linha 0 corresponde a {@code maxY}), como em tiles de mapa.
+     */
+    public KernelDensityRaster(int width, int height, double minX, double minY, double maxX, double maxY) {
+        this.width = width;
+        this.height = height;
+        this.minX = minX;
+        this.minY = minY;
+        this.pixelWidth = (maxX - minX) / width;
+        this.pixelHeight = (maxY - minY) / height;
+        this.grid = new float[width * height];
+    }
+
+    /**
+     * Acumula um ponto ponderado. Pontos fora do raster são ignorados.
+     */
+    public void add(double x, double y, double weight) {
+        int col = (int) Math.floor((x - minX) / pixelWidth);
+        int row = height - 1 - (int) Math.floor((y - minY) / pixelHeight);
+        if (col < 0 || col >= width || row < 0 || row >= height) {
+            return;
+        }
+        grid[row * width + col] += (float) weight;
+    }
+
+    /**
+     * Aplica a aproximação de blur gaussiano com desvio padrão em pixels.
+     */
+    public void blur(double sigmaPixels) {
+        if (sigmaPixels <= 0) {
+            return;
+        }
+        int[] radii = boxRadiiForGauss(sigmaPixels);
+        float[] buffer = new float[grid.length];
+        for (int radius : radii) {
+            horizontalPass(grid, buffer, radius);
+            verticalPass(buffer, grid, radius);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Valor do pixel (linha 0 no topo).
+     */
+    public float get(int col, int row) {
+        return grid[row * width + col];
+    }
+
+    /**
+     * Soma de todos os pixels do raster.
+     */
+    public double sum() {
+        double total = 0;
+        for (float value : grid) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Recorta a região central, descartando {@code margin} pixels de cada borda.
+     * Usado para renderizar tiles com margem e evitar emendas entre tiles vizinhos.
+     */
+    public float[] crop(int margin) {
+        int croppedWidth = width - 2 * margin;
+        int croppedHeight = height - 2 * margin;
+        float[] cropped = new float[croppedWidth * croppedHeight];
+        for (int row = 0; row < croppedHeight; row++) {
+            System.arraycopy(grid, (row + margin) * width + margin, cropped, row * croppedWidth, croppedWidth);
+        }
+        return cropped;
+    }
+
+    private void horizontalPass(float[] source, float[] target, int radius) {
+        float scale = 1f / (2 * radius + 1);
+        IntStream.range(0, (height + STRIP_SIZE - 1) / STRIP_SIZE).parallel().forEach(strip -> {
+            int end = Math.min(height, (strip + 1) * STRIP_SIZE);
+            for (int row = strip * STRIP_SIZE; row < end; row++) {
+                int offset = row * width;
+                float acc = 0;
+                for (int col = 0; col < Math.min(radius, width); col++) {
+                    acc += source[offset + col];
+                }
+                for (int col = 0; col < width; col++) {
+                    int in = col + radius;
+                    int out = col - radius - 1;
+                    if (in < width) {
+                        acc += source[offset + in];
+                    }
+                    if (out >= 0) {
+                        acc -= source[offset + out];
+                    }
+                    target[offset + col] = acc * scale;
+                }
+            }
+        });
+    }
+
+    private void verticalPass(float[] source, float[] target, int radius) {
+        float scale = 1f / (2 * radius + 1);
+        IntStream.range(0, (width + STRIP_SIZE - 1) / STRIP_SIZE).parallel().forEach(strip -> {
+            int start = strip * STRIP_SIZE;
+            int end = Math.min(width, start + STRIP_SIZE);
+            float[] acc = new float[end - start];
+            for (int row = 0; row < Math.min(radius, height); row++) {
+                for (int col = start; col < end; col++) {
+                    acc[col - start] += source[row * width + col];
+                }
+            }
+            for (int row = 0; row < height; row++) {
+                int in = row + radius;
+                int out = row - radius - 1;
+                for (int col = start; col < end; col++) {
+                    if (in < height) {
+                        acc[col - start] += source[in * width + col];
+                    }
+                    if (out >= 0) {
+                        acc[col - start] -= source[out * width + col];
+                    }
+                    target[row * width + col] = acc[col - start] * scale;
+                }
+            }
+        });
+    }
+
+    /**
+     * Raios das passadas de box blur que aproximam um gaussiano de desvio padrão sigma
+     * (Kovesi, "Fast Almost-Gaussian Filtering").
+     */
+    static int[] boxRadiiForGauss(double sigma) {
+        double idealWidth = Math.sqrt((12 * sigma * sigma / PASSES) + 1);
+        int lower = (int) Math.floor(idealWidth);
+        if (lower % 2 == 0) {
+            lower--;
+        }
+        int upper = lower + 2;
+        double idealM = (12 * sigma * sigma - PASSES * lower * lower - 4 * PASSES * lower - 3 * PASSES)
+                / (-4 * lower - 4);
+        long m = Math.round(idealM);
+
+        int[] radii = new int[PASSES];
+        for (int i = 0; i < PASSES; i++) {
+            int boxWidth = i < m ? lower : upper;
+            radii[i] = (boxWidth - 1) / 2;
+        }
+        return radii;
+    }
+}
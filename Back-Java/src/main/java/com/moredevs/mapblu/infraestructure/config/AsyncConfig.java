@@ -8,6 +8,9 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
+import static com.moredevs.mapblu.shared.constant.Constants.AoVivo.ENVIO_FILA;
+import static com.moredevs.mapblu.shared.constant.Constants.AoVivo.ENVIO_THREADS;
+
 /**
  * Configuração para processamento assíncrono e agendamento de tarefas.
  */
@@ -26,5 +29,19 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    /**
+     * Executor dos envios do canal ao vivo. A fila é limitada: quando enche, a assinatura
+     * recebe um pedido de ressincronização em vez de acumular quadros na memória.
+     */
+    @Bean(name = "aoVivoExecutor")
+    public Executor aoVivoExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ENVIO_THREADS);
+        executor.setMaxPoolSize(ENVIO_THREADS);
+        executor.setQueueCapacity(ENVIO_FILA);
+        executor.setThreadNamePrefix("ao-vivo-");
+        executor.initialize();
+        return executor;
+    }
+}
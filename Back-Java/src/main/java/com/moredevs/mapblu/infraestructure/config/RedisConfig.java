@@ -1,20 +1,33 @@
 package com.moredevs.mapblu.infraestructure.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.cache.CacheManager;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.moredevs.mapblu.core.service.AoVivoService;
+import com.moredevs.mapblu.core.service.InsightCacheService;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.cache.CompactCacheSerializer;
+import com.moredevs.mapblu.core.service.cache.TwoLevelCacheManager;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
+import static com.moredevs.mapblu.shared.constant.Constants.AoVivo.CANAL;
 import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
 
 /**
@@ -25,35 +38,130 @@ import static com.moredevs.mapblu.shared.constant.Constants.Cache.*;
 public class RedisConfig {
 
     /**
-     * Configura o CacheManager do Redis com diferentes TTLs por cache.
+     * Configura o CacheManager em dois níveis: Caffeine local (L1) sobre o Redis (L2),
+     * com diferentes TTLs e tamanhos de L1 por cache.
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // Configura ObjectMapper com suporte para Java 8 date/time
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.activateDefaultTyping(
-                objectMapper.getPolymorphicTypeValidator(),
-                ObjectMapper.DefaultTyping.NON_FINAL
-        );
-
-        // Cria serializer com ObjectMapper configurado
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor) {
+        // Valores em Smile (JSON binário), com nomes de propriedades e de classes repetidos
+        // referenciados em vez de reescritos, e LZ4 acima do limite de tamanho
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        CompactCacheSerializer valueSerializer = new CompactCacheSerializer(
+                CompactCacheSerializer.objectMapper(smileFactory), SERIALIZACAO_VERSAO, COMPRESSAO_LIMITE_BYTES);
 
+        // A versão no prefixo separa as chaves de deploys com formatos diferentes rodando ao mesmo tempo
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofSeconds(TTL_OCORRENCIAS))
+                .computePrefixWith(cacheName -> cacheName + "::v" + SERIALIZACAO_VERSAO + "::")
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer))
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Stats e heatmap são renovados em segundo plano: o TTL do Redis inclui a janela em que o
+        // valor vencido ainda é servido enquanto uma única chamada o recalcula
+        Map<String, Duration> softTtls = Map.of(
+                CACHE_STATS, Duration.ofSeconds(TTL_STATS),
+                CACHE_HEATMAP, Duration.ofSeconds(TTL_HEATMAP));
+        Map<String, Duration> ttls = Map.of(
+                CACHE_OCORRENCIAS, Duration.ofSeconds(TTL_OCORRENCIAS),
+                CACHE_STATS, Duration.ofSeconds(TTL_STATS + STALE_STATS),
+                CACHE_HEATMAP, Duration.ofSeconds(TTL_HEATMAP + STALE_HEATMAP),
+                CACHE_BAIRROS_CRITICOS, Duration.ofSeconds(TTL_BAIRROS_CRITICOS),
+                CACHE_HEATMAP_TIMELINE, Duration.ofSeconds(TTL_HEATMAP_TIMELINE),
+                CACHE_DASHBOARD_SERIES, Duration.ofSeconds(TTL_DASHBOARD_SERIES));
+
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        ttls.forEach((name, ttl) -> cacheConfigurations.put(name, defaultConfig.entryTtl(ttl)));
+        // Insights expiram junto com data_expiracao da linha em insights_cache
+        cacheConfigurations.put(CACHE_INSIGHTS, defaultConfig.entryTtl(InsightCacheService.TTL));
+
+        // Sem transactionAware: a sincronização com a transação fica no CacheManager de dois níveis
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
-                .withCacheConfiguration(CACHE_OCORRENCIAS, defaultConfig.entryTtl(Duration.ofSeconds(TTL_OCORRENCIAS)))
-                .withCacheConfiguration(CACHE_STATS, defaultConfig.entryTtl(Duration.ofSeconds(TTL_STATS)))
-                .withCacheConfiguration(CACHE_HEATMAP, defaultConfig.entryTtl(Duration.ofSeconds(TTL_HEATMAP)))
-                .withCacheConfiguration(CACHE_BAIRROS_CRITICOS, defaultConfig.entryTtl(Duration.ofSeconds(TTL_BAIRROS_CRITICOS)))
-                .transactionAware()
+                .withInitialCacheConfigurations(cacheConfigurations)
+                // Hits/misses do L2 por cache no Actuator (cache.gets), para acompanhar a taxa de acerto
+                .enableStatistics()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate,
+                name -> CACHE_INSIGHTS.equals(name) ? Duration.ofSeconds(TTL_INSIGHTS_MAX)
+                        : ttls.getOrDefault(name, Duration.ofSeconds(TTL_OCORRENCIAS)),
+                Map.of(
+                        CACHE_OCORRENCIAS, L1_MAX_OCORRENCIAS,
+                        CACHE_STATS, L1_MAX_STATS,
+                        CACHE_HEATMAP, L1_MAX_HEATMAP,
+                        CACHE_BAIRROS_CRITICOS, L1_MAX_BAIRROS_CRITICOS,
+                        CACHE_HEATMAP_TIMELINE, L1_MAX_HEATMAP_TIMELINE,
+                        CACHE_DASHBOARD_SERIES, L1_MAX_DASHBOARD_SERIES,
+                        CACHE_INSIGHTS, L1_MAX_INSIGHTS));
+        cacheManager.setStaleWhileRevalidate(softTtls, cacheRefreshExecutor);
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    /**
+     * Executor das renovações de cache em segundo plano, separado do executor de IA.
+     */
+    @Bean(name = "cacheRefreshExecutor")
+    public Executor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.initialize();
+        return executor;
     }
-}
 
+    /**
+     * Executor do aquecimento do cache: poucas threads, para não disputar o pool de conexões do banco
+     * com as requisições, e fila para todos os alvos de um aquecimento.
+     */
+    @Bean(name = "cacheWarmupExecutor")
+    public Executor cacheWarmupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(AQUECIMENTO_CONCORRENCIA);
+        executor.setMaxPoolSize(AQUECIMENTO_CONCORRENCIA);
+        executor.setQueueCapacity(AQUECIMENTO_MAX_ALVOS + AQUECIMENTO_BAIRROS_CRITICOS + 10);
+        executor.setThreadNamePrefix("cache-warmup-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Assina o canal de invalidação para descartar do L1 local as chaves removidas por outros nós
+     * e as versões de cache que eles incrementaram.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager,
+                                                                            CacheVersions cacheVersions) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String corpo = new String(message.getBody(), StandardCharsets.UTF_8);
+            cacheManager.onInvalidation(corpo);
+            cacheVersions.onInvalidation(corpo);
+        }, new ChannelTopic(INVALIDACAO_CANAL));
+        return container;
+    }
+
+    /**
+     * Assina o canal ao vivo para repassar às conexões SSE deste nó as escritas feitas em qualquer nó.
+     */
+    @Bean
+    public RedisMessageListenerContainer aoVivoListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                 AoVivoService aoVivoService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> aoVivoService.aoReceber(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CANAL));
+        return container;
+    }
+}
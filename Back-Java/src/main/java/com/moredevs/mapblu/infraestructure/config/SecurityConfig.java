@@ -3,6 +3,7 @@ package com.moredevs.mapblu.infraestructure.config;
 import com.moredevs.mapblu.core.service.CustomUserDetailsService;
 import com.moredevs.mapblu.infraestructure.security.JwtAuthenticationEntryPoint;
 import com.moredevs.mapblu.infraestructure.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -60,6 +61,9 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Despachos assíncronos (SSE do canal ao vivo) já foram autorizados na requisição original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/senha", "/api/auth/sair-de-todos").authenticated()
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/swagger-ui/**",
@@ -0,0 +1,112 @@
+package com.moredevs.mapblu.infraestructure.controller;
+
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.TicketAoVivoResponse;
+import com.moredevs.mapblu.core.service.AoVivoService;
+import com.moredevs.mapblu.core.service.JwtService;
+import com.moredevs.mapblu.core.service.UserPrincipal;
+import com.moredevs.mapblu.core.service.aovivo.FiltroAoVivo;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static com.moredevs.mapblu.shared.constant.Constants.AoVivo;
+
+/**
+ * Controller do canal ao vivo (Server-Sent Events).
+ */
+@RestController
+@RequestMapping("/api/ao-vivo")
+@RequiredArgsConstructor
+@Tag(name = "Ao vivo", description = "Alterações de ocorrências e estatísticas em tempo real")
+@CrossOrigin(origins = "*")
+public class AoVivoController {
+
+    private final AoVivoService aoVivoService;
+    private final JwtService jwtService;
+
+    /**
+     * Gera o ticket de vida curta para abrir o stream pelo EventSource do navegador, que não
+     * envia o cabeçalho Authorization. O ticket só autentica o {@code GET /api/ao-vivo}.
+     *
+     * @param principal usuário autenticado pelo token de acesso
+     * @return ticket e validade em segundos
+     */
+    @PostMapping("/ticket")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(
+        summary = "Gerar ticket do canal ao vivo",
+        description = "Ticket para a query string do stream (?ticket=), para clientes EventSource. " +
+                     "Vale por " + AoVivo.TICKET_VALIDADE + " segundos; ao reconectar depois disso, peça um novo."
+    )
+    public ResponseEntity<TicketAoVivoResponse> gerarTicket(@AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(TicketAoVivoResponse.builder()
+                        .ticket(jwtService.generateTicketAoVivo(principal))
+                        .validadeSegundos(AoVivo.TICKET_VALIDADE)
+                        .build());
+    }
+
+    /**
+     * Abre o stream de alterações. Cada evento {@code atualizacao} traz as ocorrências criadas ou
+     * alteradas que atendem ao filtro, as removidas (ou que deixaram de atender), as diferenças nos
+     * contadores do dashboard do mês e as células do heatmap que mudaram. Com {@code ressincronizar}
+     * o cliente deve recarregar os dados pela API.
+     *
+     * Clientes que enviam cabeçalhos usam o token de acesso (Authorization: Bearer); o EventSource
+     * do navegador usa {@code ?ticket=} com o ticket de {@code POST /api/ao-vivo/ticket}.
+     *
+     * @param lastEventId enviado pelo EventSource ao reconectar
+     * @return o stream, ou 503 se o nó está no limite de conexões
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(
+        summary = "Assinar alterações ao vivo",
+        description = "Stream SSE com as alterações de ocorrências, contadores do dashboard e células do heatmap. " +
+                     "Suporta filtro por área, tipo de problema e bairro. Autentica pelo cabeçalho Authorization " +
+                     "ou, para o EventSource do navegador, pelo parâmetro ticket."
+    )
+    public ResponseEntity<SseEmitter> assinar(
+        @Parameter(description = "Latitude mínima da bounding box")
+        @RequestParam(required = false) Double minLat,
+
+        @Parameter(description = "Latitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLat,
+
+        @Parameter(description = "Longitude mínima da bounding box")
+        @RequestParam(required = false) Double minLng,
+
+        @Parameter(description = "Longitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLng,
+
+        @Parameter(description = "Tipo de problema para filtrar")
+        @RequestParam(required = false) TipoProblema tipoProblema,
+
+        @Parameter(description = "Bairro para filtrar")
+        @RequestParam(required = false) String bairro,
+
+        @Parameter(hidden = true)
+        @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        FiltroAoVivo filtro = new FiltroAoVivo(minLat, maxLat, minLng, maxLng, tipoProblema, bairro);
+        return aoVivoService.assinar(filtro, lastEventId != null)
+                .map(emitter -> ResponseEntity.ok()
+                        .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                        .header("X-Accel-Buffering", "no")
+                        .body(emitter))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "10")
+                        .build());
+    }
+}
@@ -1,15 +1,19 @@
 package com.moredevs.mapblu.infraestructure.controller;
 
+import com.moredevs.mapblu.core.dto.request.AlterarSenhaRequest;
 import com.moredevs.mapblu.core.dto.request.LoginRequest;
 import com.moredevs.mapblu.core.dto.request.RegisterRequest;
 import com.moredevs.mapblu.core.dto.response.AuthResponse;
 import com.moredevs.mapblu.core.service.AuthService;
+import com.moredevs.mapblu.core.service.UserPrincipal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -36,5 +40,23 @@ public class AuthController {
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(response);
     }
+
+    @Operation(summary = "Trocar senha", description = "Troca a senha do usuário autenticado, revoga os tokens " +
+            "emitidos antes e retorna um token novo")
+    @PostMapping("/senha")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<AuthResponse> alterarSenha(@AuthenticationPrincipal UserPrincipal principal,
+                                                     @Valid @RequestBody AlterarSenhaRequest request) {
+        AuthResponse response = authService.alterarSenha(principal.getId(), request);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Sair de todos os dispositivos", description = "Revoga todos os tokens do usuário autenticado")
+    @PostMapping("/sair-de-todos")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<Void> sairDeTodosOsDispositivos(@AuthenticationPrincipal UserPrincipal principal) {
+        authService.sairDeTodosOsDispositivos(principal.getId());
+        return ResponseEntity.noContent().build();
+    }
 }
 
@@ -0,0 +1,40 @@
+package com.moredevs.mapblu.infraestructure.controller;
+
+import com.moredevs.mapblu.core.dto.response.BairroSugestaoResponse;
+import com.moredevs.mapblu.core.service.BairroService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+
+/**
+ * Controller REST para consultas de bairros.
+ */
+@Tag(name = "Bairros", description = "API para busca e autocomplete de bairros")
+@RestController
+@RequestMapping("/api/bairros")
+@RequiredArgsConstructor
+public class BairroController {
+
+    private final BairroService bairroService;
+
+    @Operation(summary = "Autocomplete de bairros",
+            description = "Sugere nomes de bairro por prefixo e por similaridade, sem distinção de acentos e caixa. " +
+                    "Atendido a partir de um dicionário em memória, sem consulta ao banco")
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<BairroSugestaoResponse>> autocomplete(
+            @Parameter(description = "Texto digitado (ex: 'agua ve')")
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + Geo.AUTOCOMPLETE_DEFAULT_LIMIT) int limite
+    ) {
+        List<BairroSugestaoResponse> sugestoes = bairroService.sugerir(q, limite);
+
+        return ResponseEntity.ok(sugestoes);
+    }
+}
@@ -1,9 +1,15 @@
 package com.moredevs.mapblu.infraestructure.controller;
 
+import com.moredevs.mapblu.core.domain.DivisaoSerie;
+import com.moredevs.mapblu.core.domain.IntervaloTempo;
+import com.moredevs.mapblu.core.dto.response.CursorPagedResponse;
+import com.moredevs.mapblu.core.dto.response.DashboardSeriesResponse;
 import com.moredevs.mapblu.core.dto.response.DashboardStatsResponse;
 import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
 import com.moredevs.mapblu.core.dto.response.PagedResponse;
+import com.moredevs.mapblu.core.service.DashboardSeriesService;
 import com.moredevs.mapblu.core.service.DashboardService;
+import com.moredevs.mapblu.shared.constant.Constants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,6 +33,7 @@ import java.util.List;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardSeriesService dashboardSeriesService;
 
     /**
      * Parse manual de LocalDateTime para evitar problemas com @DateTimeFormat
@@ -60,6 +67,36 @@ public class DashboardController {
         return ResponseEntity.ok(stats);
     }
 
+    @Operation(summary = "Obter séries temporais",
+            description = "Retorna quantidade e gravidade média por hora, dia ou semana, com intervalos vazios " +
+                    "preenchidos com zero e divisão opcional por tipo ou bairro. Sem período, usa os últimos " +
+                    Constants.Dashboard.DEFAULT_SERIES_BUCKETS + " intervalos até agora")
+    @GetMapping("/series")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<DashboardSeriesResponse> obterSeries(
+            @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String periodoInicio,
+            @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String periodoFim,
+            @Parameter(description = "Granularidade dos intervalos (HORA, DIA ou SEMANA)")
+            @RequestParam(defaultValue = "DIA") IntervaloTempo intervalo,
+            @Parameter(description = "Divisão das séries (TIPO ou BAIRRO)")
+            @RequestParam(required = false) DivisaoSerie dividirPor
+    ) {
+        LocalDateTime fim = parseDateTime(periodoFim);
+        if (fim == null) {
+            fim = LocalDateTime.now();
+        }
+        LocalDateTime inicio = parseDateTime(periodoInicio);
+        if (inicio == null) {
+            inicio = intervalo.somar(intervalo.truncar(fim), 1L - Constants.Dashboard.DEFAULT_SERIES_BUCKETS);
+        }
+
+        DashboardSeriesResponse series = dashboardSeriesService.gerarSeries(inicio, fim, intervalo, dividirPor);
+
+        return ResponseEntity.ok(series);
+    }
+
     @Operation(summary = "Obter ocorrências do período", description = "Retorna ocorrências do período especificado paginadas")
     @GetMapping("/ocorrencias-mes")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -79,6 +116,31 @@ public class DashboardController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Obter ocorrências do mês por cursor",
+            description = "Lista ocorrências do período da mais recente para a mais antiga com paginação por cursor. " +
+                    "O total só é calculado quando incluirTotal=true")
+    @GetMapping("/ocorrencias-mes/cursor")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<CursorPagedResponse<OcorrenciaResponse>> obterOcorrenciasDoMesPorCursor(
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String periodoInicio,
+            @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String periodoFim,
+            @Parameter(description = "Cursor retornado em nextCursor pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal
+    ) {
+        LocalDateTime inicio = parseDateTime(periodoInicio);
+        LocalDateTime fim = parseDateTime(periodoFim);
+
+        CursorPagedResponse<OcorrenciaResponse> response = dashboardService.obterOcorrenciasDoMesPorCursor(
+                size, inicio, fim, cursor, incluirTotal
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Debug: Verificar datas das ocorrências", description = "Retorna informações de debug sobre as datas das ocorrências no banco")
     @GetMapping("/debug/datas")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
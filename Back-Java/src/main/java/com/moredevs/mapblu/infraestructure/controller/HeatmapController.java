@@ -1,18 +1,33 @@
 package com.moredevs.mapblu.infraestructure.controller;
 
+import com.moredevs.mapblu.core.domain.IntervaloTempo;
 import com.moredevs.mapblu.core.domain.TipoProblema;
 import com.moredevs.mapblu.core.dto.request.HeatmapFilterRequest;
-import com.moredevs.mapblu.core.dto.response.GeoJsonFeatureCollection;
 import com.moredevs.mapblu.core.dto.response.HeatmapResponse;
+import com.moredevs.mapblu.core.dto.response.HeatmapTimelineResponse;
+import com.moredevs.mapblu.core.service.CacheAquecimentoService;
 import com.moredevs.mapblu.core.service.HeatmapService;
+import com.moredevs.mapblu.core.service.HeatmapTimelineService;
+import com.moredevs.mapblu.core.service.cache.AlvoAquecimento;
+import com.moredevs.mapblu.core.service.geojson.GeoJsonStreamWriter;
+import com.moredevs.mapblu.core.service.heatmap.DensityTile;
+import com.moredevs.mapblu.core.service.heatmap.DensityTileEncoder;
+import com.moredevs.mapblu.core.service.heatmap.HeatmapGridEncoder;
+import com.moredevs.mapblu.shared.constant.Constants;
+import com.moredevs.mapblu.shared.util.HttpStreamUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 
 /**
@@ -28,6 +43,8 @@ import java.time.LocalDateTime;
 public class HeatmapController {
 
     private final HeatmapService heatmapService;
+    private final HeatmapTimelineService heatmapTimelineService;
+    private final CacheAquecimentoService cacheAquecimentoService;
 
     /**
      * Parse manual de LocalDateTime para evitar problemas com @DateTimeFormat
@@ -112,10 +129,77 @@ public class HeatmapController {
             .dataFim(dataFim)
             .build();
 
+        // Só a visão sem período é repetida no aquecimento (a chave do cache ignora a área)
+        if (dataInicio == null && dataFim == null) {
+            cacheAquecimentoService.registrarAcesso(
+                AlvoAquecimento.heatmap(tipoProblema != null ? tipoProblema.name() : null, bairro));
+        }
+
         HeatmapResponse response = heatmapService.generateHeatmapZones(filter);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Gera as zonas do heatmap no formato binário compacto para o frontend Flutter.
+     * Selecionado por negociação de conteúdo quando o cliente envia
+     * {@code Accept: application/vnd.mapblu.heatmap-grid}; os demais clientes
+     * continuam recebendo o JSON de {@link #getHeatmapZones}.
+     */
+    @GetMapping(produces = HeatmapGridEncoder.MEDIA_TYPE)
+    @Operation(
+        summary = "Obter zonas do heatmap (binário)",
+        description = "Mesmos dados de zonas do heatmap em formato binário compacto " +
+                     "(centro da célula em ponto fixo com delta, contagem, índice de severidade e gravidade média). " +
+                     "O cliente reconstrói os polígonos a partir do tamanho da célula."
+    )
+    public ResponseEntity<byte[]> getHeatmapGrid(
+        @Parameter(description = "Tipo de problema para filtrar")
+        @RequestParam(required = false) TipoProblema tipoProblema,
+        
+        @Parameter(description = "Bairro para filtrar")
+        @RequestParam(required = false) String bairro,
+        
+        @Parameter(description = "Latitude mínima da bounding box")
+        @RequestParam(required = false) Double minLat,
+        
+        @Parameter(description = "Latitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLat,
+        
+        @Parameter(description = "Longitude mínima da bounding box")
+        @RequestParam(required = false) Double minLng,
+        
+        @Parameter(description = "Longitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLng,
+        
+        @Parameter(description = "Tamanho do grid em metros (padrão: 500)")
+        @RequestParam(required = false, defaultValue = "500") Integer gridSize,
+        
+        @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoInicio,
+        
+        @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoFim
+    ) {
+        log.debug("Requisição de grid binário do heatmap - tipoProblema: {}, bairro: {}, gridSize: {}", 
+            tipoProblema, bairro, gridSize);
+
+        HeatmapFilterRequest filter = HeatmapFilterRequest.builder()
+            .tipoProblema(tipoProblema)
+            .bairro(bairro)
+            .minLat(minLat)
+            .maxLat(maxLat)
+            .minLng(minLng)
+            .maxLng(maxLng)
+            .gridSize(gridSize)
+            .dataInicio(parseDateTime(periodoInicio))
+            .dataFim(parseDateTime(periodoFim))
+            .build();
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(HeatmapGridEncoder.MEDIA_TYPE))
+            .body(heatmapService.generateHeatmapGrid(filter));
+    }
+
     /**
      * Gera heatmap em formato hexágonos (pontos) para o frontend Angular.
      * Retorna GeoJSON FeatureCollection com pontos hexagonais.
@@ -128,16 +212,17 @@ public class HeatmapController {
      * @param maxLng longitude máxima da bounding box (opcional)
      * @param periodoInicio data de início do período (formato: yyyy-MM-ddTHH:mm:ss)
      * @param periodoFim data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)
-     * @return GeoJSON FeatureCollection com hexágonos
+     * @param precisao casas decimais das coordenadas (padrão: 6)
      */
     @GetMapping("/hexagons")
     @Operation(
         summary = "Obter hexágonos do heatmap",
         description = "Retorna pontos hexagonais agrupados com contagem de ocorrências. " +
                      "Usado pelo frontend Angular para renderização de hexágonos no mapa Leaflet. " +
-                     "Suporta filtro de período de datas."
+                     "Suporta filtro de período de datas. A resposta é cacheada por filtro e versão dos dados " +
+                     "e comprimida com gzip quando o cliente aceita."
     )
-    public ResponseEntity<GeoJsonFeatureCollection> getHexagonHeatmap(
+    public void getHexagonHeatmap(
         @Parameter(description = "Tipo de problema para filtrar")
         @RequestParam(required = false) TipoProblema tipoProblema,
         
@@ -160,8 +245,14 @@ public class HeatmapController {
         @RequestParam(required = false) String periodoInicio,
         
         @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
-        @RequestParam(required = false) String periodoFim
-    ) {
+        @RequestParam(required = false) String periodoFim,
+        
+        @Parameter(description = "Casas decimais das coordenadas (padrão: 6)")
+        @RequestParam(required = false, defaultValue = "" + GeoJsonStreamWriter.DEFAULT_PRECISION) Integer precisao,
+        
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
         log.debug("Requisição de hexágonos do heatmap - tipoProblema: {}, bairro: {}, periodoInicio: {}, periodoFim: {}", 
             tipoProblema, bairro, periodoInicio, periodoFim);
 
@@ -179,8 +270,250 @@ public class HeatmapController {
             .dataFim(dataFim)
             .build();
 
-        GeoJsonFeatureCollection response = heatmapService.generateHexagonHeatmap(filter);
-        return ResponseEntity.ok(response);
+        byte[] geoJson = heatmapService.generateHexagonHeatmap(filter, precisao);
+        try (OutputStream out = HttpStreamUtil.openOutputStream(request, response, MediaType.APPLICATION_JSON_VALUE)) {
+            out.write(geoJson);
+        }
+    }
+
+    /**
+     * Retorna os pontos brutos das ocorrências como GeoJSON FeatureCollection.
+     * A resposta é escrita em streaming diretamente do banco, com gzip quando aceito pelo cliente.
+     * 
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param minLat latitude mínima da bounding box (opcional)
+     * @param maxLat latitude máxima da bounding box (opcional)
+     * @param minLng longitude mínima da bounding box (opcional)
+     * @param maxLng longitude máxima da bounding box (opcional)
+     * @param periodoInicio data de início do período (formato: yyyy-MM-ddTHH:mm:ss)
+     * @param periodoFim data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)
+     * @param precisao casas decimais das coordenadas (padrão: 6)
+     */
+    @GetMapping("/pontos")
+    @Operation(
+        summary = "Obter pontos das ocorrências",
+        description = "Retorna cada ocorrência como um Point GeoJSON com id, gravidade, tipo e status. " +
+                     "A resposta é gerada em streaming e comprimida com gzip quando o cliente aceita."
+    )
+    public void getPontos(
+        @Parameter(description = "Tipo de problema para filtrar")
+        @RequestParam(required = false) TipoProblema tipoProblema,
+        
+        @Parameter(description = "Latitude mínima da bounding box")
+        @RequestParam(required = false) Double minLat,
+        
+        @Parameter(description = "Latitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLat,
+        
+        @Parameter(description = "Longitude mínima da bounding box")
+        @RequestParam(required = false) Double minLng,
+        
+        @Parameter(description = "Longitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLng,
+        
+        @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoInicio,
+        
+        @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoFim,
+        
+        @Parameter(description = "Casas decimais das coordenadas (padrão: 6)")
+        @RequestParam(required = false, defaultValue = "" + GeoJsonStreamWriter.DEFAULT_PRECISION) Integer precisao,
+        
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("Requisição de pontos do heatmap - tipoProblema: {}, periodoInicio: {}, periodoFim: {}", 
+            tipoProblema, periodoInicio, periodoFim);
+
+        HeatmapFilterRequest filter = HeatmapFilterRequest.builder()
+            .tipoProblema(tipoProblema)
+            .minLat(minLat)
+            .maxLat(maxLat)
+            .minLng(minLng)
+            .maxLng(maxLng)
+            .dataInicio(parseDateTime(periodoInicio))
+            .dataFim(parseDateTime(periodoFim))
+            .build();
+
+        try (OutputStream out = HttpStreamUtil.openOutputStream(request, response, MediaType.APPLICATION_JSON_VALUE)) {
+            heatmapService.writePontos(filter, out, precisao);
+        }
     }
-}
 
+    /**
+     * Gera a linha do tempo do heatmap para reprodução animada.
+     * Retorna contagens e severidades por célula e intervalo numa única resposta,
+     * em vez de uma chamada ao heatmap por intervalo.
+     * 
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param minLat latitude mínima da bounding box (opcional)
+     * @param maxLat latitude máxima da bounding box (opcional)
+     * @param minLng longitude mínima da bounding box (opcional)
+     * @param maxLng longitude máxima da bounding box (opcional)
+     * @param gridSize tamanho do grid em metros (padrão: 500m)
+     * @param inicio início da linha do tempo (formato: yyyy-MM-ddTHH:mm:ss)
+     * @param intervalo granularidade dos intervalos (padrão: HORA)
+     * @param quantidade quantidade de intervalos (padrão: 24)
+     * @return células e matrizes célula × intervalo
+     */
+    @GetMapping("/timeline")
+    @Operation(
+        summary = "Obter linha do tempo do heatmap",
+        description = "Retorna contagem e severidade por célula do grid para intervalos consecutivos " +
+                     "(por hora ou por dia), para animação no mapa. Intervalos encerrados são cacheados " +
+                     "individualmente e reaproveitados por janelas deslizantes."
+    )
+    public ResponseEntity<HeatmapTimelineResponse> getHeatmapTimeline(
+        @Parameter(description = "Tipo de problema para filtrar")
+        @RequestParam(required = false) TipoProblema tipoProblema,
+        
+        @Parameter(description = "Latitude mínima da bounding box")
+        @RequestParam(required = false) Double minLat,
+        
+        @Parameter(description = "Latitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLat,
+        
+        @Parameter(description = "Longitude mínima da bounding box")
+        @RequestParam(required = false) Double minLng,
+        
+        @Parameter(description = "Longitude máxima da bounding box")
+        @RequestParam(required = false) Double maxLng,
+        
+        @Parameter(description = "Tamanho do grid em metros (padrão: 500)")
+        @RequestParam(required = false, defaultValue = "500") Integer gridSize,
+        
+        @Parameter(description = "Início da linha do tempo (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam String inicio,
+        
+        @Parameter(description = "Granularidade dos intervalos (HORA, DIA ou SEMANA)")
+        @RequestParam(required = false, defaultValue = "HORA") IntervaloTempo intervalo,
+        
+        @Parameter(description = "Quantidade de intervalos (padrão: 24, máximo: 168)")
+        @RequestParam(required = false, defaultValue = "" + Constants.Geo.DEFAULT_TIMELINE_BUCKETS) Integer quantidade
+    ) {
+        log.debug("Requisição de linha do tempo do heatmap - tipoProblema: {}, inicio: {}, intervalo: {}, quantidade: {}", 
+            tipoProblema, inicio, intervalo, quantidade);
+
+        HeatmapFilterRequest filter = HeatmapFilterRequest.builder()
+            .tipoProblema(tipoProblema)
+            .minLat(minLat)
+            .maxLat(maxLat)
+            .minLng(minLng)
+            .maxLng(maxLng)
+            .gridSize(gridSize)
+            .build();
+
+        return ResponseEntity.ok(
+            heatmapTimelineService.generateTimeline(filter, parseDateTime(inicio), intervalo, quantidade));
+    }
+
+    /**
+     * Gera um tile de heatmap de densidade (KDE) no esquema z/x/y.
+     * Ocorrências são ponderadas pela gravidade e suavizadas com kernel gaussiano,
+     * sem depender do tamanho de grid ou hexágono.
+     * 
+     * @param z nível de zoom
+     * @param x coluna do tile
+     * @param y linha do tile
+     * @param banda desvio padrão do kernel em metros (padrão: 300m)
+     * @param formato png (padrão) ou grid (uint8 cru, um byte por pixel)
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param periodoInicio data de início do período (formato: yyyy-MM-ddTHH:mm:ss)
+     * @param periodoFim data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)
+     * @return tile PNG ou grade uint8 256x256
+     */
+    @GetMapping("/kde/{z}/{x}/{y}")
+    @Operation(
+        summary = "Obter tile de densidade do heatmap",
+        description = "Retorna um tile 256x256 de densidade por kernel (KDE) ponderada pela gravidade. " +
+                     "Formato png (colorido com transparência) ou grid (uint8 cru, linha 0 no topo). " +
+                     "Tiles são cacheados individualmente."
+    )
+    public ResponseEntity<byte[]> getDensityTile(
+        @PathVariable int z,
+        @PathVariable int x,
+        @PathVariable int y,
+        
+        @Parameter(description = "Desvio padrão do kernel em metros (padrão: 300)")
+        @RequestParam(required = false, defaultValue = "" + Constants.Geo.KDE_DEFAULT_BANDWIDTH_METERS) Double banda,
+        
+        @Parameter(description = "Formato do tile: png ou grid")
+        @RequestParam(required = false, defaultValue = "png") String formato,
+        
+        @Parameter(description = "Tipo de problema para filtrar")
+        @RequestParam(required = false) TipoProblema tipoProblema,
+        
+        @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoInicio,
+        
+        @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoFim
+    ) {
+        log.debug("Requisição de tile KDE - {}/{}/{}, banda: {}, formato: {}", z, x, y, banda, formato);
+
+        HeatmapFilterRequest filter = HeatmapFilterRequest.builder()
+            .tipoProblema(tipoProblema)
+            .dataInicio(parseDateTime(periodoInicio))
+            .dataFim(parseDateTime(periodoFim))
+            .build();
+
+        DensityTile tile = heatmapService.renderDensityTile(z, x, y, banda, filter);
+
+        if ("grid".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(tile.getIntensities());
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.IMAGE_PNG)
+            .body(DensityTileEncoder.toPng(tile.getIntensities(), tile.getWidth(), tile.getHeight()));
+    }
+
+    /**
+     * Gera o choropleth por bairro para o frontend Angular.
+     * Retorna GeoJSON FeatureCollection com os limites oficiais dos bairros e os
+     * agregados de ocorrências atribuídas a cada um por ponto-em-polígono.
+     * 
+     * @param tipoProblema filtro por tipo de problema (opcional)
+     * @param periodoInicio data de início do período (formato: yyyy-MM-ddTHH:mm:ss)
+     * @param periodoFim data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)
+     * @param precisao casas decimais das coordenadas (padrão: 6)
+     */
+    @GetMapping("/bairros")
+    @Operation(
+        summary = "Obter choropleth por bairro",
+        description = "Retorna os limites oficiais dos bairros com contagem, críticas, gravidade média e " +
+                     "severidade das ocorrências de cada bairro. A resposta é gerada em streaming e comprimida " +
+                     "com gzip quando o cliente aceita."
+    )
+    public void getBairrosChoropleth(
+        @Parameter(description = "Tipo de problema para filtrar")
+        @RequestParam(required = false) TipoProblema tipoProblema,
+        
+        @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoInicio,
+        
+        @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+        @RequestParam(required = false) String periodoFim,
+        
+        @Parameter(description = "Casas decimais das coordenadas (padrão: 6)")
+        @RequestParam(required = false, defaultValue = "" + GeoJsonStreamWriter.DEFAULT_PRECISION) Integer precisao,
+        
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("Requisição de choropleth por bairro - tipoProblema: {}, periodoInicio: {}, periodoFim: {}", 
+            tipoProblema, periodoInicio, periodoFim);
+
+        HeatmapFilterRequest filter = HeatmapFilterRequest.builder()
+            .tipoProblema(tipoProblema)
+            .dataInicio(parseDateTime(periodoInicio))
+            .dataFim(parseDateTime(periodoFim))
+            .build();
+
+        try (OutputStream out = HttpStreamUtil.openOutputStream(request, response, MediaType.APPLICATION_JSON_VALUE)) {
+            heatmapService.writeBairros(filter, out, precisao);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.moredevs.mapblu.infraestructure.controller;
 
 import com.moredevs.mapblu.core.dto.response.InsightResponse;
+import com.moredevs.mapblu.core.service.CacheAquecimentoService;
 import com.moredevs.mapblu.core.service.InsightService;
+import com.moredevs.mapblu.core.service.cache.AlvoAquecimento;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -26,6 +28,7 @@ import java.util.Map;
 public class InsightController {
 
     private final InsightService insightService;
+    private final CacheAquecimentoService cacheAquecimentoService;
 
     /**
      * Gera insight sobre área crítica.
@@ -50,11 +53,13 @@ public class InsightController {
     ) {
         log.debug("Solicitando insight de área crítica para bairro: {}", bairro);
         
-        LocalDateTime periodoInicio = periodo != null ? periodo : LocalDateTime.now().minusMonths(1);
-        LocalDateTime fim = periodoFim != null ? periodoFim : LocalDateTime.now();
+        // Sem período, o serviço usa o último mês; o contexto fica sem datas e o insight pode vir do cache
+        if (periodo == null && periodoFim == null) {
+            cacheAquecimentoService.registrarAcesso(AlvoAquecimento.insightAreaCritica(bairro, tipoProblema));
+        }
         
         InsightResponse insight = insightService.gerarInsightAreaCritica(
-                bairro, tipoProblema, periodoInicio, fim);
+                bairro, tipoProblema, periodo, periodoFim);
         
         return ResponseEntity.ok(insight);
     }
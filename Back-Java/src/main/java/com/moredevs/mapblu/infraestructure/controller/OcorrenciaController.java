@@ -4,23 +4,36 @@ import com.moredevs.mapblu.core.domain.StatusOcorrencia;
 import com.moredevs.mapblu.core.domain.TipoProblema;
 import com.moredevs.mapblu.core.dto.request.OcorrenciaFilterRequest;
 import com.moredevs.mapblu.core.dto.request.OcorrenciaRequest;
+import com.moredevs.mapblu.core.dto.request.StatusLoteRequest;
+import com.moredevs.mapblu.core.dto.response.CursorPagedResponse;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaBuscaResponse;
 import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
 import com.moredevs.mapblu.core.dto.response.PagedResponse;
+import com.moredevs.mapblu.core.dto.response.StatusLoteResponse;
+import com.moredevs.mapblu.core.service.OcorrenciaExportService;
 import com.moredevs.mapblu.core.service.OcorrenciaService;
+import com.moredevs.mapblu.core.service.export.ExportFormat;
+import com.moredevs.mapblu.shared.util.HttpStreamUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -38,6 +51,22 @@ import static com.moredevs.mapblu.shared.constant.Constants.Pagination;
 public class OcorrenciaController {
 
     private final OcorrenciaService service;
+    private final OcorrenciaExportService exportService;
+
+    /**
+     * Parse manual de LocalDateTime para evitar problemas com @DateTimeFormat
+     */
+    private LocalDateTime parseDateTime(String dateTimeStr) {
+        if (dateTimeStr == null || dateTimeStr.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(dateTimeStr);
+        } catch (Exception e) {
+            log.error("Erro ao parsear data '{}': {}", dateTimeStr, e.getMessage());
+            return null;
+        }
+    }
 
     @Operation(summary = "Criar ocorrência", description = "Cria uma nova ocorrência municipal")
     @PostMapping
@@ -112,6 +141,124 @@ public class OcorrenciaController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Listar ocorrências por cursor",
+            description = "Lista ocorrências com filtros e paginação por cursor (keyset), ordenadas de forma " +
+                    "decrescente por dataCriacao ou gravidade. O total só é calculado quando incluirTotal=true")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPagedResponse<OcorrenciaResponse>> listarPorCursor(
+            @RequestParam(required = false) TipoProblema tipoProblema,
+            @RequestParam(required = false) String bairro,
+            @RequestParam(required = false) StatusOcorrencia status,
+            @RequestParam(required = false) Integer gravidadeMin,
+            @RequestParam(required = false) Integer gravidadeMax,
+            @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String dataInicio,
+            @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String dataFim,
+            @Parameter(description = "Ordenação: dataCriacao ou gravidade")
+            @RequestParam(defaultValue = OcorrenciaService.ORDENAR_POR_DATA) String ordenarPor,
+            @Parameter(description = "Cursor retornado em nextCursor pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_SIZE) int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal
+    ) {
+        OcorrenciaFilterRequest filtros = OcorrenciaFilterRequest.builder()
+                .tipoProblema(tipoProblema)
+                .bairro(bairro)
+                .status(status)
+                .gravidadeMin(gravidadeMin)
+                .gravidadeMax(gravidadeMax)
+                .dataInicio(parseDateTime(dataInicio))
+                .dataFim(parseDateTime(dataFim))
+                .build();
+
+        CursorPagedResponse<OcorrenciaResponse> response = service.listarPorCursor(
+                filtros, ordenarPor, cursor, size, incluirTotal
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Busca textual de ocorrências",
+            description = "Busca em descrição e endereço ignorando acentos e variações de palavras, " +
+                    "ordenada por relevância e com trechos destacados. Aceita aspas para frases, " +
+                    "\"or\" e \"-\" para exclusão, os filtros da listagem e um raio opcional")
+    @GetMapping("/busca")
+    public ResponseEntity<CursorPagedResponse<OcorrenciaBuscaResponse>> buscarTexto(
+            @Parameter(description = "Texto da busca (ex: \"vazamento de esgoto\" -rua)")
+            @RequestParam String q,
+            @RequestParam(required = false) TipoProblema tipoProblema,
+            @RequestParam(required = false) String bairro,
+            @RequestParam(required = false) StatusOcorrencia status,
+            @RequestParam(required = false) Integer gravidadeMin,
+            @RequestParam(required = false) Integer gravidadeMax,
+            @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String dataInicio,
+            @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String dataFim,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double raioMetros,
+            @Parameter(description = "Cursor retornado em nextCursor pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_SIZE) int size
+    ) {
+        OcorrenciaFilterRequest filtros = OcorrenciaFilterRequest.builder()
+                .tipoProblema(tipoProblema)
+                .bairro(bairro)
+                .status(status)
+                .gravidadeMin(gravidadeMin)
+                .gravidadeMax(gravidadeMax)
+                .dataInicio(parseDateTime(dataInicio))
+                .dataFim(parseDateTime(dataFim))
+                .build();
+
+        CursorPagedResponse<OcorrenciaBuscaResponse> response = service.buscarTexto(
+                q, filtros, latitude, longitude, raioMetros, cursor, size
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Exportar ocorrências",
+            description = "Exporta todas as ocorrências filtradas em CSV, NDJSON ou no formato colunar binário. " +
+                    "A resposta é gerada em streaming a partir do banco e comprimida com gzip quando o cliente aceita")
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public void exportar(
+            @Parameter(description = "Formato do arquivo: CSV, NDJSON ou COLUNAR")
+            @RequestParam(defaultValue = "CSV") ExportFormat formato,
+            @RequestParam(required = false) TipoProblema tipoProblema,
+            @RequestParam(required = false) String bairro,
+            @RequestParam(required = false) StatusOcorrencia status,
+            @RequestParam(required = false) Integer gravidadeMin,
+            @RequestParam(required = false) Integer gravidadeMax,
+            @Parameter(description = "Data de início do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String dataInicio,
+            @Parameter(description = "Data de fim do período (formato: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) String dataFim,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        OcorrenciaFilterRequest filtros = OcorrenciaFilterRequest.builder()
+                .tipoProblema(tipoProblema)
+                .bairro(bairro)
+                .status(status)
+                .gravidadeMin(gravidadeMin)
+                .gravidadeMax(gravidadeMax)
+                .dataInicio(parseDateTime(dataInicio))
+                .dataFim(parseDateTime(dataFim))
+                .build();
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("ocorrencias." + formato.getExtensao())
+                .build()
+                .toString());
+        try (OutputStream out = HttpStreamUtil.openOutputStream(request, response, formato.getMediaType())) {
+            exportService.exportar(filtros, formato, out);
+        }
+    }
+
     @Operation(summary = "Buscar ocorrências próximas", description = "Busca ocorrências dentro de um raio de uma localização")
     @GetMapping("/proximas")
     public ResponseEntity<PagedResponse<OcorrenciaResponse>> buscarProximas(
@@ -131,6 +278,27 @@ public class OcorrenciaController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Buscar ocorrências próximas por cursor",
+            description = "Busca ocorrências dentro de um raio ordenadas por distância, " +
+                    "com paginação por cursor. O total só é calculado quando incluirTotal=true")
+    @GetMapping("/proximas/cursor")
+    public ResponseEntity<CursorPagedResponse<OcorrenciaResponse>> buscarProximasPorCursor(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(required = false) Double raioMetros,
+            @RequestParam(required = false) TipoProblema tipoProblema,
+            @Parameter(description = "Cursor retornado em nextCursor pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_SIZE) int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal
+    ) {
+        CursorPagedResponse<OcorrenciaResponse> response = service.buscarProximasPorCursor(
+                latitude, longitude, raioMetros, tipoProblema, cursor, size, incluirTotal
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Buscar ocorrências críticas", description = "Retorna ocorrências com gravidade >= 8")
     @GetMapping("/criticas")
     public ResponseEntity<PagedResponse<OcorrenciaResponse>> buscarCriticas(
@@ -164,6 +332,16 @@ public class OcorrenciaController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Atualizar status em lote",
+            description = "Atualiza o status de várias ocorrências, selecionadas por IDs ou por filtro, " +
+                    "num único UPDATE. Aceita verificações de status esperado e de data de atualização")
+    @PatchMapping("/status")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<StatusLoteResponse> atualizarStatusEmLote(@Valid @RequestBody StatusLoteRequest request) {
+        StatusLoteResponse response = service.atualizarStatusEmLote(request);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Remover ocorrência", description = "Remove uma ocorrência do sistema")
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,37 @@
+package com.moredevs.mapblu.infraestructure.controller;
+
+import com.moredevs.mapblu.core.domain.User;
+import com.moredevs.mapblu.core.service.AuthService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Controller REST para administração de usuários.
+ */
+@Tag(name = "Usuários (admin)", description = "API para administração de usuários")
+@RestController
+@RequestMapping("/api/admin/usuarios")
+@RequiredArgsConstructor
+public class UsuarioAdminController {
+
+    private final AuthService authService;
+
+    @Operation(summary = "Trocar papel", description = "Troca o papel de um usuário e revoga os tokens " +
+            "emitidos com o papel anterior")
+    @PatchMapping("/{id}/papel")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<Void> alterarPapel(
+            @Parameter(description = "ID do usuário") @PathVariable UUID id,
+            @RequestParam User.RoleName role
+    ) {
+        authService.alterarPapel(id, role);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,12 +2,16 @@ package com.moredevs.mapblu.infraestructure.security;
 
 import com.moredevs.mapblu.core.service.CustomUserDetailsService;
 import com.moredevs.mapblu.core.service.JwtService;
+import com.moredevs.mapblu.core.service.TokenRevogacaoService;
+import com.moredevs.mapblu.core.service.UserPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,16 +23,28 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+import static com.moredevs.mapblu.shared.constant.Constants.AoVivo;
+
 /**
  * Filtro JWT para interceptar requisições e validar tokens.
+ * Com {@code jwt.autenticacao-por-claims} (padrão), o usuário é montado a partir das claims do
+ * token e a revogação é verificada em memória, sem consultar o banco a cada requisição; tokens
+ * sem essas claims continuam validados pela busca do usuário. O stream do canal ao vivo também
+ * aceita, na query string, o ticket de vida curta gerado para ele.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_AO_VIVO = "/api/ao-vivo";
+
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevogacaoService tokenRevogacaoService;
+
+    @Value("${jwt.autenticacao-por-claims:true}")
+    private boolean autenticacaoPorClaims;
 
     @Override
     protected void doFilterInternal(
@@ -38,13 +54,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            String ticket = jwt == null ? getTicketAoVivo(request) : null;
 
-            if (StringUtils.hasText(jwt)) {
+            if (StringUtils.hasText(jwt) || StringUtils.hasText(ticket)) {
                 try {
-                    String username = jwtService.extractUsername(jwt);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    UserDetails userDetails = jwt != null ? autenticar(jwt) : autenticarTicketAoVivo(ticket);
 
-                    if (jwtService.isTokenValid(jwt, userDetails)) {
+                    if (userDetails != null) {
                         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                 userDetails,
                                 null,
@@ -65,6 +81,51 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Valida o token e obtém o usuário, a partir das claims ou do banco.
+     * 
+     * @param jwt token JWT
+     * @return usuário autenticado ou null se o token não deve ser aceito
+     */
+    private UserDetails autenticar(String jwt) {
+        if (autenticacaoPorClaims) {
+            UserPrincipal principal = jwtService.extractPrincipal(jwt);
+            if (principal != null) {
+                return tokenRevogacaoService.aceita(principal) ? principal : null;
+            }
+        }
+
+        String username = jwtService.extractUsername(jwt);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return userDetails.isEnabled() && jwtService.isTokenValid(jwt, userDetails) ? userDetails : null;
+    }
+
+    /**
+     * Valida o ticket do canal ao vivo. O ticket sempre traz as claims do usuário, e a
+     * revogação é verificada como nos tokens de acesso.
+     *
+     * @param ticket ticket gerado por {@code POST /api/ao-vivo/ticket}
+     * @return usuário autenticado ou null se o ticket não deve ser aceito
+     */
+    private UserDetails autenticarTicketAoVivo(String ticket) {
+        UserPrincipal principal = jwtService.extractPrincipalDoTicketAoVivo(ticket);
+        return tokenRevogacaoService.aceita(principal) ? principal : null;
+    }
+
+    /**
+     * Extrai o ticket do canal ao vivo da query string. Só vale para abrir o stream
+     * ({@code GET /api/ao-vivo}), já que o EventSource do navegador não envia o cabeçalho Authorization.
+     *
+     * @param request requisição HTTP
+     * @return ticket ou null
+     */
+    private String getTicketAoVivo(HttpServletRequest request) {
+        if (HttpMethod.GET.matches(request.getMethod()) && STREAM_AO_VIVO.equals(request.getServletPath())) {
+            return request.getParameter(AoVivo.TICKET_PARAMETRO);
+        }
+        return null;
+    }
+
     /**
      * Extrai o token JWT do cabeçalho Authorization.
      * 
@@ -19,6 +19,8 @@ public final class Constants {
         public static final int BAIRRO_MAX_LENGTH = 100;
         public static final int TIPO_PROBLEMA_MAX_LENGTH = 50;
         public static final int SECRETARIA_MAX_LENGTH = 50;
+        public static final int BUSCA_MAX_LENGTH = 200;
+        public static final int STATUS_LOTE_MAX_IDS = 1000;
         
         private Validation() {}
     }
@@ -31,12 +33,76 @@ public final class Constants {
         public static final String CACHE_STATS = "stats";
         public static final String CACHE_HEATMAP = "heatmap";
         public static final String CACHE_BAIRROS_CRITICOS = "bairros-criticos";
+        public static final String CACHE_HEATMAP_TIMELINE = "heatmap-timeline";
+        public static final String CACHE_INSIGHTS = "insights";
+        public static final String CACHE_DASHBOARD_SERIES = "dashboard-series";
         
         // TTLs em segundos
         public static final long TTL_OCORRENCIAS = 300; // 5 minutos
         public static final long TTL_STATS = 60; // 1 minuto
         public static final long TTL_HEATMAP = 300; // 5 minutos
         public static final long TTL_BAIRROS_CRITICOS = 600; // 10 minutos
+        public static final long TTL_HEATMAP_TIMELINE = 3600; // 1 hora (apenas intervalos já encerrados)
+        public static final long TTL_INSIGHTS_MAX = 86400; // 1 dia; insights com expiração usam o tempo restante
+        public static final long TTL_DASHBOARD_SERIES = 3600; // 1 hora (apenas intervalos já encerrados)
+
+        // Versionamento das chaves (invalidação por geração)
+        public static final String VERSAO_PREFIXO = "cache-versao:";
+        public static final int VERSAO_MAX_MESES = 12; // períodos maiores usam a versão global
+        public static final long VERSAO_L1_TTL = 2; // segundos de cópia local das versões
+        public static final long VERSAO_L1_MAX = 10_000;
+        public static final String VERSAO_CANAL_NOME = "cache-versao"; // "cache" das mensagens de versão no canal
+
+        // Cache local (L1) por nó, à frente do Redis (L2)
+        public static final long L1_TTL = 30; // 30 segundos (limitado ao TTL do L2)
+        public static final long L1_MAX_OCORRENCIAS = 10_000;
+        public static final long L1_MAX_STATS = 1_000;
+        public static final long L1_MAX_HEATMAP = 200; // entradas grandes (grades e rasters)
+        public static final long L1_MAX_BAIRROS_CRITICOS = 100;
+        public static final long L1_MAX_HEATMAP_TIMELINE = 2_000;
+        public static final long L1_MAX_INSIGHTS = 500;
+        public static final long L1_MAX_DASHBOARD_SERIES = 2_000;
+        public static final long L1_MAX_PADRAO = 1_000;
+        public static final String INVALIDACAO_CANAL = "cache-invalidacao";
+
+        // Renovação em segundo plano (stale-while-revalidate) dos caches quentes
+        public static final long STALE_STATS = 60; // valor vencido ainda servido por até 1 minuto
+        public static final long STALE_HEATMAP = 300; // 5 minutos
+        public static final double XFETCH_BETA = 1.0; // >1 antecipa mais a renovação
+        public static final String RENOVACAO_LOCK_PREFIXO = "cache-renovacao:";
+        public static final long RENOVACAO_LOCK_TTL = 30; // segundos
+
+        // Limpeza periódica de insights_cache
+        public static final int INSIGHT_PURGA_LOTE = 1_000; // linhas por transação, para segurar locks por pouco tempo
+        public static final int INSIGHT_PURGA_MAX_LOTES = 200; // por execução; o restante fica para a próxima
+
+        // Reaproveitamento de respostas para perguntas livres parecidas
+        public static final double PERGUNTA_SIMILARIDADE_MINIMA = 0.8; // Jaccard entre trigramas
+        public static final int PERGUNTA_MINHASH_FUNCOES = 64;
+        public static final int PERGUNTA_LSH_FAIXAS = 16; // 4 linhas por faixa: candidata a partir de ~0,5
+        public static final int PERGUNTA_INDICE_MAX = 5_000;
+
+        // Aquecimento do cache após deploy ou rajada de invalidações
+        public static final String AQUECIMENTO_ACESSOS_CHAVE = "cache-aquecimento:acessos"; // sorted set de acessos por alvo
+        public static final int AQUECIMENTO_ACESSOS_MAX = 500; // alvos mantidos no registro; os menos acessados saem
+        public static final int AQUECIMENTO_MAX_ALVOS = 50; // mais acessados repetidos a cada aquecimento
+        public static final int AQUECIMENTO_BAIRROS_CRITICOS = 10;
+        public static final int AQUECIMENTO_CONCORRENCIA = 4; // consultas simultâneas, para não disputar o pool do banco
+        public static final long AQUECIMENTO_TIMEOUT = 120; // segundos; depois disso o nó fica pronto mesmo assim
+        public static final int AQUECIMENTO_RAJADA_MINIMO = 20; // invalidações para considerar uma rajada
+        public static final long AQUECIMENTO_RAJADA_SILENCIO = 10; // segundos sem invalidação antes de reaquecer
+
+        // Contadores ao vivo do dashboard (hoje, semana e mês atuais)
+        public static final String CONTADORES_PREFIXO = "dashboard-contadores:v2:"; // v2: média sem gravidades nulas
+        public static final int CONTADORES_TROCA_TENTATIVAS = 5; // releituras das pendentes antes de adiar a recontagem
+        public static final long CONTADORES_TTL = 3_024_000; // 35 dias: a janela do mês mais uma folga
+        public static final long CONTADORES_RECONCILIACAO = 300; // segundos entre recontagens no banco
+        public static final long CONTADORES_LOCK_TTL = 60; // segundos; só um nó reconta cada janela
+        public static final long CONTADORES_TOLERANCIA_FIM = 60; // segundos; fim do período pode vir um pouco antes de agora
+
+        // Serialização dos valores no Redis (incrementar ao mudar DTOs cacheados de forma incompatível)
+        public static final int SERIALIZACAO_VERSAO = 2; // 2: entradas de stats/heatmap com CacheEntry
+        public static final int COMPRESSAO_LIMITE_BYTES = 1024; // valores menores não são comprimidos
         
         private Cache() {}
     }
@@ -68,9 +134,53 @@ public final class Constants {
         // Conversão de metros para graus (aproximação: 1 grau de latitude ≈ 111 km)
         public static final double METERS_TO_DEGREES = 1.0 / 111000.0;
         
+        // Linha do tempo do heatmap
+        public static final int DEFAULT_TIMELINE_BUCKETS = 24;
+        public static final int MAX_TIMELINE_BUCKETS = 168; // 7 dias em horas
+        
+        // Heatmap de densidade (KDE) em tiles Web Mercator
+        public static final double WEB_MERCATOR_ORIGIN = 20037508.342789244;
+        public static final double WEB_MERCATOR_RADIUS = 6378137.0;
+        public static final int KDE_TILE_SIZE = 256;
+        public static final int KDE_MAX_ZOOM = 20;
+        public static final int KDE_MAX_MARGIN_PIXELS = 256;
+        public static final double KDE_DEFAULT_BANDWIDTH_METERS = 300.0;
+        public static final double KDE_DEFAULT_SATURATION = 100.0; // soma de gravidade por km² que satura a cor
+        
+        // Autocomplete de bairros
+        public static final int AUTOCOMPLETE_DEFAULT_LIMIT = 10;
+        public static final int AUTOCOMPLETE_MAX_LIMIT = 50;
+        
         private Geo() {}
     }
 
+    /**
+     * Constantes das séries temporais do dashboard.
+     */
+    public static final class Dashboard {
+        public static final int DEFAULT_SERIES_BUCKETS = 30;
+        public static final int MAX_SERIES_BUCKETS = 366; // 1 ano em dias
+
+        private Dashboard() {}
+    }
+
+    /**
+     * Constantes do canal ao vivo (SSE).
+     */
+    public static final class AoVivo {
+        public static final String CANAL = "ao-vivo"; // pub/sub do Redis entre os nós
+        public static final int MAX_ASSINATURAS = 5_000; // conexões por nó
+        public static final int MAX_PENDENTES = 500; // itens acumulados por assinatura antes de pedir ressincronização
+        public static final long TIMEOUT = 1800; // segundos; o EventSource reconecta sozinho
+        public static final long KEEPALIVE = 25; // segundos sem quadro antes de um comentário, para proxies
+        public static final int ENVIO_THREADS = 8;
+        public static final int ENVIO_FILA = 10_000;
+        public static final String TICKET_PARAMETRO = "ticket"; // query string do stream, já que o EventSource não envia cabeçalhos
+        public static final long TICKET_VALIDADE = 60; // segundos para abrir o stream com o ticket
+
+        private AoVivo() {}
+    }
+
     /**
      * Constantes de paginação.
      */
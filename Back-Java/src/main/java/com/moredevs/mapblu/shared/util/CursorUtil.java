@@ -0,0 +1,49 @@
+package com.moredevs.mapblu.shared.util;
+
+import com.moredevs.mapblu.core.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utilitário para cursores opacos de paginação por keyset (seek).
+ * O cursor carrega os valores da última linha retornada, codificados em Base64 URL-safe,
+ * para que o cliente apenas repasse o token recebido sem interpretá-lo.
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+    private static final String SEPARATOR_REGEX = "\\|";
+
+    /**
+     * Codifica os valores da última linha em um cursor opaco.
+     *
+     * @param parts valores que compõem a chave de ordenação (ex: distância e id)
+     * @return cursor codificado
+     */
+    public static String encode(String... parts) {
+        String raw = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor opaco nos valores que o compõem.
+     *
+     * @param cursor cursor recebido do cliente
+     * @param expectedParts quantidade de valores esperada
+     * @return valores decodificados, na mesma ordem da codificação
+     * @throws ValidationException se o cursor for malformado
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR_REGEX, -1);
+            if (parts.length != expectedParts) {
+                throw new ValidationException("Cursor inválido: " + cursor);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Cursor inválido: " + cursor, e);
+        }
+    }
+}
@@ -6,6 +6,9 @@ import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
 
+import java.text.Normalizer;
+import java.util.Locale;
+
 import static com.moredevs.mapblu.shared.constant.Constants.Geo;
 
 /**
@@ -32,6 +35,33 @@ public class GeoUtil {
         return geometryFactory.createPoint(new Coordinate(longitude, latitude));
     }
 
+    /**
+     * Retorna a fábrica de geometrias WGS84 (SRID 4326) compartilhada.
+     */
+    public static GeometryFactory getGeometryFactory() {
+        return geometryFactory;
+    }
+
+    /**
+     * Normaliza um nome de bairro para comparação: sem acentos, minúsculo,
+     * sem espaços repetidos e sem o prefixo "bairro".
+     * 
+     * @param nome nome digitado (ex: "  Bairro Água  Verde ")
+     * @return nome normalizado (ex: "agua verde") ou null se vazio
+     */
+    public static String normalizeBairro(String nome) {
+        if (nome == null || nome.isBlank()) {
+            return null;
+        }
+        String semAcento = Normalizer.normalize(nome, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "");
+        String normalizado = semAcento.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+        if (normalizado.startsWith("bairro ")) {
+            normalizado = normalizado.substring("bairro ".length());
+        }
+        return normalizado;
+    }
+
     /**
      * Valida se as coordenadas estão dentro dos limites válidos.
      * 
@@ -78,6 +108,47 @@ public class GeoUtil {
         return point.getX();
     }
 
+    /**
+     * Converte uma longitude para a coordenada X em Web Mercator (EPSG:3857), em metros.
+     */
+    public static double lngToWebMercator(double longitude) {
+        return Math.toRadians(longitude) * Geo.WEB_MERCATOR_RADIUS;
+    }
+
+    /**
+     * Converte uma latitude para a coordenada Y em Web Mercator (EPSG:3857), em metros.
+     */
+    public static double latToWebMercator(double latitude) {
+        return Math.log(Math.tan(Math.PI / 4 + Math.toRadians(latitude) / 2)) * Geo.WEB_MERCATOR_RADIUS;
+    }
+
+    /**
+     * Identificador da célula do grid do heatmap que contém o ponto. É a mesma célula do
+     * ST_SnapToGrid(ST_Transform(coordenadas, 3857), gridSize) da agregação por grid.
+     *
+     * @param latitude latitude do ponto
+     * @param longitude longitude do ponto
+     * @param gridSizeMeters tamanho da célula em metros
+     * @return identificador no formato zone_&lt;índice x&gt;_&lt;índice y&gt;
+     */
+    public static String gridCellId(double latitude, double longitude, double gridSizeMeters) {
+        return gridCellIdFromMercator(lngToWebMercator(longitude), latToWebMercator(latitude), gridSizeMeters);
+    }
+
+    /**
+     * Identificador da célula do grid a partir de coordenadas em Web Mercator. O índice é
+     * arredondado com empate para o par (rint), como o ST_SnapToGrid do PostGIS, então serve
+     * tanto para um ponto qualquer quanto para o ponto já ajustado ao grid pela consulta.
+     *
+     * @param x coordenada X em Web Mercator
+     * @param y coordenada Y em Web Mercator
+     * @param gridSizeMeters tamanho da célula em metros
+     * @return identificador no formato zone_&lt;índice x&gt;_&lt;índice y&gt;
+     */
+    public static String gridCellIdFromMercator(double x, double y, double gridSizeMeters) {
+        return "zone_" + (long) Math.rint(x / gridSizeMeters) + "_" + (long) Math.rint(y / gridSizeMeters);
+    }
+
     /**
      * Calcula a distância aproximada entre dois pontos em metros.
      * Usa a fórmula de Haversine para cálculo de distância em esfera.
@@ -0,0 +1,51 @@
+package com.moredevs.mapblu.shared.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Utilitário para respostas HTTP escritas em streaming.
+ * Aplica gzip quando o cliente aceita, sem bufferizar a resposta inteira em memória.
+ */
+public class HttpStreamUtil {
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    /**
+     * Prepara os cabeçalhos e abre o stream de saída da resposta.
+     * O chamador é responsável por fechar o stream retornado.
+     *
+     * @param request requisição HTTP (para ler Accept-Encoding)
+     * @param response resposta HTTP
+     * @param contentType content type da resposta
+     * @return stream de saída, comprimido com gzip quando suportado pelo cliente
+     */
+    public static OutputStream openOutputStream(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            String contentType
+    ) throws IOException {
+        response.setContentType(contentType);
+        response.setCharacterEncoding("UTF-8");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+        }
+        return response.getOutputStream();
+    }
+
+    /**
+     * Verifica se o cliente aceita respostas comprimidas com gzip.
+     */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+}
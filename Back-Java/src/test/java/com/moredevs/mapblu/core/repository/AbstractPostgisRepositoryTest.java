@@ -0,0 +1,63 @@
+package com.moredevs.mapblu.core.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Base para testes de repositório contra um PostgreSQL real com PostGIS.
+ * Os testes são ignorados quando não há Docker disponível.
+ *
+ * O Hibernate cria as tabelas e, antes de cada teste, a parte de schema do dados.sql é aplicada
+ * sobre elas: extensões, funções, colunas geradas (bairro_normalizado, busca) e índices. Os dados
+ * de exemplo que vêm depois não são carregados.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class AbstractPostgisRepositoryTest {
+
+    // Relativo ao diretório do módulo, onde o Maven executa os testes
+    private static final Path DADOS_SQL = Path.of("..", "DevopsInfra", "dados.sql");
+    private static final String FIM_DO_SCHEMA = "-- LIMPEZA DE DADOS EXISTENTES";
+
+    private static String schema;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGIS = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres")
+    );
+
+    @Autowired
+    private JdbcTemplate schemaJdbcTemplate;
+
+    @BeforeEach
+    void aplicarSchemaDoDadosSql() throws IOException {
+        // O driver do PostgreSQL executa o script inteiro, com os blocos $$ dos DO e das funções
+        schemaJdbcTemplate.execute(schemaDoDadosSql());
+    }
+
+    private static synchronized String schemaDoDadosSql() throws IOException {
+        if (schema == null) {
+            String script = Files.readString(DADOS_SQL);
+            int fim = script.indexOf(FIM_DO_SCHEMA);
+            if (fim < 0) {
+                throw new IllegalStateException("Marcador do fim do schema não encontrado em " + DADOS_SQL);
+            }
+            schema = script.substring(0, fim);
+        }
+        return schema;
+    }
+}
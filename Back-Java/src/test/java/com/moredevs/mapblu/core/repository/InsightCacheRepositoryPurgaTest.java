@@ -0,0 +1,77 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.InsightCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica a limpeza em lotes de insights_cache e a leitura que ignora linhas expiradas.
+ */
+class InsightCacheRepositoryPurgaTest extends AbstractPostgisRepositoryTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Autowired
+    private InsightCacheRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // 25 expirados, 5 válidos e 2 sem expiração
+        for (int i = 0; i < 25; i++) {
+            salvar("expirado-" + i, AGORA.minusHours(i + 1));
+        }
+        for (int i = 0; i < 5; i++) {
+            salvar("valido-" + i, AGORA.plusHours(i + 1));
+        }
+        salvar("permanente-0", null);
+        salvar("permanente-1", null);
+        repository.flush();
+    }
+
+    @Test
+    void removeExpiradosEmLotesDoMaisAntigoAoMaisNovo() {
+        assertThat(repository.deleteExpiradosEmLote(AGORA, 10)).isEqualTo(10);
+        // O lote pega os mais antigos primeiro
+        assertThat(repository.findByHashContexto("expirado-24")).isEmpty();
+        assertThat(repository.findByHashContexto("expirado-0")).isPresent();
+
+        assertThat(repository.deleteExpiradosEmLote(AGORA, 10)).isEqualTo(10);
+        assertThat(repository.deleteExpiradosEmLote(AGORA, 10)).isEqualTo(5);
+        assertThat(repository.deleteExpiradosEmLote(AGORA, 10)).isZero();
+
+        assertThat(repository.countExpirados(AGORA)).isZero();
+        assertThat(repository.count()).isEqualTo(7);
+    }
+
+    @Test
+    void leituraIgnoraLinhaExpirada() {
+        assertThat(repository.findValidoByHashContexto("expirado-0", AGORA)).isEmpty();
+        assertThat(repository.findValidoByHashContexto("valido-0", AGORA)).isPresent();
+        assertThat(repository.findValidoByHashContexto("permanente-0", AGORA)).isPresent();
+    }
+
+    @Test
+    void regravaInsightExpiradoComOMesmoHash() {
+        repository.deleteByHashContexto("expirado-0");
+        salvar("expirado-0", AGORA.plusHours(1));
+        repository.flush();
+
+        assertThat(repository.findValidoByHashContexto("expirado-0", AGORA)).isPresent();
+    }
+
+    private void salvar(String hash, LocalDateTime dataExpiracao) {
+        repository.save(InsightCache.builder()
+                .tipoInsight(InsightCache.TipoInsight.AREA_CRITICA)
+                .contexto(Map.of("hash", hash))
+                .insightTexto("Insight " + hash)
+                .hashContexto(hash)
+                .dataExpiracao(dataExpiracao)
+                .build());
+    }
+}
@@ -0,0 +1,130 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
+import com.moredevs.mapblu.core.mapper.OcorrenciaMapper;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara, para uma página de ocorrências, a conversão das linhas em resposta pelos dois caminhos
+ * de leitura da listagem: a entidade (geometria decodificada do EWKB e metadata do jsonb, como o
+ * Hibernate faz com o SELECT *) e a projeção {@link OcorrenciaResumo} (latitude e longitude já
+ * em doubles, sem metadata).
+ *
+ * Mede só o lado da JVM: a consulta, a transferência das colunas e o contexto de persistência
+ * ficam de fora, porque precisam do PostGIS. Não roda com os testes. Para executar: compilar os
+ * testes e rodar {@link #main} com o classpath de teste; o profiler de GC mostra a alocação por página.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OcorrenciaLeituraBenchmark {
+
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() {};
+
+    @Param({"50"})
+    public int tamanho;
+
+    private final OcorrenciaMapper mapper = new OcorrenciaMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Object[]> linhasEntidade;
+    private List<Object[]> linhasResumo;
+
+    @Setup
+    public void setUp() throws Exception {
+        WKBWriter writer = new WKBWriter(2, true);
+        String metadata = objectMapper.writeValueAsString(Map.of(
+                "origem", "app",
+                "dispositivo", "android",
+                "fotos", List.of("https://storage.blumenau.sc.gov.br/ocorrencias/1.jpg",
+                        "https://storage.blumenau.sc.gov.br/ocorrencias/2.jpg"),
+                "analise", Map.of("modelo", "gravidade-v2", "confianca", 0.87)));
+
+        linhasEntidade = new ArrayList<>(tamanho);
+        linhasResumo = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            UUID id = UUID.randomUUID();
+            double latitude = -26.91 + i * 1e-4;
+            double longitude = -49.07 - i * 1e-4;
+            Timestamp criacao = Timestamp.valueOf(LocalDateTime.of(2025, 3, 10, 12, 0).plusMinutes(i));
+            Timestamp atualizacao = Timestamp.valueOf(LocalDateTime.of(2025, 3, 11, 12, 0));
+            String ewkb = WKBWriter.toHex(writer.write(GeoUtil.createPoint(latitude, longitude)));
+
+            // [id, tipo, descricao, bairro, endereco, coordenadas, gravidade, gravidade_ia, status,
+            //  secretaria_origem, data_criacao, data_atualizacao, metadata]
+            linhasEntidade.add(new Object[]{id, "BURACO", "Problema relatado pelo morador na altura do número " + i,
+                    "Velha", "Rua Sete de Setembro, " + i, ewkb, 1 + i % 10, null, "PENDENTE",
+                    "Secretaria de Obras", criacao, atualizacao, metadata});
+            // Colunas de OcorrenciaRepositoryCustomImpl.RESUMO_SQL
+            linhasResumo.add(new Object[]{id, "BURACO", "Problema relatado pelo morador na altura do número " + i,
+                    "Velha", "Rua Sete de Setembro, " + i, latitude, longitude, 1 + i % 10, null, "PENDENTE",
+                    "Secretaria de Obras", criacao, atualizacao});
+        }
+    }
+
+    @Benchmark
+    public List<OcorrenciaResponse> entidade() throws Exception {
+        WKBReader reader = new WKBReader(GeoUtil.getGeometryFactory());
+        List<OcorrenciaResponse> respostas = new ArrayList<>(linhasEntidade.size());
+        for (Object[] linha : linhasEntidade) {
+            respostas.add(mapper.toResponse(toEntidade(linha, reader)));
+        }
+        return respostas;
+    }
+
+    @Benchmark
+    public List<OcorrenciaResponse> resumo() {
+        List<OcorrenciaResponse> respostas = new ArrayList<>(linhasResumo.size());
+        for (Object[] linha : linhasResumo) {
+            respostas.add(mapper.toResponse(OcorrenciaRepositoryCustomImpl.toResumo(linha)));
+        }
+        return respostas;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OcorrenciaLeituraBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+
+    private Ocorrencia toEntidade(Object[] linha, WKBReader reader) throws Exception {
+        return Ocorrencia.builder()
+                .id((UUID) linha[0])
+                .tipoProblema(TipoProblema.valueOf((String) linha[1]))
+                .descricao((String) linha[2])
+                .bairro((String) linha[3])
+                .endereco((String) linha[4])
+                .coordenadas((Point) reader.read(WKBReader.hexToBytes((String) linha[5])))
+                .gravidade((Integer) linha[6])
+                .gravidadeIA((Integer) linha[7])
+                .status(StatusOcorrencia.valueOf((String) linha[8]))
+                .secretariaOrigem((String) linha[9])
+                .dataCriacao(((Timestamp) linha[10]).toLocalDateTime())
+                .dataAtualizacao(((Timestamp) linha[11]).toLocalDateTime())
+                .metadata(objectMapper.readValue((String) linha[12], METADATA))
+                .build();
+    }
+}
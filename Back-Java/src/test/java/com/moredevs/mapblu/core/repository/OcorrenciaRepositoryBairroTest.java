@@ -0,0 +1,85 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica o filtro por bairro: a normalização do banco (coluna gerada bairro_normalizado) e a
+ * do Java (termo buscado) precisam coincidir, e o % e o _ digitados não funcionam como curinga.
+ */
+class OcorrenciaRepositoryBairroTest extends AbstractPostgisRepositoryTest {
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        salvar("Velha", 4);
+        salvar("Bairro Água Verde", 6);
+        salvar("ITOUPAVA  CENTRAL", 8);
+        salvar("Vila_Nova", 2);
+        repository.flush();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Velha", "  Bairro Água  Verde ", "VÉLHA", "Itoupava Central", "ribeirão fresco",
+            "Garcia\tNorte", "São Pedro", "Bairro", "bairro bairro Centro", "Ponta Aguda", "Vila_Nova 100%"
+    })
+    void normalizacaoDoBancoIgualADoJava(String nome) {
+        String banco = jdbcTemplate.queryForObject("SELECT normalizar_bairro(?)", String.class, nome);
+
+        assertThat(banco).isEqualTo(GeoUtil.normalizeBairro(nome));
+    }
+
+    @Test
+    void filtroIgnoraAcentosCaixaEPrefixo() {
+        assertThat(bairros("bairro velha")).containsExactly("Velha");
+        assertThat(bairros("agua verde")).containsExactly("Bairro Água Verde");
+        assertThat(bairros("Itoupava Central")).containsExactly("ITOUPAVA  CENTRAL");
+    }
+
+    @Test
+    void percentualESublinhadoNaoSaoCuringas() {
+        assertThat(bairros("%")).isEmpty();
+        assertThat(bairros("_")).containsExactly("Vila_Nova");
+        assertThat(bairros("vila_")).containsExactly("Vila_Nova");
+
+        assertThat(repository.countByTipoProblema("%")).isEmpty();
+        assertThat(repository.countByTipoProblema("_")).hasSize(1);
+        assertThat(repository.avgGravidade("_")).isEqualTo(2.0);
+        assertThat(repository.avgGravidade(null)).isEqualTo(5.0);
+    }
+
+    private List<String> bairros(String filtro) {
+        return repository.findByFilters(null, null, filtro, null, null, null, null, null, PageRequest.of(0, 10))
+                .map(Ocorrencia::getBairro)
+                .getContent();
+    }
+
+    private void salvar(String bairro, int gravidade) {
+        repository.save(Ocorrencia.builder()
+                .tipoProblema(TipoProblema.BURACO)
+                .bairro(bairro)
+                .coordenadas(GeoUtil.createPoint(-26.9194, -49.0661))
+                .gravidade(gravidade)
+                .status(StatusOcorrencia.PENDENTE)
+                .build());
+    }
+}
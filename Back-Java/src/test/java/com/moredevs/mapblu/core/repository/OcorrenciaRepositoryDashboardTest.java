@@ -0,0 +1,175 @@
+package com.moredevs.mapblu.core.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Verifica que a consulta agregada do dashboard traz os mesmos números das contagens separadas
+ * (total, críticas, gravidade média e contagens por tipo, bairro e status), e registra no log o tempo
+ * do agregado de um mês com 10 mil, 100 mil e 1 milhão de ocorrências.
+ */
+@Slf4j
+class OcorrenciaRepositoryDashboardTest extends AbstractPostgisRepositoryTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime FIM = LocalDateTime.of(2025, 3, 31, 23, 59, 59);
+    private static final int MEDICOES = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @Test
+    void agregadoTemParidadeComContagensSeparadas() {
+        // Uma ocorrência a cada 5 minutos a partir de fevereiro; março tem 8.928 delas
+        inserir(20_000, LocalDateTime.of(2025, 2, 1, 0, 0), 300);
+
+        Map<String, Map<String, Object[]>> porDimensao = agrupar(repository.aggregateDashboard(INICIO, FIM));
+
+        Object[] total = porDimensao.get("total").get(null);
+        assertThat(((Number) total[2]).longValue()).isEqualTo(contar(""));
+        assertThat(((Number) total[3]).longValue()).isEqualTo(contar(" AND gravidade >= 8"));
+        assertThat(((Number) total[4]).doubleValue()).isCloseTo(jdbcTemplate.queryForObject(
+                "SELECT AVG(gravidade) FROM ocorrencias WHERE data_criacao BETWEEN ? AND ?",
+                Double.class, INICIO, FIM), within(1e-9));
+
+        for (String tipo : List.of("BURACO", "ALAGAMENTO", "DENGUE")) {
+            assertThat(((Number) porDimensao.get("tipo").get(tipo)[2]).longValue())
+                    .isEqualTo(contar(" AND tipo_problema = '" + tipo + "'"));
+        }
+        for (String bairro : List.of("Centro", "Velha", "Garcia")) {
+            assertThat(((Number) porDimensao.get("bairro").get(bairro)[2]).longValue())
+                    .isEqualTo(contar(" AND bairro = '" + bairro + "'"));
+        }
+        for (String status : List.of("PENDENTE", "RESOLVIDO")) {
+            assertThat(((Number) porDimensao.get("status").get(status)[2]).longValue())
+                    .isEqualTo(contar(" AND status = '" + status + "'"));
+        }
+        assertThat(porDimensao.get("status")).doesNotContainKey("CANCELADO");
+    }
+
+    @Test
+    void periodoSemOcorrenciasTrazSoOTotalZerado() {
+        inserir(100, LocalDateTime.of(2025, 1, 1, 0, 0), 3600);
+
+        List<Object[]> linhas = repository.aggregateDashboard(INICIO, FIM);
+
+        assertThat(linhas).hasSize(1);
+        assertThat(linhas.get(0)[0]).isEqualTo("total");
+        assertThat(((Number) linhas.get(0)[2]).longValue()).isZero();
+        assertThat(linhas.get(0)[4]).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void tempoDoAgregadoPorVolumeDoMes(int quantidade) {
+        // Ocorrências espalhadas igualmente pelos 31 dias de março
+        inserir(quantidade, INICIO, 31 * 24 * 3600.0 / quantidade);
+        jdbcTemplate.execute("ANALYZE ocorrencias");
+        repository.aggregateDashboard(INICIO, FIM);
+
+        long[] tempos = new long[MEDICOES];
+        List<Object[]> linhas = null;
+        for (int i = 0; i < MEDICOES; i++) {
+            long start = System.nanoTime();
+            linhas = repository.aggregateDashboard(INICIO, FIM);
+            tempos[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(tempos);
+
+        log.info("Agregado do dashboard com {} ocorrências no mês: mediana {} µs, mínimo {} µs, máximo {} µs",
+                quantidade, tempos[MEDICOES / 2], tempos[0], tempos[MEDICOES - 1]);
+        Map<String, Map<String, Object[]>> porDimensao = agrupar(linhas);
+        assertThat(((Number) porDimensao.get("total").get(null)[2]).longValue()).isEqualTo(quantidade);
+        assertThat(porDimensao.get("tipo")).hasSize(3);
+    }
+
+    @Test
+    void contribuicoesSoDasOcorrenciasInformadasCriadasNoPeriodo() {
+        // Uma por dia a partir de 28/02: a primeira fica fora de março
+        inserir(4, INICIO.minusDays(1), 86_400);
+        List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM ocorrencias ORDER BY data_criacao", UUID.class);
+
+        List<Object[]> linhas = repository.findContribuicoesDashboard(ids.subList(0, 3), INICIO, FIM);
+
+        assertThat(linhas).extracting(linha -> linha[0])
+                .containsExactlyInAnyOrder(ids.get(1).toString(), ids.get(2).toString());
+        assertThat(linhas).extracting(linha -> ((Number) linha[4]).intValue()).containsExactlyInAnyOrder(2, 3);
+    }
+
+    @Test
+    void seriesPreenchemOsIntervalosSemOcorrencias() {
+        // Uma ocorrência por hora de 01/03 00:00 a 05/03 03:00
+        inserir(100, INICIO, 3600);
+
+        List<Object[]> linhas = repository.aggregateSeries(
+                "day", null, INICIO.minusDays(2), INICIO.plusDays(6));
+
+        assertThat(linhas).extracting(linha -> ((Number) linha[2]).longValue())
+                .containsExactly(0L, 0L, 24L, 24L, 24L, 24L, 4L, 0L);
+        assertThat(linhas.get(0)[1]).isNull();
+        assertThat(linhas.get(0)[3]).isNull();
+        assertThat(((Number) linhas.get(2)[3]).doubleValue()).isCloseTo(jdbcTemplate.queryForObject(
+                "SELECT AVG(gravidade) FROM ocorrencias WHERE data_criacao >= ? AND data_criacao < ?",
+                Double.class, INICIO, INICIO.plusDays(1)), within(1e-9));
+    }
+
+    @Test
+    void seriesDivididasPorTipo() {
+        inserir(48, INICIO, 3600);
+
+        List<Object[]> linhas = repository.aggregateSeries(
+                "week", "tipo", LocalDateTime.of(2025, 2, 24, 0, 0), LocalDateTime.of(2025, 3, 10, 0, 0));
+
+        // 01/03 e 02/03 caem na semana de 24/02; a semana de 03/03 fica vazia
+        assertThat(linhas).hasSize(4);
+        assertThat(linhas.subList(0, 3)).extracting(linha -> linha[1])
+                .containsExactly("ALAGAMENTO", "BURACO", "DENGUE");
+        assertThat(linhas.subList(0, 3)).extracting(linha -> ((Number) linha[2]).longValue())
+                .containsOnly(16L);
+        assertThat(((Number) linhas.get(3)[2]).longValue()).isZero();
+    }
+
+    private void inserir(int quantidade, LocalDateTime inicio, double segundosEntre) {
+        jdbcTemplate.update("INSERT INTO ocorrencias " +
+                "(id, tipo_problema, bairro, coordenadas, gravidade, status, data_criacao, data_atualizacao) " +
+                "SELECT gen_random_uuid(), " +
+                "CASE i % 3 WHEN 0 THEN 'BURACO' WHEN 1 THEN 'ALAGAMENTO' ELSE 'DENGUE' END, " +
+                "CASE i % 5 WHEN 0 THEN 'Garcia' WHEN 1 THEN 'Velha' ELSE 'Centro' END, " +
+                "ST_SetSRID(ST_MakePoint(-49.07, -26.92), 4326), " +
+                "1 + i % 10, " +
+                "CASE WHEN i % 4 = 0 THEN 'RESOLVIDO' ELSE 'PENDENTE' END, " +
+                "? + make_interval(secs => i * ?), now() " +
+                "FROM generate_series(0, ? - 1) i", inicio, segundosEntre, quantidade);
+    }
+
+    private long contar(String filtro) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ocorrencias WHERE data_criacao BETWEEN ? AND ?" + filtro,
+                Long.class, INICIO, FIM);
+    }
+
+    private static Map<String, Map<String, Object[]>> agrupar(List<Object[]> linhas) {
+        Map<String, Map<String, Object[]>> porDimensao = new HashMap<>();
+        for (Object[] linha : linhas) {
+            porDimensao.computeIfAbsent((String) linha[0], d -> new HashMap<>()).put((String) linha[1], linha);
+        }
+        return porDimensao;
+    }
+}
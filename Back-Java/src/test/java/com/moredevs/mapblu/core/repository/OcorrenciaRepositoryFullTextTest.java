@@ -0,0 +1,104 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica a busca textual: acentos e flexões ignorados, ordenação por relevância,
+ * trechos destacados e paginação por keyset sem repetições.
+ */
+class OcorrenciaRepositoryFullTextTest extends AbstractPostgisRepositoryTest {
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        salvar("Vazamento de esgoto próximo à escola municipal", "Rua das Palmeiras, 100", TipoProblema.ESGOTO);
+        salvar("Buraco enorme na pista", "Rua da Escola, 20", TipoProblema.BURACO);
+        salvar("Vazamentos constantes de água tratada", "Avenida Brasil, 500", TipoProblema.ESGOTO);
+        salvar("Poste com lâmpada queimada", "Rua XV de Novembro, 1", TipoProblema.ILUMINACAO);
+        for (int i = 0; i < 12; i++) {
+            salvar("Esgoto a céu aberto " + i, "Rua " + i, TipoProblema.ESGOTO);
+        }
+        repository.flush();
+    }
+
+    @Test
+    void ignoraAcentosEFlexoes() {
+        List<Object[]> rows = buscar("vazamento PROXIMO escolas", null, 10);
+
+        assertThat(rows).hasSize(1);
+        assertThat((String) rows.get(0)[2]).contains("<mark>Vazamento</mark>");
+    }
+
+    @Test
+    void descricaoPesaMaisQueEndereco() {
+        List<Object[]> rows = buscar("escola", null, 10);
+
+        assertThat(rows).hasSize(2);
+        assertThat((String) rows.get(0)[2]).contains("<mark>escola</mark>");
+        assertThat(((Number) rows.get(0)[1]).doubleValue())
+                .isGreaterThan(((Number) rows.get(1)[1]).doubleValue());
+    }
+
+    @Test
+    void sintaxeDeBuscadorComExclusao() {
+        assertThat(buscar("vazamento -esgoto", null, 10))
+                .extracting(row -> (String) row[2])
+                .singleElement()
+                .satisfies(trecho -> assertThat(trecho).contains("água"));
+    }
+
+    @Test
+    void combinaComFiltros() {
+        assertThat(buscar("escola", TipoProblema.BURACO.name(), 10)).hasSize(1);
+    }
+
+    @Test
+    void keysetPercorreTodosOsResultadosSemRepeticao() {
+        List<Object> vistos = new ArrayList<>();
+        Double lastRelevancia = null;
+        String lastId = null;
+        while (true) {
+            List<Object[]> page = repository.searchFullText("esgoto", null, null, null, null, null, null,
+                    null, null, null, null, null, lastRelevancia, lastId, 5);
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(row -> vistos.add(row[0]));
+            Object[] last = page.get(page.size() - 1);
+            lastRelevancia = ((Number) last[1]).doubleValue();
+            lastId = last[0].toString();
+        }
+
+        assertThat(vistos).hasSize(13).doesNotHaveDuplicates();
+    }
+
+    private List<Object[]> buscar(String busca, String tipoProblema, int limit) {
+        return repository.searchFullText(busca, tipoProblema, null, null, null, null, null,
+                null, null, null, null, null, null, null, limit);
+    }
+
+    private void salvar(String descricao, String endereco, TipoProblema tipo) {
+        repository.save(Ocorrencia.builder()
+                .tipoProblema(tipo)
+                .descricao(descricao)
+                .endereco(endereco)
+                .bairro("Centro")
+                .coordenadas(GeoUtil.createPoint(-26.9194, -49.0661))
+                .gravidade(5)
+                .status(StatusOcorrencia.PENDENTE)
+                .build());
+    }
+}
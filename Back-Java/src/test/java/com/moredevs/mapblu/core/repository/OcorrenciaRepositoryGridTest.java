@@ -0,0 +1,80 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.service.aovivo.AlteracaoAoVivo;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Verifica que a célula calculada em Java para o canal ao vivo é a mesma célula em que o
+ * ST_SnapToGrid da agregação por grid coloca a ocorrência, inclusive perto das bordas.
+ */
+class OcorrenciaRepositoryGridTest extends AbstractPostgisRepositoryTest {
+
+    private static final double TAMANHO = Geo.DEFAULT_GRID_SIZE_METERS;
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @Test
+    void celulaAoVivoEhACelulaDaAgregacao() {
+        List<double[]> pontos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Pontos a ~2 km um do outro, cada um sozinho na sua célula
+            pontos.add(new double[]{-26.98 + i * 0.018, -49.15 + i * 0.018});
+        }
+        // Pontos a 1 cm de cada lado da borda entre duas células, em x e em y
+        double borda = (Math.floor(GeoUtil.lngToWebMercator(-49.0661) / TAMANHO) + 0.5) * TAMANHO;
+        double y = GeoUtil.latToWebMercator(-26.7);
+        pontos.add(new double[]{latitude(y), longitude(borda - 0.01)});
+        pontos.add(new double[]{latitude(y + 2 * TAMANHO), longitude(borda + 0.01)});
+        double bordaY = (Math.floor(GeoUtil.latToWebMercator(-26.75) / TAMANHO) + 0.5) * TAMANHO;
+        pontos.add(new double[]{latitude(bordaY - 0.01), -49.3});
+        pontos.add(new double[]{latitude(bordaY + 0.01), -49.3 + 0.05});
+
+        Map<String, double[]> porCelula = new HashMap<>();
+        for (double[] ponto : pontos) {
+            repository.save(Ocorrencia.builder()
+                    .tipoProblema(TipoProblema.BURACO)
+                    .bairro("Centro")
+                    .coordenadas(GeoUtil.createPoint(ponto[0], ponto[1]))
+                    .gravidade(5)
+                    .build());
+            porCelula.put(AlteracaoAoVivo.celula(ponto[0], ponto[1]), ponto);
+        }
+        repository.flush();
+        assertThat(porCelula).hasSize(pontos.size());
+
+        List<Object[]> linhas = repository.aggregateByGrid(
+                -27.5, -26.0, -49.5, -48.5, TAMANHO, null, null, null, null, null);
+
+        assertThat(linhas).hasSize(pontos.size());
+        for (Object[] linha : linhas) {
+            // [center_lng, center_lat, count, avg_gravidade, max_gravidade, cell_x, cell_y]
+            String id = GeoUtil.gridCellIdFromMercator(
+                    ((Number) linha[5]).doubleValue(), ((Number) linha[6]).doubleValue(), TAMANHO);
+            double[] ponto = porCelula.get(id);
+            assertThat(ponto).as("célula %s", id).isNotNull();
+            assertThat(((Number) linha[1]).doubleValue()).isCloseTo(ponto[0], within(1e-9));
+        }
+    }
+
+    private static double longitude(double x) {
+        return Math.toDegrees(x / Geo.WEB_MERCATOR_RADIUS);
+    }
+
+    private static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(y / Geo.WEB_MERCATOR_RADIUS)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica via EXPLAIN que as consultas montadas por {@link OcorrenciaQueryBuilder}
+ * usam o índice da coluna filtrada nas combinações de filtros mais comuns.
+ */
+class OcorrenciaRepositoryIndexUsageTest extends AbstractPostgisRepositoryTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_ocorrencias_coordenadas_gist " +
+                "ON ocorrencias USING GIST (coordenadas)");
+
+        // 20 mil ocorrências: DENGUE em 1%, EM_ANDAMENTO em 2%, uma a cada 10 minutos numa grade de ~40x20km
+        jdbcTemplate.execute("INSERT INTO ocorrencias " +
+                "(id, tipo_problema, bairro, coordenadas, gravidade, status, data_criacao, data_atualizacao) " +
+                "SELECT gen_random_uuid(), " +
+                "CASE WHEN i % 100 = 0 THEN 'DENGUE' ELSE 'BURACO' END, " +
+                "'Centro', " +
+                "ST_SetSRID(ST_MakePoint(-49.2 + (i % 200) * 0.002, -27.0 + (i / 200) * 0.002), 4326), " +
+                "1 + i % 10, " +
+                "CASE WHEN i % 50 = 0 THEN 'EM_ANDAMENTO' ELSE 'PENDENTE' END, " +
+                "TIMESTAMP '2024-01-01' + i * INTERVAL '10 minutes', now() " +
+                "FROM generate_series(1, 20000) i");
+        jdbcTemplate.execute("ANALYZE ocorrencias");
+    }
+
+    @Test
+    void semFiltrosNaoGeraWhere() {
+        assertThat(OcorrenciaRepositoryCustomImpl.filters(null, null, null, null, null, null, null, null)
+                .whereClause()).isEmpty();
+    }
+
+    @Test
+    void filtroPorTipoUsaIndiceDeTipo() {
+        OcorrenciaQueryBuilder builder = OcorrenciaRepositoryCustomImpl.filters(
+                "DENGUE", null, null, null, null, null, null, null);
+
+        assertThat(explain(OcorrenciaRepositoryCustomImpl.FIND_SQL, builder)).contains("idx_ocorrencias_tipo");
+    }
+
+    @Test
+    void filtroPorStatusUsaIndiceDeStatus() {
+        OcorrenciaQueryBuilder builder = OcorrenciaRepositoryCustomImpl.filters(
+                null, null, null, "EM_ANDAMENTO", null, null, null, null);
+
+        assertThat(explain(OcorrenciaRepositoryCustomImpl.COUNT_SQL, builder)).contains("idx_ocorrencias_status");
+    }
+
+    @Test
+    void filtroPorPeriodoUsaIndiceDeDataCriacao() {
+        OcorrenciaQueryBuilder builder = OcorrenciaRepositoryCustomImpl.filters(
+                null, null, null, null, null, null,
+                LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 2, 2, 0, 0));
+
+        assertThat(explain(OcorrenciaRepositoryCustomImpl.FIND_SQL, builder)).contains("idx_ocorrencias_data_criacao");
+    }
+
+    @Test
+    void filtroPorBairroUsaIndiceTrigram() {
+        OcorrenciaQueryBuilder builder = OcorrenciaRepositoryCustomImpl.filters(
+                null, null, "Itoupava", null, null, null, null, null);
+
+        assertThat(explain(OcorrenciaRepositoryCustomImpl.FIND_SQL, builder)).contains("idx_ocorrencias_bairro_trgm");
+    }
+
+    @Test
+    void filtroPorBoundingBoxUsaIndiceEspacial() {
+        OcorrenciaQueryBuilder builder = new OcorrenciaQueryBuilder()
+                .withinBoundingBox(-26.99, -26.98, -49.19, -49.18)
+                .tipoProblema("BURACO")
+                .parameter("gridSize", 100.0);
+
+        String plan = explain(OcorrenciaRepositoryCustomImpl.AGGREGATE_BY_GRID_SQL, builder,
+                OcorrenciaRepositoryCustomImpl.GROUP_BY_GRID);
+
+        assertThat(plan).contains("idx_ocorrencias_coordenadas_gist");
+    }
+
+    @Test
+    void listagemPaginadaRetornaApenasOsFiltrados() {
+        Page<Ocorrencia> page = repository.findByFilters(
+                "DENGUE", null, null, null, null, null, null, null, PageRequest.of(0, 50));
+
+        assertThat(page.getTotalElements()).isEqualTo(200);
+        assertThat(page.getContent()).hasSize(50)
+                .allSatisfy(o -> assertThat(o.getTipoProblema().name()).isEqualTo("DENGUE"));
+    }
+
+    private String explain(String select, OcorrenciaQueryBuilder builder) {
+        return explain(select, builder, "");
+    }
+
+    private String explain(String select, OcorrenciaQueryBuilder builder, String suffix) {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        List<String> lines = named.queryForList(
+                "EXPLAIN " + select + builder.whereClause() + suffix, builder.getParameters(), String.class);
+        return String.join("\n", lines);
+    }
+}
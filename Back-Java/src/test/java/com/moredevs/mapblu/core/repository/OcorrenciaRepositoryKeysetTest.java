@@ -0,0 +1,125 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que a listagem por keyset percorre todas as ocorrências filtradas exatamente uma vez,
+ * na mesma ordem de uma consulta completa, inclusive com empates em data_criacao e gravidade.
+ */
+class OcorrenciaRepositoryKeysetTest extends AbstractPostgisRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 10, 12, 0);
+    private static final int PAGE_SIZE = 6;
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 40; i++) {
+            TipoProblema tipo = i % 3 == 0 ? TipoProblema.ALAGAMENTO : TipoProblema.BURACO;
+            StatusOcorrencia status = i % 5 == 0 ? StatusOcorrencia.RESOLVIDO : StatusOcorrencia.PENDENTE;
+            repository.save(Ocorrencia.builder()
+                    .tipoProblema(tipo)
+                    .bairro("Centro")
+                    .coordenadas(GeoUtil.createPoint(-26.9194 + i * 0.0005, -49.0661))
+                    .gravidade(1 + i % 4)
+                    .status(status)
+                    .build());
+        }
+        repository.flush();
+
+        // Concentra data_criacao em 10 valores distintos para forçar empates e exercitar o desempate por id
+        jdbcTemplate.update("UPDATE ocorrencias SET data_criacao = " +
+                "CAST(? AS TIMESTAMP) + (ABS(hashtext(id::text)) % 10) * INTERVAL '1 hour'", BASE);
+        entityManager.clear();
+    }
+
+    @Test
+    void keysetPorDataPercorreTodasNaOrdemDaConsultaCompleta() {
+        List<UUID> esperado = jdbcTemplate.queryForList(
+                "SELECT id FROM ocorrencias ORDER BY data_criacao DESC, id DESC", UUID.class);
+
+        assertThat(percorrerPorData(null)).containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void keysetPorDataRespeitaFiltros() {
+        List<UUID> esperado = jdbcTemplate.queryForList(
+                "SELECT id FROM ocorrencias WHERE tipo_problema = 'ALAGAMENTO' ORDER BY data_criacao DESC, id DESC",
+                UUID.class);
+
+        assertThat(percorrerPorData(TipoProblema.ALAGAMENTO.name())).containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void keysetPorGravidadePercorreTodasNaOrdemDaConsultaCompleta() {
+        List<UUID> esperado = jdbcTemplate.queryForList(
+                "SELECT id FROM ocorrencias ORDER BY gravidade DESC, data_criacao DESC, id DESC", UUID.class);
+
+        List<UUID> ids = new ArrayList<>();
+        Integer lastGravidade = null;
+        LocalDateTime lastData = null;
+        String lastId = null;
+        while (true) {
+            List<OcorrenciaResumo> page = repository.findResumoByFiltersKeysetPorGravidade(
+                    null, null, null, null, null, null, null, null, lastGravidade, lastData, lastId, PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(o -> ids.add(o.id()));
+            OcorrenciaResumo last = page.get(page.size() - 1);
+            lastGravidade = last.gravidade();
+            lastData = last.dataCriacao();
+            lastId = last.id().toString();
+        }
+
+        assertThat(ids).containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void contagemComFiltrosConsideraStatus() {
+        String status = StatusOcorrencia.PENDENTE.name();
+        long total = repository.countByFilters(null, null, null, status, null, null, null, null);
+
+        assertThat(total).isEqualTo(32);
+    }
+
+    private List<UUID> percorrerPorData(String tipo) {
+        List<UUID> ids = new ArrayList<>();
+        LocalDateTime lastData = null;
+        String lastId = null;
+        while (true) {
+            List<OcorrenciaResumo> page = repository.findResumoByFiltersKeysetPorData(
+                    tipo, null, null, null, null, null, null, null, lastData, lastId, PAGE_SIZE);
+            if (page.isEmpty()) {
+                return ids;
+            }
+            page.forEach(o -> ids.add(o.id()));
+            OcorrenciaResumo last = page.get(page.size() - 1);
+            lastData = last.dataCriacao();
+            lastId = last.id().toString();
+        }
+    }
+}
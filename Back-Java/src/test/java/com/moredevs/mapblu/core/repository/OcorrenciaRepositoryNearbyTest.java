@@ -0,0 +1,120 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que a busca por proximidade com cursor retorna as mesmas ocorrências, na mesma ordem,
+ * que a busca por proximidade paginada por OFFSET, inclusive com empates de distância.
+ */
+class OcorrenciaRepositoryNearbyTest extends AbstractPostgisRepositoryTest {
+
+    private static final double LAT = -26.9194;
+    private static final double LNG = -49.0661;
+    private static final double RAIO = 3000.0;
+    private static final int PAGE_SIZE = 7;
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 40; i++) {
+            // Pontos a cada ~55m para o norte, alternando tipo e status
+            TipoProblema tipo = i % 3 == 0 ? TipoProblema.ALAGAMENTO : TipoProblema.BURACO;
+            StatusOcorrencia status = i % 5 == 0 ? StatusOcorrencia.RESOLVIDO : StatusOcorrencia.PENDENTE;
+            repository.save(Ocorrencia.builder()
+                    .tipoProblema(tipo)
+                    .bairro("Centro")
+                    .coordenadas(GeoUtil.createPoint(LAT + i * 0.0005, LNG + (i % 2) * 0.00001))
+                    .gravidade(1 + i % 10)
+                    .status(status)
+                    .build());
+        }
+        // Fora do raio
+        repository.save(Ocorrencia.builder()
+                .tipoProblema(TipoProblema.BURACO)
+                .bairro("Garcia")
+                .coordenadas(GeoUtil.createPoint(LAT + 0.1, LNG))
+                .gravidade(5)
+                .build());
+        repository.flush();
+    }
+
+    @Test
+    void cursorTemParidadeComBuscaPorOffset() {
+        assertThat(percorrerPorCursor(null)).containsExactlyElementsOf(percorrerOffset(null));
+    }
+
+    @Test
+    void cursorTemParidadeComBuscaPorOffsetFiltrandoTipo() {
+        String tipo = TipoProblema.ALAGAMENTO.name();
+        assertThat(percorrerPorCursor(tipo)).containsExactlyElementsOf(percorrerOffset(tipo));
+    }
+
+    @Test
+    void empatesDeDistanciaNaoPulamNemRepetemLinhas() {
+        // Todas no mesmo ponto: a ordem entre elas vem só do id
+        for (int i = 0; i < 2 * PAGE_SIZE + 1; i++) {
+            repository.save(Ocorrencia.builder()
+                    .tipoProblema(TipoProblema.DENGUE)
+                    .bairro("Centro")
+                    .coordenadas(GeoUtil.createPoint(LAT + 0.0101, LNG + 0.0101))
+                    .gravidade(5)
+                    .build());
+        }
+        repository.flush();
+
+        List<UUID> porCursor = percorrerPorCursor(TipoProblema.DENGUE.name());
+
+        assertThat(porCursor).hasSize(2 * PAGE_SIZE + 1).doesNotHaveDuplicates()
+                .containsExactlyElementsOf(percorrerOffset(TipoProblema.DENGUE.name()));
+    }
+
+    @Test
+    void contagemPorRaioIgualAoTotalDaBuscaPorOffset() {
+        Page<OcorrenciaResumo> page = repository.findResumoNearby(LAT, LNG, RAIO, null, PageRequest.of(0, PAGE_SIZE));
+        assertThat(repository.countNearby(LAT, LNG, RAIO, null)).isEqualTo(page.getTotalElements());
+    }
+
+    private List<UUID> percorrerOffset(String tipo) {
+        List<UUID> ids = new ArrayList<>();
+        Page<OcorrenciaResumo> page;
+        int numero = 0;
+        do {
+            page = repository.findResumoNearby(LAT, LNG, RAIO, tipo, PageRequest.of(numero++, PAGE_SIZE));
+            page.getContent().forEach(o -> ids.add(o.id()));
+        } while (page.hasNext());
+        return ids;
+    }
+
+    private List<UUID> percorrerPorCursor(String tipo) {
+        List<UUID> ids = new ArrayList<>();
+        Double lastDistance = null;
+        String lastId = null;
+        while (true) {
+            List<OcorrenciaProxima> rows = repository.findResumoNearbyKeyset(
+                    LAT, LNG, RAIO, tipo, lastDistance, lastId, PAGE_SIZE);
+            if (rows.isEmpty()) {
+                return ids;
+            }
+            rows.forEach(row -> ids.add(row.ocorrencia().id()));
+            OcorrenciaProxima last = rows.get(rows.size() - 1);
+            lastDistance = last.distancia();
+            lastId = last.ocorrencia().id().toString();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que as projeções de listagem trazem os mesmos dados e a mesma ordem das consultas
+ * por entidade, sem carregar entidades no contexto de persistência.
+ */
+class OcorrenciaRepositoryResumoTest extends AbstractPostgisRepositoryTest {
+
+    private static final double LAT = -26.9194;
+    private static final double LNG = -49.0661;
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 30; i++) {
+            StatusOcorrencia status = i % 4 == 0 ? StatusOcorrencia.RESOLVIDO : StatusOcorrencia.PENDENTE;
+            repository.save(Ocorrencia.builder()
+                    .tipoProblema(i % 2 == 0 ? TipoProblema.BURACO : TipoProblema.ALAGAMENTO)
+                    .descricao("Ocorrência " + i)
+                    .bairro("Centro")
+                    .endereco("Rua " + i)
+                    .coordenadas(GeoUtil.createPoint(LAT + i * 0.0005, LNG))
+                    .gravidade(1 + i % 10)
+                    .gravidadeIA(1 + i % 10)
+                    .status(status)
+                    .metadata(Map.of("origem", "teste", "indice", i))
+                    .build());
+        }
+        repository.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void projecaoTemParidadeComListagemPorEntidade() {
+        PageRequest pageable = PageRequest.of(1, 7);
+        Page<Ocorrencia> entidades = repository.findByFilters(
+                TipoProblema.BURACO.name(), null, null, null, null, null, null, null, pageable);
+        Page<OcorrenciaResumo> resumos = repository.findResumoByFilters(
+                TipoProblema.BURACO.name(), null, null, null, null, null, null, null, pageable);
+
+        assertThat(resumos.getTotalElements()).isEqualTo(entidades.getTotalElements());
+        assertThat(resumos.getContent()).hasSize(entidades.getContent().size());
+        for (int i = 0; i < resumos.getContent().size(); i++) {
+            Ocorrencia entidade = entidades.getContent().get(i);
+            OcorrenciaResumo resumo = resumos.getContent().get(i);
+            assertThat(resumo.id()).isEqualTo(entidade.getId());
+            assertThat(resumo.tipoProblema()).isEqualTo(entidade.getTipoProblema());
+            assertThat(resumo.descricao()).isEqualTo(entidade.getDescricao());
+            assertThat(resumo.endereco()).isEqualTo(entidade.getEndereco());
+            assertThat(resumo.latitude()).isEqualTo(GeoUtil.getLatitude(entidade.getCoordenadas()));
+            assertThat(resumo.longitude()).isEqualTo(GeoUtil.getLongitude(entidade.getCoordenadas()));
+            assertThat(resumo.gravidade()).isEqualTo(entidade.getGravidade());
+            assertThat(resumo.gravidadeIA()).isEqualTo(entidade.getGravidadeIA());
+            assertThat(resumo.status()).isEqualTo(entidade.getStatus());
+            assertThat(resumo.dataCriacao()).isEqualTo(entidade.getDataCriacao());
+        }
+    }
+
+    @Test
+    void projecaoNaoCarregaEntidadesNoContexto() {
+        Page<OcorrenciaResumo> criticas = repository.findResumoCriticas(PageRequest.of(0, 50));
+
+        assertThat(criticas.getContent()).isNotEmpty()
+                .allSatisfy(o -> {
+                    assertThat(o.gravidade()).isGreaterThanOrEqualTo(8);
+                    assertThat(o.status()).isNotEqualTo(StatusOcorrencia.RESOLVIDO);
+                });
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+                .isZero();
+    }
+
+    @Test
+    void projecaoPorRaioOrdenaPelaDistanciaNoEsferoide() {
+        List<UUID> esperado = jdbcTemplate.queryForList(
+                "SELECT id FROM ocorrencias WHERE status <> 'RESOLVIDO' " +
+                "AND ST_DWithin(coordenadas::geography, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography, 1000) " +
+                "ORDER BY ST_Distance(coordenadas::geography, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography), id " +
+                "LIMIT 10", UUID.class, LNG, LAT, LNG, LAT);
+
+        assertThat(repository.findResumoNearby(LAT, LNG, 1000.0, null, PageRequest.of(0, 10)).getContent())
+                .extracting(OcorrenciaResumo::id)
+                .containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void projecaoPorPeriodoFiltraPorDataDeCriacao() {
+        LocalDateTime agora = LocalDateTime.now();
+
+        assertThat(repository.findResumoByDataCriacaoBetween(
+                agora.minusDays(1), agora.plusDays(1), PageRequest.of(0, 50)).getTotalElements()).isEqualTo(30);
+        assertThat(repository.findResumoByDataCriacaoBetween(
+                agora.plusDays(1), agora.plusDays(2), PageRequest.of(0, 50)).getContent()).isEmpty();
+    }
+}
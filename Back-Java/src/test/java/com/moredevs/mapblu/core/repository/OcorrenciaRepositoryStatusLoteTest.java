@@ -0,0 +1,128 @@
+package com.moredevs.mapblu.core.repository;
+
+import com.moredevs.mapblu.core.domain.Ocorrencia;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica a alteração de status em lote: um único UPDATE, sem tocar nas ocorrências
+ * já no status de destino, respeitando as verificações otimistas e desanexando só as alteradas.
+ */
+class OcorrenciaRepositoryStatusLoteTest extends AbstractPostgisRepositoryTest {
+
+    private static final LocalDateTime ANTIGA = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private OcorrenciaRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final List<UUID> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ids.clear();
+        StatusOcorrencia[] status = {
+                StatusOcorrencia.PENDENTE, StatusOcorrencia.EM_ANDAMENTO,
+                StatusOcorrencia.RESOLVIDO, StatusOcorrencia.CANCELADO
+        };
+        for (int i = 0; i < 8; i++) {
+            ids.add(repository.save(Ocorrencia.builder()
+                    .tipoProblema(i < 4 ? TipoProblema.BURACO : TipoProblema.ALAGAMENTO)
+                    .bairro("Centro")
+                    .coordenadas(GeoUtil.createPoint(-26.9194, -49.0661))
+                    .gravidade(5)
+                    .status(status[i % 4])
+                    .build()).getId());
+        }
+        repository.flush();
+        jdbcTemplate.update("UPDATE ocorrencias SET data_atualizacao = ?", ANTIGA);
+    }
+
+    @Test
+    void atualizaPorIdsIgnorandoJaResolvidasEAtualizaData() {
+        List<UUID> atualizados = idsAtualizados(repository.updateStatusByIds(
+                ids.subList(0, 4), StatusOcorrencia.RESOLVIDO.name(), null, null));
+
+        assertThat(atualizados).containsExactlyInAnyOrder(ids.get(0), ids.get(1), ids.get(3));
+        assertThat(status(ids.get(0))).isEqualTo("RESOLVIDO");
+        assertThat(dataAtualizacao(ids.get(0))).isAfter(ANTIGA);
+        assertThat(dataAtualizacao(ids.get(2))).isEqualTo(ANTIGA);
+        assertThat(status(ids.get(4))).isEqualTo("PENDENTE");
+    }
+
+    @Test
+    void statusEsperadosNaoReabreCanceladas() {
+        List<UUID> atualizados = idsAtualizados(repository.updateStatusByIds(
+                ids.subList(0, 4), StatusOcorrencia.RESOLVIDO.name(),
+                List.of(StatusOcorrencia.PENDENTE.name(), StatusOcorrencia.EM_ANDAMENTO.name()), null));
+
+        assertThat(atualizados).containsExactlyInAnyOrder(ids.get(0), ids.get(1));
+        assertThat(status(ids.get(3))).isEqualTo("CANCELADO");
+    }
+
+    @Test
+    void naoAlteraOcorrenciasModificadasDepoisDaLeitura() {
+        jdbcTemplate.update("UPDATE ocorrencias SET data_atualizacao = ? WHERE id = ?",
+                ANTIGA.plusDays(2), ids.get(0));
+
+        List<UUID> atualizados = idsAtualizados(repository.updateStatusByIds(
+                ids.subList(0, 2), StatusOcorrencia.RESOLVIDO.name(), null, ANTIGA.plusDays(1)));
+
+        assertThat(atualizados).containsExactly(ids.get(1));
+        assertThat(status(ids.get(0))).isEqualTo("PENDENTE");
+    }
+
+    @Test
+    void atualizaPorFiltro() {
+        List<UUID> atualizados = idsAtualizados(repository.updateStatusByFilters(
+                TipoProblema.ALAGAMENTO.name(), null, null, StatusOcorrencia.PENDENTE.name(),
+                null, null, null, null, StatusOcorrencia.EM_ANDAMENTO.name(), null, null));
+
+        assertThat(atualizados).containsExactly(ids.get(4));
+        assertThat(status(ids.get(0))).isEqualTo("PENDENTE");
+    }
+
+    @Test
+    void desanexaSoAsOcorrenciasAlteradas() {
+        Ocorrencia alterada = repository.findById(ids.get(0)).orElseThrow();
+        Ocorrencia intocada = repository.findById(ids.get(4)).orElseThrow();
+
+        repository.updateStatusByIds(ids.subList(0, 1), StatusOcorrencia.RESOLVIDO.name(), null, null);
+
+        assertThat(entityManager.contains(alterada)).isFalse();
+        assertThat(entityManager.contains(intocada)).isTrue();
+        assertThat(repository.findById(ids.get(0)).orElseThrow().getStatus()).isEqualTo(StatusOcorrencia.RESOLVIDO);
+    }
+
+    private static List<UUID> idsAtualizados(List<Object[]> atualizadas) {
+        return atualizadas.stream().map(row -> (UUID) row[0]).toList();
+    }
+
+    private String status(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM ocorrencias WHERE id = ?", String.class, id);
+    }
+
+    private LocalDateTime dataAtualizacao(UUID id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT data_atualizacao FROM ocorrencias WHERE id = ?", LocalDateTime.class, id);
+    }
+}
@@ -0,0 +1,207 @@
+package com.moredevs.mapblu.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.AtualizacaoAoVivoResponse;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaAoVivoResponse;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.core.service.aovivo.AlteracaoAoVivo;
+import com.moredevs.mapblu.core.service.aovivo.AssinaturaAoVivo;
+import com.moredevs.mapblu.core.service.aovivo.FiltroAoVivo;
+import com.moredevs.mapblu.core.service.dashboard.JanelaDashboard;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciaAlteradaEvent;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciasAlteradasEmLoteEvent;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class AoVivoServiceTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 3, 12, 15, 30);
+    private static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final FiltroAoVivo SEM_FILTRO = new FiltroAoVivo(null, null, null, null, null, null);
+
+    @Test
+    void alteracoesDaMesmaOcorrenciaViramUmItemNoQuadro() {
+        AssinaturaAoVivo assinatura = assinatura(SEM_FILTRO, 500);
+
+        acumular(assinatura, null, estado("PENDENTE", -26.92, -49.07));
+        acumular(assinatura, estado("PENDENTE", -26.92, -49.07), estado("RESOLVIDO", -26.92, -49.07));
+
+        AtualizacaoAoVivoResponse quadro = assinatura.retirar();
+        assertThat(quadro.getOcorrencias()).hasSize(1);
+        assertThat(quadro.getOcorrencias().get(0).getStatus().name()).isEqualTo("RESOLVIDO");
+        assertThat(quadro.getCelulasHeatmap()).hasSize(1);
+        // Criação e mudança de status: o PENDENTE entra e sai, sobra o RESOLVIDO
+        assertThat(quadro.getContadores()).containsOnly(
+                Map.entry("total", 1L), Map.entry("gravidade_soma", 5L), Map.entry("gravidade_contagem", 1L),
+                Map.entry("tipo:BURACO", 1L),
+                Map.entry("bairro:Velha", 1L), Map.entry("status:RESOLVIDO", 1L), Map.entry("gravidade:5", 1L));
+        assertThat(assinatura.retirar()).isNull();
+    }
+
+    @Test
+    void filtroPorAreaTipoEBairro() {
+        FiltroAoVivo filtro = new FiltroAoVivo(-27.0, -26.9, -49.1, -49.0, TipoProblema.BURACO, "vélha");
+        AssinaturaAoVivo assinatura = assinatura(filtro, 500);
+
+        acumular(assinatura, null, estado("PENDENTE", -26.80, -49.07));
+        AtualizacaoAoVivoResponse quadro = assinatura.retirar();
+        assertThat(quadro.getOcorrencias()).isNullOrEmpty();
+        assertThat(quadro.getCelulasHeatmap()).isNullOrEmpty();
+        // Os contadores do dashboard não dependem do filtro
+        assertThat(quadro.getContadores()).containsEntry("total", 1L);
+
+        acumular(assinatura, null, estado("PENDENTE", -26.92, -49.07));
+        assertThat(assinatura.retirar().getOcorrencias()).extracting(OcorrenciaAoVivoResponse::getId).containsExactly(ID);
+    }
+
+    @Test
+    void ocorrenciaQueSaiDoFiltroVaiParaRemovidas() {
+        FiltroAoVivo filtro = new FiltroAoVivo(-27.0, -26.9, -49.1, -49.0, null, null);
+        AssinaturaAoVivo assinatura = assinatura(filtro, 500);
+
+        acumular(assinatura, null, estado("PENDENTE", -26.92, -49.07));
+        acumular(assinatura, estado("PENDENTE", -26.92, -49.07), estado("PENDENTE", -26.80, -49.07));
+
+        AtualizacaoAoVivoResponse quadro = assinatura.retirar();
+        assertThat(quadro.getOcorrencias()).isNullOrEmpty();
+        assertThat(quadro.getRemovidas()).containsExactly(ID);
+        assertThat(quadro.getCelulasHeatmap()).hasSize(2);
+    }
+
+    @Test
+    void clienteQueAcumulaDemaisRecebeSoRessincronizacao() {
+        AssinaturaAoVivo assinatura = assinatura(SEM_FILTRO, 10);
+
+        for (int i = 0; i < 20; i++) {
+            OcorrenciaAlteradaEvent.Estado estado = new OcorrenciaAlteradaEvent.Estado(UUID.randomUUID(), "BURACO",
+                    "Velha", "PENDENTE", 5, -26.92 + i * 0.01, -49.07, AGORA);
+            acumular(assinatura, null, estado);
+        }
+
+        AtualizacaoAoVivoResponse quadro = assinatura.retirar();
+        assertThat(quadro.isRessincronizar()).isTrue();
+        assertThat(quadro.getOcorrencias()).isNull();
+        assertThat(quadro.getContadores()).isNull();
+        assertThat(assinatura.retirar()).isNull();
+    }
+
+    @Test
+    void alteracaoEmLotePedeRessincronizacao() {
+        AssinaturaAoVivo assinatura = assinatura(SEM_FILTRO, 500);
+        acumular(assinatura, null, estado("PENDENTE", -26.92, -49.07));
+
+        assinatura.acumular(AlteracaoAoVivo.emLote(), null, null);
+
+        assertThat(assinatura.retirar().isRessincronizar()).isTrue();
+    }
+
+    @Test
+    void filtroComAreaIncompletaEhRejeitado() {
+        assertThatThrownBy(() -> new FiltroAoVivo(-27.0, null, -49.1, -49.0, null, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> new FiltroAoVivo(-26.9, -27.0, -49.1, -49.0, null, null))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void celulaSegueAGradePadraoDoHeatmap() {
+        // ~50 m de distância ficam na mesma célula de 500 m; ~2 km não
+        assertThat(AlteracaoAoVivo.celula(-26.9200, -49.0700)).isEqualTo(AlteracaoAoVivo.celula(-26.9203, -49.0703));
+        assertThat(AlteracaoAoVivo.celula(-26.9200, -49.0700)).isNotEqualTo(AlteracaoAoVivo.celula(-26.9400, -49.0700));
+    }
+
+    @Test
+    void alteracaoPublicadaNoRedisChegaAsAssinaturasDoNo() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        List<Runnable> envios = new ArrayList<>();
+        AoVivoService service = new AoVivoService(redisTemplate, objectMapper(), envios::add, new SimpleMeterRegistry());
+        assertThat(service.assinar(SEM_FILTRO, false)).isPresent();
+
+        service.aoAlterar(new OcorrenciaAlteradaEvent(null, estado("PENDENTE", -26.92, -49.07)));
+        ArgumentCaptor<String> mensagem = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq("ao-vivo"), mensagem.capture());
+        service.enviarPendentes();
+        assertThat(envios).isEmpty();
+
+        service.aoReceber(mensagem.getValue());
+        service.enviarPendentes();
+        assertThat(envios).hasSize(1);
+    }
+
+    @Test
+    void semRedisAAlteracaoAindaChegaAoNoLocal() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        doThrow(new IllegalStateException("sem conexão")).when(redisTemplate).convertAndSend(anyString(), anyString());
+        List<Runnable> envios = new ArrayList<>();
+        AoVivoService service = new AoVivoService(redisTemplate, objectMapper(), envios::add, new SimpleMeterRegistry());
+        service.assinar(SEM_FILTRO, false);
+
+        service.aoAlterarEmLote(new OcorrenciasAlteradasEmLoteEvent(3));
+        service.enviarPendentes();
+
+        assertThat(envios).hasSize(1);
+    }
+
+    @Test
+    void filaDeEnvioCheiaViraRessincronizacao() {
+        boolean[] cheia = {true};
+        List<Runnable> envios = new ArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AoVivoService service = new AoVivoService(mock(StringRedisTemplate.class), objectMapper(), tarefa -> {
+            if (cheia[0]) {
+                throw new RejectedExecutionException();
+            }
+            envios.add(tarefa);
+        }, registry);
+        SseEmitter emitter = service.assinar(SEM_FILTRO, false).orElseThrow();
+
+        service.distribuir(AlteracaoAoVivo.de(new OcorrenciaAlteradaEvent(null, estado("PENDENTE", -26.92, -49.07)), Map.of()));
+        service.enviarPendentes();
+        cheia[0] = false;
+        service.enviarPendentes();
+        envios.forEach(Runnable::run);
+
+        assertThat(envios).hasSize(1);
+        assertThat(registry.counter("ao.vivo.ressincronizacoes").count()).isEqualTo(1.0);
+        emitter.complete();
+    }
+
+    private static AssinaturaAoVivo assinatura(FiltroAoVivo filtro, int maxPendentes) {
+        return new AssinaturaAoVivo(new SseEmitter(), filtro, maxPendentes, 0);
+    }
+
+    private static void acumular(AssinaturaAoVivo assinatura, OcorrenciaAlteradaEvent.Estado anterior,
+                                 OcorrenciaAlteradaEvent.Estado atual) {
+        OcorrenciaAlteradaEvent evento = new OcorrenciaAlteradaEvent(anterior, atual);
+        AlteracaoAoVivo alteracao = AlteracaoAoVivo.de(evento,
+                DashboardContadoresService.deltas(evento, JanelaDashboard.MES, AGORA));
+        assinatura.acumular(alteracao,
+                anterior != null ? GeoUtil.normalizeBairro(anterior.bairro()) : null,
+                atual != null ? GeoUtil.normalizeBairro(atual.bairro()) : null);
+    }
+
+    private static OcorrenciaAlteradaEvent.Estado estado(String status, double latitude, double longitude) {
+        return new OcorrenciaAlteradaEvent.Estado(ID, "BURACO", "Velha", status, 5, latitude, longitude, AGORA);
+    }
+
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+}
@@ -0,0 +1,55 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.repository.BairroRepository;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.geo.BairroDicionario;
+import com.moredevs.mapblu.core.service.geo.BairroLocator;
+import com.moredevs.mapblu.core.service.geo.BairroRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BairroServiceTest {
+
+    private static final UUID CENTRO = UUID.randomUUID();
+    private static final UUID VELHA = UUID.randomUUID();
+
+    private final OcorrenciaRepository ocorrenciaRepository = mock(OcorrenciaRepository.class);
+    private final BairroLocator bairroLocator = mock(BairroLocator.class);
+    private final CacheVersions cacheVersions = mock(CacheVersions.class);
+    private final BairroService service = new BairroService(mock(BairroRepository.class), ocorrenciaRepository,
+            bairroLocator, mock(BairroDicionario.class), new DefaultResourceLoader(),
+            new ConcurrentMapCacheManager(), cacheVersions);
+
+    @Test
+    void rollupsFicamNoCacheAteAVersaoDeUmBairroMudar() {
+        List<String> escopos = List.of(CacheVersions.bairro(CENTRO), CacheVersions.bairro(VELHA));
+        when(bairroLocator.getEntries()).thenReturn(List.of(
+                new BairroLocator.Entry(CENTRO, "Centro", null, null),
+                new BairroLocator.Entry(VELHA, "Velha", null, null)));
+        when(cacheVersions.carimbo(escopos)).thenReturn("v1.1");
+        when(ocorrenciaRepository.aggregateByBairro(any(), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{CENTRO, 4L, 6.5, 9, 2L}));
+
+        List<BairroRollup> primeira = service.obterRollups(null);
+        List<BairroRollup> segunda = service.obterRollups(null);
+        when(cacheVersions.carimbo(escopos)).thenReturn("v2.1");
+        service.obterRollups(null);
+
+        assertThat(segunda).isSameAs(primeira);
+        assertThat(primeira).singleElement().satisfies(rollup -> {
+            assertThat(rollup.getBairroId()).isEqualTo(CENTRO);
+            assertThat(rollup.getCount()).isEqualTo(4);
+            assertThat(rollup.getCriticas()).isEqualTo(2);
+        });
+        verify(ocorrenciaRepository, times(2)).aggregateByBairro(any(), any(), any());
+    }
+}
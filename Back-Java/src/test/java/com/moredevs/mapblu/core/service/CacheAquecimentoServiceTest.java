@@ -0,0 +1,183 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.dto.request.HeatmapFilterRequest;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.AlvoAquecimento;
+import com.moredevs.mapblu.core.service.cache.CacheVersoesIncrementadasEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Cache.AQUECIMENTO_RAJADA_MINIMO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CacheAquecimentoServiceTest {
+
+    private DashboardService dashboardService;
+    private HeatmapService heatmapService;
+    private InsightService insightService;
+    private OcorrenciaRepository repository;
+    private ZSetOperations<String, String> zSet;
+    private final List<Runnable> tarefas = new ArrayList<>();
+    private CacheAquecimentoService service;
+
+    private Instant agora = Instant.parse("2025-03-10T12:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    };
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dashboardService = mock(DashboardService.class);
+        heatmapService = mock(HeatmapService.class);
+        insightService = mock(InsightService.class);
+        repository = mock(OcorrenciaRepository.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        zSet = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+
+        when(repository.findBairrosCriticos(any(Pageable.class)))
+                .thenReturn(List.of(new Object[]{"Velha", 12L, 7.5, 10}, new Object[]{"Garcia", 8L, 6.0, 9}));
+        when(zSet.reverseRange(anyString(), anyLong(), anyLong())).thenReturn(new LinkedHashSet<>(List.of(
+                AlvoAquecimento.heatmap(null, null).chave(),
+                AlvoAquecimento.heatmap("BURACO", "Velha").chave(),
+                AlvoAquecimento.insightAreaCritica("Velha", null).chave(),
+                "TIPO_REMOVIDO||")));
+
+        service = new CacheAquecimentoService(dashboardService, heatmapService, insightService, repository,
+                redisTemplate, tarefas::add, new SimpleMeterRegistry());
+        service.setClock(clock);
+    }
+
+    @Test
+    void alvosPrioritariosPrimeiroSemRepeticao() {
+        assertThat(service.alvos()).containsExactly(
+                AlvoAquecimento.dashboard(),
+                AlvoAquecimento.heatmap(null, null),
+                AlvoAquecimento.insightAreaCritica("Velha", null),
+                AlvoAquecimento.insightAreaCritica("Garcia", null),
+                AlvoAquecimento.heatmap("BURACO", "Velha"));
+    }
+
+    @Test
+    void executaTodosOsAlvosEContaFalhas() {
+        when(insightService.aquecerAreaCritica("Garcia", null)).thenThrow(new IllegalStateException("falha"));
+
+        assertThat(service.aquecer("teste")).isTrue();
+        assertThat(service.getProgresso().estado()).isEqualTo(CacheAquecimentoService.Estado.AQUECENDO);
+        assertThat(service.getProgresso().inicialConcluido()).isFalse();
+
+        tarefas.forEach(Runnable::run);
+
+        CacheAquecimentoService.Progresso progresso = service.getProgresso();
+        assertThat(progresso.estado()).isEqualTo(CacheAquecimentoService.Estado.CONCLUIDO);
+        assertThat(progresso.inicialConcluido()).isTrue();
+        assertThat(progresso.total()).isEqualTo(5);
+        assertThat(progresso.concluidos()).isEqualTo(4);
+        assertThat(progresso.falhas()).isEqualTo(1);
+
+        verify(dashboardService).aquecerEstatisticas();
+        verify(heatmapService).generateHeatmapZones(HeatmapFilterRequest.builder().gridSize(500).build());
+        verify(heatmapService).generateHeatmapZones(argThat(f -> "Velha".equals(f.getBairro())
+                && f.getTipoProblema() != null && "BURACO".equals(f.getTipoProblema().name())));
+        verify(insightService).aquecerAreaCritica("Velha", null);
+    }
+
+    @Test
+    void ignoraNovoAquecimentoEnquantoOutroRoda() {
+        assertThat(service.aquecer("primeiro")).isTrue();
+        assertThat(service.aquecer("segundo")).isFalse();
+
+        tarefas.forEach(Runnable::run);
+
+        assertThat(service.aquecer("terceiro")).isTrue();
+    }
+
+    @Test
+    void timeoutLiberaAProntidaoMasSoPermiteOutroAquecimentoQuandoAsTarefasTerminam() {
+        assertThat(service.aquecer("inicializacao")).isTrue();
+        tarefas.get(0).run();
+
+        service.expirar();
+
+        assertThat(service.getProgresso().estado()).isEqualTo(CacheAquecimentoService.Estado.EXPIRADO);
+        assertThat(service.getProgresso().inicialConcluido()).isTrue();
+        assertThat(service.aquecer("rajada")).isFalse();
+
+        // Alvos que ainda não tinham começado são descartados
+        tarefas.subList(1, tarefas.size()).forEach(Runnable::run);
+
+        verify(dashboardService).aquecerEstatisticas();
+        verifyNoInteractions(heatmapService, insightService);
+        assertThat(service.getProgresso().estado()).isEqualTo(CacheAquecimentoService.Estado.EXPIRADO);
+        assertThat(service.aquecer("rajada")).isTrue();
+    }
+
+    @Test
+    void falhaAoMontarListaAqueceAsVisoesPadrao() {
+        when(repository.findBairrosCriticos(any(Pageable.class))).thenThrow(new IllegalStateException("banco fora"));
+
+        service.aquecer("teste");
+
+        assertThat(service.getProgresso().total()).isEqualTo(2);
+    }
+
+    @Test
+    void reaqueceSoDepoisQueARajadaTermina() {
+        for (int i = 0; i < AQUECIMENTO_RAJADA_MINIMO - 1; i++) {
+            service.aoInvalidar(new CacheVersoesIncrementadasEvent(Set.of("global")));
+        }
+        agora = agora.plusSeconds(60);
+        assertThat(service.verificarRajada()).isFalse();
+
+        service.aoInvalidar(new CacheVersoesIncrementadasEvent(Set.of("global")));
+        // Ainda dentro da janela de silêncio
+        assertThat(service.verificarRajada()).isFalse();
+
+        agora = agora.plusSeconds(11);
+        assertThat(service.verificarRajada()).isTrue();
+        assertThat(service.getProgresso().motivo()).isEqualTo("rajada");
+
+        // O contador foi zerado
+        tarefas.forEach(Runnable::run);
+        assertThat(service.verificarRajada()).isFalse();
+    }
+
+    @Test
+    void chaveDoAlvoIdaEVolta() {
+        AlvoAquecimento alvo = AlvoAquecimento.insightAreaCritica("Água Verde", "BURACO");
+
+        assertThat(AlvoAquecimento.deChave(alvo.chave())).isEqualTo(alvo);
+        assertThat(AlvoAquecimento.deChave(AlvoAquecimento.dashboard().chave())).isEqualTo(AlvoAquecimento.dashboard());
+        assertThat(AlvoAquecimento.deChave("invalida")).isNull();
+    }
+}
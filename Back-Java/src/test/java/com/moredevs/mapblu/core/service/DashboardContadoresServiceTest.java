@@ -0,0 +1,265 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.dashboard.JanelaDashboard;
+import com.moredevs.mapblu.core.service.dashboard.OcorrenciaAlteradaEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DashboardContadoresServiceTest {
+
+    // Quarta-feira
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 3, 12, 15, 30);
+    private static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void janelasDoCalendario() {
+        assertThat(JanelaDashboard.HOJE.chave(AGORA)).isEqualTo("dia:2025-03-12");
+        assertThat(JanelaDashboard.SEMANA.chave(AGORA)).isEqualTo("semana:2025-03-10");
+        assertThat(JanelaDashboard.MES.chave(AGORA)).isEqualTo("mes:2025-03-01");
+        assertThat(JanelaDashboard.SEMANA.fim(AGORA)).isEqualTo(LocalDateTime.of(2025, 3, 17, 0, 0));
+    }
+
+    @Test
+    void periodoCorrespondeAJanelaQuandoVaiDoInicioAteAgora() {
+        LocalDateTime inicioMes = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+        assertThat(DashboardContadoresService.janela(inicioMes, AGORA, AGORA)).isEqualTo(JanelaDashboard.MES);
+        assertThat(DashboardContadoresService.janela(inicioMes, LocalDateTime.of(2025, 3, 31, 23, 59, 59), AGORA))
+                .isEqualTo(JanelaDashboard.MES);
+        assertThat(DashboardContadoresService.janela(LocalDateTime.of(2025, 3, 12, 0, 0), AGORA.minusSeconds(30), AGORA))
+                .isEqualTo(JanelaDashboard.HOJE);
+        assertThat(DashboardContadoresService.janela(LocalDateTime.of(2025, 3, 10, 0, 0), AGORA, AGORA))
+                .isEqualTo(JanelaDashboard.SEMANA);
+    }
+
+    @Test
+    void periodoForaDasJanelasVaiAoBanco() {
+        assertThat(DashboardContadoresService.janela(LocalDateTime.of(2025, 3, 2, 0, 0), AGORA, AGORA)).isNull();
+        assertThat(DashboardContadoresService.janela(LocalDateTime.of(2025, 3, 1, 0, 0), AGORA.minusHours(1), AGORA))
+                .isNull();
+        assertThat(DashboardContadoresService.janela(LocalDateTime.of(2025, 3, 1, 0, 0), AGORA.plusMonths(1), AGORA))
+                .isNull();
+        assertThat(DashboardContadoresService.janela(null, null, AGORA)).isNull();
+    }
+
+    @Test
+    void criacaoSomaEmTodasAsJanelasAtuais() {
+        OcorrenciaAlteradaEvent evento = new OcorrenciaAlteradaEvent(null, estado("PENDENTE", 9, AGORA));
+
+        for (JanelaDashboard janela : JanelaDashboard.values()) {
+            assertThat(DashboardContadoresService.deltas(evento, janela, AGORA)).containsOnly(
+                    Map.entry("total", 1L), Map.entry("criticas", 1L), Map.entry("gravidade_soma", 9L),
+                    Map.entry("gravidade_contagem", 1L), Map.entry("tipo:BURACO", 1L), Map.entry("bairro:Velha", 1L),
+                    Map.entry("status:PENDENTE", 1L), Map.entry("gravidade:9", 1L));
+        }
+    }
+
+    @Test
+    void alteracaoSoMexeNosCamposQueMudaram() {
+        OcorrenciaAlteradaEvent evento = new OcorrenciaAlteradaEvent(
+                estado("PENDENTE", 9, AGORA), estado("RESOLVIDO", 9, AGORA));
+
+        assertThat(DashboardContadoresService.deltas(evento, JanelaDashboard.MES, AGORA))
+                .containsOnly(Map.entry("status:PENDENTE", -1L), Map.entry("status:RESOLVIDO", 1L));
+    }
+
+    @Test
+    void ocorrenciaDeOutroPeriodoNaoMudaAJanela() {
+        OcorrenciaAlteradaEvent evento = new OcorrenciaAlteradaEvent(estado("PENDENTE", 3, AGORA.minusDays(2)), null);
+
+        assertThat(DashboardContadoresService.deltas(evento, JanelaDashboard.HOJE, AGORA)).isEmpty();
+        assertThat(DashboardContadoresService.deltas(evento, JanelaDashboard.SEMANA, AGORA)).containsEntry("total", -1L);
+        assertThat(DashboardContadoresService.deltas(evento, JanelaDashboard.MES, AGORA)).containsEntry("total", -1L);
+    }
+
+    @Test
+    void camposELinhasIdaEVolta() {
+        List<Object[]> doBanco = List.of(
+                new Object[]{"total", null, 3L, 1L, 5.0},
+                new Object[]{"tipo", "BURACO", 2L, null, null},
+                new Object[]{"tipo", "DENGUE", 1L, null, null},
+                new Object[]{"bairro", "Velha", 3L, null, null},
+                new Object[]{"status", "PENDENTE", 3L, null, null},
+                new Object[]{"gravidade", "2", 1L, null, null},
+                new Object[]{"gravidade", "4", 1L, null, null},
+                new Object[]{"gravidade", "9", 1L, null, null});
+
+        Map<String, String> campos = DashboardContadoresService.campos(doBanco);
+        assertThat(campos).containsEntry("gravidade_soma", "15").containsEntry("gravidade_contagem", "3")
+                .containsEntry("criticas", "1");
+
+        // Um valor que saiu da janela fica zerado no hash e não aparece
+        Map<String, String> comZerado = new HashMap<>(campos);
+        comZerado.put("tipo:ALAGAMENTO", "0");
+        Map<String, Object[]> linhas = DashboardContadoresService.linhas(comZerado).stream()
+                .collect(Collectors.toMap(l -> l[0] + "|" + l[1], l -> l));
+
+        assertThat(linhas).hasSize(doBanco.size());
+        assertThat(linhas.get("total|null")).containsExactly("total", null, 3L, 1L, 5.0);
+        assertThat(linhas.get("tipo|BURACO")[2]).isEqualTo(2L);
+        assertThat(linhas).doesNotContainKey("tipo|ALAGAMENTO");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void janelaAindaNaoRecontadaVaiAoBanco() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        doReturn(hash).when(redisTemplate).opsForHash();
+        DashboardContadoresService service = new DashboardContadoresService(mock(OcorrenciaRepository.class), redisTemplate,
+                mock(PlatformTransactionManager.class));
+        service.setClock(Clock.fixed(AGORA.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        LocalDateTime inicioMes = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+        when(hash.entries("dashboard-contadores:v2:mes:2025-03-01")).thenReturn(Map.of("total", "4"));
+        assertThat(service.buscar(inicioMes, AGORA)).isEmpty();
+
+        when(hash.entries("dashboard-contadores:v2:mes:2025-03-01"))
+                .thenReturn(Map.of("total", "4", "criticas", "0", "gravidade_soma", "8", "gravidade_contagem", "4",
+                        "reconciliado", "1"));
+        assertThat(service.buscar(inicioMes, AGORA)).hasValueSatisfying(linhas ->
+                assertThat(linhas.get(0)).containsExactly("total", null, 4L, 0L, 2.0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recontagemSoTrocaOHashNaGeracaoQueAbriu() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        doReturn(mock(HashOperations.class)).when(redisTemplate).opsForHash();
+        ValueOperations<String, String> valores = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valores);
+        when(valores.setIfAbsent(anyString(), anyString(), any())).thenReturn(true);
+        OcorrenciaRepository repository = mock(OcorrenciaRepository.class);
+        when(repository.aggregateDashboard(any(), any())).thenReturn(List.<Object[]>of(new Object[]{"total", null, 3L, 1L, 5.0}));
+        DashboardContadoresService service = new DashboardContadoresService(repository, redisTemplate,
+                mock(PlatformTransactionManager.class));
+        service.setClock(Clock.fixed(AGORA.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+        when(redisTemplate.execute(eq(DashboardContadoresService.INICIAR_RECONTAGEM), anyList(), any(Object[].class)))
+                .thenReturn(7L);
+        when(redisTemplate.execute(eq(DashboardContadoresService.SUBSTITUIR_CONTADORES), anyList(), any(Object[].class)))
+                .thenReturn(1L, 0L, 0L, 0L);
+
+        assertThat(service.reconciliar()).isEqualTo(1);
+
+        ArgumentCaptor<List<String>> chaves = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> argumentos = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(3)).execute(
+                eq(DashboardContadoresService.SUBSTITUIR_CONTADORES), chaves.capture(), argumentos.capture());
+        assertThat(chaves.getAllValues().get(0))
+                .containsExactly("dashboard-contadores:v2:dia:2025-03-12", "dashboard-contadores:v2:dia:2025-03-12:pendentes");
+        List<Object> primeira = Arrays.asList(argumentos.getAllValues().get(0));
+        assertThat(primeira.subList(0, 3)).containsExactly("recontagem", "7", "0");
+        assertThat(primeira.get(primeira.indexOf("total") + 1)).isEqualTo("3");
+        verify(redisTemplate, times(3)).delete(startsWith("dashboard-contadores:v2:reconciliacao:"));
+    }
+
+    @Test
+    void ocorrenciaSemGravidadeEntraNoTotalMasNaoNaMedia() {
+        OcorrenciaAlteradaEvent evento = new OcorrenciaAlteradaEvent(null, estado("PENDENTE", null, AGORA));
+
+        Map<String, Long> deltas = DashboardContadoresService.deltas(evento, JanelaDashboard.MES, AGORA);
+
+        assertThat(deltas).containsOnly(Map.entry("total", 1L), Map.entry("tipo:BURACO", 1L),
+                Map.entry("bairro:Velha", 1L), Map.entry("status:PENDENTE", 1L));
+        // Duas ocorrências, só uma com gravidade: a média é a dela, como no AVG do banco
+        assertThat(DashboardContadoresService.linhas(Map.of(
+                "total", "2", "gravidade_soma", "6", "gravidade_contagem", "1", "reconciliado", "1")).get(0))
+                .containsExactly("total", null, 2L, 0L, 6.0);
+    }
+
+    @Test
+    void contribuicaoIdaEVolta() {
+        Map<String, Long> contribuicao = DashboardContadoresService.contribuicao(
+                estado("PENDENTE", 9, AGORA), JanelaDashboard.MES, AGORA);
+
+        assertThat(DashboardContadoresService.decodificar(DashboardContadoresService.codificar(contribuicao)))
+                .isEqualTo(contribuicao);
+        assertThat(DashboardContadoresService.contribuicao(null, JanelaDashboard.MES, AGORA)).isEmpty();
+        assertThat(DashboardContadoresService.decodificar("")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recontagemNaoSomaDeNovoAsPendentesQueOBancoJaViu() {
+        UUID vista = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+        UUID naoVista = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+        String pendentesDoMes = "dashboard-contadores:v2:mes:2025-03-01:pendentes";
+        String contribuicao = DashboardContadoresService.codificar(
+                DashboardContadoresService.contribuicao(estado("PENDENTE", 9, AGORA), JanelaDashboard.MES, AGORA));
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        doReturn(hash).when(redisTemplate).opsForHash();
+        ValueOperations<String, String> valores = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valores);
+        when(valores.setIfAbsent(anyString(), anyString(), any())).thenReturn(true);
+        // Janelas do dia e da semana já recontadas há pouco
+        when(hash.get(anyString(), eq("reconciliado"))).thenReturn(String.valueOf(AGORA.toInstant(ZoneOffset.UTC).toEpochMilli()));
+        when(hash.get("dashboard-contadores:v2:mes:2025-03-01", "reconciliado")).thenReturn(null);
+        // A primeira leitura das pendentes é superada por uma escrita nova antes da troca
+        when(hash.entries(pendentesDoMes)).thenReturn(
+                Map.of("escritas", "1", vista.toString(), contribuicao),
+                Map.of("escritas", "2", vista.toString(), contribuicao, naoVista.toString(), contribuicao));
+
+        OcorrenciaRepository repository = mock(OcorrenciaRepository.class);
+        // O banco viu a primeira (e conta 3 no mês) mas não a segunda
+        when(repository.aggregateDashboard(any(), any())).thenReturn(List.<Object[]>of(
+                new Object[]{"total", null, 3L, 1L, 7.0},
+                new Object[]{"status", "PENDENTE", 3L, null, null},
+                new Object[]{"gravidade", "9", 1L, null, null},
+                new Object[]{"gravidade", "6", 2L, null, null}));
+        when(repository.findContribuicoesDashboard(anyCollection(), any(), any())).thenAnswer(invocation ->
+                ((java.util.Collection<UUID>) invocation.getArgument(0)).contains(vista)
+                        ? List.<Object[]>of(new Object[]{vista.toString(), "BURACO", "Velha", "PENDENTE", 9})
+                        : List.<Object[]>of());
+        when(redisTemplate.execute(eq(DashboardContadoresService.INICIAR_RECONTAGEM), anyList(), any(Object[].class)))
+                .thenReturn(3L);
+        when(redisTemplate.execute(eq(DashboardContadoresService.SUBSTITUIR_CONTADORES), anyList(), any(Object[].class)))
+                .thenReturn(-1L, 1L);
+        DashboardContadoresService service = new DashboardContadoresService(repository, redisTemplate,
+                mock(PlatformTransactionManager.class));
+        service.setClock(Clock.fixed(AGORA.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+        assertThat(service.reconciliar()).isEqualTo(1);
+
+        ArgumentCaptor<Object[]> argumentos = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(2)).execute(
+                eq(DashboardContadoresService.SUBSTITUIR_CONTADORES), anyList(), argumentos.capture());
+        List<Object> troca = Arrays.asList(argumentos.getAllValues().get(1));
+        assertThat(troca.subList(0, 3)).containsExactly("recontagem", "3", "2");
+        Map<Object, Object> campos = new HashMap<>();
+        for (int i = 4; i < troca.size(); i += 2) {
+            campos.put(troca.get(i), troca.get(i + 1));
+        }
+        assertThat(campos).containsEntry("total", "4").containsEntry("status:PENDENTE", "4")
+                .containsEntry("gravidade:9", "2").containsEntry("gravidade_soma", "30")
+                .containsEntry("gravidade_contagem", "4").containsEntry("criticas", "2");
+        // A ocorrência vista pela foto é consultada uma única vez entre as tentativas
+        verify(repository).findContribuicoesDashboard(eq(List.of(vista)), any(), any());
+        verify(repository).findContribuicoesDashboard(eq(List.of(naoVista)), any(), any());
+    }
+
+    private static OcorrenciaAlteradaEvent.Estado estado(String status, Integer gravidade, LocalDateTime dataCriacao) {
+        return new OcorrenciaAlteradaEvent.Estado(ID, "BURACO", "Velha", status, gravidade, -26.92, -49.07, dataCriacao);
+    }
+}
@@ -0,0 +1,128 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.DivisaoSerie;
+import com.moredevs.mapblu.core.domain.IntervaloTempo;
+import com.moredevs.mapblu.core.dto.response.DashboardSeriesResponse;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.shared.constant.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DashboardSeriesServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    private OcorrenciaRepository repository;
+    private DashboardContadoresService contadores;
+    private DashboardSeriesService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OcorrenciaRepository.class);
+        contadores = mock(DashboardContadoresService.class);
+        CacheVersions cacheVersions = mock(CacheVersions.class);
+        when(cacheVersions.carimbo(anyList())).thenReturn("v1");
+        when(contadores.buscar(any(), any())).thenReturn(Optional.empty());
+        service = new DashboardSeriesService(repository,
+                new ConcurrentMapCacheManager(Constants.Cache.CACHE_DASHBOARD_SERIES), cacheVersions, contadores);
+        agora(INICIO.plusDays(2).plusHours(15));
+    }
+
+    @Test
+    void intervalosVaziosSaemComZero() {
+        when(repository.aggregateSeries(eq("day"), isNull(), any(), any())).thenReturn(List.of(
+                row(INICIO, null, 5, 3.2),
+                row(INICIO.plusDays(1), null, 0, null),
+                row(INICIO.plusDays(2), null, 2, 7.0)));
+
+        DashboardSeriesResponse response = service.gerarSeries(
+                INICIO.plusHours(8), INICIO.plusDays(2).plusHours(15), IntervaloTempo.DIA, null);
+
+        assertThat(response.getBuckets()).containsExactly(INICIO, INICIO.plusDays(1), INICIO.plusDays(2));
+        assertThat(response.getSeries()).hasSize(1);
+        DashboardSeriesResponse.Serie serie = response.getSeries().get(0);
+        assertThat(serie.getChave()).isEqualTo("total");
+        assertThat(serie.getTotais()).containsExactly(5, 0, 2);
+        assertThat(serie.getGravidadesMedias()).containsExactly(3.2, null, 7.0);
+    }
+
+    @Test
+    void consultaSeguinteSoRecalculaOIntervaloCorrente() {
+        when(repository.aggregateSeries(anyString(), any(), any(), any())).thenReturn(List.<Object[]>of(
+                row(INICIO, null, 5, 3.2)));
+
+        service.gerarSeries(INICIO, INICIO.plusDays(2), IntervaloTempo.DIA, null);
+        service.gerarSeries(INICIO, INICIO.plusDays(2), IntervaloTempo.DIA, null);
+
+        verify(repository).aggregateSeries("day", null, INICIO, INICIO.plusDays(3));
+        verify(repository).aggregateSeries("day", null, INICIO.plusDays(2), INICIO.plusDays(3));
+    }
+
+    @Test
+    void intervaloCorrenteVemDosContadoresAoVivo() {
+        when(repository.aggregateSeries(anyString(), any(), any(), any())).thenReturn(List.of());
+        service.gerarSeries(INICIO, INICIO.plusDays(1), IntervaloTempo.DIA, null);
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{"total", null, 4L, 1L, 6.5});
+        when(contadores.buscar(INICIO.plusDays(2), INICIO.plusDays(2).plusHours(15))).thenReturn(Optional.of(linhas));
+        clearInvocations(repository);
+
+        DashboardSeriesResponse response = service.gerarSeries(INICIO, INICIO.plusDays(2), IntervaloTempo.DIA, null);
+
+        verifyNoInteractions(repository);
+        assertThat(response.getSeries().get(0).getTotais()).containsExactly(0, 0, 4);
+        assertThat(response.getSeries().get(0).getGravidadesMedias()).containsExactly(null, null, 6.5);
+    }
+
+    @Test
+    void seriesDivididasPorTipo() {
+        when(repository.aggregateSeries(eq("week"), eq("tipo"), any(), any())).thenReturn(List.of(
+                row(INICIO.minusWeeks(1), "BURACO", 3, 4.0),
+                row(INICIO.minusWeeks(1), "DENGUE", 1, 9.0),
+                row(INICIO, "DENGUE", 2, 8.0)));
+
+        DashboardSeriesResponse response = service.gerarSeries(
+                INICIO.minusDays(3), INICIO.plusDays(2), IntervaloTempo.SEMANA, DivisaoSerie.TIPO);
+
+        assertThat(response.getBuckets()).containsExactly(INICIO.minusWeeks(1), INICIO);
+        assertThat(response.getSeries()).extracting(DashboardSeriesResponse.Serie::getChave)
+                .containsExactly("BURACO", "DENGUE");
+        assertThat(response.getSeries().get(0).getTotais()).containsExactly(3, 0);
+        assertThat(response.getSeries().get(1).getTotais()).containsExactly(1, 2);
+        verifyNoInteractions(contadores);
+    }
+
+    @Test
+    void periodoComIntervalosDemaisEhRejeitado() {
+        assertThatThrownBy(() -> service.gerarSeries(INICIO.minusYears(2), INICIO, IntervaloTempo.DIA, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.gerarSeries(INICIO, INICIO.minusDays(1), IntervaloTempo.DIA, null))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private void agora(LocalDateTime agora) {
+        service.setClock(Clock.fixed(agora.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    private Object[] row(LocalDateTime bucket, String chave, long total, Double gravidadeMedia) {
+        return new Object[]{Timestamp.valueOf(bucket), chave, total,
+                gravidadeMedia != null ? BigDecimal.valueOf(gravidadeMedia) : null};
+    }
+}
@@ -0,0 +1,121 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.CursorPagedResponse;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
+import com.moredevs.mapblu.core.mapper.OcorrenciaMapper;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.geo.BairroLocator;
+import com.moredevs.mapblu.ingestion.ia.IAService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DashboardServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 20, 10, 0);
+
+    private OcorrenciaRepository repository;
+    private DashboardContadoresService contadores;
+    private DashboardService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OcorrenciaRepository.class);
+        BairroLocator bairroLocator = mock(BairroLocator.class);
+        when(bairroLocator.findIdByNome(any())).thenReturn(Optional.empty());
+        CacheVersions cacheVersions = mock(CacheVersions.class);
+        when(cacheVersions.carimbo(anyList())).thenReturn("v1");
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        OcorrenciaMapper mapper = new OcorrenciaMapper();
+
+        OcorrenciaService ocorrenciaService = new OcorrenciaService(repository, mapper, mock(IAService.class),
+                bairroLocator, cacheManager, cacheVersions, mock(ApplicationEventPublisher.class));
+        contadores = mock(DashboardContadoresService.class);
+        when(contadores.buscar(any(), any())).thenReturn(Optional.empty());
+        service = new DashboardService(repository, mapper, ocorrenciaService, cacheManager, cacheVersions, contadores);
+    }
+
+    @Test
+    void aquecimentoRecontaOsContadoresQueALeituraUsa() {
+        when(contadores.buscar(any(), any())).thenReturn(Optional.of(List.of()));
+
+        service.aquecerEstatisticas();
+
+        verify(contadores).reconciliar();
+        verify(repository, never()).aggregateDashboard(any(), any());
+    }
+
+    @Test
+    void aquecimentoCarregaOCacheQuandoOsContadoresNaoRespondem() {
+        when(contadores.reconciliar()).thenThrow(new IllegalStateException("redis fora"));
+        when(repository.aggregateDashboard(any(), any())).thenReturn(List.of());
+
+        service.aquecerEstatisticas();
+        service.obterEstatisticas(null, null);
+
+        verify(repository).aggregateDashboard(any(), any());
+    }
+
+    @Test
+    void cursorDoMesAtualLevaAPaginaSeguinteNaMesmaJanelaENoMesmoTotal() {
+        OcorrenciaResumo primeira = resumo(BASE);
+        OcorrenciaResumo segunda = resumo(BASE.minusHours(1));
+        OcorrenciaResumo terceira = resumo(BASE.minusHours(2));
+        when(repository.findResumoByFiltersKeysetPorData(any(), any(), any(), any(), any(), any(), any(), any(),
+                isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(primeira, segunda, terceira));
+        when(repository.findResumoByFiltersKeysetPorData(any(), any(), any(), any(), any(), any(), any(), any(),
+                eq(segunda.dataCriacao()), eq(segunda.id().toString()), eq(3)))
+                .thenReturn(List.of(terceira));
+        when(repository.countByFilters(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(3L);
+
+        CursorPagedResponse<OcorrenciaResponse> pagina1 = service.obterOcorrenciasDoMesPorCursor(2, null, null, null, true);
+        CursorPagedResponse<OcorrenciaResponse> pagina2 =
+                service.obterOcorrenciasDoMesPorCursor(2, null, null, pagina1.getNextCursor(), true);
+
+        assertThat(pagina1.getContent()).extracting(OcorrenciaResponse::getId)
+                .containsExactly(primeira.id(), segunda.id());
+        assertThat(pagina1.isHasNext()).isTrue();
+        assertThat(pagina2.getContent()).extracting(OcorrenciaResponse::getId).containsExactly(terceira.id());
+        assertThat(pagina2.isHasNext()).isFalse();
+        assertThat(pagina2.getNextCursor()).isNull();
+        assertThat(pagina1.getTotalElements()).isEqualTo(3L);
+        assertThat(pagina2.getTotalElements()).isEqualTo(3L);
+
+        // As duas páginas consultam a mesma janela: do início ao fim do mês atual
+        ArgumentCaptor<LocalDateTime> inicios = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> fins = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, times(2)).findResumoByFiltersKeysetPorData(any(), any(), any(), any(), any(), any(),
+                inicios.capture(), fins.capture(), any(), any(), anyInt());
+        LocalDateTime inicio = inicios.getAllValues().get(0);
+        assertThat(inicio).isEqualTo(inicio.toLocalDate().withDayOfMonth(1).atStartOfDay());
+        assertThat(fins.getAllValues()).containsOnly(
+                inicio.plusMonths(1).minus(1, ChronoUnit.MICROS));
+        assertThat(inicios.getAllValues()).containsOnly(inicio);
+
+        // O total da segunda página vem do cache
+        verify(repository, times(1)).countByFilters(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    private static OcorrenciaResumo resumo(LocalDateTime dataCriacao) {
+        return new OcorrenciaResumo(UUID.randomUUID(), TipoProblema.BURACO, "Buraco na via", "Centro",
+                "Rua XV de Novembro", -26.9194, -49.0661, 6, 6, StatusOcorrencia.PENDENTE, null,
+                dataCriacao, dataCriacao);
+    }
+}
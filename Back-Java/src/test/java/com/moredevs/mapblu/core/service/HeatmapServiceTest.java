@@ -0,0 +1,151 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.dto.request.HeatmapFilterRequest;
+import com.moredevs.mapblu.core.dto.response.HeatmapResponse;
+import com.moredevs.mapblu.core.dto.response.HeatmapZoneResponse;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.aovivo.AlteracaoAoVivo;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.core.service.geo.BairroLocator;
+import com.moredevs.mapblu.core.service.heatmap.DensityTile;
+import com.moredevs.mapblu.shared.constant.Constants;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.moredevs.mapblu.shared.constant.Constants.Geo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HeatmapServiceTest {
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final CacheVersions cacheVersions = mock(CacheVersions.class);
+
+    @Test
+    void zonaDoGridTemOIdDaCelulaAoVivoDoPonto() {
+        double[][] pontos = {{-26.9194, -49.0661}, {-26.8712, -49.1204}, {-26.9800, -49.0102}};
+        List<Object[]> linhas = new ArrayList<>();
+        for (double[] ponto : pontos) {
+            linhas.add(linhaDoGrid(ponto[0], ponto[1]));
+        }
+        OcorrenciaRepository repository = mock(OcorrenciaRepository.class);
+        when(repository.aggregateByGrid(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                any(), any(), any(), any(), any())).thenReturn(linhas);
+        HeatmapService service = service(repository);
+
+        HeatmapResponse response = service.generateHeatmapZones(null);
+
+        assertThat(response.getZones()).extracting(HeatmapZoneResponse::getId).containsExactly(
+                AlteracaoAoVivo.celula(pontos[0][0], pontos[0][1]),
+                AlteracaoAoVivo.celula(pontos[1][0], pontos[1][1]),
+                AlteracaoAoVivo.celula(pontos[2][0], pontos[2][1]));
+    }
+
+    @Test
+    void zonasFicamNoCachePorGridEBoundingBoxAteAVersaoMudar() {
+        OcorrenciaRepository repository = mock(OcorrenciaRepository.class);
+        when(repository.aggregateByGrid(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                any(), any(), any(), any(), any())).thenReturn(List.<Object[]>of(linhaDoGrid(-26.9194, -49.0661)));
+        HeatmapService service = service(repository);
+        HeatmapFilterRequest grid250 = HeatmapFilterRequest.builder().gridSize(250).build();
+        HeatmapFilterRequest outraArea = HeatmapFilterRequest.builder().gridSize(250)
+                .minLat(-26.95).maxLat(-26.90).minLng(-49.10).maxLng(-49.05).build();
+
+        service.generateHeatmapZones(null);
+        service.generateHeatmapZones(null);
+        service.generateHeatmapZones(grid250);
+        service.generateHeatmapZones(outraArea);
+        when(cacheVersions.carimbo(anyList())).thenReturn("v2");
+        service.generateHeatmapZones(null);
+
+        verify(repository, times(4)).aggregateByGrid(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void tileDeDensidadeFicaNoCacheAteAVersaoMudar() {
+        OcorrenciaRepository repository = mock(OcorrenciaRepository.class);
+        when(repository.streamPointsWithinBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                any(), any(), any()))
+                .thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{null, -49.0661, -26.9194, 5, null, null}));
+        HeatmapService service = service(repository);
+
+        DensityTile primeiro = service.renderDensityTile(12, 1489, 2366, 300, null);
+        DensityTile segundo = service.renderDensityTile(12, 1489, 2366, 300, null);
+        when(cacheVersions.carimbo(anyList())).thenReturn("v2");
+        service.renderDensityTile(12, 1489, 2366, 300, null);
+
+        assertThat(segundo).isSameAs(primeiro);
+        verify(repository, times(2)).streamPointsWithinBoundingBox(anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), any(), any(), any());
+    }
+
+    @Test
+    void tileInvalidoNaoConsultaVersao() {
+        HeatmapService service = service(mock(OcorrenciaRepository.class));
+
+        assertThatThrownBy(() -> service.renderDensityTile(3, 8, 0, 300, null)).isInstanceOf(ValidationException.class);
+        verify(cacheVersions, never()).carimbo(anyList());
+    }
+
+    @Test
+    void hexagonosFicamNoCacheAteAVersaoMudar() throws Exception {
+        OcorrenciaRepository repository = mock(OcorrenciaRepository.class);
+        when(repository.aggregateByHexagon(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                any(), any(), any(), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{-49.0661, -26.9194, 3L, 6.0}));
+        HeatmapService service = service(repository);
+
+        byte[] primeira = service.generateHexagonHeatmap(null, 6);
+        byte[] segunda = service.generateHexagonHeatmap(null, 6);
+        when(cacheVersions.carimbo(anyList())).thenReturn("v2");
+        service.generateHexagonHeatmap(null, 6);
+
+        assertThat(segunda).isEqualTo(primeira);
+        JsonNode feature = new ObjectMapper().readTree(primeira).get("features").get(0);
+        assertThat(feature.get("properties").get("occurrenceCount").asInt()).isEqualTo(3);
+        verify(repository, times(2)).aggregateByHexagon(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void erroNaConsultaDeHexagonosNaoGeraRespostaNemEntradaNoCache() {
+        OcorrenciaRepository repository = mock(OcorrenciaRepository.class);
+        when(repository.aggregateByHexagon(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                any(), any(), any(), any(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+        HeatmapService service = service(repository);
+
+        assertThatThrownBy(() -> service.generateHexagonHeatmap(null, 6)).hasRootCauseInstanceOf(QueryTimeoutException.class);
+        assertThat(((ConcurrentMapCache) cacheManager.getCache(Constants.Cache.CACHE_HEATMAP)).getNativeCache()).isEmpty();
+    }
+
+    private HeatmapService service(OcorrenciaRepository repository) {
+        when(cacheVersions.carimbo(anyList())).thenReturn("v1");
+        return new HeatmapService(repository, mock(BairroLocator.class), mock(BairroService.class),
+                cacheManager, cacheVersions);
+    }
+
+    /**
+     * Linha de aggregateByGrid com uma ocorrência: o ponto da célula é o ST_SnapToGrid do ponto em Web Mercator.
+     */
+    private static Object[] linhaDoGrid(double latitude, double longitude) {
+        double tamanho = Geo.DEFAULT_GRID_SIZE_METERS;
+        double cellX = Math.rint(GeoUtil.lngToWebMercator(longitude) / tamanho) * tamanho;
+        double cellY = Math.rint(GeoUtil.latToWebMercator(latitude) / tamanho) * tamanho;
+        return new Object[]{longitude, latitude, 1L, 5.0, 5, cellX, cellY};
+    }
+}
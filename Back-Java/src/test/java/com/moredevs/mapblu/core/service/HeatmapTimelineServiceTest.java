@@ -0,0 +1,88 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.IntervaloTempo;
+import com.moredevs.mapblu.core.dto.response.HeatmapTimelineResponse;
+import com.moredevs.mapblu.core.repository.OcorrenciaRepository;
+import com.moredevs.mapblu.core.service.cache.CacheVersions;
+import com.moredevs.mapblu.shared.constant.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HeatmapTimelineServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 3, 10, 0, 0);
+
+    private OcorrenciaRepository repository;
+    private CacheVersions cacheVersions;
+    private HeatmapTimelineService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OcorrenciaRepository.class);
+        cacheVersions = mock(CacheVersions.class);
+        when(cacheVersions.carimbo(anyList())).thenReturn("v1");
+        service = new HeatmapTimelineService(repository,
+                new ConcurrentMapCacheManager(Constants.Cache.CACHE_HEATMAP_TIMELINE), cacheVersions);
+    }
+
+    @Test
+    void montaMatrizDensaCelulaPorIntervalo() {
+        when(repository.aggregateByGridAndBucket(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                eq("hour"), isNull(), any(), any()))
+                .thenReturn(List.of(
+                        row(-49.06, -26.91, INICIO, 3, 5),
+                        row(-49.07, -26.92, INICIO.plusHours(2), 25, 9),
+                        row(-49.06, -26.91, INICIO.plusHours(2), 1, 2)));
+
+        HeatmapTimelineResponse response = service.generateTimeline(null, INICIO.plusMinutes(30), IntervaloTempo.HORA, 3);
+
+        assertThat(response.getBuckets()).containsExactly(INICIO, INICIO.plusHours(1), INICIO.plusHours(2));
+        assertThat(response.getCellLats()).containsExactly(-26.91, -26.92);
+        assertThat(response.getCounts()).containsExactly(3, 0, 1, 0, 0, 25);
+        assertThat(response.getSeverities()).containsExactly(2, -1, 3, -1, -1, 0);
+        assertThat(response.getTotals()).containsExactly(3, 0, 26);
+    }
+
+    @Test
+    void janelaDeslizanteReaproveitaIntervalosCacheados() {
+        when(repository.aggregateByGridAndBucket(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyString(), any(), any(), any()))
+                .thenReturn(List.<Object[]>of(row(-49.06, -26.91, INICIO.plusHours(1), 4, 3)));
+
+        service.generateTimeline(null, INICIO, IntervaloTempo.HORA, 3);
+        HeatmapTimelineResponse response = service.generateTimeline(null, INICIO.plusHours(1), IntervaloTempo.HORA, 3);
+
+        // Segunda chamada só consulta o intervalo novo (03:00 a 04:00)
+        verify(repository).aggregateByGridAndBucket(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                eq("hour"), isNull(), eq(INICIO.plusHours(3)), eq(INICIO.plusHours(4)));
+        assertThat(response.getCounts()).containsExactly(4, 0, 0);
+    }
+
+    @Test
+    void escritaNoMesDescartaOsIntervalosCacheadosDele() {
+        when(repository.aggregateByGridAndBucket(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyString(), any(), any(), any()))
+                .thenReturn(List.<Object[]>of(row(-49.06, -26.91, INICIO, 4, 3)));
+
+        service.generateTimeline(null, INICIO, IntervaloTempo.HORA, 3);
+        when(cacheVersions.carimbo(List.of("mes:2024-03"))).thenReturn("v2");
+        service.generateTimeline(null, INICIO, IntervaloTempo.HORA, 3);
+
+        // A versão nova de março invalida os três intervalos já cacheados
+        verify(repository, times(2)).aggregateByGridAndBucket(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), eq("hour"), isNull(), eq(INICIO), eq(INICIO.plusHours(3)));
+    }
+
+    private Object[] row(double lng, double lat, LocalDateTime bucket, int count, int maxGravidade) {
+        return new Object[]{lng, lat, Timestamp.valueOf(bucket), (long) count, maxGravidade};
+    }
+}
@@ -0,0 +1,276 @@
+package com.moredevs.mapblu.core.service;
+
+import com.moredevs.mapblu.core.domain.User;
+import com.moredevs.mapblu.core.dto.request.AlterarSenhaRequest;
+import com.moredevs.mapblu.core.exception.ValidationException;
+import com.moredevs.mapblu.core.repository.UserRepository;
+import com.moredevs.mapblu.infraestructure.security.JwtAuthenticationFilter;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class TokenRevogacaoServiceTest {
+
+    private static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID OUTRO_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private UserRepository userRepository;
+    private TokenRevogacaoService service;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        service = new TokenRevogacaoService(userRepository);
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "segredo-de-teste-com-pelo-menos-32-caracteres");
+        ReflectionTestUtils.setField(jwtService, "expiration", 60_000L);
+    }
+
+    @Test
+    void tokenTrazOUsuarioNasClaims() {
+        String token = jwtService.generateToken(UserPrincipal.create(usuario(User.RoleName.ROLE_ADMIN, 3, true)));
+
+        UserPrincipal principal = jwtService.extractPrincipal(token);
+
+        assertThat(principal.getId()).isEqualTo(ID);
+        assertThat(principal.getUsername()).isEqualTo("fiscal@blumenau.sc.gov.br");
+        assertThat(principal.getRole()).isEqualTo(User.RoleName.ROLE_ADMIN);
+        assertThat(principal.getTokenVersao()).isEqualTo(3);
+        assertThat(principal.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void tokenSemClaimsDoUsuarioUsaABuscaNoBanco() {
+        String token = jwtService.generateToken(
+                org.springframework.security.core.userdetails.User.withUsername("antigo@blumenau.sc.gov.br")
+                        .password("x").authorities(List.of()).build());
+
+        assertThat(jwtService.extractPrincipal(token)).isNull();
+    }
+
+    @Test
+    void ticketDoCanalAoVivoNaoValeComoTokenDeAcessoENemOContrario() {
+        UserPrincipal usuario = UserPrincipal.create(usuario(User.RoleName.ROLE_USER, 2, true));
+        String ticket = jwtService.generateTicketAoVivo(usuario);
+        String token = jwtService.generateToken(usuario);
+
+        UserPrincipal principal = jwtService.extractPrincipalDoTicketAoVivo(ticket);
+        assertThat(principal.getId()).isEqualTo(ID);
+        assertThat(principal.getTokenVersao()).isEqualTo(2);
+
+        assertThatThrownBy(() -> jwtService.extractPrincipal(ticket)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.extractUsername(ticket)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.extractPrincipalDoTicketAoVivo(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void ticketNaQueryStringSoAutenticaOStreamAoVivo() throws Exception {
+        recarregar(1, User.RoleName.ROLE_USER, true);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+                jwtService, mock(CustomUserDetailsService.class), service);
+        ReflectionTestUtils.setField(filter, "autenticacaoPorClaims", true);
+        String ticket = jwtService.generateTicketAoVivo(principal(User.RoleName.ROLE_USER, 1));
+
+        assertThat(autenticado(filter, "GET", "/api/ao-vivo", ticket)).isTrue();
+        assertThat(autenticado(filter, "GET", "/api/ocorrencias", ticket)).isFalse();
+        assertThat(autenticado(filter, "POST", "/api/ao-vivo", ticket)).isFalse();
+
+        recarregar(2, User.RoleName.ROLE_USER, true);
+        assertThat(autenticado(filter, "GET", "/api/ao-vivo", ticket)).isFalse();
+    }
+
+    @Test
+    void aceitaSemConsultarOBancoDepoisDaRecarga() {
+        recarregar(1, User.RoleName.ROLE_USER, true);
+
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 1))).isTrue();
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 1))).isTrue();
+
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void recusaUsuarioDesativadoComPapelAlteradoOuTokensRevogados() {
+        recarregar(1, User.RoleName.ROLE_USER, false);
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 1))).isFalse();
+
+        recarregar(1, User.RoleName.ROLE_ADMIN, true);
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 1))).isFalse();
+
+        recarregar(2, User.RoleName.ROLE_USER, true);
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 1))).isFalse();
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 2))).isTrue();
+    }
+
+    @Test
+    void usuarioForaDoMapaEhBuscadoUmaVez() {
+        when(userRepository.findEstadosDeToken()).thenReturn(List.of());
+        service.atualizar();
+        when(userRepository.findById(ID)).thenReturn(Optional.of(usuario(User.RoleName.ROLE_USER, 0, true)));
+
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 0))).isTrue();
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 0))).isTrue();
+
+        verify(userRepository, times(1)).findById(ID);
+    }
+
+    @Test
+    void usuarioRemovidoEhRecusado() {
+        when(userRepository.findById(ID)).thenReturn(Optional.empty());
+
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 0))).isFalse();
+    }
+
+    @Test
+    void recargaIncrementalBuscaSoOsUsuariosAlterados() {
+        ReflectionTestUtils.setField(service, "intervaloCompletaMs", 3_600_000L);
+        List<Object[]> todos = new ArrayList<>();
+        todos.add(new Object[]{ID, 1, User.RoleName.ROLE_USER, true});
+        todos.add(new Object[]{OUTRO_ID, 1, User.RoleName.ROLE_USER, true});
+        when(userRepository.findEstadosDeToken()).thenReturn(todos);
+        service.atualizar();
+
+        List<Object[]> alterados = new ArrayList<>();
+        alterados.add(new Object[]{ID, 2, User.RoleName.ROLE_USER, true});
+        when(userRepository.findEstadosDeTokenAlteradosDesde(any())).thenReturn(alterados);
+        LocalDateTime antes = LocalDateTime.now();
+        service.atualizar();
+
+        verify(userRepository, times(1)).findEstadosDeToken();
+        verify(userRepository).findEstadosDeTokenAlteradosDesde(argThat(desde -> desde.isBefore(antes)));
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 1))).isFalse();
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 2))).isTrue();
+        assertThat(service.aceita(UserPrincipal.fromClaims(OUTRO_ID, "outro@blumenau.sc.gov.br",
+                User.RoleName.ROLE_USER, 1))).isTrue();
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void recargaCompletaPeriodicaTiraUsuariosApagados() {
+        recarregar(1, User.RoleName.ROLE_USER, true);
+        when(userRepository.findEstadosDeToken()).thenReturn(List.of());
+        when(userRepository.findById(ID)).thenReturn(Optional.empty());
+
+        // intervaloCompletaMs zerado: toda recarga é completa
+        service.atualizar();
+
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 1))).isFalse();
+        verify(userRepository, never()).findEstadosDeTokenAlteradosDesde(any());
+    }
+
+    @Test
+    void tokenAntigoRecusadoDepoisDaTrocaDeSenha() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        User user = usuario(User.RoleName.ROLE_USER, 1, true);
+        user.setPassword(passwordEncoder.encode("senha-antiga"));
+        AuthService authService = authService(user, passwordEncoder);
+        UserPrincipal antigo = jwtService.extractPrincipal(jwtService.generateToken(UserPrincipal.create(user)));
+
+        assertThatThrownBy(() -> authService.alterarSenha(ID, new AlterarSenhaRequest("errada", "senha-nova-123")))
+                .isInstanceOf(ValidationException.class);
+        assertThat(service.aceita(antigo)).isTrue();
+
+        String novoToken = authService.alterarSenha(ID, new AlterarSenhaRequest("senha-antiga", "senha-nova-123"))
+                .getAccessToken();
+
+        assertThat(passwordEncoder.matches("senha-nova-123", user.getPassword())).isTrue();
+        assertThat(service.aceita(antigo)).isFalse();
+        assertThat(service.aceita(jwtService.extractPrincipal(novoToken))).isTrue();
+    }
+
+    @Test
+    void tokenAntigoRecusadoDepoisDaTrocaDePapel() {
+        User user = usuario(User.RoleName.ROLE_USER, 1, true);
+        AuthService authService = authService(user, new BCryptPasswordEncoder(4));
+        UserPrincipal antigo = jwtService.extractPrincipal(jwtService.generateToken(UserPrincipal.create(user)));
+
+        authService.alterarPapel(ID, User.RoleName.ROLE_USER);
+        assertThat(service.aceita(antigo)).isTrue();
+
+        authService.alterarPapel(ID, User.RoleName.ROLE_ADMIN);
+
+        assertThat(user.getTokenVersao()).isEqualTo(2);
+        assertThat(service.aceita(antigo)).isFalse();
+        assertThat(service.aceita(principal(User.RoleName.ROLE_ADMIN, 2))).isTrue();
+    }
+
+    @Test
+    void tokenAntigoRecusadoDepoisDeSairDeTodosOsDispositivos() {
+        User user = usuario(User.RoleName.ROLE_USER, 1, true);
+        AuthService authService = authService(user, new BCryptPasswordEncoder(4));
+        UserPrincipal antigo = jwtService.extractPrincipal(jwtService.generateToken(UserPrincipal.create(user)));
+        assertThat(service.aceita(antigo)).isTrue();
+
+        authService.sairDeTodosOsDispositivos(ID);
+
+        assertThat(service.aceita(antigo)).isFalse();
+        assertThat(service.aceita(principal(User.RoleName.ROLE_USER, 2))).isTrue();
+    }
+
+    /**
+     * AuthService sobre o mesmo repositório do serviço de revogação, com o estado do usuário já carregado no mapa.
+     */
+    private AuthService authService(User user, PasswordEncoder passwordEncoder) {
+        recarregar(user.getTokenVersao(), user.getRole(), true);
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+        return new AuthService(userRepository, passwordEncoder, jwtService,
+                mock(AuthenticationManager.class), service);
+    }
+
+    private static boolean autenticado(JwtAuthenticationFilter filter, String metodo, String caminho, String ticket)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, caminho);
+        request.setServletPath(caminho);
+        request.setParameter("ticket", ticket);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication() != null;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void recarregar(int tokenVersao, User.RoleName role, boolean ativo) {
+        List<Object[]> estados = new ArrayList<>();
+        estados.add(new Object[]{ID, tokenVersao, role, ativo});
+        when(userRepository.findEstadosDeToken()).thenReturn(estados);
+        service.atualizar();
+    }
+
+    private static UserPrincipal principal(User.RoleName role, int tokenVersao) {
+        return UserPrincipal.fromClaims(ID, "fiscal@blumenau.sc.gov.br", role, tokenVersao);
+    }
+
+    private static User usuario(User.RoleName role, int tokenVersao, boolean ativo) {
+        return User.builder()
+                .id(ID)
+                .username("fiscal")
+                .email("fiscal@blumenau.sc.gov.br")
+                .password("hash")
+                .role(role)
+                .tokenVersao(tokenVersao)
+                .ativo(ativo)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.moredevs.mapblu.core.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class PerguntaSimilarIndexTest {
+
+    private static final String CONTEXTO = "ctx-geral";
+
+    private final PerguntaSimilarIndex index = new PerguntaSimilarIndex(0.8, 3);
+
+    @Test
+    void normalizaAcentosPontuacaoEPalavrasVazias() {
+        assertThat(PerguntaSimilarIndex.normalizar("Quais bairros têm mais buracos?"))
+                .isEqualTo("bairros mais buracos");
+        assertThat(PerguntaSimilarIndex.normalizar("quais os bairros com mais buracos"))
+                .isEqualTo("bairros mais buracos");
+    }
+
+    @Test
+    void reaproveitaPerguntaEscritaDeOutraForma() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-1");
+
+        Optional<PerguntaSimilarIndex.Correspondencia> similar =
+                index.buscar(CONTEXTO, "quais os bairros com mais buracos");
+
+        assertThat(similar).isPresent();
+        assertThat(similar.get().hashContexto()).isEqualTo("hash-1");
+        assertThat(similar.get().pergunta()).isEqualTo("Quais bairros têm mais buracos?");
+        assertThat(similar.get().similaridade()).isEqualTo(1.0, offset(1e-9));
+    }
+
+    @Test
+    void toleraPequenasDiferencas() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-1");
+
+        Optional<PerguntaSimilarIndex.Correspondencia> similar = index.buscar(CONTEXTO, "bairros com mais buraco");
+
+        assertThat(similar).isPresent();
+        assertThat(similar.get().similaridade()).isBetween(0.8, 1.0);
+    }
+
+    @Test
+    void naoReaproveitaPerguntaDiferente() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-1");
+
+        assertThat(index.buscar(CONTEXTO, "Onde há mais lixo acumulado?")).isEmpty();
+        assertThat(index.buscar(CONTEXTO, "Quais bairros têm menos buracos?")).isEmpty();
+    }
+
+    @Test
+    void separaNegacoesNumerosEMesesComoChavesRigidas() {
+        assertThat(PerguntaSimilarIndex.chavesRigidas(
+                PerguntaSimilarIndex.normalizar("Quantas ocorrências não resolvidas houve em março de 2024?")))
+                .containsExactly("2024", "marco", "nao");
+    }
+
+    @Test
+    void naoReaproveitaPerguntaNegada() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-1");
+
+        assertThat(index.buscar(CONTEXTO, "Quais bairros não têm mais buracos?")).isEmpty();
+    }
+
+    @Test
+    void naoReaproveitaPerguntaDeOutroAno() {
+        index.registrar(CONTEXTO, "Quantas ocorrências houve em 2023?", "hash-1");
+
+        assertThat(index.buscar(CONTEXTO, "Quantas ocorrências houve em 2024?")).isEmpty();
+        assertThat(index.buscar(CONTEXTO, "quantas ocorrencias houve em 2023")).isPresent();
+    }
+
+    @Test
+    void naoReaproveitaPerguntaDeOutroContexto() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-1");
+
+        assertThat(index.buscar("ctx-velha", "Quais bairros têm mais buracos?")).isEmpty();
+    }
+
+    @Test
+    void escolheAMaisParecida() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos na rua?", "hash-1");
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-2");
+
+        assertThat(index.buscar(CONTEXTO, "bairros com mais buracos").get().hashContexto()).isEqualTo("hash-2");
+    }
+
+    @Test
+    void removeAsMaisAntigasAoPassarDaCapacidade() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-1");
+        index.registrar(CONTEXTO, "Onde há mais lixo acumulado?", "hash-2");
+        index.registrar(CONTEXTO, "Qual a gravidade média das ocorrências?", "hash-3");
+        index.registrar(CONTEXTO, "Quantas ocorrências foram resolvidas?", "hash-4");
+
+        assertThat(index.tamanho()).isEqualTo(3);
+        assertThat(index.buscar(CONTEXTO, "Quais bairros têm mais buracos?")).isEmpty();
+        assertThat(index.buscar(CONTEXTO, "Onde há mais lixo acumulado?")).isPresent();
+    }
+
+    @Test
+    void perguntaRemovidaNaoEhMaisEncontrada() {
+        index.registrar(CONTEXTO, "Quais bairros têm mais buracos?", "hash-1");
+        index.remover("hash-1");
+
+        assertThat(index.buscar(CONTEXTO, "Quais bairros têm mais buracos?")).isEmpty();
+        assertThat(index.tamanho()).isZero();
+    }
+}
@@ -0,0 +1,163 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.HeatmapResponse;
+import com.moredevs.mapblu.core.dto.response.HeatmapZoneResponse;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
+import com.moredevs.mapblu.core.dto.response.PagedResponse;
+import com.moredevs.mapblu.shared.constant.Constants;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o serializer de cache anterior (JSON com tipagem padrão) com o atual (Smile + LZ4)
+ * em tamanho e vazão, sobre os DTOs cacheados de verdade: heatmap de bairros e página de ocorrências.
+ *
+ * Não roda com os testes. Para executar: compilar os testes e rodar {@link #main} com o classpath
+ * de teste; o tamanho serializado sai na tabela do JMH como o contador {@code tamanho:bytes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"json", "smile-lz4"})
+    public String formato;
+
+    @Param({"heatmap", "pagina"})
+    public String dto;
+
+    private RedisSerializer<Object> serializer;
+    private Object valor;
+    private byte[] serializado;
+
+    @Setup
+    public void setUp() {
+        serializer = serializers().get(formato);
+        valor = "heatmap".equals(dto) ? heatmap(80, 60) : pagina(50);
+        serializado = serializer.serialize(valor);
+    }
+
+    /**
+     * Tamanho do valor serializado. O JMH soma contadores de eventos entre iterações, por isso
+     * a medição dele tem uma iteração só.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanho {
+        public long bytes;
+    }
+
+    @Benchmark
+    public byte[] serializar() {
+        return serializer.serialize(valor);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, time = 1)
+    public byte[] tamanho(Tamanho tamanho) {
+        byte[] bytes = serializer.serialize(valor);
+        tamanho.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object desserializar() {
+        return serializer.deserialize(serializado);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CacheSerializerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static Map<String, RedisSerializer<Object>> serializers() {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return Map.of(
+                "json", new GenericJackson2JsonRedisSerializer(CompactCacheSerializer.objectMapper(new JsonFactory())),
+                "smile-lz4", new CompactCacheSerializer(CompactCacheSerializer.objectMapper(smileFactory),
+                        Constants.Cache.SERIALIZACAO_VERSAO, Constants.Cache.COMPRESSAO_LIMITE_BYTES));
+    }
+
+    static HeatmapResponse heatmap(int zonas, int vertices) {
+        List<HeatmapZoneResponse> zones = new ArrayList<>();
+        for (int z = 0; z < zonas; z++) {
+            List<HeatmapZoneResponse.Coordinate> coordinates = new ArrayList<>();
+            for (int v = 0; v < vertices; v++) {
+                double angulo = 2 * Math.PI * v / vertices;
+                coordinates.add(new HeatmapZoneResponse.Coordinate(
+                        -26.91 + z * 0.01 + 0.004 * Math.sin(angulo), -49.07 + 0.004 * Math.cos(angulo)));
+            }
+            zones.add(HeatmapZoneResponse.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("Bairro " + z)
+                    .type("bairro")
+                    .severity(z % 4 == 0 ? "critical" : "moderate")
+                    .color(z % 4 == 0 ? "#FF0000" : "#FFFF00")
+                    .problemCount(z * 3)
+                    .description(z * 3 + " problemas registrados")
+                    .responsavel("Secretaria de Obras")
+                    .lastUpdate(LocalDateTime.of(2025, 3, 10, 12, 0))
+                    .recentProblems(List.of("BURACO", "ILUMINACAO", "LIXO"))
+                    .coordinates(coordinates)
+                    .build());
+        }
+        return HeatmapResponse.builder()
+                .cityInfo(HeatmapResponse.CityInfo.builder()
+                        .name("Blumenau").state("SC").country("Brasil")
+                        .center(new HeatmapResponse.Center(Constants.Geo.BLUMENAU_LATITUDE, Constants.Geo.BLUMENAU_LONGITUDE))
+                        .zoom(12).population(361855).area(518.5)
+                        .build())
+                .zones(zones)
+                .summary(HeatmapResponse.Summary.builder()
+                        .totalProblems(zonas * 3).criticalZones(zonas / 4)
+                        .lastUpdated(LocalDateTime.of(2025, 3, 10, 12, 0))
+                        .city("Blumenau").state("SC")
+                        .build())
+                .build();
+    }
+
+    static PagedResponse<OcorrenciaResponse> pagina(int tamanho) {
+        List<OcorrenciaResponse> content = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            content.add(OcorrenciaResponse.builder()
+                    .id(UUID.randomUUID())
+                    .tipoProblema(TipoProblema.values()[i % TipoProblema.values().length])
+                    .descricao("Problema relatado pelo morador na altura do número " + i)
+                    .bairro("Velha")
+                    .endereco("Rua Sete de Setembro, " + i)
+                    .latitude(-26.91 + i * 1e-4)
+                    .longitude(-49.07 - i * 1e-4)
+                    .gravidade(1 + i % 10)
+                    .status(StatusOcorrencia.PENDENTE)
+                    .dataCriacao(LocalDateTime.of(2025, 3, 10, 12, 0).plusMinutes(i))
+                    .dataAtualizacao(LocalDateTime.of(2025, 3, 11, 12, 0))
+                    .build());
+        }
+        return PagedResponse.<OcorrenciaResponse>builder()
+                .content(content).page(0).size(tamanho)
+                .totalElements(1000).totalPages(1000 / tamanho)
+                .first(true).last(false)
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.moredevs.mapblu.shared.constant.Constants;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheVersionsTest {
+
+    private static final UUID BAIRRO = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void escritaAfetaGlobalBairroEMes() {
+        assertThat(CacheVersions.escoposDaOcorrencia(BAIRRO, LocalDateTime.of(2025, 3, 10, 12, 0)))
+                .containsExactly(CacheVersions.GLOBAL, "bairro:" + BAIRRO, "mes:2025-03");
+        assertThat(CacheVersions.escoposDaOcorrencia(null, LocalDateTime.of(2025, 3, 10, 12, 0)))
+                .containsExactly(CacheVersions.GLOBAL, "mes:2025-03");
+    }
+
+    @Test
+    void consultaUsaBairroEMesesDoPeriodo() {
+        assertThat(CacheVersions.escoposDaConsulta(BAIRRO,
+                LocalDateTime.of(2025, 1, 15, 0, 0), LocalDateTime.of(2025, 3, 1, 0, 0)))
+                .containsExactly("bairro:" + BAIRRO, "mes:2025-01", "mes:2025-02", "mes:2025-03");
+    }
+
+    @Test
+    void consultaSemBairroNemPeriodoUsaGlobal() {
+        assertThat(CacheVersions.escoposDaConsulta(null, null, null)).containsExactly(CacheVersions.GLOBAL);
+        assertThat(CacheVersions.escoposDaConsulta(null, LocalDateTime.of(2025, 1, 1, 0, 0), null))
+                .containsExactly(CacheVersions.GLOBAL);
+    }
+
+    @Test
+    void periodoLongoDemaisUsaGlobal() {
+        assertThat(CacheVersions.escoposDaConsulta(null,
+                LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 1, 0, 0)))
+                .containsExactly(CacheVersions.GLOBAL);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void carimboCombinaVersoesComZeroParaEscoposNuncaIncrementados() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.multiGet(List.of("cache-versao:bairro:" + BAIRRO, "cache-versao:mes:2025-03")))
+                .thenReturn(Arrays.asList("7", null));
+
+        String carimbo = new CacheVersions(redisTemplate).carimbo(List.of("bairro:" + BAIRRO, "mes:2025-03"));
+
+        assertThat(carimbo).isEqualTo("v7.0");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void versoesFicamNoCacheLocalAteSeremIncrementadas() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.multiGet(List.of("cache-versao:global"))).thenReturn(List.of("3"), List.of("4"));
+        CacheVersions versions = new CacheVersions(redisTemplate);
+
+        assertThat(versions.carimbo(List.of(CacheVersions.GLOBAL))).isEqualTo("v3");
+        assertThat(versions.carimbo(List.of(CacheVersions.GLOBAL))).isEqualTo("v3");
+        versions.invalidar(List.of(CacheVersions.GLOBAL));
+
+        assertThat(versions.carimbo(List.of(CacheVersions.GLOBAL))).isEqualTo("v4");
+        verify(ops, times(2)).multiGet(anyList());
+        verify(redisTemplate).convertAndSend(eq(Constants.Cache.INVALIDACAO_CANAL), endsWith("\ncache-versao\nglobal"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void incrementoDeOutroNoDescartaSoOsEscoposPublicados() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.multiGet(anyList())).thenAnswer(invocation -> ((List<String>) invocation.getArgument(0)).stream()
+                .map(chave -> "1").toList());
+        CacheVersions versions = new CacheVersions(redisTemplate);
+        versions.carimbo(List.of("mes:2025-02", "mes:2025-03"));
+
+        versions.onInvalidation("outro-no\ncache-versao\nmes:2025-03," + CacheVersions.GLOBAL);
+        versions.onInvalidation("outro-no\nheatmap\n:mes:2025-02");
+        versions.carimbo(List.of("mes:2025-02", "mes:2025-03"));
+
+        verify(ops).multiGet(List.of("cache-versao:mes:2025-03"));
+    }
+}
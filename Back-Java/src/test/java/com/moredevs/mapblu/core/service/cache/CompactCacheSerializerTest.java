@@ -0,0 +1,109 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.dto.response.OcorrenciaResponse;
+import com.moredevs.mapblu.core.dto.response.PagedResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactCacheSerializerTest {
+
+    private final CompactCacheSerializer serializer = serializer(1);
+
+    @Test
+    void valorPequenoNaoEhComprimido() {
+        byte[] bytes = serializer.serialize(ocorrencia(1));
+
+        assertThat(bytes[0]).isEqualTo(CompactCacheSerializer.MAGIC_0);
+        assertThat(bytes[1]).isEqualTo(CompactCacheSerializer.MAGIC_1);
+        assertThat(bytes[3] & CompactCacheSerializer.FLAG_LZ4).isZero();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(ocorrencia(1));
+    }
+
+    @Test
+    void paginaGrandeEhComprimidaERestauradaComTipos() {
+        PagedResponse<OcorrenciaResponse> pagina = pagina(50);
+
+        byte[] bytes = serializer.serialize(pagina);
+        Object lido = serializer.deserialize(bytes);
+
+        assertThat(bytes[3] & CompactCacheSerializer.FLAG_LZ4).isEqualTo(CompactCacheSerializer.FLAG_LZ4);
+        assertThat(lido).isInstanceOf(PagedResponse.class).isEqualTo(pagina);
+        assertThat(((PagedResponse<?>) lido).getContent().get(0)).isInstanceOf(OcorrenciaResponse.class);
+    }
+
+    @Test
+    void valorDeOutraVersaoViraAusencia() {
+        byte[] bytes = serializer(2).serialize(ocorrencia(1));
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void jsonGravadoAntesDoDeployViraAusencia() {
+        byte[] json = "[\"com.moredevs.mapblu.core.dto.response.OcorrenciaResponse\",{}]"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertThat(serializer.deserialize(json)).isNull();
+    }
+
+    @Test
+    void conteudoTruncadoViraAusencia() {
+        byte[] bytes = serializer.serialize(pagina(50));
+
+        assertThat(serializer.deserialize(Arrays.copyOf(bytes, bytes.length / 2))).isNull();
+    }
+
+    @Test
+    void nuloEVazio() {
+        assertThat(serializer.serialize(null)).isEmpty();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+        assertThat(serializer.deserialize(null)).isNull();
+    }
+
+    private static CompactCacheSerializer serializer(int versao) {
+        return new CompactCacheSerializer(
+                CompactCacheSerializer.objectMapper(new SmileFactory()), versao, 1024);
+    }
+
+    private static PagedResponse<OcorrenciaResponse> pagina(int tamanho) {
+        List<OcorrenciaResponse> content = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            content.add(ocorrencia(i));
+        }
+        return PagedResponse.<OcorrenciaResponse>builder()
+                .content(content)
+                .page(0)
+                .size(tamanho)
+                .totalElements(1000)
+                .totalPages(1000 / tamanho)
+                .first(true)
+                .last(false)
+                .build();
+    }
+
+    private static OcorrenciaResponse ocorrencia(int i) {
+        return OcorrenciaResponse.builder()
+                .id(new UUID(0, i))
+                .tipoProblema(TipoProblema.BURACO)
+                .descricao("Buraco na pista próximo ao número " + i)
+                .bairro("Velha")
+                .endereco("Rua Sete de Setembro, " + i)
+                .latitude(-26.91 + i * 1e-4)
+                .longitude(-49.07 - i * 1e-4)
+                .gravidade(1 + i % 10)
+                .status(StatusOcorrencia.PENDENTE)
+                .dataCriacao(LocalDateTime.of(2025, 3, 10, 12, 0).plusMinutes(i))
+                .build();
+    }
+}
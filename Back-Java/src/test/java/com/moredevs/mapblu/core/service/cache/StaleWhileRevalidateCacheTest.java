@@ -0,0 +1,149 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaleWhileRevalidateCacheTest {
+
+    private static final Duration SOFT_TTL = Duration.ofSeconds(60);
+
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("stats", false);
+    private final List<Runnable> renovacoes = new ArrayList<>();
+    private final AtomicInteger chamadas = new AtomicInteger();
+
+    private Instant agora = Instant.parse("2025-03-10T12:00:00Z");
+    private boolean lockDisponivel = true;
+    private StaleWhileRevalidateCache cache;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        TwoLevelCache twoLevelCache = new TwoLevelCache(
+                Caffeine.newBuilder().maximumSize(100).build(), remote, (nome, chave) -> {});
+        // beta 0: sem renovação antecipada aleatória, só a do vencimento
+        cache = new StaleWhileRevalidateCache(twoLevelCache, SOFT_TTL, 0, renovacoes::add,
+                (nome, chave) -> lockDisponivel, clock);
+    }
+
+    @Test
+    void ausenciaCalculaNaHora() {
+        assertThat(cache.get("k", this::contar)).isEqualTo(1);
+        assertThat(cache.get("k", this::contar)).isEqualTo(1);
+        assertThat(chamadas).hasValue(1);
+        assertThat(renovacoes).isEmpty();
+    }
+
+    @Test
+    void valorVencidoEhServidoEnquantoUmaUnicaRenovacaoRoda() {
+        cache.get("k", this::contar);
+        agora = agora.plusSeconds(61);
+
+        // Várias leituras concorrentes recebem o valor vencido e disparam uma única renovação
+        assertThat(cache.get("k", this::contar)).isEqualTo(1);
+        assertThat(cache.get("k", this::contar)).isEqualTo(1);
+        assertThat(cache.getStaleServes()).isEqualTo(2);
+        assertThat(renovacoes).hasSize(1);
+
+        renovacoes.get(0).run();
+
+        assertThat(cache.get("k", this::contar)).isEqualTo(2);
+        assertThat(chamadas).hasValue(2);
+    }
+
+    @Test
+    void semLockOutroNoRenovaEAquiSegueOValorAtual() {
+        cache.get("k", this::contar);
+        agora = agora.plusSeconds(61);
+        lockDisponivel = false;
+
+        cache.get("k", this::contar);
+        renovacoes.get(0).run();
+
+        assertThat(chamadas).hasValue(1);
+        assertThat(cache.get("k", this::contar)).isEqualTo(1);
+    }
+
+    @Test
+    void falhaNaRenovacaoMantemValorVencidoEContaFalha() {
+        cache.get("k", this::contar);
+        agora = agora.plusSeconds(61);
+
+        cache.get("k", () -> {
+            throw new IllegalStateException("banco indisponível");
+        });
+        renovacoes.get(0).run();
+
+        assertThat(cache.getRefreshFailures()).isEqualTo(1);
+        assertThat(cache.get("k", this::contar)).isEqualTo(1);
+        // A chave foi liberada: a próxima leitura vencida agenda outra renovação
+        assertThat(renovacoes).hasSize(2);
+    }
+
+    @Test
+    void leituraSemCarregadorNaoRecebeValorVencido() {
+        cache.put("k", 10);
+        assertThat(cache.get("k").get()).isEqualTo(10);
+
+        agora = agora.plusSeconds(61);
+
+        assertThat(cache.get("k")).isNull();
+    }
+
+    @Test
+    void entradaCaraPertoDoVencimentoEhRenovadaAntes() {
+        StaleWhileRevalidateCache antecipado = new StaleWhileRevalidateCache(
+                new TwoLevelCache(Caffeine.newBuilder().build(), remote, (nome, chave) -> {}),
+                SOFT_TTL, 1.0, renovacoes::add, (nome, chave) -> true, clock);
+        // Fresca por mais 1 segundo, mas levou muito mais que isso para ser calculada
+        remote.put("k", new CacheEntry(7, agora.minusSeconds(59).toEpochMilli(), Duration.ofDays(10).toMillis()));
+
+        assertThat(antecipado.get("k", this::contar)).isEqualTo(7);
+        assertThat(antecipado.getEarlyRefreshes()).isEqualTo(1);
+        assertThat(antecipado.getStaleServes()).isZero();
+        assertThat(renovacoes).hasSize(1);
+    }
+
+    @Test
+    void entradaBarataLongeDoVencimentoNaoEhRenovada() {
+        StaleWhileRevalidateCache antecipado = new StaleWhileRevalidateCache(
+                new TwoLevelCache(Caffeine.newBuilder().build(), remote, (nome, chave) -> {}),
+                SOFT_TTL, 1.0, renovacoes::add, (nome, chave) -> true, clock);
+        remote.put("k", new CacheEntry(7, agora.minusSeconds(10).toEpochMilli(), 5));
+
+        assertThat(antecipado.get("k", this::contar)).isEqualTo(7);
+        assertThat(renovacoes).isEmpty();
+    }
+
+    private Integer contar() {
+        return chamadas.incrementAndGet();
+    }
+}
@@ -0,0 +1,129 @@
+package com.moredevs.mapblu.core.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheManagerTest {
+
+    private static final String CACHE = "ocorrencias";
+
+    /** L2 compartilhado pelos dois nós. */
+    private final ConcurrentMapCache remote = new ConcurrentMapCache(CACHE, false);
+
+    private StringRedisTemplate redisTemplate;
+    private TwoLevelCacheManager noA;
+    private TwoLevelCacheManager noB;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        noA = manager();
+        noB = manager();
+    }
+
+    @Test
+    void leituraDoL2EhPromovidaAoL1() {
+        remote.put("k", "valor");
+        TwoLevelCache cache = cache(noA);
+
+        assertThat(cache.get("k").get()).isEqualTo("valor");
+        remote.evict("k");
+
+        // Segunda leitura é atendida pelo L1, sem ir ao L2
+        assertThat(cache.get("k", String.class)).isEqualTo("valor");
+        assertThat(cache.getLocalCache().stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void escritaVaiAosDoisNiveis() {
+        cache(noA).put("k", "valor");
+
+        assertThat(remote.get("k").get()).isEqualTo("valor");
+        assertThat(cache(noA).getLocalCache().getIfPresent("k")).isEqualTo("valor");
+    }
+
+    @Test
+    void remocaoEhPropagadaAoL1DosOutrosNos() {
+        remote.put("k", "antigo");
+        cache(noB).get("k");
+
+        cache(noA).evict("k");
+        noB.onInvalidation(mensagemPublicada());
+
+        assertThat(cache(noB).getLocalCache().getIfPresent("k")).isNull();
+        assertThat(cache(noB).get("k")).isNull();
+    }
+
+    @Test
+    void limpezaEhPropagadaAoL1DosOutrosNos() {
+        remote.put("a", 1);
+        remote.put("b", 2);
+        cache(noB).get("a");
+        cache(noB).get("b");
+
+        cache(noA).clear();
+        noB.onInvalidation(mensagemPublicada());
+
+        assertThat(cache(noB).getLocalCache().estimatedSize()).isZero();
+    }
+
+    @Test
+    void chaveAsteriscoNaoLimpaOCacheInteiro() {
+        remote.put("*", 1);
+        remote.put("b", 2);
+        cache(noB).get("*");
+        cache(noB).get("b");
+
+        cache(noA).evict("*");
+        noB.onInvalidation(mensagemPublicada());
+
+        assertThat(cache(noB).getLocalCache().getIfPresent("*")).isNull();
+        assertThat(cache(noB).getLocalCache().getIfPresent("b")).isEqualTo(2);
+    }
+
+    @Test
+    void ignoraInvalidacaoPublicadaPeloProprioNo() {
+        cache(noA).evict("k");
+        cache(noA).put("k", "novo");
+
+        noA.onInvalidation(mensagemPublicada());
+
+        assertThat(cache(noA).getLocalCache().getIfPresent("k")).isEqualTo("novo");
+    }
+
+    private TwoLevelCacheManager manager() {
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        when(redisCacheManager.getCacheNames()).thenReturn(List.of(CACHE));
+        when(redisCacheManager.getCache(CACHE)).thenReturn(remote);
+
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(redisCacheManager, redisTemplate,
+                name -> Duration.ofMinutes(5), Map.of(CACHE, 100L));
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private static TwoLevelCache cache(TwoLevelCacheManager manager) {
+        Cache cache = manager.getCache(CACHE);
+        assertThat(cache).isInstanceOf(TwoLevelCache.class);
+        return (TwoLevelCache) cache;
+    }
+
+    private String mensagemPublicada() {
+        ArgumentCaptor<String> mensagem = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, atLeastOnce()).convertAndSend(eq("cache-invalidacao"), mensagem.capture());
+        return mensagem.getValue();
+    }
+}
@@ -0,0 +1,184 @@
+package com.moredevs.mapblu.core.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moredevs.mapblu.core.domain.StatusOcorrencia;
+import com.moredevs.mapblu.core.domain.TipoProblema;
+import com.moredevs.mapblu.core.repository.OcorrenciaResumo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class OcorrenciaExportWriterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Test
+    void csvEscapaCamposComVirgulaAspasEQuebraDeLinha() throws Exception {
+        String csv = new String(exportar(ExportFormat.CSV, List.of(
+                resumo(0, "Buraco \"grande\", perigoso\nna pista", null))), StandardCharsets.UTF_8);
+
+        String[] linhas = csv.split("\r\n", 2);
+        assertThat(linhas[0]).isEqualTo(CsvExportWriter.HEADER);
+        assertThat(linhas[1]).contains(",\"Buraco \"\"grande\"\", perigoso\nna pista\",Centro,");
+        assertThat(linhas[1]).contains(",-26.9194,-49.0661,");
+        assertThat(linhas[1]).endsWith(",,2025-03-10T12:00,\r\n");
+    }
+
+    @Test
+    void ndjsonEscreveUmObjetoPorLinhaOmitindoNulos() throws Exception {
+        String ndjson = new String(exportar(ExportFormat.NDJSON, List.of(
+                resumo(0, "Alagamento", "SAMAE"), resumo(1, null, null))), StandardCharsets.UTF_8);
+
+        String[] linhas = ndjson.split("\n");
+        assertThat(linhas).hasSize(2);
+        JsonNode primeira = new ObjectMapper().readTree(linhas[0]);
+        assertThat(primeira.get("descricao").asText()).isEqualTo("Alagamento");
+        assertThat(primeira.get("secretariaOrigem").asText()).isEqualTo("SAMAE");
+        assertThat(primeira.get("latitude").asDouble()).isEqualTo(-26.9194);
+        JsonNode segunda = new ObjectMapper().readTree(linhas[1]);
+        assertThat(segunda.has("descricao")).isFalse();
+        assertThat(segunda.get("gravidade").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void colunarPreservaOsValoresEmVariosBlocos() throws Exception {
+        List<OcorrenciaResumo> ocorrencias = new ArrayList<>();
+        for (int i = 0; i < ColumnarExportWriter.ROW_GROUP_SIZE + 10; i++) {
+            ocorrencias.add(resumo(i, i % 7 == 0 ? null : "Ocorrência " + i, i % 2 == 0 ? "SEMOB" : null));
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(exportar(ExportFormat.COLUNAR, ocorrencias)));
+        assertThat(new String(in.readNBytes(4), StandardCharsets.US_ASCII)).isEqualTo("MBOC");
+        assertThat(in.readUnsignedByte()).isEqualTo(1);
+        assertThat(in.readUnsignedByte()).isEqualTo(7);
+
+        List<Integer> tamanhosDosBlocos = new ArrayList<>();
+        int offset = 0;
+        int rowCount;
+        while ((rowCount = (int) readVarint(in)) > 0) {
+            tamanhosDosBlocos.add(rowCount);
+            lerBloco(in, rowCount, ocorrencias.subList(offset, offset + rowCount));
+            offset += rowCount;
+        }
+
+        assertThat(tamanhosDosBlocos).containsExactly(ColumnarExportWriter.ROW_GROUP_SIZE, 10);
+        assertThat(in.read()).isEqualTo(-1);
+    }
+
+    private void lerBloco(DataInputStream in, int rowCount, List<OcorrenciaResumo> esperadas) throws IOException {
+        for (OcorrenciaResumo esperada : esperadas) {
+            assertThat(new UUID(in.readLong(), in.readLong())).isEqualTo(esperada.id());
+        }
+        long lat = 0;
+        for (OcorrenciaResumo esperada : esperadas) {
+            lat += unzigzag(readVarint(in));
+            assertThat(lat / 10_000_000.0).isCloseTo(esperada.latitude(), offset(1e-7));
+        }
+        long lng = 0;
+        for (OcorrenciaResumo esperada : esperadas) {
+            lng += unzigzag(readVarint(in));
+            assertThat(lng / 10_000_000.0).isCloseTo(esperada.longitude(), offset(1e-7));
+        }
+        for (OcorrenciaResumo esperada : esperadas) {
+            assertThat(in.readUnsignedByte()).isEqualTo(esperada.gravidade());
+        }
+        for (OcorrenciaResumo esperada : esperadas) {
+            assertThat(in.readUnsignedByte()).isEqualTo(esperada.gravidadeIA());
+        }
+        assertThat(lerDicionario(in, rowCount)).isEqualTo(esperadas.stream().map(o -> o.tipoProblema().name()).toList());
+        assertThat(lerDicionario(in, rowCount)).isEqualTo(esperadas.stream().map(o -> o.status().name()).toList());
+        assertThat(lerDicionario(in, rowCount)).isEqualTo(esperadas.stream().map(OcorrenciaResumo::bairro).toList());
+        assertThat(lerDicionario(in, rowCount))
+                .isEqualTo(esperadas.stream().map(OcorrenciaResumo::secretariaOrigem).toList());
+        long data = 0;
+        for (OcorrenciaResumo esperada : esperadas) {
+            data += unzigzag(readVarint(in) - 1);
+            assertThat(data).isEqualTo(esperada.dataCriacao().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        for (int i = 0; i < rowCount; i++) {
+            assertThat(readVarint(in)).isZero();
+        }
+        for (OcorrenciaResumo esperada : esperadas) {
+            assertThat(lerTexto(in)).isEqualTo(esperada.descricao());
+        }
+        for (OcorrenciaResumo esperada : esperadas) {
+            assertThat(lerTexto(in)).isEqualTo(esperada.endereco());
+        }
+    }
+
+    private List<String> lerDicionario(DataInputStream in, int rowCount) throws IOException {
+        int tamanho = (int) readVarint(in);
+        List<String> valores = new ArrayList<>();
+        for (int i = 0; i < tamanho; i++) {
+            valores.add(lerTexto(in));
+        }
+        List<String> coluna = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            int indice = (int) readVarint(in);
+            coluna.add(indice == 0 ? null : valores.get(indice - 1));
+        }
+        return coluna;
+    }
+
+    private String lerTexto(DataInputStream in) throws IOException {
+        int tamanho = (int) readVarint(in);
+        return tamanho == 0 ? null : new String(in.readNBytes(tamanho - 1), StandardCharsets.UTF_8);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private byte[] exportar(ExportFormat formato, List<OcorrenciaResumo> ocorrencias) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OcorrenciaExportWriter writer = formato.open(out)) {
+            for (OcorrenciaResumo ocorrencia : ocorrencias) {
+                writer.write(ocorrencia);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private OcorrenciaResumo resumo(int i, String descricao, String secretaria) {
+        return new OcorrenciaResumo(
+                UUID.randomUUID(),
+                i % 3 == 0 ? TipoProblema.BURACO : TipoProblema.ALAGAMENTO,
+                descricao,
+                i % 5 == 0 ? "Centro" : "Garcia",
+                "Rua " + i,
+                -26.9194 + i * 0.0000013,
+                -49.0661 - i * 0.0000021,
+                1 + i % 10,
+                1 + (i + 3) % 10,
+                i % 4 == 0 ? StatusOcorrencia.RESOLVIDO : StatusOcorrencia.PENDENTE,
+                secretaria,
+                BASE.plusSeconds(i * 37L),
+                null
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package com.moredevs.mapblu.core.service.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class BairroDicionarioTest {
+
+    private final BairroDicionario dicionario = new BairroDicionario();
+    private final UUID aguaVerdeId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        List<BairroLocator.Entry> canonicos = List.of(
+                new BairroLocator.Entry(aguaVerdeId, "Água Verde", null, null));
+        Map<String, Long> contagem = Map.of(
+                "agua verde", 3L,
+                "Velha", 40L,
+                "Velha Central", 12L,
+                "Vila Nova", 25L,
+                "Garcia", 30L,
+                "Itoupava Norte", 8L);
+        dicionario.reload(canonicos, contagem);
+    }
+
+    @Test
+    void unificaGrafiasPreferindoNomeOficial() {
+        List<BairroDicionario.Sugestao> sugestoes = dicionario.sugerir("AGUA", 5);
+
+        assertThat(sugestoes).hasSize(1);
+        assertThat(sugestoes.get(0).entrada().nome()).isEqualTo("Água Verde");
+        assertThat(sugestoes.get(0).entrada().bairroId()).isEqualTo(aguaVerdeId);
+        assertThat(sugestoes.get(0).entrada().totalOcorrencias()).isEqualTo(3L);
+    }
+
+    @Test
+    void prefixoOrdenaPorQuantidadeDeOcorrencias() {
+        assertThat(dicionario.sugerir("ve", 2))
+                .extracting(s -> s.entrada().nome())
+                .containsExactly("Velha", "Velha Central");
+    }
+
+    @Test
+    void prefixoDePalavraInterna() {
+        assertThat(dicionario.sugerir("norte", 5))
+                .extracting(s -> s.entrada().nome())
+                .contains("Itoupava Norte");
+    }
+
+    @Test
+    void buscaAproximadaToleraErroDeDigitacao() {
+        List<BairroDicionario.Sugestao> sugestoes = dicionario.sugerir("garsia", 5);
+
+        assertThat(sugestoes).extracting(s -> s.entrada().nome()).containsExactly("Garcia");
+        assertThat(sugestoes.get(0).similaridade()).isLessThan(1.0);
+    }
+
+    @Test
+    void termoVazioNaoRetornaSugestoes() {
+        assertThat(dicionario.sugerir("  ", 5)).isEmpty();
+    }
+
+    @Test
+    void similaridadeDeTrigramasIgualAoPgTrgm() {
+        // similarity('word', 'two words') = 0.363636 no pg_trgm
+        double similaridade = BairroDicionario.similaridade(
+                BairroDicionario.trigramas("word"), BairroDicionario.trigramas("two words"));
+
+        assertThat(similaridade).isCloseTo(4.0 / 11.0, offset(1e-9));
+    }
+}
@@ -0,0 +1,57 @@
+package com.moredevs.mapblu.core.service.geo;
+
+import com.moredevs.mapblu.core.domain.Bairro;
+import com.moredevs.mapblu.shared.util.GeoUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BairroLocatorTest {
+
+    private static final String GEOJSON = """
+            {"type": "FeatureCollection", "features": [
+              {"type": "Feature", "properties": {"nome": "Centro"},
+               "geometry": {"type": "Polygon", "coordinates":
+                 [[[-49.07, -26.93], [-49.06, -26.93], [-49.06, -26.92], [-49.07, -26.92], [-49.07, -26.93]]]}},
+              {"type": "Feature", "properties": {"nome": "Água Verde"},
+               "geometry": {"type": "MultiPolygon", "coordinates":
+                 [[[[-49.11, -26.92], [-49.10, -26.92], [-49.10, -26.91], [-49.11, -26.91], [-49.11, -26.92]]]]}}
+            ]}
+            """;
+
+    private final BairroLocator locator = new BairroLocator();
+    private UUID centroId;
+    private UUID aguaVerdeId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<Bairro> bairros = BairroGeoJsonReader.read(
+                new ByteArrayInputStream(GEOJSON.getBytes(StandardCharsets.UTF_8)), "nome");
+        centroId = UUID.randomUUID();
+        aguaVerdeId = UUID.randomUUID();
+        bairros.get(0).setId(centroId);
+        bairros.get(1).setId(aguaVerdeId);
+        locator.reload(bairros);
+    }
+
+    @Test
+    void localizaBairroPorPontoEmPoligono() {
+        assertThat(locator.locate(GeoUtil.createPoint(-26.925, -49.065))).contains(centroId);
+        assertThat(locator.locate(GeoUtil.createPoint(-26.915, -49.105))).contains(aguaVerdeId);
+        assertThat(locator.locate(GeoUtil.createPoint(-26.80, -49.00))).isEmpty();
+    }
+
+    @Test
+    void resolveNomeSemAcentoECaixa() {
+        assertThat(locator.findIdByNome("  bairro AGUA verde ")).contains(aguaVerdeId);
+        assertThat(locator.findIdByNome("centro")).contains(centroId);
+        assertThat(locator.findIdByNome("Garcia")).isEmpty();
+        assertThat(locator.findIdByNome(null)).isEmpty();
+    }
+}
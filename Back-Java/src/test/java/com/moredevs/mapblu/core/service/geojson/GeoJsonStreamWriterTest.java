@@ -0,0 +1,74 @@
+package com.moredevs.mapblu.core.service.geojson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeoJsonStreamWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void escreveFeatureCollectionValidaComPrecisaoConfigurada() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (GeoJsonStreamWriter writer = new GeoJsonStreamWriter(out, 4)) {
+            writer.beginFeatureCollection();
+            writer.beginFeature();
+            writer.writePoint(-49.06612345, -26.91948765);
+            writer.beginProperties();
+            writer.writeProperty("gravidade", 8);
+            writer.writeProperty("status", "PENDENTE");
+            writer.endFeature();
+            writer.endFeatureCollection();
+        }
+
+        JsonNode root = objectMapper.readTree(out.toByteArray());
+        assertThat(root.get("type").asText()).isEqualTo("FeatureCollection");
+        JsonNode feature = root.get("features").get(0);
+        assertThat(feature.get("geometry").get("type").asText()).isEqualTo("Point");
+        assertThat(feature.get("geometry").get("coordinates").get(0).asText()).isEqualTo("-49.0661");
+        assertThat(feature.get("geometry").get("coordinates").get(1).asText()).isEqualTo("-26.9195");
+        assertThat(feature.get("properties").get("gravidade").asInt()).isEqualTo(8);
+        assertThat(feature.get("properties").get("status").asText()).isEqualTo("PENDENTE");
+    }
+
+    @Test
+    void fechaAnelDoPoligono() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        double[] lngs = {0.0, 1.0, 1.0};
+        double[] lats = {0.0, 0.0, 1.0};
+
+        try (GeoJsonStreamWriter writer = new GeoJsonStreamWriter(out, 6)) {
+            writer.beginFeatureCollection();
+            writer.beginFeature();
+            writer.writePolygon(lngs, lats, 3);
+            writer.endFeature();
+            writer.endFeatureCollection();
+        }
+
+        JsonNode ring = objectMapper.readTree(out.toByteArray())
+                .get("features").get(0).get("geometry").get("coordinates").get(0);
+        assertThat(ring).hasSize(4);
+        assertThat(ring.get(3)).isEqualTo(ring.get(0));
+    }
+
+    @Test
+    void fecharNoMeioDaColecaoNaoGeraJsonValido() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (GeoJsonStreamWriter writer = new GeoJsonStreamWriter(out, 6)) {
+            writer.beginFeatureCollection();
+            writer.beginFeature();
+            writer.writePoint(-49.0661, -26.9195);
+        }
+
+        assertThatThrownBy(() -> objectMapper.readTree(out.toByteArray())).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,138 @@
+package com.moredevs.mapblu.core.service.heatmap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.moredevs.mapblu.core.dto.response.HeatmapZoneResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HeatmapGridEncoderTest {
+
+    private static final double CELL_SIZE = 500 * 0.000009;
+
+    private static final List<HeatmapGridEncoder.PaletteEntry> PALETTE = List.of(
+            new HeatmapGridEncoder.PaletteEntry("critical", "#FF0000"),
+            new HeatmapGridEncoder.PaletteEntry("warning", "#FFA500"),
+            new HeatmapGridEncoder.PaletteEntry("moderate", "#FFFF00"),
+            new HeatmapGridEncoder.PaletteEntry("low", "#90EE90"));
+
+    @Test
+    void decodificaCelulasComPrecisaoDePontoFixo() throws IOException {
+        List<HeatmapGridEncoder.Cell> cells = List.of(
+                new HeatmapGridEncoder.Cell(-26.90123456, -49.08765432, 12, 6.54, 1),
+                new HeatmapGridEncoder.Cell(-26.93000000, -49.06000000, 3, 2.0, 3));
+
+        byte[] bytes = HeatmapGridEncoder.encode(1_700_000_000_000L, CELL_SIZE, PALETTE, new int[]{15, 0, 1, 0, 1}, cells);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertThat(new String(in.readNBytes(4))).isEqualTo("MBHG");
+        assertThat(in.readUnsignedByte()).isEqualTo(1);
+        long generatedAt = Integer.toUnsignedLong(in.readInt()) * 0x1_0000_0000L + Integer.toUnsignedLong(in.readInt());
+        assertThat(generatedAt).isEqualTo(1_700_000_000_000L);
+        double factor = Math.pow(10, in.readUnsignedByte());
+        assertThat(in.readInt() / 1e7).isCloseTo(CELL_SIZE, within(1e-7));
+
+        int paletteSize = in.readUnsignedByte();
+        List<String> severities = new ArrayList<>();
+        for (int i = 0; i < paletteSize; i++) {
+            severities.add(new String(in.readNBytes(in.readUnsignedByte())));
+            in.readNBytes(3);
+        }
+        assertThat(severities).containsExactly("critical", "warning", "moderate", "low");
+
+        for (int i = 0; i < 5; i++) {
+            readVarint(in);
+        }
+        assertThat(readVarint(in)).isEqualTo(2);
+
+        // Ordenadas por latitude: a célula mais ao sul vem primeiro
+        int lat = unzigzag(readVarint(in));
+        int lng = unzigzag(readVarint(in));
+        assertThat(lat / factor).isCloseTo(-26.93, within(1e-5));
+        assertThat(lng / factor).isCloseTo(-49.06, within(1e-5));
+        assertThat(readVarint(in)).isEqualTo(3);
+        assertThat(severities.get(in.readUnsignedByte())).isEqualTo("low");
+        assertThat(in.readUnsignedByte()).isEqualTo(20);
+
+        lat += unzigzag(readVarint(in));
+        lng += unzigzag(readVarint(in));
+        assertThat(lat / factor).isCloseTo(-26.90123456, within(1e-5));
+        assertThat(lng / factor).isCloseTo(-49.08765432, within(1e-5));
+        assertThat(readVarint(in)).isEqualTo(12);
+        assertThat(severities.get(in.readUnsignedByte())).isEqualTo("warning");
+        assertThat(in.readUnsignedByte()).isEqualTo(65);
+        assertThat(in.available()).isZero();
+    }
+
+    @Test
+    void payloadBinarioEhMenorQueJsonEquivalente() throws IOException {
+        List<HeatmapGridEncoder.Cell> cells = new ArrayList<>();
+        List<HeatmapZoneResponse> zones = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                double lat = -26.96 + i * CELL_SIZE;
+                double lng = -49.12 + j * CELL_SIZE;
+                int count = 1 + (i * j) % 25;
+                cells.add(new HeatmapGridEncoder.Cell(lat, lng, count, 5.5, count % 4));
+                zones.add(zone(lat, lng, count, PALETTE.get(count % 4)));
+            }
+        }
+
+        byte[] binario = HeatmapGridEncoder.encode(System.currentTimeMillis(), CELL_SIZE, PALETTE, new int[5], cells);
+        byte[] json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(zones);
+
+        assertThat(binario.length * 20).isLessThan(json.length);
+    }
+
+    private HeatmapZoneResponse zone(double lat, double lng, int count, HeatmapGridEncoder.PaletteEntry palette) {
+        double half = CELL_SIZE / 2;
+        return HeatmapZoneResponse.builder()
+                .id(String.format("zone_%d_%d", (int) (lat * 10000), (int) (lng * 10000)))
+                .name(String.format("Zona %.4f,%.4f", lat, lng))
+                .type("all")
+                .severity(palette.severity())
+                .color(palette.color())
+                .problemCount(count)
+                .description(String.format("Área com %d problema(s). Gravidade média: %.1f", count, 5.5))
+                .responsavel("Sistema")
+                .lastUpdate(LocalDateTime.now())
+                .recentProblems(Collections.emptyList())
+                .coordinates(List.of(
+                        coordinate(lat - half, lng - half),
+                        coordinate(lat - half, lng + half),
+                        coordinate(lat + half, lng + half),
+                        coordinate(lat + half, lng - half),
+                        coordinate(lat - half, lng - half)))
+                .build();
+    }
+
+    private HeatmapZoneResponse.Coordinate coordinate(double lat, double lng) {
+        return HeatmapZoneResponse.Coordinate.builder().lat(lat).lng(lng).build();
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int result = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,65 @@
+package com.moredevs.mapblu.core.service.heatmap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Slf4j
+class KernelDensityRasterTest {
+
+    @Test
+    void blurPreservaMassaEEhSimetrico() {
+        KernelDensityRaster raster = new KernelDensityRaster(101, 101, 0, 0, 101, 101);
+        raster.add(50.5, 50.5, 10.0);
+
+        raster.blur(4.0);
+
+        assertThat(raster.sum()).isCloseTo(10.0, within(1e-3));
+        assertThat(raster.get(50, 50)).isGreaterThan(raster.get(55, 50));
+        assertThat(raster.get(45, 50)).isCloseTo(raster.get(55, 50), within(1e-6f));
+        assertThat(raster.get(50, 45)).isCloseTo(raster.get(50, 55), within(1e-6f));
+    }
+
+    @Test
+    void raiosAproximamDesvioPadrao() {
+        int[] radii = KernelDensityRaster.boxRadiiForGauss(5.0);
+
+        // Variância de um box de largura w é (w² - 1) / 12; as passadas somam variâncias
+        double variance = 0;
+        for (int radius : radii) {
+            int boxWidth = 2 * radius + 1;
+            variance += (boxWidth * boxWidth - 1) / 12.0;
+        }
+        assertThat(Math.sqrt(variance)).isCloseTo(5.0, within(0.5));
+    }
+
+    @Test
+    void rasterizaUmMilhaoDePontos() {
+        int margin = 24;
+        int size = 256 + 2 * margin;
+        KernelDensityRaster raster = new KernelDensityRaster(size, size, 0, 0, size, size);
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        double total = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            // Pontos concentrados no centro para que a massa não escape pelas bordas
+            double px = size / 2.0 + random.nextGaussian() * 30;
+            double py = size / 2.0 + random.nextGaussian() * 30;
+            double weight = 1 + random.nextInt(10);
+            raster.add(px, py, weight);
+            total += weight;
+        }
+        raster.blur(8.0);
+        float[] tile = raster.crop(margin);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("KDE de 1M pontos em {}x{}: {} ms", size, size, elapsedMs);
+        assertThat(tile).hasSize(256 * 256);
+        assertThat(raster.sum()).isCloseTo(total, within(total * 1e-3));
+    }
+}
@@ -0,0 +1,30 @@
+package com.moredevs.mapblu.shared.util;
+
+import com.moredevs.mapblu.core.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorUtilTest {
+
+    @Test
+    void codificaEDecodificaPreservandoValores() {
+        String id = UUID.randomUUID().toString();
+        String distancia = String.valueOf(1234.5678901234);
+
+        String cursor = CursorUtil.encode(distancia, id);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(CursorUtil.decode(cursor, 2)).containsExactly(distancia, id);
+    }
+
+    @Test
+    void rejeitaCursorMalformado() {
+        assertThatThrownBy(() -> CursorUtil.decode("%%%", 2)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> CursorUtil.decode(CursorUtil.encode("1.0"), 2))
+                .isInstanceOf(ValidationException.class);
+    }
+}
@@ -12,6 +12,32 @@ CREATE EXTENSION IF NOT EXISTS postgis_topology;
 -- Garantir que pgcrypto está habilitado (necessário para função digest)
 CREATE EXTENSION IF NOT EXISTS pgcrypto;
 
+-- Busca de bairros sem distinção de acentos e caixa (índice trigram)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- Normalização de nomes de bairro equivalente a GeoUtil.normalizeBairro:
+-- sem acentos, minúsculo, sem espaços repetidos e sem o prefixo "bairro".
+-- Declarada IMMUTABLE (com dicionário explícito) para poder ser usada em coluna gerada.
+CREATE OR REPLACE FUNCTION normalizar_bairro(nome TEXT) RETURNS TEXT
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT regexp_replace(
+        btrim(regexp_replace(lower(public.unaccent('public.unaccent'::regdictionary, nome)), '\s+', ' ', 'g')),
+        '^bairro ', '')
+$$;
+
+-- Configuração de busca textual em português sem distinção de acentos
+-- (CREATE TEXT SEARCH CONFIGURATION não aceita IF NOT EXISTS)
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'portugues_unaccent') THEN
+        CREATE TEXT SEARCH CONFIGURATION portugues_unaccent (COPY = portuguese);
+        ALTER TEXT SEARCH CONFIGURATION portugues_unaccent
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+    END IF;
+END
+$$;
+
 -- ============================================================================
 -- CRIAÇÃO DAS TABELAS (se não existirem)
 -- ============================================================================
@@ -25,12 +51,18 @@ CREATE TABLE IF NOT EXISTS users (
     nome_completo VARCHAR(100),
     ativo BOOLEAN NOT NULL DEFAULT true,
     role VARCHAR(50) NOT NULL DEFAULT 'ROLE_USER',
+    token_versao INTEGER NOT NULL DEFAULT 0,
     data_criacao TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     data_atualizacao TIMESTAMP
 );
 
+-- Versão dos tokens do usuário: incrementada na troca de senha, na troca de papel e no "sair de todos os dispositivos"
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_versao INTEGER NOT NULL DEFAULT 0;
+
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
+-- Recarga incremental do estado de tokens (usuários alterados desde a última recarga)
+CREATE INDEX IF NOT EXISTS idx_users_data_atualizacao ON users(data_atualizacao);
 
 -- Tabela de ocorrências
 CREATE TABLE IF NOT EXISTS ocorrencias (
@@ -49,6 +81,28 @@ CREATE TABLE IF NOT EXISTS ocorrencias (
     metadata JSONB DEFAULT '{}'::jsonb
 );
 
+-- Tabela de limites de bairros (carregada do GeoJSON oficial pela aplicação)
+CREATE TABLE IF NOT EXISTS bairros (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    nome VARCHAR(100) NOT NULL UNIQUE,
+    geometria geometry(MultiPolygon, 4326) NOT NULL,
+    data_criacao TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Bairro canônico atribuído por ponto-em-polígono
+ALTER TABLE ocorrencias ADD COLUMN IF NOT EXISTS bairro_id UUID REFERENCES bairros(id);
+
+-- Bairro normalizado, mantido pelo banco a cada insert/update (filtro por trigram)
+ALTER TABLE ocorrencias ADD COLUMN IF NOT EXISTS bairro_normalizado TEXT
+    GENERATED ALWAYS AS (normalizar_bairro(bairro)) STORED;
+
+-- Documento da busca textual (descrição com peso A, endereço com peso B), mantido pelo banco a cada insert/update
+ALTER TABLE ocorrencias ADD COLUMN IF NOT EXISTS busca tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('portugues_unaccent', coalesce(descricao, '')), 'A') ||
+        setweight(to_tsvector('portugues_unaccent', coalesce(endereco, '')), 'B')
+    ) STORED;
+
 -- Tabela de relatórios IA
 CREATE TABLE IF NOT EXISTS relatorios_ia (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
@@ -108,13 +162,26 @@ CREATE TABLE IF NOT EXISTS insights_cache (
 -- ÍNDICES PARA PERFORMANCE
 -- ============================================================================
 
+-- Índices para bairros
+CREATE INDEX IF NOT EXISTS idx_bairros_geometria ON bairros USING GIST (geometria);
+
 -- Índices para ocorrências
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_coordenadas ON ocorrencias USING GIST (coordenadas);
+-- Índice de expressão em geography para busca por proximidade (ST_DWithin e KNN com <->)
+CREATE INDEX IF NOT EXISTS idx_ocorrencias_coordenadas_geog ON ocorrencias USING GIST ((coordenadas::geography));
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_bairro ON ocorrencias (bairro);
+CREATE INDEX IF NOT EXISTS idx_ocorrencias_bairro_id ON ocorrencias (bairro_id);
+-- Índice trigram: atende LIKE '%termo%' sobre o bairro normalizado
+CREATE INDEX IF NOT EXISTS idx_ocorrencias_bairro_trgm ON ocorrencias USING GIN (bairro_normalizado gin_trgm_ops);
+-- Índice da busca textual em descrição e endereço
+CREATE INDEX IF NOT EXISTS idx_ocorrencias_busca ON ocorrencias USING GIN (busca);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_tipo ON ocorrencias (tipo_problema);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_gravidade ON ocorrencias (gravidade);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_status ON ocorrencias (status);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_data_criacao ON ocorrencias (data_criacao DESC);
+-- Índices compostos para paginação por keyset (ORDER BY ..., id DESC)
+CREATE INDEX IF NOT EXISTS idx_ocorrencias_data_criacao_id ON ocorrencias (data_criacao DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_ocorrencias_gravidade_data_id ON ocorrencias (gravidade DESC, data_criacao DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_status_gravidade ON ocorrencias (status, gravidade DESC);
 CREATE INDEX IF NOT EXISTS idx_ocorrencias_metadata ON ocorrencias USING GIN (metadata);
 